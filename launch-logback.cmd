@@ -1 +1 @@
-java -Dhostname=192.168.199.1 -cp libs\OctaneSDKJava-1.24.1.0-jar-with-dependencies.jar;.\target\octane-logging-1.0.0-SNAPSHOT.jar;.\libs\logback-classic-1.1.7.jar com.example.sdksamples.MarginRead
+java -Dhostname=192.168.199.1 -Dlogback.configurationFile=logback.xml -cp libs\OctaneSDKJava-1.24.1.0-jar-with-dependencies.jar;.\target\octane-logging-1.0.0-SNAPSHOT.jar;.\libs\logback-classic-1.1.7.jar com.example.sdksamples.MarginRead
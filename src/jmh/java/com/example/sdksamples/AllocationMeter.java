@@ -0,0 +1,27 @@
+package com.example.sdksamples;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures the bytes allocated by the current thread, using the HotSpot
+ * extension of ThreadMXBean.
+ */
+public class AllocationMeter {
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private long start;
+
+    public void start() {
+        start = allocatedBytes();
+    }
+
+    public long stop() {
+        return allocatedBytes() - start;
+    }
+
+    private long allocatedBytes() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.sdksamples;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Points System.out at a stream that drops everything while a benchmark
+ * runs, so the listeners' printing is measured without the console.
+ */
+class DiscardedOutput {
+
+    private static final PrintStream DISCARD = new PrintStream(new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    });
+
+    private static PrintStream original;
+
+    static synchronized void install() {
+        if (original == null) {
+            original = System.out;
+            System.setOut(DISCARD);
+        }
+    }
+
+    static synchronized void restore() {
+        if (original != null) {
+            System.setOut(original);
+            original = null;
+        }
+    }
+}
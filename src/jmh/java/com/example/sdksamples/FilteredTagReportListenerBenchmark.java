@@ -0,0 +1,70 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.ImpinjReader;
+import com.impinj.octane.TagReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FilteredTagReportListenerImplementation deduplicating reports of 20 tags
+ * drawn from a population. Once the population has been seen every tag is
+ * a repeat, so this measures the steady state cost of dropping duplicates,
+ * with and without the SeenBeforeFilter in front of the cache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FilteredTagReportListenerBenchmark {
+
+    static final int TAGS_PER_REPORT = 20;
+
+    @Param({"1000", "100000"})
+    int population;
+
+    @Param({"false", "true"})
+    boolean frontFilter;
+
+    ImpinjReader reader;
+    TagReport[] reports;
+    FilteredTagReportListenerImplementation listener;
+    int next;
+
+    @Setup
+    public void setUp() {
+        DiscardedOutput.install();
+        reader = SyntheticReports.reader("Reader_bench", "192.0.2.1");
+        long now = System.currentTimeMillis() * 1000;
+        reports = new TagReport[population / TAGS_PER_REPORT];
+        for (int i = 0; i < reports.length; i++) {
+            reports[i] = SyntheticReports.tagReport((long) i * TAGS_PER_REPORT,
+                    TAGS_PER_REPORT, population, now);
+        }
+
+        SeenBeforeFilter filter = frontFilter
+                ? new SeenBeforeFilter(population, 0.001, 4, 15 * 60 * 1000) : null;
+        listener = new FilteredTagReportListenerImplementation(population * 2,
+                FilteredTagReportListenerImplementation.DEFAULT_TTL_MILLIS, filter);
+    }
+
+    @TearDown
+    public void tearDown() {
+        DiscardedOutput.restore();
+    }
+
+    @Benchmark
+    public void onTagReported() {
+        listener.onTagReported(reader, reports[next]);
+        if (++next == reports.length) {
+            next = 0;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.sdksamples;
+
+/**
+ * Fills a SeenBeforeFilter with a population of tags and measures the
+ * observed false positive rate on tags that were never added, the time
+ * per lookup and the fixed memory used. Run with -Dtags=N and -Dfpp=R to
+ * change the population size and target rate.
+ */
+public class SeenBeforeFilterBenchmark {
+
+    public static void main(String[] args) {
+        int tags = Integer.getInteger("tags", 10000000);
+        double fpp = Double.parseDouble(System.getProperty("fpp", "0.001"));
+
+        SeenBeforeFilter filter = new SeenBeforeFilter(tags, fpp, 4, 60000);
+        System.out.println("memory: " + filter.getMemoryBytes() / (1024 * 1024)
+                + " MB for " + filter.getGenerations() + " generations, "
+                + filter.getHashCount() + " hashes");
+
+        TagRead read = new TagRead();
+        TagId id = new TagId();
+        long now = 0;
+
+        long begin = System.nanoTime();
+        for (int i = 0; i < tags; i++) {
+            SyntheticTagReads.fill(read, null, i, 0);
+            filter.put(id.set(read.epc, read.epcWords), now);
+        }
+        System.out.println("put: " + (System.nanoTime() - begin) / tags + " ns/tag");
+
+        int missed = 0;
+        begin = System.nanoTime();
+        for (int i = 0; i < tags; i++) {
+            SyntheticTagReads.fill(read, null, i, 0);
+            if (!filter.mightContain(id.set(read.epc, read.epcWords), now)) {
+                missed++;
+            }
+        }
+        if (missed > 0) {
+            throw new IllegalStateException(missed + " false negatives");
+        }
+        System.out.println("seen lookup: " + (System.nanoTime() - begin) / tags
+                + " ns/tag");
+
+        int falsePositives = 0;
+        begin = System.nanoTime();
+        for (int i = 0; i < tags; i++) {
+            SyntheticTagReads.fill(read, null, tags + (long) i, 0);
+            if (filter.mightContain(id.set(read.epc, read.epcWords), now)) {
+                falsePositives++;
+            }
+        }
+        System.out.println("new lookup: " + (System.nanoTime() - begin) / tags
+                + " ns/tag, false positive rate "
+                + (double) falsePositives / tags + " (target " + fpp + ")");
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.ImpinjReader;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures SharedTagDeduplicator throughput with 1, 8 and 32 threads, each
+ * acting as a reader, against a single lock around one cache. Run with
+ * -Dtags=N to change the shared population and -DmillisPerRun=M to change
+ * how long each configuration runs.
+ */
+public class SharedTagDeduplicatorBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int tags = Integer.getInteger("tags", 100000);
+        long millis = Long.getLong("millisPerRun", 2000);
+
+        TagId[] ids = new TagId[tags];
+        TagRead read = new TagRead();
+        for (int i = 0; i < tags; i++) {
+            SyntheticTagReads.fill(read, null, i, 0);
+            ids[i] = new TagId().set(read.epc, read.epcWords);
+        }
+
+        int[] threadCounts = {1, 8, 32};
+        for (SharedTagDeduplicator.Scope scope : SharedTagDeduplicator.Scope.values()) {
+            for (int threads : threadCounts) {
+                run("1 stripe ", scope, 1, threads, ids, millis);
+                run("64 stripes", scope, 64, threads, ids, millis);
+            }
+        }
+    }
+
+    static void run(String name, SharedTagDeduplicator.Scope scope, int stripes,
+                    int threads, final TagId[] ids, final long millis)
+            throws InterruptedException {
+        final SharedTagDeduplicator dedup = new SharedTagDeduplicator(
+                ids.length, 1000, stripes, scope);
+        final AtomicLong ops = new AtomicLong();
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+
+        for (int t = 0; t < threads; t++) {
+            final ImpinjReader reader = new ImpinjReader();
+            final int seed = t;
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException ex) {
+                        return;
+                    }
+                    long end = System.currentTimeMillis() + millis;
+                    long count = 0;
+                    int i = seed * 7919;
+                    while (true) {
+                        for (int batch = 0; batch < 1000; batch++) {
+                            i = (i + 104729) % ids.length;
+                            dedup.firstSighting(reader, ids[i],
+                                    System.currentTimeMillis());
+                        }
+                        count += 1000;
+                        if (System.currentTimeMillis() >= end) {
+                            break;
+                        }
+                    }
+                    ops.addAndGet(count);
+                }
+            });
+            workers[t].start();
+        }
+
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        System.out.println(scope + " " + name + " " + threads + " threads: "
+                + (ops.get() * 1000 / millis) + " lookups/sec");
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.TagReportListener;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+
+/**
+ * Finds the reads/sec ceiling of each tag pipeline stage by attaching it to
+ * a SimulatedReader that generates tag reports as fast as the stage takes
+ * them. Console output is discarded while a stage runs.
+ * <p>
+ * Run with -Dstages=print,filter,dispatcher,journal,export,rollup to pick the stages,
+ * -Dseconds=N for how long each one runs, and -Dpopulation=N and
+ * -DtagsPerReport=N to shape the traffic. Pass -DlocationRate, -DdirectionRate
+ * and -DtagOpRate to add other report types at a fixed rate.
+ */
+public class SimulatedLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        String[] stages = System.getProperty("stages",
+                "print,filter,dispatcher,journal").split(",");
+        int seconds = Integer.getInteger("seconds", 10);
+        long population = Long.getLong("population", 100000);
+        int tagsPerReport = Integer.getInteger("tagsPerReport", 20);
+
+        PrintStream console = System.out;
+        for (String stage : stages) {
+            Stage s = stage(stage.trim());
+
+            SimulatedReader reader = new SimulatedReader("Reader_sim");
+            reader.setPopulation(population);
+            reader.setTagsPerReport(tagsPerReport);
+            reader.setTagReadsPerSecond(0);
+            reader.setLocationReportsPerSecond(Integer.getInteger("locationRate", 0));
+            reader.setDirectionReportsPerSecond(Integer.getInteger("directionRate", 0));
+            reader.setTagOpReportsPerSecond(Integer.getInteger("tagOpRate", 0));
+            reader.setTagReportListener(s.listener);
+            reader.setLocationReportListener(new LocationReportListenerImplementation());
+            reader.setDirectionReportListener(
+                    new XArrayDirection.DirectionReportListenerImplementation());
+            reader.setTagOpCompleteListener(new TagOpCompleteListenerImplementation());
+            reader.setKeepaliveListener(new KeepAliveListenerImplementation());
+            reader.connect("simulator");
+
+            System.setOut(new PrintStream(TagReportFormatterBenchmark.DISCARD));
+            long begin = System.nanoTime();
+            try {
+                reader.start();
+                Thread.sleep(seconds * 1000L);
+                reader.stop();
+                s.close();
+            } finally {
+                System.setOut(console);
+            }
+            long nanos = System.nanoTime() - begin;
+            reader.disconnect();
+
+            System.out.println(stage + ": " + (long) (s.processed(reader) / (nanos / 1e9))
+                    + " reads/s, " + reader.getDeliveredReads() + " delivered");
+        }
+    }
+
+    // a pipeline stage under test, processed() counts the reads that got
+    // all the way through it
+    static class Stage {
+        final TagReportListener listener;
+
+        Stage(TagReportListener listener) {
+            this.listener = listener;
+        }
+
+        // a stage that works on the delivery thread is done with a read
+        // once it has been delivered
+        long processed(SimulatedReader reader) {
+            return reader.getDeliveredReads();
+        }
+
+        void close() throws Exception {
+        }
+    }
+
+    static Stage stage(String name) throws IOException {
+        if (name.equals("print")) {
+            return new Stage(new TagReportListenerImplementation());
+        }
+        if (name.equals("filter")) {
+            return new Stage(new FilteredTagReportListenerImplementation());
+        }
+        if (name.equals("dispatcher")) {
+            final CountingConsumer counter = new CountingConsumer();
+            final TagReportDispatcher dispatcher = new TagReportDispatcher(65536, 1,
+                    TagReportDispatcher.OverflowPolicy.BLOCK, counter);
+            dispatcher.start();
+            return new Stage(dispatcher) {
+                @Override
+                long processed(SimulatedReader reader) {
+                    return counter.reads;
+                }
+
+                @Override
+                void close() throws InterruptedException {
+                    dispatcher.stop();
+                }
+            };
+        }
+        if (name.equals("export")) {
+            File file = new File(System.getProperty("java.io.tmpdir"), "tag-export-load.csv");
+            final TagReadExporter exporter = new TagReadExporter(file,
+                    TagReadExporter.Format.CSV, TagReadColumn.parse(null));
+            final TagReportDispatcher dispatcher = new TagReportDispatcher(65536, 1,
+                    TagReportDispatcher.OverflowPolicy.BLOCK, exporter);
+            dispatcher.start();
+            return new Stage(dispatcher) {
+                @Override
+                long processed(SimulatedReader reader) {
+                    return exporter.getRecords();
+                }
+
+                @Override
+                void close() throws Exception {
+                    dispatcher.stop();
+                    exporter.close();
+                }
+            };
+        }
+        if (name.equals("rollup")) {
+            File dir = new File(System.getProperty("java.io.tmpdir"), "tag-rollup-load");
+            final TagReadRollup rollup = new TagReadRollup(dir, 60);
+            rollup.start();
+            final TagReportDispatcher dispatcher = new TagReportDispatcher(65536, 1,
+                    TagReportDispatcher.OverflowPolicy.BLOCK, rollup);
+            dispatcher.start();
+            return new Stage(dispatcher) {
+                @Override
+                long processed(SimulatedReader reader) {
+                    return rollup.getReads();
+                }
+
+                @Override
+                void close() throws Exception {
+                    dispatcher.stop();
+                    rollup.close();
+                }
+            };
+        }
+        if (name.equals("journal")) {
+            File dir = new File(System.getProperty("java.io.tmpdir"), "tag-journal-load");
+            TagReadJournalBenchmark.deleteJournal(dir);
+            final TagReadJournal journal = new TagReadJournal(dir, 64 * 1024 * 1024,
+                    10000, 1000);
+            final TagReadBatcher batcher = new TagReadBatcher(1000, 250, journal);
+            return new Stage(batcher) {
+                @Override
+                long processed(SimulatedReader reader) {
+                    return journal.getRecords();
+                }
+
+                @Override
+                void close() throws Exception {
+                    batcher.close();
+                    journal.close();
+                }
+            };
+        }
+        throw new IllegalArgumentException("Unknown stage " + name);
+    }
+
+    static class CountingConsumer implements TagReadConsumer {
+        volatile long reads;
+
+        @Override
+        public void onTagRead(TagRead read, boolean endOfBatch) {
+            reads++;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.sdksamples;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Measures the heap retained per tag by TagDedupCache compared with the
+ * HashMap of hex String key to retained tag it replaced, and the time per
+ * lookup.
+ * A TagRead stands in for the retained Tag. Run with -Dtags=N to change
+ * the population size.
+ */
+public class TagDedupCacheBenchmark {
+
+    public static void main(String[] args) {
+        int tags = Integer.getInteger("tags", 1000000);
+
+        TagId[] keys = new TagId[tags];
+        TagRead read = new TagRead();
+        for (int i = 0; i < tags; i++) {
+            SyntheticTagReads.fill(read, null, i, 0);
+            keys[i] = new TagId().set(read.epc, read.epcWords);
+        }
+
+        long before = usedHeap();
+        TagDedupCache cache = new TagDedupCache(tags, 60000);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < tags; i++) {
+            cache.firstSighting(keys[i], now);
+        }
+        long cacheBytes = usedHeap() - before;
+
+        before = usedHeap();
+        Map<String, TagRead> map = new HashMap<String, TagRead>();
+        for (int i = 0; i < tags; i++) {
+            map.put(keys[i].toString(), new TagRead());
+        }
+        long mapBytes = usedHeap() - before;
+
+        System.out.println("TagDedupCache: " + cacheBytes / tags
+                + " bytes/tag measured, " + cache.getBytesPerEntry()
+                + " computed");
+        System.out.println("HashMap<String, Tag>: " + mapBytes / tags
+                + " bytes/tag");
+
+        for (int pass = 0; pass < 3; pass++) {
+            long begin = System.nanoTime();
+            int reported = 0;
+            for (int i = 0; i < tags; i++) {
+                if (cache.firstSighting(keys[(int) ((i * 7919L) % tags)], now + pass)) {
+                    reported++;
+                }
+            }
+            // every tag is in the cache and well within its TTL
+            if (reported > 0) {
+                throw new IllegalStateException("Reported " + reported
+                        + " tags that were already seen");
+            }
+            System.out.println("lookup: " + (System.nanoTime() - begin) / tags + " ns/tag");
+        }
+
+        // keep both alive until measured
+        if (map.size() + cache.size() == 0) {
+            System.out.println();
+        }
+    }
+
+    static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
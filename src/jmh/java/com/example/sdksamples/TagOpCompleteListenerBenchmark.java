@@ -0,0 +1,47 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.ImpinjReader;
+import com.impinj.octane.TagOpReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TagOpCompleteListenerImplementation printing a report with one read and
+ * one write result.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TagOpCompleteListenerBenchmark {
+
+    ImpinjReader reader;
+    TagOpReport report;
+    TagOpCompleteListenerImplementation listener;
+
+    @Setup
+    public void setUp() {
+        DiscardedOutput.install();
+        reader = SyntheticReports.reader("Reader_bench", "192.0.2.1");
+        report = SyntheticReports.tagOpReport(1, (short) 1, 1,
+                System.currentTimeMillis() * 1000);
+        listener = new TagOpCompleteListenerImplementation();
+    }
+
+    @TearDown
+    public void tearDown() {
+        DiscardedOutput.restore();
+    }
+
+    @Benchmark
+    public void onTagOpComplete() {
+        listener.onTagOpComplete(reader, report);
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.ImpinjReader;
+import com.impinj.octane.TagReport;
+import org.apache.log4j.Appender;
+import org.apache.log4j.Logger;
+import org.apache.log4j.PatternLayout;
+import org.apache.log4j.RollingFileAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LoggingTagReportListener logging every tag of one report of tagsPerReport
+ * tags per operation, as ReadTags does, to log4j's file appender with the
+ * layout from log4j.properties or to TagReadLog4jAppender. Each read is
+ * copied from the report's Tag and goes the way the listener sends it under
+ * the SDK's SLF4J binding, which is log4j's.
+ * <p>
+ * Reports are sent at a fixed rate of eventsPerSecond logged tags, 50k by
+ * default, and the score is the time the listener holds the calling
+ * thread per report at that rate; the wait for the next report's turn
+ * isn't measured. TagReadLog4jAppender drops events when its queue is
+ * full, which would make it look faster than it is, so an iteration in
+ * which it dropped any fails the trial.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TagReadAppenderBenchmark {
+
+    private static final String LAYOUT = "%d [%-6p] %c - %m%n";
+
+    @Param({"FileAppender", "TagReadLog4jAppender"})
+    String appender;
+
+    @Param({"1", "20"})
+    int tagsPerReport;
+
+    @Param({"50000"})
+    int eventsPerSecond;
+
+    ImpinjReader reader;
+    TagReport report;
+    Logger logger;
+    Appender target;
+    LoggingTagReportListener listener;
+    long intervalNanos;
+    long nextNanos;
+    long droppedBefore;
+
+    @Setup
+    public void setUp() throws IOException {
+        if (!LoggerFactory.getILoggerFactory().getClass().getName()
+                .equals("org.slf4j.impl.Log4jLoggerFactory")) {
+            throw new IllegalStateException("Run with SLF4J's log4j binding on the class path");
+        }
+        File dir = new File(System.getProperty("java.io.tmpdir"), "tag-appender-bench");
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Could not create " + dir);
+        }
+
+        if (appender.equals("FileAppender")) {
+            // rolled at the tag appender's size so long runs don't fill the disk
+            File file = new File(dir, "file-appender.out");
+            file.delete();
+            RollingFileAppender plain = new RollingFileAppender(
+                    new PatternLayout(LAYOUT), file.getPath(), false);
+            plain.setMaxFileSize("100MB");
+            plain.setMaxBackupIndex(1);
+            target = plain;
+        } else {
+            File file = new File(dir, "tag-appender.out");
+            file.delete();
+            TagReadLog4jAppender queued = new TagReadLog4jAppender();
+            queued.setFile(file.getPath());
+            queued.setMaxFileSize("100MB");
+            queued.setMaxBackupIndex(1);
+            queued.activateOptions();
+            target = queued;
+        }
+
+        // set up as log4j.properties does, before the listener looks at it
+        logger = Logger.getLogger(LoggingTagReportListener.CATEGORY);
+        logger.removeAllAppenders();
+        logger.setAdditivity(false);
+        logger.setLevel(org.apache.log4j.Level.DEBUG);
+        logger.addAppender(target);
+
+        reader = SyntheticReports.reader("Reader_bench", "192.0.2.1");
+        report = SyntheticReports.tagReport(0, tagsPerReport, tagsPerReport,
+                System.currentTimeMillis() * 1000);
+        listener = new LoggingTagReportListener(LoggingTagReportListener.CATEGORY,
+                TagLogSampler.parse("all"), null);
+        intervalNanos = 1000000000L * tagsPerReport / eventsPerSecond;
+    }
+
+    // the schedule starts over after the pause between iterations rather
+    // than catching up in a burst
+    @Setup(Level.Iteration)
+    public void startSchedule() {
+        nextNanos = System.nanoTime();
+    }
+
+    // waits for the report's turn, outside the measured time
+    @Setup(Level.Invocation)
+    public void pace() {
+        while (System.nanoTime() < nextNanos) {
+            // spin, parking can't keep time at these intervals
+        }
+        nextNanos += intervalNanos;
+    }
+
+    @TearDown(Level.Iteration)
+    public void checkDropped() {
+        if (target instanceof TagReadLog4jAppender) {
+            long dropped = ((TagReadLog4jAppender) target).getWriter().getDropped();
+            if (dropped > droppedBefore) {
+                long iteration = dropped - droppedBefore;
+                droppedBefore = dropped;
+                throw new IllegalStateException("TagReadLog4jAppender dropped "
+                        + iteration + " events at " + eventsPerSecond + " events/s");
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        listener.close();
+        logger.removeAppender(target);
+        target.close();
+    }
+
+    @Benchmark
+    public void onTagReported() {
+        listener.onTagReported(reader, report);
+    }
+}
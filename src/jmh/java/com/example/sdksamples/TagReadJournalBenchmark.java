@@ -0,0 +1,88 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.ImpinjReader;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Measures the append throughput of TagReadJournal under a few group
+ * commit policies, then reads the journal back, failing when the record
+ * count is off.
+ * Run with -Dtags=N, -Ddir=path and -DsegmentMb=M to change the number of
+ * reads, where the journal is written and the segment size.
+ */
+public class TagReadJournalBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int tags = Integer.getInteger("tags", 5000000);
+        int segmentBytes = Integer.getInteger("segmentMb", 64) * 1024 * 1024;
+        File base = new File(System.getProperty("dir",
+                System.getProperty("java.io.tmpdir") + "/tag-journal-bench"));
+
+        // records between syncs and milliseconds between syncs
+        int[][] policies = {{1000, 10}, {65536, 100}, {Integer.MAX_VALUE, 1000}};
+
+        ImpinjReader reader = new ImpinjReader();
+        reader.setName("Reader_bench");
+        TagReadBatch batch = new TagReadBatch(1000);
+        TagRead read = new TagRead();
+
+        for (int[] policy : policies) {
+            File dir = new File(base, policy[0] + "-" + policy[1]);
+            deleteJournal(dir);
+            TagReadJournal journal = new TagReadJournal(dir, segmentBytes,
+                    policy[0], policy[1]);
+
+            long now = System.currentTimeMillis() * 1000;
+            long begin = System.nanoTime();
+            for (int i = 0; i < tags; i++) {
+                SyntheticTagReads.fill(read, reader, i, now + i);
+                batch.add(read);
+                if (batch.isFull()) {
+                    journal.onBatch(batch);
+                    batch.clear();
+                }
+            }
+            journal.onBatch(batch);
+            batch.clear();
+            journal.close();
+            long nanos = System.nanoTime() - begin;
+
+            long bytes = journal.getBytes();
+            System.out.println("sync every " + policy[0] + " reads/" + policy[1]
+                    + " ms: " + (long) (tags / (nanos / 1e9)) + " reads/s "
+                    + (long) (bytes / (nanos / 1e9) / (1024 * 1024)) + " MB/s "
+                    + journal.getSyncs() + " syncs "
+                    + (journal.getSegmentIndex() + 1) + " segments");
+
+            final long[] count = new long[1];
+            begin = System.nanoTime();
+            new TagReadJournalReader(dir).readAll(new TagReadJournalReader.Visitor() {
+                @Override
+                public boolean onRecord(TagRead r, int readerId, long segment,
+                                        int position) {
+                    count[0]++;
+                    return true;
+                }
+            });
+            nanos = System.nanoTime() - begin;
+            if (count[0] != tags) {
+                throw new IllegalStateException("Read back " + count[0]
+                        + " reads of the " + tags + " journaled");
+            }
+            System.out.println("  read back " + count[0] + " reads, "
+                    + (long) (count[0] / (nanos / 1e9)) + " reads/s");
+            deleteJournal(dir);
+        }
+    }
+
+    static void deleteJournal(File dir) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+    }
+}
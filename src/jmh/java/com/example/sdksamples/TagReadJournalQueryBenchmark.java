@@ -0,0 +1,145 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.ImpinjReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Writes an indexed journal and compares the latency of EPC and time range
+ * lookups through the indexes against a full scan of the journal. Run with
+ * -Drecords=N, -Dtags=N and -Ddir=path to change the number of records
+ * journaled, the size of the tag population and where the journal goes;
+ * the default 100M records need about 6 GB of disk. With -Dcompact=true the
+ * sealed segments are compressed by {@link TagReadCompactor} before the
+ * queries run.
+ */
+public class TagReadJournalQueryBenchmark {
+
+    // one read every 10 us, so 100M records cover about 17 minutes
+    static final long READ_INTERVAL_US = 10;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        long records = Long.getLong("records", 100000000L);
+        int tags = Integer.getInteger("tags", 1000000);
+        int queries = Integer.getInteger("queries", 20);
+        File dir = new File(System.getProperty("dir",
+                System.getProperty("java.io.tmpdir") + "/tag-journal-query-bench"));
+
+        TagReadJournalBenchmark.deleteJournal(dir);
+        ImpinjReader reader = new ImpinjReader();
+        reader.setName("Reader_bench");
+        TagRead read = new TagRead();
+        long start = System.currentTimeMillis() * 1000;
+
+        TagReadJournal journal = new TagReadJournal(dir, 64 * 1024 * 1024,
+                Integer.MAX_VALUE, 1000, 1024);
+        long begin = System.nanoTime();
+        for (long i = 0; i < records; i++) {
+            SyntheticTagReads.fill(read, reader, i % tags,
+                    start + i * READ_INTERVAL_US);
+            journal.append(read);
+        }
+        journal.close();
+        System.out.println("journaled " + records + " records with indexes in "
+                + (System.nanoTime() - begin) / 1000000 + " ms, "
+                + (journal.getSegmentIndex() + 1) + " segments");
+
+        if (Boolean.getBoolean("compact")) {
+            TagReadCompactor compactor = new TagReadCompactor(
+                    Integer.getInteger(SampleProperties.compactThreads, 1), 0,
+                    TagReadCompactor.DEFAULT_BLOCK_BYTES);
+            compactor.addJournal(dir);
+            begin = System.nanoTime();
+            int compacted = compactor.compactAll();
+            compactor.stop();
+            System.out.println("compressed " + compacted + " segments, "
+                    + compactor.getBytesIn() / 1024 + " KB to "
+                    + compactor.getBytesOut() / 1024 + " KB in "
+                    + (System.nanoTime() - begin) / 1000000 + " ms");
+        }
+
+        TagReadJournalQuery query = new TagReadJournalQuery(dir);
+        TagReadJournalReader scanner = new TagReadJournalReader(dir);
+        Random random = new Random(42);
+        long end = start + records * READ_INTERVAL_US;
+        long window = Math.max(1, (end - start) / 20);
+
+        CountingVisitor indexed = new CountingVisitor();
+        CountingVisitor scanned = new CountingVisitor();
+        long indexedNanos = 0;
+        long scannedNanos = 0;
+        long rangeNanos = 0;
+        long rangeScanNanos = 0;
+
+        for (int q = 0; q < queries; q++) {
+            SyntheticTagReads.fill(read, reader, random.nextInt(tags), 0);
+            TagId epc = new TagId().set(read.epc, read.epcWords);
+            long from = start + (long) (random.nextDouble() * (end - start - window));
+            long to = from + window;
+
+            begin = System.nanoTime();
+            query.findTag(epc, from, to, indexed.reset(null, from, to));
+            indexedNanos += System.nanoTime() - begin;
+
+            begin = System.nanoTime();
+            scanner.readAll(scanned.reset(epc, from, to));
+            scannedNanos += System.nanoTime() - begin;
+            check("EPC", indexed, scanned);
+
+            begin = System.nanoTime();
+            query.findRange(from, to, indexed.reset(null, from, to));
+            rangeNanos += System.nanoTime() - begin;
+
+            begin = System.nanoTime();
+            scanner.readAll(scanned.reset(null, from, to));
+            rangeScanNanos += System.nanoTime() - begin;
+            check("range", indexed, scanned);
+        }
+
+        System.out.println("EPC lookup, indexed: " + indexedNanos / queries / 1000
+                + " us, full scan: " + scannedNanos / queries / 1000 + " us");
+        System.out.println("time range, indexed: " + rangeNanos / queries / 1000
+                + " us, full scan: " + rangeScanNanos / queries / 1000 + " us");
+        TagReadJournalBenchmark.deleteJournal(dir);
+    }
+
+    static void check(String name, CountingVisitor indexed, CountingVisitor scanned) {
+        if (indexed.count != scanned.count) {
+            throw new IllegalStateException(name + " lookup found " + indexed.count
+                    + " reads, the scan found " + scanned.count);
+        }
+    }
+
+    // counts the reads matching an optional EPC and a time range
+    static class CountingVisitor implements TagReadJournalReader.Visitor {
+        final TagId key = new TagId();
+        TagId epc;
+        long from;
+        long to;
+        long count;
+
+        CountingVisitor reset(TagId epc, long from, long to) {
+            this.epc = epc;
+            this.from = from;
+            this.to = to;
+            count = 0;
+            return this;
+        }
+
+        @Override
+        public boolean onRecord(TagRead read, int readerId, long segment,
+                                int position) {
+            long time = TagReadJournalIndex.timeOf(read);
+            if (time < from || time > to) {
+                return true;
+            }
+            if (epc != null && !epc.equals(key.set(read.epc, read.epcWords))) {
+                return true;
+            }
+            count++;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.ImpinjReader;
+import com.impinj.octane.Tag;
+import com.impinj.octane.TagReport;
+import com.impinj.octane.TagReportListener;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * Compares the bytes allocated and the time spent per tag by
+ * TagReportListenerImplementation, which copies each Tag into a TagRead and
+ * formats the report with TagReportFormatter, against the print based
+ * listener it replaced. Both take the same tag reports and print to a
+ * stream set up like System.out that discards what it is given, so the
+ * console isn't measured. Run with -Dtags=N to change the number of tags
+ * printed per pass and -DtagsPerReport=N, 20 by default.
+ * <p>
+ * The formatter's own buffers are reused, what it still allocates per tag
+ * is the SDK's: the boxed EPC words and the BigInteger seen times. The
+ * "copy" line reports that part alone, TagRead.copyFrom for each tag, and
+ * the "key" line what TagId.set costs for the EPC the dedup and location
+ * listeners key on.
+ */
+public class TagReportFormatterBenchmark {
+
+    static final OutputStream DISCARD = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    public static void main(String[] args) {
+        int tags = Integer.getInteger("tags", 1000000);
+        int tagsPerReport = Integer.getInteger("tagsPerReport", 20);
+
+        ImpinjReader reader = SyntheticReports.reader("Reader_bench", "192.0.2.1");
+        TagReport[] reports = new TagReport[50];
+        long now = System.currentTimeMillis() * 1000;
+        for (int i = 0; i < reports.length; i++) {
+            reports[i] = SyntheticReports.tagReport((long) i * tagsPerReport, tagsPerReport,
+                    reports.length * tagsPerReport, now);
+        }
+        int passReports = Math.max(1, tags / tagsPerReport);
+
+        // as the JVM sets up System.out: a small buffer, flushed on println
+        PrintStream console = System.out;
+        PrintStream out = new PrintStream(new BufferedOutputStream(DISCARD, 128), true);
+        AllocationMeter meter = new AllocationMeter();
+        TagReportListener formatter = new TagReportListenerImplementation();
+        TagReportListener print = new PrintingTagReportListener();
+
+        // the first passes warm up the JIT
+        for (int pass = 0; pass < 3; pass++) {
+            long[] formatted = run(formatter, reader, reports, passReports, out, meter);
+            long[] printed = run(print, reader, reports, passReports, out, meter);
+            report(console, "formatter", passReports * tagsPerReport, formatted);
+            report(console, "print", passReports * tagsPerReport, printed);
+            report(console, "copy", passReports * tagsPerReport,
+                    copy(reader, reports, passReports, meter));
+            report(console, "key", passReports * tagsPerReport,
+                    key(reports, passReports, meter));
+        }
+    }
+
+    // TagRead.copyFrom alone, the part of the formatter's work that reads
+    // the SDK objects
+    static long[] copy(ImpinjReader reader, TagReport[] reports, int count,
+                       AllocationMeter meter) {
+        TagRead read = new TagRead();
+        long seen = 0;
+        meter.start();
+        long begin = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            List<Tag> tags = reports[i % reports.length].getTags();
+            for (int j = 0; j < tags.size(); j++) {
+                read.copyFrom(reader, tags.get(j));
+                seen += read.lastSeenUs;
+            }
+        }
+        long nanos = System.nanoTime() - begin;
+        long bytes = meter.stop();
+        // keeps the copies from being optimized away
+        if (seen == 42) {
+            System.out.println(seen);
+        }
+        return new long[]{nanos, bytes};
+    }
+
+    static long[] key(TagReport[] reports, int count, AllocationMeter meter) {
+        TagId key = new TagId();
+        long hash = 0;
+        meter.start();
+        long begin = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            List<Tag> tags = reports[i % reports.length].getTags();
+            for (int j = 0; j < tags.size(); j++) {
+                hash += key.set(tags.get(j).getEpc()).hashCode();
+            }
+        }
+        long nanos = System.nanoTime() - begin;
+        long bytes = meter.stop();
+        if (hash == 42) {
+            System.out.println(hash);
+        }
+        return new long[]{nanos, bytes};
+    }
+
+    // returns the nanoseconds taken and the bytes allocated
+    static long[] run(TagReportListener listener, ImpinjReader reader, TagReport[] reports,
+                      int count, PrintStream out, AllocationMeter meter) {
+        PrintStream console = System.out;
+        System.setOut(out);
+        try {
+            meter.start();
+            long begin = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                listener.onTagReported(reader, reports[i % reports.length]);
+            }
+            long nanos = System.nanoTime() - begin;
+            return new long[]{nanos, meter.stop()};
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    static void report(PrintStream console, String name, int tags, long[] result) {
+        console.println(name + ": " + tags + " tags "
+                + (result[0] / tags) + " ns/tag "
+                + (result[1] / tags) + " bytes allocated/tag");
+    }
+
+    // TagReportListenerImplementation as it was before TagReportFormatter
+    static class PrintingTagReportListener implements TagReportListener {
+
+        @Override
+        public void onTagReported(ImpinjReader reader, TagReport report) {
+            List<Tag> tags = report.getTags();
+
+            for (Tag t : tags) {
+                System.out.print(" EPC: " + t.getEpc().toString());
+
+                if (reader.getName() != null) {
+                    System.out.print(" Reader_name: " + reader.getName());
+                } else {
+                    System.out.print(" Reader_ip: " + reader.getAddress());
+                }
+
+                if (t.isAntennaPortNumberPresent()) {
+                    System.out.print(" antenna: " + t.getAntennaPortNumber());
+                }
+
+                if (t.isFirstSeenTimePresent()) {
+                    System.out.print(" first: " + t.getFirstSeenTime().ToString());
+                }
+
+                if (t.isLastSeenTimePresent()) {
+                    System.out.print(" last: " + t.getLastSeenTime().ToString());
+                }
+
+                if (t.isSeenCountPresent()) {
+                    System.out.print(" count: " + t.getTagSeenCount());
+                }
+
+                if (t.isRfDopplerFrequencyPresent()) {
+                    System.out.print(" doppler: " + t.getRfDopplerFrequency());
+                }
+
+                if (t.isPeakRssiInDbmPresent()) {
+                    System.out.print(" peak_rssi: " + t.getPeakRssiInDbm());
+                }
+
+                if (t.isChannelInMhzPresent()) {
+                    System.out.print(" chan_MHz: " + t.getChannelInMhz());
+                }
+
+                if (t.isFastIdPresent()) {
+                    System.out.print("\n     fast_id: " + t.getTid().toHexString());
+
+                    System.out.print(" model: " +
+                            t.getModelDetails().getModelName());
+
+                    System.out.print(" epcsize: " +
+                            t.getModelDetails().getEpcSizeBits());
+
+                    System.out.print(" usermemsize: " +
+                            t.getModelDetails().getUserMemorySizeBits());
+                }
+
+                System.out.println("");
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.ImpinjReader;
+import com.impinj.octane.TagReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TagReportListenerImplementation formatting and printing one report of
+ * tagsPerReport tags per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TagReportListenerBenchmark {
+
+    @Param({"1", "20"})
+    int tagsPerReport;
+
+    ImpinjReader reader;
+    TagReport report;
+    TagReportListenerImplementation listener;
+
+    @Setup
+    public void setUp() {
+        DiscardedOutput.install();
+        reader = SyntheticReports.reader("Reader_bench", "192.0.2.1");
+        report = SyntheticReports.tagReport(0, tagsPerReport, tagsPerReport,
+                System.currentTimeMillis() * 1000);
+        listener = new TagReportListenerImplementation();
+    }
+
+    @TearDown
+    public void tearDown() {
+        DiscardedOutput.restore();
+    }
+
+    @Benchmark
+    public void onTagReported() {
+        listener.onTagReported(reader, report);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.ImpinjReader;
+import com.impinj.octane.LocationReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The XArrayLocationMulti confidence weighted fusion of location reports
+ * from two xArrays. Each operation feeds one tag's report from the first
+ * xArray and then from the second, which completes the weighted average.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class XArrayLocationFusionBenchmark {
+
+    @Param({"100", "10000"})
+    int population;
+
+    ImpinjReader first;
+    ImpinjReader last;
+    LocationReport[] firstReports;
+    LocationReport[] lastReports;
+    XArrayLocationMulti.LocationReportListenerImplementation listener;
+    int next;
+
+    @Setup
+    public void setUp() {
+        DiscardedOutput.install();
+        XArrayLocationMulti multi = new XArrayLocationMulti(false);
+        listener = multi.new LocationReportListenerImplementation();
+
+        // the fusion runs when the report comes from the last xArray
+        String lastHost = multi.xArrays[multi.xArrays.length - 1].Hostname;
+        first = SyntheticReports.reader("xarray-first", "xarray-first");
+        last = SyntheticReports.reader("xarray-last", lastHost);
+        multi.new DiagnosticsReportListenerImplementation()
+                .onDiagnosticsReported(first, SyntheticReports.endOfCycle(500000));
+        multi.new DiagnosticsReportListenerImplementation()
+                .onDiagnosticsReported(last, SyntheticReports.endOfCycle(500000));
+
+        firstReports = new LocationReport[population];
+        lastReports = new LocationReport[population];
+        for (int i = 0; i < population; i++) {
+            firstReports[i] = SyntheticReports.locationReport(i, i % 400, i % 300, 12);
+            lastReports[i] = SyntheticReports.locationReport(i, i % 400 + 5,
+                    i % 300 + 5, 20);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        DiscardedOutput.restore();
+    }
+
+    @Benchmark
+    public void onLocationReported() {
+        listener.onLocationReported(first, firstReports[next]);
+        listener.onLocationReported(last, lastReports[next]);
+        if (++next == population) {
+            next = 0;
+        }
+    }
+}
@@ -22,7 +22,10 @@ public class AdvancedGPO {
             System.out.println("Connecting to " + hostname);
             reader.connect(hostname);
 
-            FeatureSet features = reader.queryFeatureSet();
+            // get the features and default settings, from the cache when
+            // this reader has been seen before, see -DreaderCacheDir
+            ReaderInfoCache.Entry info = ReaderInfoCache.sharedEntry(reader, hostname);
+            ReaderFeatures features = info.getFeatures();
 
             if (features.getGpoCount() < 4) {
                 System.out.print("Must use a reader with at least 4 GPOs to "
@@ -31,7 +34,7 @@ public class AdvancedGPO {
             }
 
             // Get the default settings
-            Settings settings = reader.queryDefaultSettings();
+            Settings settings = info.getDefaultSettings();
 
             GpoConfigGroup gpos = settings.getGpos();
 
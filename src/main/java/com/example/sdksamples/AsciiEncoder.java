@@ -0,0 +1,127 @@
+package com.example.sdksamples;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Helpers that write text straight into a ByteBuffer as ASCII bytes so the
+ * output code never has to build intermediate Strings or char arrays.
+ */
+public class AsciiEncoder {
+
+    private static final byte[] HEX = {
+            '0', '1', '2', '3', '4', '5', '6', '7',
+            '8', '9', 'A', 'B', 'C', 'D', 'E', 'F'};
+
+    private static final byte[] MIN_LONG = toAscii(Long.toString(Long.MIN_VALUE));
+
+    // doubles are written with at most this many fractional digits
+    private static final int FRACTION_DIGITS = 6;
+    private static final long FRACTION_SCALE = 1000000L;
+
+    public static byte[] toAscii(String s) {
+        byte[] b = new byte[s.length()];
+        for (int i = 0; i < b.length; i++) {
+            char c = s.charAt(i);
+            b[i] = c < 0x80 ? (byte) c : (byte) '?';
+        }
+        return b;
+    }
+
+    public static void putAscii(ByteBuffer buf, CharSequence s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            buf.put(c < 0x80 ? (byte) c : (byte) '?');
+        }
+    }
+
+    public static void putLong(ByteBuffer buf, long value) {
+        if (value == Long.MIN_VALUE) {
+            buf.put(MIN_LONG);
+            return;
+        }
+        if (value < 0) {
+            buf.put((byte) '-');
+            value = -value;
+        }
+        putUnsignedDigits(buf, value, digitCount(value));
+    }
+
+    /**
+     * Writes the value the way Double.toString does for the magnitudes tags
+     * report (RSSI, channel, doppler), rounded to six fractional digits.
+     * Values outside that range fall back to Double.toString.
+     */
+    public static void putDouble(ByteBuffer buf, double value) {
+        double abs = Math.abs(value);
+        if (Double.isNaN(value) || abs >= 1e7 || (abs < 1e-3 && abs != 0)) {
+            putAscii(buf, Double.toString(value));
+            return;
+        }
+        long scaled = Math.round(abs * FRACTION_SCALE);
+        if (value < 0) {
+            buf.put((byte) '-');
+        }
+        long whole = scaled / FRACTION_SCALE;
+        long fraction = scaled % FRACTION_SCALE;
+        putUnsignedDigits(buf, whole, digitCount(whole));
+        buf.put((byte) '.');
+        if (fraction == 0) {
+            buf.put((byte) '0');
+            return;
+        }
+        int digits = FRACTION_DIGITS;
+        while (fraction % 10 == 0) {
+            fraction /= 10;
+            digits--;
+        }
+        putUnsignedDigits(buf, fraction, digits);
+    }
+
+    public static void putHexWord(ByteBuffer buf, short word) {
+        buf.put(HEX[(word >> 12) & 0xf]);
+        buf.put(HEX[(word >> 8) & 0xf]);
+        buf.put(HEX[(word >> 4) & 0xf]);
+        buf.put(HEX[word & 0xf]);
+    }
+
+    // writes the words like TagData.toHexWordString, "E280 1160 ..."
+    public static void putHexWords(ByteBuffer buf, short[] words, int count) {
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                buf.put((byte) ' ');
+            }
+            putHexWord(buf, words[i]);
+        }
+    }
+
+    // writes the words like TagData.toHexString, "E2801160..."
+    public static void putHex(ByteBuffer buf, short[] words, int count) {
+        for (int i = 0; i < count; i++) {
+            putHexWord(buf, words[i]);
+        }
+    }
+
+    static int digitCount(long value) {
+        int n = 1;
+        while (value >= 10) {
+            value /= 10;
+            n++;
+        }
+        return n;
+    }
+
+    // writes exactly 'digits' digits, zero padded on the left
+    private static void putUnsignedDigits(ByteBuffer buf, long value,
+                                          int digits) {
+        if (buf.remaining() < digits) {
+            throw new BufferOverflowException();
+        }
+        int end = buf.position() + digits;
+        for (int i = end - 1; i >= end - digits; i--) {
+            buf.put(i, (byte) ('0' + (value % 10)));
+            value /= 10;
+        }
+        buf.position(end);
+    }
+}
@@ -9,6 +9,7 @@ public class BufferOverflowListenerImplementation implements
 
     @Override
     public void onBufferOverflow(ImpinjReader reader, BufferOverflowEvent e) {
+        ReaderMetrics.of(reader).bufferOverflow();
         System.out.println("Buffer_Overflow-- ");
     }
 }
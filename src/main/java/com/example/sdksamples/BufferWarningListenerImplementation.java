@@ -9,6 +9,7 @@ public class BufferWarningListenerImplementation implements
 
     @Override
     public void onBufferWarning(ImpinjReader reader, BufferWarningEvent e) {
+        ReaderMetrics.of(reader).bufferWarning(e.getPercentFull());
         System.out.println("Buffer_Warning--percent_full: "
                 + e.getPercentFull());
     }
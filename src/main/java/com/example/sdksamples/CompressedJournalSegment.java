@@ -0,0 +1,284 @@
+package com.example.sdksamples;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A sealed {@link TagReadJournal} segment compressed by
+ * {@link TagReadCompactor}, in independently deflated blocks of whole
+ * records with a block table at the end, so a record can be reached by
+ * inflating only its block.
+ *
+ * <pre>
+ *  header   the 64 byte segment header with the magic "TRZ1", the data
+ *           end is that of the uncompressed segment
+ *  blocks   raw deflate streams of whole records
+ *  table    per block int first record offset, int length, long position
+ *           in the file, int compressed length
+ *  trailer  long table position, int block count, int magic "TRZ1"
+ * </pre>
+ *
+ * Offsets are those the records had in the uncompressed segment, so the
+ * segment's {@link TagReadJournalIndex} still applies. The last inflated
+ * block is kept; not thread safe.
+ */
+public class CompressedJournalSegment {
+
+    static final int MAGIC = 0x54525a31; // "TRZ1"
+    static final int TABLE_ENTRY_SIZE = 20;
+    static final int TRAILER_SIZE = 16;
+
+    private final int dataEnd;
+    private final int[] starts;
+    private final int[] lengths;
+    private final long[] positions;
+    private final int[] compressedLengths;
+    private final MappedByteBuffer file;
+
+    private final Inflater inflater = new Inflater(true);
+    private byte[] input = new byte[0];
+    private ByteBuffer block;
+    private int current = -1;
+
+    public static CompressedJournalSegment open(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            MappedByteBuffer buf = raf.getChannel().map(
+                    FileChannel.MapMode.READ_ONLY, 0, raf.length());
+            int limit = buf.limit();
+            if (limit < TagReadJournal.HEADER_SIZE + TRAILER_SIZE
+                    || buf.getInt(0) != MAGIC || buf.getInt(limit - 4) != MAGIC) {
+                throw new IOException("Not a compressed journal segment: " + file);
+            }
+            return new CompressedJournalSegment(buf);
+        } finally {
+            // the mapping stays valid after the file is closed
+            raf.close();
+        }
+    }
+
+    private CompressedJournalSegment(MappedByteBuffer file) {
+        this.file = file;
+        int limit = file.limit();
+        long table = file.getLong(limit - TRAILER_SIZE);
+        int blocks = file.getInt(limit - 8);
+        dataEnd = (int) file.getLong(TagReadJournal.HEADER_DATA_END);
+
+        starts = new int[blocks];
+        lengths = new int[blocks];
+        positions = new long[blocks];
+        compressedLengths = new int[blocks];
+        int maxLength = 0;
+        for (int b = 0; b < blocks; b++) {
+            int at = (int) table + b * TABLE_ENTRY_SIZE;
+            starts[b] = file.getInt(at);
+            lengths[b] = file.getInt(at + 4);
+            positions[b] = file.getLong(at + 8);
+            compressedLengths[b] = file.getInt(at + 16);
+            maxLength = Math.max(maxLength, lengths[b]);
+        }
+        block = ByteBuffer.allocate(maxLength);
+    }
+
+    /**
+     * The offset just past the last record.
+     */
+    public int getDataEnd() {
+        return dataEnd;
+    }
+
+    public int getBlocks() {
+        return starts.length;
+    }
+
+    /**
+     * A buffer positioned at the record that started at the offset in the
+     * uncompressed segment, valid until the next call. A record never spans
+     * blocks, so it can be decoded straight from the buffer.
+     */
+    public ByteBuffer seek(int offset) throws IOException {
+        if (current < 0 || offset < starts[current]
+                || offset >= starts[current] + lengths[current]) {
+            int b = blockOf(offset);
+            if (b < 0) {
+                throw new IOException("No record at offset " + offset);
+            }
+            inflate(b);
+        }
+        block.position(offset - starts[current]);
+        return block;
+    }
+
+    /**
+     * Visits the records in order, the positions given to the visitor are
+     * their uncompressed offsets.
+     *
+     * @return the number of records visited, or -(count + 1) when the
+     * visitor asked to stop
+     */
+    public long read(long segment, TagRead read, TagReadJournalReader.Visitor visitor)
+            throws IOException {
+        long count = 0;
+        int offset = TagReadJournal.HEADER_SIZE;
+        while (offset < dataEnd) {
+            ByteBuffer buf = seek(offset);
+            int start = buf.position();
+            int readerId = TagReadCodec.decode(buf, read);
+            count++;
+            if (!visitor.onRecord(read, readerId, segment, offset)) {
+                return -count - 1;
+            }
+            offset += buf.position() - start;
+        }
+        return count;
+    }
+
+    /**
+     * Compresses a sealed segment into target, in blocks of about
+     * blockBytes of records.
+     *
+     * @param limiter paces reading the segment, may be null
+     * @return the size of the compressed file
+     */
+    public static long compress(File source, File target, int blockBytes,
+                                TagReadCompactor.RateLimiter limiter)
+            throws IOException, InterruptedException {
+        int capacity = Math.max(blockBytes, TagReadCodec.MAX_SIZE);
+        byte[] in = new byte[capacity];
+        // deflate can't grow a block by more than a few bytes per 16 KB
+        byte[] out = new byte[capacity + capacity / 1000 + 64];
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+
+        RandomAccessFile src = new RandomAccessFile(source, "r");
+        RandomAccessFile dst = new RandomAccessFile(target, "rw");
+        try {
+            MappedByteBuffer data = src.getChannel().map(
+                    FileChannel.MapMode.READ_ONLY, 0, src.length());
+            if (data.getInt(0) != TagReadJournal.MAGIC) {
+                throw new IOException("Not a journal segment: " + source);
+            }
+            int end = TagReadJournalReader.dataEnd(data);
+            FileChannel channel = dst.getChannel();
+            channel.truncate(0);
+
+            ByteBuffer header = ByteBuffer.allocate(TagReadJournal.HEADER_SIZE);
+            data.limit(TagReadJournal.HEADER_SIZE).position(0);
+            header.put(data).putInt(0, MAGIC).putLong(TagReadJournal.HEADER_DATA_END, end);
+            data.limit(data.capacity());
+            header.flip();
+            writeFully(channel, header);
+
+            int blocks = (end - TagReadJournal.HEADER_SIZE + blockBytes - 1) / blockBytes + 1;
+            ByteBuffer table = ByteBuffer.allocate(blocks * TABLE_ENTRY_SIZE + TRAILER_SIZE);
+            int count = 0;
+            int start = TagReadJournal.HEADER_SIZE;
+            while (start < end) {
+                // whole records only, up to blockBytes unless one record is
+                // bigger
+                int stop = start;
+                while (stop < end) {
+                    int length = data.getShort(stop) & 0xffff;
+                    if (stop > start && stop + length - start > blockBytes) {
+                        break;
+                    }
+                    stop += length;
+                }
+                int length = stop - start;
+                if (limiter != null) {
+                    limiter.acquire(length);
+                }
+                data.position(start);
+                data.get(in, 0, length);
+
+                deflater.reset();
+                deflater.setInput(in, 0, length);
+                deflater.finish();
+                long position = channel.position();
+                int compressed = 0;
+                while (!deflater.finished()) {
+                    int n = deflater.deflate(out);
+                    writeFully(channel, ByteBuffer.wrap(out, 0, n));
+                    compressed += n;
+                }
+
+                if (table.remaining() < TABLE_ENTRY_SIZE + TRAILER_SIZE) {
+                    ByteBuffer bigger = ByteBuffer.allocate(table.capacity() * 2);
+                    table.flip();
+                    table = bigger.put(table);
+                }
+                table.putInt(start).putInt(length).putLong(position).putInt(compressed);
+                count++;
+                start = stop;
+            }
+
+            table.putLong(channel.position()).putInt(count).putInt(MAGIC);
+            table.flip();
+            writeFully(channel, table);
+            channel.force(true);
+            return channel.size();
+        } finally {
+            deflater.end();
+            src.close();
+            dst.close();
+        }
+    }
+
+    private int blockOf(int offset) {
+        int low = 0;
+        int high = starts.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (offset < starts[mid]) {
+                high = mid - 1;
+            } else if (offset >= starts[mid] + lengths[mid]) {
+                low = mid + 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private void inflate(int b) throws IOException {
+        int n = compressedLengths[b];
+        if (input.length < n) {
+            input = new byte[n];
+        }
+        ByteBuffer src = file.duplicate();
+        src.position((int) positions[b]);
+        src.get(input, 0, n);
+
+        inflater.reset();
+        inflater.setInput(input, 0, n);
+        try {
+            int length = 0;
+            while (length < lengths[b] && !inflater.finished()) {
+                int inflated = inflater.inflate(block.array(), length, lengths[b] - length);
+                if (inflated == 0 && inflater.needsInput()) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != lengths[b]) {
+                throw new IOException("Block " + b + " is truncated");
+            }
+        } catch (DataFormatException ex) {
+            throw new IOException("Block " + b + " is corrupt", ex);
+        }
+        block.clear().limit(lengths[b]);
+        current = b;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+    }
+}
@@ -24,11 +24,11 @@ public class ConfigureManyAntennas {
             System.out.println("Connecting to " + hostname);
             reader.connect(hostname);
 
-            FeatureSet features = reader.queryFeatureSet();
-
-
-            // Get the default settings
-            Settings settings = reader.queryDefaultSettings();
+            // get the features and default settings, from the cache when
+            // this reader has been seen before, see -DreaderCacheDir
+            ReaderInfoCache.Entry info = ReaderInfoCache.sharedEntry(reader, hostname);
+            ReaderFeatures features = info.getFeatures();
+            Settings settings = info.getDefaultSettings();
 
             // send a tag report for every tag read
             settings.getReport().setMode(ReportMode.Individual);
@@ -10,6 +10,7 @@ public class ConnectionAttemptListenerImplementation implements
     @Override
     public void onConnectionAttempt(ImpinjReader reader,
                                     ConnectionAttemptEvent e) {
+        ReaderMetrics.of(reader).connectionAttempt();
         System.out.println("Connection_Attempt ");
     }
 }
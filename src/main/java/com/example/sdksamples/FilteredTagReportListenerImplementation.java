@@ -5,37 +5,80 @@ import com.impinj.octane.Tag;
 import com.impinj.octane.TagReport;
 import com.impinj.octane.TagReportListener;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public class FilteredTagReportListenerImplementation implements
         TagReportListener {
-    // an internal map to store unique stuff
-
-    Map<String, Tag> map;
+    static final int DEFAULT_MAX_TAGS = 100000;
+    static final long DEFAULT_TTL_MILLIS = 60 * 60 * 1000;
+
+    // a bounded cache of the tags reported recently, a tag is reported
+    // again once its entry expires or has been evicted
+    TagDedupCache seen;
+    // optional probabilistic filter in front of the cache, tags it has
+    // probably seen are skipped without touching the cache
+    SeenBeforeFilter frontFilter;
+    // refilled for every tag so building the key never allocates a String
+    final TagId key = new TagId();
 
     public FilteredTagReportListenerImplementation() {
-        map = new HashMap<String, Tag>();
+        this(DEFAULT_MAX_TAGS, DEFAULT_TTL_MILLIS);
+    }
+
+    public FilteredTagReportListenerImplementation(int maxTags, long ttlMillis) {
+        this(maxTags, ttlMillis, null);
+    }
+
+    public FilteredTagReportListenerImplementation(int maxTags, long ttlMillis,
+                                                   SeenBeforeFilter frontFilter) {
+        seen = new TagDedupCache(maxTags, ttlMillis);
+        this.frontFilter = frontFilter;
     }
 
     @Override
     public void onTagReported(ImpinjReader reader, TagReport report) {
+        Object event = PipelineEvents.beginReport();
+        // dedup and printing take turns tag by tag, each stage event spans
+        // the loop and their time is added up while a recording wants it
+        Object dedup = PipelineEvents.beginStage();
+        Object print = PipelineEvents.beginStage();
+        boolean timed = dedup != null;
         List<Tag> tags = report.getTags();
+        long now = System.currentTimeMillis();
+        ReaderMetrics metrics = ReaderMetrics.of(reader);
+        long dedupNanos = 0;
+        long printNanos = 0;
 
         for (Tag t : tags) {
-            String key;
-
+            long stage = timed ? System.nanoTime() : 0;
+            metrics.tagRead(t.isAntennaPortNumberPresent() ? t.getAntennaPortNumber() : -1);
             if (t.isFastIdPresent()) {
-                key = t.getTid().toHexString();
+                key.set(t.getTid());
             } else {
-                key = t.getEpc().toHexString();
+                key.set(t.getEpc());
             }
 
-            if (map.containsKey(key)) {
+            if (frontFilter != null) {
+                if (frontFilter.mightContain(key, now)) {
+                    metrics.dedupHit();
+                    dedupNanos += timed ? System.nanoTime() - stage : 0;
+                    continue;
+                }
+                // only probable new tags get this far, remember them so
+                // their next reads stop at the filter
+                frontFilter.put(key, now);
+            }
+
+            if (!seen.firstSighting(key, now)) {
+                metrics.dedupHit();
+                dedupNanos += timed ? System.nanoTime() - stage : 0;
                 continue;
-            } else {
-                map.put(key, t);
+            }
+            metrics.uniqueTag();
+            if (timed) {
+                long printing = System.nanoTime();
+                dedupNanos += printing - stage;
+                stage = printing;
             }
 
             System.out.print(" EPC: " + t.getEpc().toString());
@@ -61,6 +104,15 @@ public class FilteredTagReportListenerImplementation implements
             }
 
             System.out.println("");
+            printNanos += timed ? System.nanoTime() - stage : 0;
+        }
+
+        if (timed) {
+            PipelineEvents.stage(PipelineEvents.DEDUP, reader, tags.size(), dedup,
+                    dedupNanos);
+            PipelineEvents.stage(PipelineEvents.PRINT, reader, tags.size(), print,
+                    printNanos);
         }
+        PipelineEvents.reportReceived(PipelineEvents.TAG_REPORT, reader, tags.size(), event);
     }
 }
@@ -0,0 +1,164 @@
+package com.example.sdksamples;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * The flight recorder events behind {@link PipelineEvents}, kept apart so
+ * that nothing touches jdk.jfr unless it is there. The events are duration
+ * events, begun when the work starts and committed when it is done, and
+ * only made at all while a recording has them enabled.
+ */
+class JfrPipelineEvents {
+
+    @Name("com.example.sdksamples.ReportReceived")
+    @Label("Report Received")
+    @Category({"Octane SDK Samples", "Tag Pipeline"})
+    @Description("A tag or location report callback, start to end")
+    @StackTrace(false)
+    static class ReportReceivedEvent extends Event {
+        @Label("Kind")
+        String kind;
+
+        @Label("Reader Id")
+        int readerId;
+
+        @Label("Reader")
+        String reader;
+
+        @Label("Tag Count")
+        int tags;
+    }
+
+    @Name("com.example.sdksamples.PipelineStage")
+    @Label("Pipeline Stage")
+    @Category({"Octane SDK Samples", "Tag Pipeline"})
+    @Description("One stage of a report callback")
+    @StackTrace(false)
+    static class PipelineStageEvent extends Event {
+        @Label("Stage")
+        String stage;
+
+        @Label("Reader Id")
+        int readerId;
+
+        @Label("Reader")
+        String reader;
+
+        @Label("Tag Count")
+        int tags;
+
+        @Label("Time In Stage")
+        @Description("For a stage that takes turns with others tag by tag, the part of"
+                + " the duration spent in it; otherwise the whole duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long timeInStage;
+
+        // not recorded
+        transient long startNanos;
+    }
+
+    @Name("com.example.sdksamples.SinkFlush")
+    @Label("Sink Flush")
+    @Category({"Octane SDK Samples", "Tag Pipeline"})
+    @Description("Tag reads written out by a sink")
+    @StackTrace(false)
+    static class SinkFlushEvent extends Event {
+        @Label("Sink")
+        String sink;
+
+        @Label("Records")
+        long records;
+
+        @Label("Bytes")
+        long bytes;
+    }
+
+    // never committed, only asked whether their event type is enabled
+    private static final ReportReceivedEvent REPORT = new ReportReceivedEvent();
+    private static final PipelineStageEvent STAGE = new PipelineStageEvent();
+    private static final SinkFlushEvent FLUSH = new SinkFlushEvent();
+
+    static boolean available() {
+        return FlightRecorder.isAvailable();
+    }
+
+    static Object beginReport() {
+        if (!REPORT.isEnabled()) {
+            return null;
+        }
+        ReportReceivedEvent e = new ReportReceivedEvent();
+        e.begin();
+        return e;
+    }
+
+    static void reportReceived(Object event, String kind, int readerId, String reader,
+                               int tags) {
+        ReportReceivedEvent e = (ReportReceivedEvent) event;
+        e.end();
+        if (e.shouldCommit()) {
+            e.kind = kind;
+            e.readerId = readerId;
+            e.reader = reader;
+            e.tags = tags;
+            e.commit();
+        }
+    }
+
+    static Object beginStage() {
+        if (!STAGE.isEnabled()) {
+            return null;
+        }
+        PipelineStageEvent e = new PipelineStageEvent();
+        e.startNanos = System.nanoTime();
+        e.begin();
+        return e;
+    }
+
+    /**
+     * @param nanos the time spent in the stage, -1 when it ran without a
+     *              break
+     */
+    static void stage(Object event, String stage, int readerId, String reader, int tags,
+                      long nanos) {
+        PipelineStageEvent e = (PipelineStageEvent) event;
+        e.end();
+        if (nanos < 0) {
+            nanos = System.nanoTime() - e.startNanos;
+        }
+        if (e.shouldCommit()) {
+            e.stage = stage;
+            e.readerId = readerId;
+            e.reader = reader;
+            e.tags = tags;
+            e.timeInStage = nanos;
+            e.commit();
+        }
+    }
+
+    static Object beginFlush() {
+        if (!FLUSH.isEnabled()) {
+            return null;
+        }
+        SinkFlushEvent e = new SinkFlushEvent();
+        e.begin();
+        return e;
+    }
+
+    static void sinkFlush(Object event, String sink, long records, long bytes) {
+        SinkFlushEvent e = (SinkFlushEvent) event;
+        e.end();
+        if (e.shouldCommit()) {
+            e.sink = sink;
+            e.records = records;
+            e.bytes = bytes;
+            e.commit();
+        }
+    }
+}
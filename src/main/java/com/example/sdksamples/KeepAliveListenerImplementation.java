@@ -8,6 +8,7 @@ public class KeepAliveListenerImplementation implements KeepaliveListener {
 
     @Override
     public void onKeepalive(ImpinjReader reader, KeepaliveEvent e) {
+        ReaderMetrics.of(reader).keepalive();
         System.out.println("!KeepAlive!");
     }
 }
@@ -34,20 +34,28 @@ public class Keepalives {
             settings.getKeepalives().setEnableLinkMonitorMode(true);
             settings.getKeepalives().setLinkDownThreshold(5);
 
-            // set up a listener for keepalives
-            reader.setKeepaliveListener(new KeepAliveListenerImplementation());
-
-            // set up a listener for connection Lost
-            reader.setConnectionLostListener(
-                    new ConnectionLostListenerImplementation());
+            // set up a listener for keepalives, again on every reconnect
+            ReaderSupervisor.Listeners listeners = new ReaderSupervisor.Listeners() {
+                @Override
+                public void attach(ImpinjReader reader) {
+                    reader.setKeepaliveListener(new KeepAliveListenerImplementation());
+                }
+            };
+            listeners.attach(reader);
 
             // apply the settings to enable keepalives
             reader.applySettings(settings);
 
+            // when the link goes down, reconnect and apply the settings again
+            ReaderSupervisor supervisor = new ReaderSupervisor(reader, hostname,
+                    listeners);
+            supervisor.adopt(settings, false);
+
             System.out.println("Press Enter to exit.");
             Scanner s = new Scanner(System.in);
             s.nextLine();
 
+            supervisor.stop();
             reader.disconnect();
         } catch (OctaneSdkException ex) {
             System.out.println(ex.getMessage());
@@ -0,0 +1,123 @@
+package com.example.sdksamples;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A log-linear histogram of latencies in nanoseconds, laid out like
+ * HdrHistogram: values below 128 get a bucket each, and every power of two
+ * above that is split into 64 buckets, so a recorded value is kept to
+ * within 1.6%. Recording is one atomic increment and never allocates, so
+ * any number of threads can record into one histogram.
+ * <p>
+ * {@link #drainInto} moves the counts into a {@link Snapshot} and zeroes
+ * them, which gives interval histograms without losing a value recorded
+ * while draining.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF = SUB_BUCKETS / 2;
+    static final int BUCKETS = (63 - SUB_BUCKET_BITS) * HALF + SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts.incrementAndGet(indexOf(nanos));
+
+        long m = max.get();
+        while (nanos > m && !max.compareAndSet(m, nanos)) {
+            m = max.get();
+        }
+    }
+
+    /**
+     * Adds the counts recorded since the last drain to the snapshot and
+     * starts this histogram over.
+     */
+    public void drainInto(Snapshot snapshot) {
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts.get(i) != 0) {
+                long n = counts.getAndSet(i, 0);
+                snapshot.counts[i] += n;
+                snapshot.count += n;
+            }
+        }
+        snapshot.max = Math.max(snapshot.max, max.getAndSet(0));
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        // keep the top SUB_BUCKET_BITS bits, the leading one included
+        int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * HALF + (int) (value >>> shift);
+    }
+
+    // the largest value that falls in the bucket
+    static long highestValueAt(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / HALF - 1;
+        long mantissa = index - shift * HALF;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    /**
+     * Counts drained from one or more histograms, read by a single thread.
+     */
+    public static class Snapshot {
+        final long[] counts = new long[BUCKETS];
+        long count;
+        long max;
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * The value at or below which the given percentage of the values
+         * fall, 0 when nothing was recorded.
+         */
+        public long valueAtPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValueAt(i), max);
+                }
+            }
+            return max;
+        }
+
+        public void add(Snapshot other) {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] += other.counts[i];
+            }
+            count += other.count;
+            max = Math.max(max, other.max);
+        }
+
+        public void clear() {
+            Arrays.fill(counts, 0);
+            count = 0;
+            max = 0;
+        }
+    }
+}
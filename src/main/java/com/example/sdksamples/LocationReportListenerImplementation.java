@@ -9,10 +9,14 @@ public class LocationReportListenerImplementation implements
 
     @Override
     public void onLocationReported(ImpinjReader reader, LocationReport report) {
+        Object event = PipelineEvents.beginReport();
+        Object print = PipelineEvents.beginStage();
         System.out.println("Location: " + " epc: "
                 + report.getEpc().toHexString() + " x: "
                 + report.getLocationXCm() + " y: " + report.getLocationYCm()
                 + " read_count: "
                 + report.getConfidenceFactors().getReadCount());
+        PipelineEvents.stage(PipelineEvents.PRINT, reader, 1, print);
+        PipelineEvents.reportReceived(PipelineEvents.LOCATION_REPORT, reader, 1, event);
     }
 }
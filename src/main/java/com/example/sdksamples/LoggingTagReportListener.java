@@ -0,0 +1,169 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.ImpinjReader;
+import com.impinj.octane.Tag;
+import com.impinj.octane.TagReport;
+import com.impinj.octane.TagReportListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs every tag read at DEBUG to a log category, sampled by the category's
+ * {@link TagLogSampler}, then passes the report on. While the category is
+ * not at DEBUG this is a plain pass through.
+ * <p>
+ * Logging goes through SLF4J, so the category is set up in log4j.properties
+ * or logback.xml depending on the launch script. Once a minute, if any read
+ * was left out, an INFO line says how many; it comes from a timer, so it
+ * is written even when the reader has gone quiet. Close the listener to
+ * stop it.
+ * <p>
+ * Reads are logged as TagRead objects, which the tag log appenders copy and
+ * format off the calling thread. Under logback the read is the argument of
+ * "{}", which logback keeps as is. SLF4J's log4j binding would format it
+ * on the calling thread, so under log4j the reads bypass SLF4J, see
+ * {@link TagReadLog4jAppender}.
+ */
+public class LoggingTagReportListener implements TagReportListener {
+
+    public static final String CATEGORY = "com.example.sdksamples.tags";
+
+    private static final String LOG4J_FACTORY = "org.slf4j.impl.Log4jLoggerFactory";
+
+    private static final long SUMMARY_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    // writes the summaries of all listeners
+    private static final ScheduledThreadPoolExecutor SUMMARIES =
+            new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "tag-log-summary");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+    private static final ThreadLocal<TagRead> READS = new ThreadLocal<TagRead>() {
+        @Override
+        protected TagRead initialValue() {
+            return new TagRead();
+        }
+    };
+    private static final ThreadLocal<TagId> KEYS = new ThreadLocal<TagId>() {
+        @Override
+        protected TagId initialValue() {
+            return new TagId();
+        }
+    };
+
+    private final Logger logger;
+    private final ReadLog readLog;
+    private final TagLogSampler sampler;
+    private final TagReportListener next;
+    private final ScheduledFuture<?> summaries;
+    private long lastSummary;
+
+    public LoggingTagReportListener(TagReportListener next) {
+        this(CATEGORY, next);
+    }
+
+    public LoggingTagReportListener(String category, TagReportListener next) {
+        this(category, TagLogSampler.forCategory(category), next);
+    }
+
+    /**
+     * @param next where reports go after logging, may be null
+     */
+    public LoggingTagReportListener(String category, TagLogSampler sampler,
+                                    TagReportListener next) {
+        this.logger = LoggerFactory.getLogger(category);
+        this.readLog = readLog(category, logger);
+        this.sampler = sampler;
+        this.next = next;
+        this.lastSummary = System.currentTimeMillis();
+        this.summaries = SUMMARIES.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                summarize(System.currentTimeMillis());
+            }
+        }, SUMMARY_MILLIS, SUMMARY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void onTagReported(ImpinjReader reader, TagReport report) {
+        if (logger.isDebugEnabled()) {
+            Object stage = PipelineEvents.beginStage();
+            log(reader, report);
+            PipelineEvents.stage(PipelineEvents.LOG, reader, report.getTags().size(), stage);
+        }
+        if (next != null) {
+            next.onTagReported(reader, report);
+        }
+    }
+
+    public TagLogSampler getSampler() {
+        return sampler;
+    }
+
+    /**
+     * Stops the summaries, after writing one for the reads left out since
+     * the last.
+     */
+    public void close() {
+        summaries.cancel(false);
+        summarize(System.currentTimeMillis());
+    }
+
+    private void log(ImpinjReader reader, TagReport report) {
+        List<Tag> tags = report.getTags();
+        TagRead read = READS.get();
+        // only firstSeen sampling looks at the EPC, and building the key
+        // boxes its words
+        TagId key = sampler.getMode() == TagLogSampler.Mode.FIRST_SEEN ? KEYS.get() : null;
+        long now = System.currentTimeMillis();
+
+        for (int i = 0; i < tags.size(); i++) {
+            Tag t = tags.get(i);
+            if (!sampler.sample(reader, key != null ? key.set(t.getEpc()) : null, now)) {
+                continue;
+            }
+            // the read is reused, so an appender must not hold on to it
+            read.copyFrom(reader, t);
+            readLog.debug(read);
+        }
+    }
+
+    /**
+     * Where sampled reads go.
+     */
+    interface ReadLog {
+        void debug(TagRead read);
+    }
+
+    private static ReadLog readLog(String category, final Logger logger) {
+        if (LOG4J_FACTORY.equals(LoggerFactory.getILoggerFactory().getClass().getName())) {
+            return TagReadLog4jAppender.readLog(category);
+        }
+        return new ReadLog() {
+            @Override
+            public void debug(TagRead read) {
+                // logged on its own so TagReadLogbackAppender can take the
+                // read as is, other appenders print its toString()
+                logger.debug("{}", read);
+            }
+        };
+    }
+
+    private synchronized void summarize(long now) {
+        long suppressed = sampler.drainSuppressed();
+        if (suppressed > 0) {
+            logger.info("Suppressed {} tag reads in the last {} s, sampling {}",
+                    suppressed, (now - lastSummary) / 1000, sampler);
+        }
+        lastSummary = now;
+    }
+}
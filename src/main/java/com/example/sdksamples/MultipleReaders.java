@@ -1,16 +1,18 @@
 package com.example.sdksamples;
 
 import com.impinj.octane.ImpinjReader;
-import com.impinj.octane.OctaneSdkException;
 import com.impinj.octane.Settings;
+import com.impinj.octane.TagReportListener;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Scanner;
 
 public class MultipleReaders {
 
-    static ArrayList<ImpinjReader> readers = new ArrayList<ImpinjReader>();
-
     public static void main(String[] args) {
 
         // Connect to the reader.
@@ -20,36 +22,101 @@ public class MultipleReaders {
             return;
         }
 
-        for (int i = 0; i < args.length; i++) {
-            String name = "Reader_" + args[i];
-            ImpinjReader reader = new ImpinjReader();
-            reader.setName(name);
+        // optionally print read latency percentiles every N seconds with
+        // -DlatencySeconds=N
+        ReadLatencyTracker latency = null;
+        TagReadConsumer printer = new PrintingTagReadConsumer();
+        Integer latencySeconds = Integer.getInteger(SampleProperties.latencySeconds);
+        if (latencySeconds != null) {
+            latency = new ReadLatencyTracker("dispatch", "print");
+            printer = latency.measureConsumer("print", printer);
+            latency.start(latencySeconds * 1000L);
+        }
 
+        // all readers hand their tags to one dispatcher so printing happens
+        // on its consumer thread instead of the SDK callback threads
+        TagReportDispatcher dispatcher = new TagReportDispatcher(64 * 1024, 1,
+                TagReportDispatcher.OverflowPolicy.DROP_OLDEST, printer);
+        dispatcher.start();
+
+        // optionally report each tag only once across all readers, or once
+        // per reader, with -DdedupScope=GLOBAL or PER_READER
+        TagReportListener listener = dispatcher;
+        String scope = System.getProperty(SampleProperties.dedupScope);
+        if (scope != null) {
+            SharedTagDeduplicator dedup = new SharedTagDeduplicator(
+                    FilteredTagReportListenerImplementation.DEFAULT_MAX_TAGS,
+                    FilteredTagReportListenerImplementation.DEFAULT_TTL_MILLIS,
+                    4 * args.length,
+                    SharedTagDeduplicator.Scope.valueOf(scope.toUpperCase()));
+            listener = new SharedDedupTagReportListener(dedup, dispatcher);
+        }
+
+        // dedup and the hand-off run on a thread per reader, see
+        // -DeventQueueSize and -DeventQueuePolicy; the latency tracker and
+        // the recorder's hand-off stay on the SDK thread so they see each
+        // report as it arrives, including reports the loop drops
+        listener = ReaderEventLoop.wrapTagReportsPerReader(listener);
+        if (latency != null) {
+            listener = latency.measureListener("dispatch", listener);
+        }
+
+        // optionally record the session with -DrecordFile, SessionReplayer
+        // plays it back with the same per reader timing; the SDK threads
+        // only stamp and queue each report, the recorder's own thread
+        // writes it, so no reader waits on another or on the disk
+        SessionRecorder recorder = null;
+        String recordFile = System.getProperty(SampleProperties.recordFile);
+        if (recordFile != null) {
             try {
-                System.out.println("Attempting connection to " + name);
-                reader.connect(args[i]);
-
-            } catch (OctaneSdkException ex) {
-                // keep trying other readers if this doesn't work
-                System.out.println("Error Connecting  to " + name + ": "
-                        + ex.toString() + "...continuing with other readers");
-                continue;
+                recorder = new SessionRecorder(new File(recordFile), listener,
+                        null, null, null, 16 * 1024);
+                listener = recorder;
+            } catch (IOException ex) {
+                System.out.println("Could not record to " + recordFile + ": "
+                        + ex.getMessage());
             }
+        }
 
-            try {
-                Settings settings = reader.queryDefaultSettings();
-                System.out.println("Applying Settings to " + name);
-                reader.applySettings(settings);
-
-                reader.setTagReportListener(
-                        new TagReportListenerImplementation());
-
-                System.out.println("Starting " + name);
-                reader.start();
-                readers.add(reader);
-            } catch (OctaneSdkException ex) {
-                System.out.println("Could not start reader " + name + ": "
-                        + ex.toString());
+        // bring the readers up in parallel, -DfleetConcurrency at a time,
+        // so one that doesn't answer only delays itself
+        ReaderFleet fleet = ReaderFleet.fromProperties();
+        final TagReportListener readerListener = listener;
+        List<ReaderFleet.Result> results;
+        try {
+            System.out.println("Connecting to " + args.length + " readers");
+            results = fleet.bringUp(Arrays.asList(args), new ReaderFleet.Setup() {
+                @Override
+                public void prepare(ImpinjReader reader, Settings settings) {
+                    // keepalives with link monitoring, so a lost reader
+                    // is noticed and reconnected
+                    settings.getKeepalives().setEnabled(true);
+                    settings.getKeepalives().setPeriodInMs(3000);
+                    settings.getKeepalives().setEnableLinkMonitorMode(true);
+                    settings.getKeepalives().setLinkDownThreshold(5);
+                    reader.setTagReportListener(readerListener);
+                }
+            });
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        ReaderFleet.printReport(results, System.out);
+
+        // a reader that drops is reconnected on its own, the others keep
+        // reading
+        List<ReaderSupervisor> supervisors = new ArrayList<ReaderSupervisor>();
+        for (ReaderFleet.Result result : results) {
+            if (result.isUp()) {
+                ReaderSupervisor supervisor = new ReaderSupervisor(result.getReader(),
+                        result.getHostname(), new ReaderSupervisor.Listeners() {
+                    @Override
+                    public void attach(ImpinjReader reader) {
+                        reader.setTagReportListener(readerListener);
+                    }
+                });
+                supervisor.adopt(result.getSettings(), true);
+                supervisors.add(supervisor);
             }
         }
 
@@ -57,16 +124,54 @@ public class MultipleReaders {
         Scanner s = new Scanner(System.in);
         s.nextLine();
 
-        for (int i = 0; i < readers.size(); i++) {
+        for (ReaderSupervisor supervisor : supervisors) {
+            supervisor.stop();
+        }
+        try {
+            fleet.stop(results);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        fleet.shutdown();
+
+        // let each reader's listeners finish what was queued, then drop
+        // the reader's metrics
+        try {
+            for (ReaderFleet.Result result : results) {
+                ReaderEventLoop.remove(result.getReader());
+                ReaderMetrics.remove(result.getReader());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
 
+        if (recorder != null) {
             try {
-                ImpinjReader reader = readers.get(i);
-                reader.stop();
-                reader.disconnect();
-            } catch (OctaneSdkException ex) {
-                System.out.println("Failed to stop reader: " + ex.getMessage());
+                recorder.close();
+                System.out.println("Recorded " + recorder.getRecords()
+                        + " callbacks to " + recordFile);
+                if (recorder.getDroppedCallbacks() > 0) {
+                    System.out.println("Dropped " + recorder.getDroppedCallbacks()
+                            + " callbacks that could not be recorded in time");
+                }
+            } catch (IOException ex) {
+                System.out.println("Could not close " + recordFile + ": "
+                        + ex.getMessage());
             }
+        }
+
+        try {
+            dispatcher.stop();
+            if (latency != null) {
+                latency.stop();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
 
+        if (dispatcher.getDropped() > 0) {
+            System.out.println("Dropped " + dispatcher.getDropped()
+                    + " tag reads that could not be printed in time");
         }
     }
 }
@@ -0,0 +1,124 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.ImpinjReader;
+
+/**
+ * Emits Java Flight Recorder events from the tag processing path, so a
+ * standard recording shows where time goes in onTagReported and
+ * onLocationReported: a report received event covering the whole callback,
+ * an event per stage within it, and an event per sink flush. Start a
+ * recording with -XX:StartFlightRecording or jcmd &lt;pid&gt; JFR.start and
+ * look for the "Tag Pipeline" category in JDK Mission Control, or run
+ * jfr print --categories "Tag Pipeline" on the file.
+ * <p>
+ * The events are JFR duration events. Instrumented code calls one of the
+ * begin methods when the work starts and hands what it returns to the
+ * matching event method when it is done. Unless a recording has the event
+ * enabled, the begin methods return null and the event methods return
+ * straight away, so nothing is timed or allocated. On a JVM without jdk.jfr,
+ * or with -DpipelineEvents=false, the events are off for good.
+ */
+public class PipelineEvents {
+
+    public static final String TAG_REPORT = "tags";
+    public static final String LOCATION_REPORT = "location";
+
+    public static final String DEDUP = "dedup";
+    public static final String FORMAT = "format";
+    public static final String PRINT = "print";
+    public static final String LOG = "log";
+    public static final String HAND_OFF = "hand off";
+    public static final String LOCATION_FUSION = "location fusion";
+
+    private static final boolean AVAILABLE = available();
+    private static final ReaderIds READER_IDS = new ReaderIds();
+
+    private static boolean available() {
+        if (!Boolean.parseBoolean(System.getProperty(SampleProperties.pipelineEvents,
+                "true"))) {
+            return false;
+        }
+        try {
+            Class.forName("jdk.jfr.Event");
+            return JfrPipelineEvents.available();
+        } catch (ClassNotFoundException ex) {
+            return false;
+        } catch (LinkageError ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Starts a report received event, null when no recording wants it.
+     */
+    public static Object beginReport() {
+        return AVAILABLE ? JfrPipelineEvents.beginReport() : null;
+    }
+
+    /**
+     * The callback of a report received event is done.
+     *
+     * @param kind TAG_REPORT or LOCATION_REPORT
+     */
+    public static void reportReceived(String kind, ImpinjReader reader, int tags,
+                                      Object event) {
+        if (event != null) {
+            JfrPipelineEvents.reportReceived(event, kind, READER_IDS.idOf(reader),
+                    label(reader), tags);
+        }
+    }
+
+    /**
+     * Starts a stage event, null when no recording wants it.
+     */
+    public static Object beginStage() {
+        return AVAILABLE ? JfrPipelineEvents.beginStage() : null;
+    }
+
+    /**
+     * The stage of a stage event is done.
+     */
+    public static void stage(String stage, ImpinjReader reader, int tags, Object event) {
+        if (event != null) {
+            JfrPipelineEvents.stage(event, stage, READER_IDS.idOf(reader), label(reader),
+                    tags, -1);
+        }
+    }
+
+    /**
+     * A stage that took turns with others tag by tag is done; the event
+     * spans all of its turns, and nanos is the time spent in them.
+     */
+    public static void stage(String stage, ImpinjReader reader, int tags, Object event,
+                             long nanos) {
+        if (event != null) {
+            JfrPipelineEvents.stage(event, stage, READER_IDS.idOf(reader), label(reader),
+                    tags, nanos);
+        }
+    }
+
+    /**
+     * Starts a sink flush event, null when no recording wants it.
+     */
+    public static Object beginFlush() {
+        return AVAILABLE ? JfrPipelineEvents.beginFlush() : null;
+    }
+
+    /**
+     * The write of a sink flush event is done.
+     *
+     * @param bytes the bytes written, 0 when the sink doesn't know
+     */
+    public static void sinkFlush(String sink, long records, long bytes, Object event) {
+        if (event != null) {
+            JfrPipelineEvents.sinkFlush(event, sink, records, bytes);
+        }
+    }
+
+    private static String label(ImpinjReader reader) {
+        if (reader == null) {
+            return null;
+        }
+        return reader.getName() != null ? reader.getName() : reader.getAddress();
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.sdksamples;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Prints reads handed off by a {@link TagReportDispatcher} using the same
+ * layout as TagReportListenerImplementation. Output is written once per
+ * batch rather than once per read.
+ */
+public class PrintingTagReadConsumer implements TagReadConsumer {
+
+    private final OutputStream out;
+
+    public PrintingTagReadConsumer() {
+        this(System.out);
+    }
+
+    public PrintingTagReadConsumer(OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void onTagRead(TagRead read, boolean endOfBatch) {
+        TagReportFormatter formatter = TagReportFormatter.forCurrentThread();
+        formatter.append(read);
+
+        if (endOfBatch || formatter.size() > 32 * 1024) {
+            try {
+                formatter.writeTo(out);
+            } catch (IOException ex) {
+                System.out.println("Failed to print tag reads: " + ex.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.ImpinjReader;
+import com.impinj.octane.Tag;
+import com.impinj.octane.TagReport;
+import com.impinj.octane.TagReportListener;
+
+import java.io.PrintStream;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Keeps latency histograms per reader and antenna for how old a read is
+ * when it reaches us, and how long after that each sink is done with it.
+ * <p>
+ * The first stage, "callback", runs from the reader's first seen time, or
+ * last seen time when that's all the report has, to the SDK callback. It
+ * compares the reader's clock with ours, so both should be NTP synced. The
+ * other stages are named sinks, each measured from the callback to the
+ * moment the sink returns. Wrap the listener the reader calls with
+ * {@link #measureListener} and the stages behind it with
+ * {@link #measureConsumer} or {@link #measureSink}; the dispatcher and
+ * batcher carry the callback time along with each read.
+ * <p>
+ * Recording never allocates once a reader and antenna has been seen.
+ * {@link #start} prints the percentiles of each interval on a schedule.
+ */
+public class ReadLatencyTracker {
+
+    private static final String CALLBACK = "callback";
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final String[] stages;
+    private final ReaderIds readerIds = new ReaderIds();
+    // [reader id][antenna][stage], copied on write when a new pair shows up
+    private volatile LatencyHistogram[][][] histograms = new LatencyHistogram[0][][];
+
+    private final Object addLock = new Object();
+
+    private Thread exporter;
+    private final Object exportLock = new Object();
+    private final LatencyHistogram.Snapshot interval = new LatencyHistogram.Snapshot();
+    private final LatencyHistogram.Snapshot readerTotal = new LatencyHistogram.Snapshot();
+
+    /**
+     * @param sinks the names of the stages measured after the callback
+     */
+    public ReadLatencyTracker(String... sinks) {
+        stages = new String[sinks.length + 1];
+        stages[0] = CALLBACK;
+        System.arraycopy(sinks, 0, stages, 1, sinks.length);
+    }
+
+    /**
+     * Records the age of every tag at the callback, then the time the
+     * listener took with the report as the given sink.
+     */
+    public TagReportListener measureListener(String sink, final TagReportListener listener) {
+        final int stage = stageOf(sink);
+        return new TagReportListener() {
+            @Override
+            public void onTagReported(ImpinjReader reader, TagReport report) {
+                long arrival = System.nanoTime();
+                long nowUs = System.currentTimeMillis() * 1000;
+                List<Tag> tags = report.getTags();
+                for (int i = 0; i < tags.size(); i++) {
+                    recordAge(reader, tags.get(i), nowUs);
+                }
+
+                listener.onTagReported(reader, report);
+
+                long done = System.nanoTime() - arrival;
+                for (int i = 0; i < tags.size(); i++) {
+                    Tag t = tags.get(i);
+                    record(reader, antennaOf(t), stage, done);
+                }
+            }
+        };
+    }
+
+    /**
+     * Records the time from the callback to the consumer returning, for the
+     * reads that still know when they arrived.
+     */
+    public TagReadConsumer measureConsumer(String sink, final TagReadConsumer consumer) {
+        final int stage = stageOf(sink);
+        return new TagReadConsumer() {
+            @Override
+            public void onTagRead(TagRead read, boolean endOfBatch) {
+                // the read may be refilled once the consumer returns
+                ImpinjReader reader = read.reader;
+                short antenna = read.antenna;
+                long arrival = read.arrivalNanos;
+
+                consumer.onTagRead(read, endOfBatch);
+
+                if (arrival != 0) {
+                    record(reader, antenna, stage, System.nanoTime() - arrival);
+                }
+            }
+        };
+    }
+
+    /**
+     * Records the time from the callback to the sink returning for every
+     * read in the batch.
+     */
+    public TagReadBatchSink measureSink(String sink, final TagReadBatchSink batchSink) {
+        final int stage = stageOf(sink);
+        return new TagReadBatchSink() {
+            @Override
+            public void onBatch(TagReadBatch batch) {
+                batchSink.onBatch(batch);
+
+                long now = System.nanoTime();
+                for (int i = 0; i < batch.size(); i++) {
+                    TagRead read = batch.get(i);
+                    if (read.arrivalNanos != 0) {
+                        record(read.reader, read.antenna, stage, now - read.arrivalNanos);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Records how old the tag's reader timestamp is at nowUs, microseconds
+     * since the epoch. A tag without timestamps is not recorded.
+     */
+    public void recordAge(ImpinjReader reader, Tag tag, long nowUs) {
+        long seenUs;
+        if (tag.isFirstSeenTimePresent()) {
+            seenUs = tag.getFirstSeenTime().getUtcTimestamp().longValue();
+        } else if (tag.isLastSeenTimePresent()) {
+            seenUs = tag.getLastSeenTime().getUtcTimestamp().longValue();
+        } else {
+            return;
+        }
+        // a reader clock running ahead of ours shows up as zero
+        record(reader, antennaOf(tag), 0, (nowUs - seenUs) * 1000);
+    }
+
+    void record(ImpinjReader reader, int antenna, int stage, long nanos) {
+        int id = readerIds.idOf(reader);
+        if (id < 0 || antenna < 0) {
+            return;
+        }
+        LatencyHistogram[][][] h = histograms;
+        if (id >= h.length || antenna >= h[id].length || h[id][antenna] == null) {
+            h = add(id, antenna);
+        }
+        h[id][antenna][stage].record(nanos);
+    }
+
+    /**
+     * Starts printing the percentiles of each interval to System.out.
+     */
+    public synchronized void start(final long periodMillis) {
+        if (exporter != null) {
+            return;
+        }
+        exporter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    while (true) {
+                        Thread.sleep(periodMillis);
+                        export(System.out);
+                    }
+                } catch (InterruptedException ex) {
+                    // stopped
+                }
+            }
+        }, "latency-export");
+        exporter.setDaemon(true);
+        exporter.start();
+    }
+
+    /**
+     * Stops the periodic export and prints the last, partial interval.
+     */
+    public synchronized void stop() throws InterruptedException {
+        if (exporter != null) {
+            exporter.interrupt();
+            exporter.join();
+            exporter = null;
+        }
+        export(System.out);
+    }
+
+    /**
+     * Prints a line per reader, antenna and stage with the percentiles of
+     * the values recorded since the last export, and a line per reader and
+     * stage over all its antennas. Stages with nothing recorded are left
+     * out.
+     */
+    public void export(PrintStream out) {
+        synchronized (exportLock) {
+            exportInterval(out);
+        }
+    }
+
+    private void exportInterval(PrintStream out) {
+        LatencyHistogram[][][] h = histograms;
+        String time = new SimpleDateFormat("HH:mm:ss").format(new Date());
+        StringBuilder sb = new StringBuilder();
+
+        for (int id = 0; id < h.length; id++) {
+            ImpinjReader reader = readerIds.readerOf(id);
+            String name = reader.getName() != null ? reader.getName() : reader.getAddress();
+            for (int stage = 0; stage < stages.length; stage++) {
+                readerTotal.clear();
+                int antennas = 0;
+                for (int antenna = 0; antenna < h[id].length; antenna++) {
+                    if (h[id][antenna] == null) {
+                        continue;
+                    }
+                    interval.clear();
+                    h[id][antenna][stage].drainInto(interval);
+                    if (interval.getCount() > 0) {
+                        line(sb, time, name, String.valueOf(antenna), stage, interval);
+                        readerTotal.add(interval);
+                        antennas++;
+                    }
+                }
+                if (antennas > 1) {
+                    line(sb, time, name, "all", stage, readerTotal);
+                }
+            }
+        }
+        if (sb.length() > 0) {
+            out.print(sb);
+        }
+    }
+
+    private void line(StringBuilder sb, String time, String reader, String antenna,
+                      int stage, LatencyHistogram.Snapshot s) {
+        sb.append(time).append(" latency ").append(reader)
+                .append(" antenna ").append(antenna)
+                .append(stage == 0 ? " reader to " : " callback to ")
+                .append(stages[stage])
+                .append(" count=").append(s.getCount());
+        for (double p : PERCENTILES) {
+            sb.append(" p").append(p == Math.rint(p) ? String.valueOf((long) p) : String.valueOf(p))
+                    .append('=').append(s.valueAtPercentile(p) / 1000).append("us");
+        }
+        sb.append(" max=").append(s.getMax() / 1000).append("us\n");
+    }
+
+    private int stageOf(String sink) {
+        for (int i = 1; i < stages.length; i++) {
+            if (stages[i].equals(sink)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown sink " + sink);
+    }
+
+    private static int antennaOf(Tag t) {
+        return t.isAntennaPortNumberPresent() ? t.getAntennaPortNumber() : 0;
+    }
+
+    private LatencyHistogram[][][] add(int id, int antenna) {
+        synchronized (addLock) {
+            LatencyHistogram[][][] h = histograms;
+            if (id < h.length && antenna < h[id].length && h[id][antenna] != null) {
+                return h;
+            }
+            LatencyHistogram[][][] copy = Arrays.copyOf(h, Math.max(h.length, id + 1));
+            for (int i = h.length; i < copy.length; i++) {
+                copy[i] = new LatencyHistogram[0][];
+            }
+            copy[id] = Arrays.copyOf(copy[id], Math.max(copy[id].length, antenna + 1));
+            LatencyHistogram[] perStage = new LatencyHistogram[stages.length];
+            for (int i = 0; i < perStage.length; i++) {
+                perStage[i] = new LatencyHistogram();
+            }
+            copy[id][antenna] = perStage;
+            histograms = copy;
+            return copy;
+        }
+    }
+}
@@ -43,7 +43,11 @@ public class ReadTags {
             antennas.getAntenna((short) 1).setTxPowerinDbm(20.0);
             antennas.getAntenna((short) 1).setRxSensitivityinDbm(-70);
 
-            reader.setTagReportListener(new TagReportListenerImplementation());
+            // with the com.example.sdksamples.tags category at DEBUG every
+            // read is logged too, sample them with -DtagLogSampling=
+            LoggingTagReportListener logging = new LoggingTagReportListener(
+                    new TagReportListenerImplementation());
+            reader.setTagReportListener(logging);
 
             System.out.println("Applying Settings");
             reader.applySettings(settings);
@@ -57,6 +61,7 @@ public class ReadTags {
 
             reader.stop();
             reader.disconnect();
+            logging.close();
         } catch (OctaneSdkException ex) {
             System.out.println(ex.getMessage());
         } catch (Exception ex) {
@@ -0,0 +1,347 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.AntennaChangeListener;
+import com.impinj.octane.AntennaEvent;
+import com.impinj.octane.DirectionReport;
+import com.impinj.octane.DirectionReportListener;
+import com.impinj.octane.GpiChangeListener;
+import com.impinj.octane.GpiEvent;
+import com.impinj.octane.ImpinjReader;
+import com.impinj.octane.KeepaliveEvent;
+import com.impinj.octane.KeepaliveListener;
+import com.impinj.octane.LocationReport;
+import com.impinj.octane.LocationReportListener;
+import com.impinj.octane.TagOpCompleteListener;
+import com.impinj.octane.TagOpReport;
+import com.impinj.octane.TagReport;
+import com.impinj.octane.TagReportListener;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread of its own for one reader's listeners. The listeners returned
+ * by the wrap methods only queue the event and return, so the SDK's thread
+ * for the reader goes straight back to LLRP; the wrapped listeners run on
+ * the loop thread in the order the events arrived. Each reader has its own
+ * loop and bounded queue, so a listener stuck on console or disk I/O for
+ * one reader holds up that reader alone.
+ * <p>
+ * The queue depth, its high water mark and the events dropped are
+ * published with the reader's {@link ReaderMetrics}.
+ */
+public class ReaderEventLoop {
+
+    public enum OverflowPolicy {
+        // discard the oldest queued event to make room for the new one
+        DROP_OLDEST,
+        // make the SDK's thread wait for room, pushing back on the reader
+        BLOCK
+    }
+
+    private static final ConcurrentHashMap<ImpinjReader, ReaderEventLoop> LOOPS =
+            new ConcurrentHashMap<ImpinjReader, ReaderEventLoop>();
+
+    // the callback time of the tag report a loop thread is handling
+    private static final ThreadLocal<long[]> ARRIVAL = new ThreadLocal<long[]>() {
+        @Override
+        protected long[] initialValue() {
+            return new long[1];
+        }
+    };
+
+    private final ImpinjReader reader;
+    private final ArrayBlockingQueue<Runnable> queue;
+    private final OverflowPolicy policy;
+    private final Thread thread;
+    private volatile boolean running;
+
+    private final AtomicLong events = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile int maxDepth;
+
+    public ReaderEventLoop(ImpinjReader reader, int capacity, OverflowPolicy policy) {
+        this.reader = reader;
+        this.queue = new ArrayBlockingQueue<Runnable>(Math.max(1, capacity));
+        this.policy = policy;
+        String name = reader.getName() != null ? reader.getName() : reader.getAddress();
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        }, "reader-loop-" + name);
+        thread.setDaemon(true);
+    }
+
+    /**
+     * The reader's loop, started on first use, holding up to
+     * -DeventQueueSize events, 1024 by default, and handling overflow by
+     * -DeventQueuePolicy, DROP_OLDEST by default.
+     */
+    public static ReaderEventLoop of(ImpinjReader reader) {
+        ReaderEventLoop loop = LOOPS.get(reader);
+        if (loop != null) {
+            return loop;
+        }
+        synchronized (LOOPS) {
+            loop = LOOPS.get(reader);
+            if (loop == null) {
+                loop = new ReaderEventLoop(reader,
+                        Integer.getInteger(SampleProperties.eventQueueSize, 1024),
+                        OverflowPolicy.valueOf(System.getProperty(
+                                SampleProperties.eventQueuePolicy, "DROP_OLDEST")
+                                .toUpperCase()));
+                loop.start();
+                LOOPS.put(reader, loop);
+            }
+            return loop;
+        }
+    }
+
+    /**
+     * Stops the reader's loop after the events queued so far.
+     */
+    public static void remove(ImpinjReader reader) throws InterruptedException {
+        ReaderEventLoop loop = LOOPS.remove(reader);
+        if (loop != null) {
+            loop.stop();
+        }
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        ReaderMetrics.of(reader).eventLoop(this);
+        thread.start();
+    }
+
+    /**
+     * Stops the loop thread after everything queued so far has been
+     * handled.
+     */
+    public void stop() throws InterruptedException {
+        synchronized (this) {
+            running = false;
+        }
+        thread.join();
+    }
+
+    /**
+     * A listener for any number of readers that hands each report to the
+     * loop of the reader it came from, so one listener chain can be shared
+     * by all readers while each reader's reports are processed on its own
+     * loop.
+     */
+    public static TagReportListener wrapTagReportsPerReader(
+            final TagReportListener listener) {
+        return new TagReportListener() {
+            @Override
+            public void onTagReported(ImpinjReader reader, TagReport report) {
+                of(reader).wrapped(listener, reader, report);
+            }
+        };
+    }
+
+    public TagReportListener wrapTagReports(final TagReportListener listener) {
+        return new TagReportListener() {
+            @Override
+            public void onTagReported(ImpinjReader reader, TagReport report) {
+                wrapped(listener, reader, report);
+            }
+        };
+    }
+
+    private void wrapped(final TagReportListener listener, final ImpinjReader reader,
+                         final TagReport report) {
+        final long arrival = System.nanoTime();
+        submit(new Runnable() {
+            @Override
+            public void run() {
+                long[] current = ARRIVAL.get();
+                current[0] = arrival;
+                try {
+                    listener.onTagReported(reader, report);
+                } finally {
+                    current[0] = 0;
+                }
+            }
+        });
+    }
+
+    /**
+     * When the tag report being handled on this loop thread reached the
+     * SDK callback, so stages behind the loop can count the time it
+     * waited in the queue; otherwise when nothing is being handled.
+     */
+    public static long arrivalNanos(long otherwise) {
+        long arrival = ARRIVAL.get()[0];
+        return arrival != 0 ? arrival : otherwise;
+    }
+
+    public LocationReportListener wrapLocationReports(final LocationReportListener listener) {
+        return new LocationReportListener() {
+            @Override
+            public void onLocationReported(final ImpinjReader reader,
+                                           final LocationReport report) {
+                submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onLocationReported(reader, report);
+                    }
+                });
+            }
+        };
+    }
+
+    public DirectionReportListener wrapDirectionReports(final DirectionReportListener listener) {
+        return new DirectionReportListener() {
+            @Override
+            public void onDirectionReported(final ImpinjReader reader,
+                                            final DirectionReport report) {
+                submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onDirectionReported(reader, report);
+                    }
+                });
+            }
+        };
+    }
+
+    public TagOpCompleteListener wrapTagOpComplete(final TagOpCompleteListener listener) {
+        return new TagOpCompleteListener() {
+            @Override
+            public void onTagOpComplete(final ImpinjReader reader, final TagOpReport results) {
+                submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onTagOpComplete(reader, results);
+                    }
+                });
+            }
+        };
+    }
+
+    public KeepaliveListener wrapKeepalives(final KeepaliveListener listener) {
+        return new KeepaliveListener() {
+            @Override
+            public void onKeepalive(final ImpinjReader reader, final KeepaliveEvent e) {
+                submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onKeepalive(reader, e);
+                    }
+                });
+            }
+        };
+    }
+
+    public GpiChangeListener wrapGpiChanges(final GpiChangeListener listener) {
+        return new GpiChangeListener() {
+            @Override
+            public void onGpiChanged(final ImpinjReader reader, final GpiEvent e) {
+                submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onGpiChanged(reader, e);
+                    }
+                });
+            }
+        };
+    }
+
+    public AntennaChangeListener wrapAntennaChanges(final AntennaChangeListener listener) {
+        return new AntennaChangeListener() {
+            @Override
+            public void onAntennaChanged(final ImpinjReader reader, final AntennaEvent e) {
+                submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onAntennaChanged(reader, e);
+                    }
+                });
+            }
+        };
+    }
+
+    /**
+     * Queues work to run on the loop thread after the events before it.
+     */
+    public void submit(Runnable event) {
+        events.incrementAndGet();
+        if (policy == OverflowPolicy.BLOCK) {
+            try {
+                queue.put(event);
+            } catch (InterruptedException ex) {
+                dropped.incrementAndGet();
+                Thread.currentThread().interrupt();
+                return;
+            }
+        } else {
+            while (!queue.offer(event)) {
+                if (queue.poll() != null) {
+                    dropped.incrementAndGet();
+                }
+            }
+        }
+        int depth = queue.size();
+        if (depth > maxDepth) {
+            maxDepth = depth;
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            Runnable event;
+            try {
+                event = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                return;
+            }
+            if (event == null) {
+                if (!running) {
+                    return;
+                }
+                continue;
+            }
+            try {
+                event.run();
+            } catch (RuntimeException ex) {
+                // one bad event mustn't stop the reader's listeners
+                System.out.println("Listener failed on " + thread.getName() + ": " + ex);
+            }
+        }
+    }
+
+    public int getDepth() {
+        return queue.size();
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public int getCapacity() {
+        return queue.size() + queue.remainingCapacity();
+    }
+
+    public long getEvents() {
+        return events.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Clears the high water mark.
+     */
+    public void resetMaxDepth() {
+        maxDepth = queue.size();
+    }
+}
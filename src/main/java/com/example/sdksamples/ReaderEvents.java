@@ -2,6 +2,7 @@ package com.example.sdksamples;
 
 import com.impinj.octane.*;
 
+import java.io.File;
 import java.util.Scanner;
 
 
@@ -46,11 +47,6 @@ public class ReaderEvents {
             reader.setGpiChangeListener(
                     new GpiChangeListenerImplementation());
 
-            // turn me on to be notified when the connection to the reader is
-            // list
-            reader.setConnectionLostListener(
-                    new ConnectionLostListenerImplementation());
-
             // turn me on to be notified when we receive a keep alive from the
             // reader
             reader.setKeepaliveListener(
@@ -85,15 +81,55 @@ public class ReaderEvents {
             //reader.setTagReportListener(
             //        new TagReportListenerImplementation());            
 
+            // instead hand the tags to a sink in batches of up to 1000 reads
+            // or every 250 ms, a file or database sink writing a batch at a
+            // time can keep up with MaxThroughput where one write per tag
+            // can't
+            TagReadBatchSink sink = new TagReadBatchSink() {
+                @Override
+                public void onBatch(TagReadBatch batch) {
+                    System.out.println("Tag_Batch--reads: " + batch.size());
+                }
+            };
+
+            // with -DjournalDir the batches go to a durable binary journal
+            // instead, synced to disk every 10000 reads or second; full
+            // segments are compressed in the background, see
+            // -DcompactThreads and -DcompactMBps
+            TagReadJournal journal = null;
+            String journalDir = System.getProperty(SampleProperties.journalDir);
+            if (journalDir != null) {
+                journal = new TagReadJournal(new File(journalDir),
+                        64 * 1024 * 1024, 10000, 1000);
+                TagReadCompactor.shared().addJournal(journal.getDirectory());
+                sink = journal;
+            }
+
+            TagReadBatcher batcher = new TagReadBatcher(1000, 250, sink);
+            reader.setTagReportListener(batcher);
+
             // Start the reader
             reader.start();
 
+            // when the connection to the reader is lost, reconnect with
+            // backoff and pick up where it left off; the listeners set above
+            // stay with the reader
+            ReaderSupervisor supervisor = new ReaderSupervisor(reader, hostname, null);
+            supervisor.adopt(settings, true);
+
             System.out.println("Press Enter to stop.");
             Scanner s = new Scanner(System.in);
             s.nextLine();
 
             System.out.println("Stopping  " + hostname);
+            supervisor.stop();
             reader.stop();
+            batcher.close();
+            if (journal != null) {
+                journal.close();
+                System.out.println("Journaled " + journal.getRecords()
+                        + " reads to " + journalDir);
+            }
 
             System.out.println("Press Enter to exit.");
             s.nextLine();
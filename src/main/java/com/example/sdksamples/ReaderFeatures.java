@@ -0,0 +1,165 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.FeatureSet;
+import com.impinj.octane.RxSensitivityTableEntry;
+import com.impinj.octane.TxPowerTableEntry;
+
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * The parts of a reader's FeatureSet the samples use, in a form that can
+ * be kept on disk by {@link ReaderInfoCache}. The model number, serial
+ * number and firmware version identify the reader and its defaults.
+ */
+public class ReaderFeatures {
+
+    private final String modelName;
+    private final String modelNumber;
+    private final String serialNumber;
+    private final String firmwareVersion;
+    private final int antennaCount;
+    private final int gpiCount;
+    private final int gpoCount;
+    private final boolean hoppingRegion;
+    private final double[] txPowersDbm;
+    private final double[] rxSensitivitiesDbm;
+
+    private ReaderFeatures(Properties p) {
+        modelName = p.getProperty("modelName");
+        modelNumber = p.getProperty("modelNumber");
+        serialNumber = p.getProperty("serialNumber");
+        firmwareVersion = p.getProperty("firmwareVersion");
+        antennaCount = Integer.parseInt(p.getProperty("antennaCount", "0"));
+        gpiCount = Integer.parseInt(p.getProperty("gpiCount", "0"));
+        gpoCount = Integer.parseInt(p.getProperty("gpoCount", "0"));
+        hoppingRegion = Boolean.parseBoolean(p.getProperty("hoppingRegion"));
+        txPowersDbm = parse(p.getProperty("txPowersDbm", ""));
+        rxSensitivitiesDbm = parse(p.getProperty("rxSensitivitiesDbm", ""));
+    }
+
+    public static ReaderFeatures of(FeatureSet features) {
+        Properties p = new Properties();
+        p.setProperty("modelName", String.valueOf(features.getModelName()));
+        p.setProperty("modelNumber", String.valueOf(features.getModelNumber()));
+        p.setProperty("serialNumber", String.valueOf(features.getSerialNumber()));
+        p.setProperty("firmwareVersion", String.valueOf(features.getFirmwareVersion()));
+        p.setProperty("antennaCount", String.valueOf(features.getAntennaCount()));
+        p.setProperty("gpiCount", String.valueOf(features.getGpiCount()));
+        p.setProperty("gpoCount", String.valueOf(features.getGpoCount()));
+        p.setProperty("hoppingRegion", String.valueOf(features.isHoppingRegion()));
+        List<TxPowerTableEntry> tx = features.getTxPowers();
+        double[] txDbm = new double[tx.size()];
+        for (int i = 0; i < txDbm.length; i++) {
+            txDbm[i] = tx.get(i).Dbm;
+        }
+        p.setProperty("txPowersDbm", join(txDbm));
+        List<RxSensitivityTableEntry> rx = features.getRxSensitivities();
+        double[] rxDbm = new double[rx.size()];
+        for (int i = 0; i < rxDbm.length; i++) {
+            rxDbm[i] = rx.get(i).Dbm;
+        }
+        p.setProperty("rxSensitivitiesDbm", join(rxDbm));
+        return new ReaderFeatures(p);
+    }
+
+    static ReaderFeatures fromProperties(Properties p) {
+        return new ReaderFeatures(p);
+    }
+
+    Properties toProperties() {
+        Properties p = new Properties();
+        p.setProperty("modelName", String.valueOf(modelName));
+        p.setProperty("modelNumber", String.valueOf(modelNumber));
+        p.setProperty("serialNumber", String.valueOf(serialNumber));
+        p.setProperty("firmwareVersion", String.valueOf(firmwareVersion));
+        p.setProperty("antennaCount", String.valueOf(antennaCount));
+        p.setProperty("gpiCount", String.valueOf(gpiCount));
+        p.setProperty("gpoCount", String.valueOf(gpoCount));
+        p.setProperty("hoppingRegion", String.valueOf(hoppingRegion));
+        p.setProperty("txPowersDbm", join(txPowersDbm));
+        p.setProperty("rxSensitivitiesDbm", join(rxSensitivitiesDbm));
+        return p;
+    }
+
+    /**
+     * Model number, serial number and firmware version; readers with the
+     * same identity have the same default settings.
+     */
+    public String getIdentity() {
+        return modelNumber + "-" + serialNumber + "-" + firmwareVersion;
+    }
+
+    /**
+     * Whether the two describe the same reader with the same features.
+     */
+    public boolean sameAs(ReaderFeatures other) {
+        return toProperties().equals(other.toProperties());
+    }
+
+    public String getModelName() {
+        return modelName;
+    }
+
+    public String getModelNumber() {
+        return modelNumber;
+    }
+
+    public String getSerialNumber() {
+        return serialNumber;
+    }
+
+    public String getFirmwareVersion() {
+        return firmwareVersion;
+    }
+
+    public int getAntennaCount() {
+        return antennaCount;
+    }
+
+    public int getGpiCount() {
+        return gpiCount;
+    }
+
+    public int getGpoCount() {
+        return gpoCount;
+    }
+
+    public boolean isHoppingRegion() {
+        return hoppingRegion;
+    }
+
+    /**
+     * The transmit powers the reader supports.
+     */
+    public double[] getTxPowersDbm() {
+        return txPowersDbm.clone();
+    }
+
+    /**
+     * The receive sensitivities the reader supports.
+     */
+    public double[] getRxSensitivitiesDbm() {
+        return rxSensitivitiesDbm.clone();
+    }
+
+    private static double[] parse(String list) {
+        if (list.isEmpty()) {
+            return new double[0];
+        }
+        String[] parts = list.split(",");
+        double[] values = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = Double.parseDouble(parts[i]);
+        }
+        return values;
+    }
+
+    private static String join(double[] values) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            sb.append(i == 0 ? "" : ",").append(values[i]);
+        }
+        return sb.toString();
+    }
+}
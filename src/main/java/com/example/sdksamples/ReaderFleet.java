@@ -0,0 +1,362 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.ImpinjReader;
+import com.impinj.octane.OctaneSdkException;
+import com.impinj.octane.Settings;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Brings a fleet of readers up in parallel: connect, query the default
+ * settings, apply them and start, with at most a given number of readers in
+ * progress at once and a time limit on each step. A reader that doesn't
+ * answer only holds up its own slot until its step times out, so startup
+ * takes about readers / concurrency times the time of one reader rather
+ * than the sum of them all.
+ * <p>
+ * The SDK calls can't be interrupted, so a call that times out is left to
+ * finish on its own thread and the reader is disconnected once it does.
+ */
+public class ReaderFleet {
+
+    public enum Phase {
+        CONNECT, QUERY_SETTINGS, APPLY_SETTINGS, START
+    }
+
+    /**
+     * Adjusts each reader's settings and attaches its listeners before the
+     * settings are applied. Called on the fleet's threads.
+     */
+    public interface Setup {
+        void prepare(ImpinjReader reader, Settings settings) throws OctaneSdkException;
+    }
+
+    /**
+     * How far one reader got and how long each step took.
+     */
+    public static class Result {
+        private final String hostname;
+        private final ImpinjReader reader;
+        private final long[] millis = new long[Phase.values().length];
+        private Settings settings;
+        private Phase failedPhase;
+        private String error;
+        // the call still running after its step timed out
+        private Future<Void> stuck;
+
+        Result(String hostname, ImpinjReader reader) {
+            this.hostname = hostname;
+            this.reader = reader;
+            for (int i = 0; i < millis.length; i++) {
+                millis[i] = -1;
+            }
+        }
+
+        public String getHostname() {
+            return hostname;
+        }
+
+        public ImpinjReader getReader() {
+            return reader;
+        }
+
+        /**
+         * The settings applied to the reader, null when it got no further
+         * than connecting.
+         */
+        public Settings getSettings() {
+            return settings;
+        }
+
+        public boolean isUp() {
+            return failedPhase == null;
+        }
+
+        /**
+         * The step that failed or timed out, null when the reader is up.
+         */
+        public Phase getFailedPhase() {
+            return failedPhase;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        /**
+         * How long a step took in milliseconds, -1 when it didn't finish.
+         */
+        public long getMillis(Phase phase) {
+            return millis[phase.ordinal()];
+        }
+    }
+
+    private final int concurrency;
+    private final long connectTimeoutMillis;
+    private final long phaseTimeoutMillis;
+    private final ExecutorService calls;
+    private ReaderInfoCache cache;
+
+    /**
+     * @param concurrency          how many readers are brought up at once
+     * @param connectTimeoutMillis how long to wait for a connection
+     * @param phaseTimeoutMillis   how long to wait for each of the other steps
+     */
+    public ReaderFleet(int concurrency, long connectTimeoutMillis, long phaseTimeoutMillis) {
+        this.concurrency = Math.max(1, concurrency);
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.phaseTimeoutMillis = phaseTimeoutMillis;
+        // unbounded, a call that hangs past its timeout keeps its thread
+        calls = Executors.newCachedThreadPool(threads("reader-fleet-call-"));
+    }
+
+    /**
+     * A fleet set up with -DfleetConcurrency, 8 by default,
+     * -DfleetConnectSeconds, 10 by default, and -DfleetPhaseSeconds, 30 by
+     * default, using the shared {@link ReaderInfoCache}.
+     */
+    public static ReaderFleet fromProperties() {
+        ReaderFleet fleet = new ReaderFleet(
+                Integer.getInteger(SampleProperties.fleetConcurrency, 8),
+                Integer.getInteger(SampleProperties.fleetConnectSeconds, 10) * 1000L,
+                Integer.getInteger(SampleProperties.fleetPhaseSeconds, 30) * 1000L);
+        fleet.setCache(ReaderInfoCache.shared());
+        return fleet;
+    }
+
+    /**
+     * Takes the default settings of readers seen before from a cache
+     * instead of querying them, null to always query.
+     */
+    public void setCache(ReaderInfoCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Brings up a reader per hostname and waits until each one is up or
+     * has failed. The results are in hostname order.
+     */
+    public List<Result> bringUp(List<String> hostnames, final Setup setup)
+            throws InterruptedException {
+        ExecutorService slots = Executors.newFixedThreadPool(
+                Math.min(concurrency, Math.max(1, hostnames.size())),
+                threads("reader-fleet-"));
+        List<Result> results = new ArrayList<Result>();
+        List<Future<?>> done = new ArrayList<Future<?>>();
+        try {
+            for (String hostname : hostnames) {
+                final Result result = new Result(hostname, newReader(hostname));
+                results.add(result);
+                done.add(slots.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        bringUp(result, setup);
+                    }
+                }));
+            }
+            for (Future<?> f : done) {
+                try {
+                    f.get();
+                } catch (ExecutionException ex) {
+                    // bringUp records its own failures
+                }
+            }
+        } finally {
+            slots.shutdownNow();
+        }
+        return results;
+    }
+
+    /**
+     * The reader for a hostname, named as the samples name them.
+     */
+    protected ImpinjReader newReader(String hostname) {
+        ImpinjReader reader = new ImpinjReader();
+        reader.setName("Reader_" + hostname);
+        return reader;
+    }
+
+    private void bringUp(final Result result, final Setup setup) {
+        final ImpinjReader reader = result.reader;
+        boolean up = step(result, Phase.CONNECT, connectTimeoutMillis, new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                reader.connect(result.hostname);
+                return null;
+            }
+        }) && step(result, Phase.QUERY_SETTINGS, phaseTimeoutMillis, new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                result.settings = cache != null
+                        ? cache.get(reader, result.hostname).getDefaultSettings()
+                        : reader.queryDefaultSettings();
+                return null;
+            }
+        }) && step(result, Phase.APPLY_SETTINGS, phaseTimeoutMillis, new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                if (setup != null) {
+                    setup.prepare(reader, result.settings);
+                }
+                SettingsManager.of(reader).apply(result.settings);
+                return null;
+            }
+        }) && step(result, Phase.START, phaseTimeoutMillis, new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                reader.start();
+                return null;
+            }
+        });
+        if (!up) {
+            disconnectLater(reader, result.stuck);
+        }
+    }
+
+    private boolean step(Result result, Phase phase, long timeoutMillis, Callable<Void> call) {
+        long start = System.nanoTime();
+        Future<Void> f = calls.submit(call);
+        try {
+            f.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            result.millis[phase.ordinal()] =
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            return true;
+        } catch (TimeoutException ex) {
+            // left running, interrupting doesn't stop an SDK call
+            result.stuck = f;
+            result.error = "timed out after " + timeoutMillis + " ms";
+        } catch (ExecutionException ex) {
+            result.error = ex.getCause().toString();
+        } catch (InterruptedException ex) {
+            result.stuck = f;
+            result.error = "interrupted";
+            Thread.currentThread().interrupt();
+        }
+        result.failedPhase = phase;
+        return false;
+    }
+
+    private void disconnectLater(final ImpinjReader reader, final Future<Void> stuck) {
+        calls.submit(new Runnable() {
+            @Override
+            public void run() {
+                if (stuck != null) {
+                    // a connect that finishes late would otherwise leave
+                    // the reader connected
+                    try {
+                        stuck.get();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    } catch (Exception ex) {
+                        // failed, disconnect anyway
+                    }
+                }
+                reader.disconnect();
+            }
+        });
+    }
+
+    /**
+     * Stops and disconnects the readers that came up, as many at once as
+     * they were brought up, waiting at most the step timeout for each.
+     */
+    public void stop(List<Result> results) throws InterruptedException {
+        ExecutorService slots = Executors.newFixedThreadPool(concurrency,
+                threads("reader-fleet-"));
+        List<Future<?>> done = new ArrayList<Future<?>>();
+        for (final Result result : results) {
+            if (!result.isUp()) {
+                continue;
+            }
+            done.add(slots.submit(new Runnable() {
+                @Override
+                public void run() {
+                    Future<Void> f = calls.submit(new Callable<Void>() {
+                        @Override
+                        public Void call() throws Exception {
+                            result.reader.stop();
+                            result.reader.disconnect();
+                            return null;
+                        }
+                    });
+                    try {
+                        f.get(phaseTimeoutMillis, TimeUnit.MILLISECONDS);
+                    } catch (TimeoutException ex) {
+                        System.out.println("Timed out stopping " + result.reader.getName());
+                    } catch (ExecutionException ex) {
+                        System.out.println("Failed to stop " + result.reader.getName()
+                                + ": " + ex.getCause().getMessage());
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }));
+        }
+        try {
+            for (Future<?> f : done) {
+                try {
+                    f.get();
+                } catch (ExecutionException ex) {
+                    // reported by the task
+                }
+            }
+        } finally {
+            slots.shutdownNow();
+        }
+    }
+
+    /**
+     * Stops the call threads; calls that are still hung are abandoned.
+     */
+    public void shutdown() {
+        calls.shutdown();
+    }
+
+    /**
+     * Prints a line per reader with the time each step took, and a summary.
+     */
+    public static void printReport(List<Result> results, PrintStream out) {
+        out.println(String.format("%-32s %-6s %9s %9s %9s %9s  %s", "reader", "status",
+                "connect", "query", "apply", "start", "error"));
+        int up = 0;
+        for (Result r : results) {
+            if (r.isUp()) {
+                up++;
+            }
+            out.println(String.format("%-32s %-6s %9s %9s %9s %9s  %s",
+                    r.reader.getName(), r.isUp() ? "up" : "FAILED",
+                    millis(r, Phase.CONNECT), millis(r, Phase.QUERY_SETTINGS),
+                    millis(r, Phase.APPLY_SETTINGS), millis(r, Phase.START),
+                    r.isUp() ? "" : r.failedPhase + ": " + r.error));
+        }
+        out.println(up + " of " + results.size() + " readers up");
+    }
+
+    private static String millis(Result r, Phase phase) {
+        long ms = r.getMillis(phase);
+        return ms < 0 ? "-" : ms + " ms";
+    }
+
+    private static ThreadFactory threads(final String prefix) {
+        final AtomicInteger count = new AtomicInteger();
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, prefix + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        };
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.ImpinjReader;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Assigns small integer ids to reader instances so reads can be stored in
+ * binary form and mapped back to their reader later.
+ */
+public class ReaderIds {
+
+    private final ConcurrentHashMap<ImpinjReader, Integer> ids =
+            new ConcurrentHashMap<ImpinjReader, Integer>();
+    private final CopyOnWriteArrayList<ImpinjReader> readers =
+            new CopyOnWriteArrayList<ImpinjReader>();
+
+    public int idOf(ImpinjReader reader) {
+        if (reader == null) {
+            return -1;
+        }
+        Integer id = ids.get(reader);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(reader);
+            if (id == null) {
+                id = readers.size();
+                readers.add(reader);
+                ids.put(reader, id);
+            }
+            return id;
+        }
+    }
+
+    public ImpinjReader readerOf(int id) {
+        if (id < 0 || id >= readers.size()) {
+            return null;
+        }
+        return readers.get(id);
+    }
+
+    public int size() {
+        return readers.size();
+    }
+}
@@ -0,0 +1,283 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.ImpinjReader;
+import com.impinj.octane.OctaneSdkException;
+import com.impinj.octane.Settings;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps each reader's features and default settings on disk, so a sample
+ * that has seen a reader before can skip queryDefaultSettings when it
+ * starts. On xArrays, and across a fleet, that round trip is a large part
+ * of startup.
+ * <p>
+ * The features are kept per hostname and the default settings per model
+ * number, serial number and firmware version. The reader's features are
+ * still queried on every start, as they are cheap, and compared with the
+ * cached ones before anything cached is used. If the reader was replaced or
+ * its firmware or region changed, the defaults are queried again and stored
+ * in place of the old ones. Delete the directory to start over.
+ */
+public class ReaderInfoCache {
+
+    private static final String FEATURES_SUFFIX = ".features";
+    private static final String SETTINGS_SUFFIX = ".settings.xml";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private static ReaderInfoCache shared;
+
+    /**
+     * A reader's features and default settings.
+     */
+    public static class Entry {
+        private final ImpinjReader reader;
+        private final File settingsFile;
+        private final boolean cached;
+        private final boolean stale;
+        private final ReaderFeatures features;
+        private Settings queried;
+
+        Entry(ImpinjReader reader, ReaderFeatures features, File settingsFile,
+              Settings queried, boolean stale) {
+            this.reader = reader;
+            this.features = features;
+            this.settingsFile = settingsFile;
+            this.queried = queried;
+            this.cached = queried == null;
+            this.stale = stale;
+        }
+
+        public ReaderFeatures getFeatures() {
+            return features;
+        }
+
+        /**
+         * The reader's default settings, a new copy each call so the caller
+         * may change it.
+         */
+        public synchronized Settings getDefaultSettings() throws OctaneSdkException {
+            if (queried != null) {
+                Settings settings = queried;
+                queried = null;
+                return settings;
+            }
+            if (settingsFile == null || !settingsFile.exists()) {
+                // not cached after all, ask again
+                return reader.queryDefaultSettings();
+            }
+            try {
+                return Settings.load(settingsFile.getPath());
+            } catch (Exception ex) {
+                throw new OctaneSdkException("Could not load cached settings "
+                        + settingsFile + ": " + ex.getMessage());
+            }
+        }
+
+        /**
+         * Whether the default settings came from the cache.
+         */
+        public boolean isCached() {
+            return cached;
+        }
+
+        /**
+         * Whether the reader had changed since it was cached, so its
+         * defaults were queried again.
+         */
+        public boolean isStale() {
+            return stale;
+        }
+    }
+
+    private final File directory;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong staleEntries = new AtomicLong();
+
+    public ReaderInfoCache(File directory) {
+        this.directory = directory;
+        directory.mkdirs();
+    }
+
+    /**
+     * The cache shared by the samples, in -DreaderCacheDir, by default
+     * .sdksamples/readers in the user's home directory. Null with
+     * -DreaderCache=false, the samples then query every time.
+     */
+    public static synchronized ReaderInfoCache shared() {
+        if (!Boolean.parseBoolean(System.getProperty(SampleProperties.readerCache, "true"))) {
+            return null;
+        }
+        if (shared == null) {
+            String dir = System.getProperty(SampleProperties.readerCacheDir);
+            shared = new ReaderInfoCache(dir != null ? new File(dir)
+                    : new File(System.getProperty("user.home"), ".sdksamples/readers"));
+        }
+        return shared;
+    }
+
+    /**
+     * The features and default settings of a connected reader, from the
+     * shared cache, or queried from the reader when the cache is off.
+     */
+    public static Entry sharedEntry(ImpinjReader reader, String hostname)
+            throws OctaneSdkException {
+        ReaderInfoCache cache = shared();
+        if (cache == null) {
+            return new Entry(reader, ReaderFeatures.of(reader.queryFeatureSet()), null,
+                    reader.queryDefaultSettings(), false);
+        }
+        return cache.get(reader, hostname);
+    }
+
+    /**
+     * The features and default settings of a connected reader. The
+     * features are always queried; the default settings are queried and
+     * stored when the reader hasn't been seen before or has changed since.
+     */
+    public Entry get(ImpinjReader reader, String hostname) throws OctaneSdkException {
+        ReaderFeatures features = ReaderFeatures.of(reader.queryFeatureSet());
+        ReaderFeatures cached = readFeatures(hostname);
+        File settingsFile = settingsFile(features);
+        if (cached != null && features.sameAs(cached) && settingsFile.exists()) {
+            hits.incrementAndGet();
+            return new Entry(reader, features, settingsFile, null, false);
+        }
+        boolean stale = cached != null && !features.sameAs(cached);
+        if (stale) {
+            staleEntries.incrementAndGet();
+            System.out.println("Cached settings of " + hostname + " were out of date (now "
+                    + features.getIdentity() + "), querying them again");
+        }
+        misses.incrementAndGet();
+        Settings settings = reader.queryDefaultSettings();
+        store(hostname, features, settings);
+        return new Entry(reader, features, settingsFile, settings, stale);
+    }
+
+    /**
+     * Forgets a reader, its next start queries it again.
+     */
+    public void invalidate(String hostname) {
+        new File(directory, fileName(hostname) + FEATURES_SUFFIX).delete();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getStaleEntries() {
+        return staleEntries.get();
+    }
+
+    private ReaderFeatures readFeatures(String hostname) {
+        File file = new File(directory, fileName(hostname) + FEATURES_SUFFIX);
+        if (!file.exists()) {
+            return null;
+        }
+        Properties p = new Properties();
+        try {
+            InputStream in = new FileInputStream(file);
+            try {
+                p.load(in);
+            } finally {
+                in.close();
+            }
+            return ReaderFeatures.fromProperties(p);
+        } catch (IOException ex) {
+            System.out.println("Could not read " + file + ": " + ex.getMessage());
+        } catch (RuntimeException ex) {
+            System.out.println("Ignoring damaged " + file + ": " + ex.getMessage());
+        }
+        return null;
+    }
+
+    private synchronized void store(String hostname, ReaderFeatures features,
+                                    Settings settings) {
+        // the settings first, so features are never there without them;
+        // each written aside and renamed so a crash can't leave half a file
+        File settingsFile = settingsFile(features);
+        File featuresFile = new File(directory, fileName(hostname) + FEATURES_SUFFIX);
+        try {
+            File temp = new File(settingsFile.getPath() + TEMP_SUFFIX);
+            settings.save(temp.getPath());
+            Files.move(temp.toPath(), settingsFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+
+            temp = new File(featuresFile.getPath() + TEMP_SUFFIX);
+            OutputStream out = new FileOutputStream(temp);
+            try {
+                features.toProperties().store(out, hostname);
+            } finally {
+                out.close();
+            }
+            Files.move(temp.toPath(), featuresFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (Exception ex) {
+            // the sample still has what it queried
+            System.out.println("Could not cache settings of " + hostname + ": "
+                    + ex.getMessage());
+        }
+    }
+
+    private File settingsFile(ReaderFeatures features) {
+        return new File(directory, fileName(features.getIdentity()) + SETTINGS_SUFFIX);
+    }
+
+    private static String fileName(String name) {
+        return name.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    /**
+     * Connects to a reader and times getting its features and default
+     * settings cold, from the reader, and warm, from the cache.
+     */
+    public static void main(String[] args) {
+        String hostname = System.getProperty(SampleProperties.hostname);
+        if (hostname == null) {
+            System.out.println("Must specify the '" + SampleProperties.hostname
+                    + "' property");
+            return;
+        }
+        ReaderInfoCache cache = shared();
+        if (cache == null) {
+            System.out.println("The reader cache is off");
+            return;
+        }
+        ImpinjReader reader = new ImpinjReader();
+        try {
+            reader.connect(hostname);
+
+            cache.invalidate(hostname);
+            long start = System.nanoTime();
+            cache.get(reader, hostname).getDefaultSettings();
+            long cold = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            Entry entry = cache.get(reader, hostname);
+            entry.getDefaultSettings();
+            long warm = System.nanoTime() - start;
+
+            System.out.println(String.format("cold %.1f ms, warm %.1f ms%s",
+                    cold / 1e6, warm / 1e6, entry.isCached() ? "" : " (not cached)"));
+            reader.disconnect();
+        } catch (OctaneSdkException ex) {
+            System.out.println(ex.getMessage());
+        }
+    }
+}
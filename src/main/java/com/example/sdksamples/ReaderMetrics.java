@@ -0,0 +1,513 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.ImpinjReader;
+import com.impinj.octane.QtGetConfigResultStatus;
+import com.impinj.octane.ReadResultStatus;
+import com.impinj.octane.TagBlockPermalockOpResult;
+import com.impinj.octane.TagKillOpResult;
+import com.impinj.octane.TagLockOpResult;
+import com.impinj.octane.TagOpResult;
+import com.impinj.octane.TagQtGetOpResult;
+import com.impinj.octane.TagQtSetOpResult;
+import com.impinj.octane.TagReadOpResult;
+import com.impinj.octane.TagWriteOpResult;
+import com.impinj.octane.WriteResultStatus;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for one reader, published as an MXBean named
+ * com.example.sdksamples:type=ReaderMetrics,reader=&lt;reader name&gt;. The
+ * sample listeners update them through {@link #of(ImpinjReader)}.
+ * <p>
+ * Counters are LongAdders, striped so that several callback threads can
+ * count at once without contending on one cache line, and they never
+ * allocate once a reader and antenna have been seen.
+ */
+public class ReaderMetrics implements ReaderMetricsMXBean {
+
+    private static final ConcurrentHashMap<ImpinjReader, ReaderMetrics> METRICS =
+            new ConcurrentHashMap<ImpinjReader, ReaderMetrics>();
+
+    private final String name;
+    private ObjectName objectName;
+
+    private final LongAdder tagReads = new LongAdder();
+    private final Rate tagReadRate = new Rate();
+    private volatile LongAdder[] antennaReads = new LongAdder[0];
+    private volatile Rate[] antennaRates = new Rate[0];
+    private final LongAdder uniqueTags = new LongAdder();
+    private final Rate uniqueTagRate = new Rate();
+    private final LongAdder dedupHits = new LongAdder();
+
+    private final LongAdder tagOpSuccesses = new LongAdder();
+    private final LongAdder tagOpFailures = new LongAdder();
+    // keyed by the SDK's result status enum constants
+    private final ConcurrentHashMap<Object, LongAdder> tagOpResults =
+            new ConcurrentHashMap<Object, LongAdder>();
+
+    private final LongAdder bufferWarnings = new LongAdder();
+    private volatile int lastBufferPercentFull;
+    private final LongAdder bufferOverflows = new LongAdder();
+
+    private final LongAdder keepalives = new LongAdder();
+    private long lastKeepaliveNanos;
+    private volatile long lastKeepaliveGapMillis;
+    private volatile long maxKeepaliveGapMillis;
+
+    private final LongAdder connectionAttempts = new LongAdder();
+    private final LongAdder connectionLosses = new LongAdder();
+    private final LongAdder reconnects = new LongAdder();
+    private final LongAdder reconnectAttempts = new LongAdder();
+    private long lostNanos;
+    private volatile long lastOutageMillis;
+    private volatile long maxOutageMillis;
+    private volatile long totalOutageMillis;
+
+    private volatile ReaderEventLoop eventLoop;
+
+    ReaderMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * The metrics of the reader, registered with the platform MBean server
+     * the first time they are asked for.
+     */
+    public static ReaderMetrics of(ImpinjReader reader) {
+        ReaderMetrics m = METRICS.get(reader);
+        if (m != null) {
+            return m;
+        }
+        synchronized (METRICS) {
+            m = METRICS.get(reader);
+            if (m == null) {
+                String name = reader.getName() != null ? reader.getName()
+                        : reader.getAddress() != null ? reader.getAddress()
+                        : "reader-" + METRICS.size();
+                m = new ReaderMetrics(name);
+                m.register();
+                METRICS.put(reader, m);
+            }
+            return m;
+        }
+    }
+
+    /**
+     * Unregisters the reader's metrics, for readers that are discarded.
+     */
+    public static void remove(ImpinjReader reader) {
+        ReaderMetrics m = METRICS.remove(reader);
+        if (m != null && m.objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(m.objectName);
+            } catch (JMException ex) {
+                // already gone
+            }
+        }
+    }
+
+    private void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        // two readers may share a name, number the later ones
+        for (int n = 1; objectName == null; n++) {
+            try {
+                ObjectName on = new ObjectName("com.example.sdksamples:type=ReaderMetrics,reader="
+                        + ObjectName.quote(n == 1 ? name : name + "#" + n));
+                server.registerMBean(this, on);
+                objectName = on;
+            } catch (InstanceAlreadyExistsException ex) {
+                // try the next number
+            } catch (JMException ex) {
+                System.out.println("Could not publish metrics for " + name + ": "
+                        + ex.getMessage());
+                return;
+            }
+        }
+    }
+
+    public void tagRead(int antenna) {
+        tagReads.increment();
+        if (antenna >= 0) {
+            LongAdder[] a = antennaReads;
+            if (antenna >= a.length) {
+                a = addAntenna(antenna);
+            }
+            a[antenna].increment();
+        }
+    }
+
+    public void uniqueTag() {
+        uniqueTags.increment();
+    }
+
+    public void dedupHit() {
+        dedupHits.increment();
+    }
+
+    /**
+     * Counts the result by its status. Read, write and QT get results also
+     * count as a success or failure; the samples never check the status of
+     * the other operations, so those are only counted by status.
+     */
+    public void tagOpResult(TagOpResult result) {
+        Object status = statusOf(result);
+        if (status == null) {
+            return;
+        }
+        if (result instanceof TagReadOpResult) {
+            succeeded(status == ReadResultStatus.Success);
+        } else if (result instanceof TagWriteOpResult) {
+            succeeded(status == WriteResultStatus.Success);
+        } else if (result instanceof TagQtGetOpResult) {
+            succeeded(status == QtGetConfigResultStatus.Success);
+        }
+        LongAdder count = tagOpResults.get(status);
+        if (count == null) {
+            LongAdder added = new LongAdder();
+            count = tagOpResults.putIfAbsent(status, added);
+            if (count == null) {
+                count = added;
+            }
+        }
+        count.increment();
+    }
+
+    private void succeeded(boolean success) {
+        if (success) {
+            tagOpSuccesses.increment();
+        } else {
+            tagOpFailures.increment();
+        }
+    }
+
+    public void bufferWarning(int percentFull) {
+        bufferWarnings.increment();
+        lastBufferPercentFull = percentFull;
+    }
+
+    public void bufferOverflow() {
+        bufferOverflows.increment();
+    }
+
+    public synchronized void keepalive() {
+        keepalives.increment();
+        long now = System.nanoTime();
+        if (lastKeepaliveNanos != 0) {
+            long gap = TimeUnit.NANOSECONDS.toMillis(now - lastKeepaliveNanos);
+            lastKeepaliveGapMillis = gap;
+            maxKeepaliveGapMillis = Math.max(maxKeepaliveGapMillis, gap);
+        }
+        lastKeepaliveNanos = now;
+    }
+
+    public void connectionAttempt() {
+        connectionAttempts.increment();
+    }
+
+    public synchronized void connectionLost() {
+        connectionLosses.increment();
+        // the gap across a reconnect says nothing about keepalives
+        lastKeepaliveNanos = 0;
+        if (lostNanos == 0) {
+            lostNanos = System.nanoTime();
+        }
+    }
+
+    public void reconnectAttempt() {
+        reconnectAttempts.increment();
+    }
+
+    /**
+     * The reader is connected again, ending the outage that began with
+     * the first {@link #connectionLost()} since it was last connected.
+     */
+    public synchronized void reconnected() {
+        reconnects.increment();
+        if (lostNanos != 0) {
+            long outage = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lostNanos);
+            lastOutageMillis = outage;
+            maxOutageMillis = Math.max(maxOutageMillis, outage);
+            totalOutageMillis += outage;
+            lostNanos = 0;
+        }
+    }
+
+    /**
+     * The loop the reader's listeners run on, for its queue depth.
+     */
+    public void eventLoop(ReaderEventLoop loop) {
+        eventLoop = loop;
+    }
+
+    @Override
+    public String getReader() {
+        return name;
+    }
+
+    @Override
+    public long getTagReads() {
+        return tagReads.sum();
+    }
+
+    @Override
+    public double getTagReadsPerSecond() {
+        return tagReadRate.update(tagReads.sum());
+    }
+
+    @Override
+    public Map<Integer, Long> getAntennaReads() {
+        LongAdder[] a = antennaReads;
+        Map<Integer, Long> reads = new TreeMap<Integer, Long>();
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] != null && a[i].sum() > 0) {
+                reads.put(i, a[i].sum());
+            }
+        }
+        return reads;
+    }
+
+    @Override
+    public Map<Integer, Double> getAntennaReadsPerSecond() {
+        LongAdder[] a = antennaReads;
+        Rate[] r = antennaRates;
+        Map<Integer, Double> rates = new TreeMap<Integer, Double>();
+        for (int i = 0; i < a.length && i < r.length; i++) {
+            if (a[i] != null && a[i].sum() > 0) {
+                rates.put(i, r[i].update(a[i].sum()));
+            }
+        }
+        return rates;
+    }
+
+    @Override
+    public long getUniqueTags() {
+        return uniqueTags.sum();
+    }
+
+    @Override
+    public double getUniqueTagsPerSecond() {
+        return uniqueTagRate.update(uniqueTags.sum());
+    }
+
+    @Override
+    public long getDedupHits() {
+        return dedupHits.sum();
+    }
+
+    @Override
+    public double getDedupHitRatio() {
+        long hits = dedupHits.sum();
+        long total = hits + uniqueTags.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public long getTagOpSuccesses() {
+        return tagOpSuccesses.sum();
+    }
+
+    @Override
+    public long getTagOpFailures() {
+        return tagOpFailures.sum();
+    }
+
+    @Override
+    public Map<String, Long> getTagOpResults() {
+        Map<String, Long> results = new TreeMap<String, Long>();
+        for (Map.Entry<Object, LongAdder> e : tagOpResults.entrySet()) {
+            results.put(e.getKey().getClass().getSimpleName() + "." + e.getKey(),
+                    e.getValue().sum());
+        }
+        return results;
+    }
+
+    @Override
+    public long getBufferWarnings() {
+        return bufferWarnings.sum();
+    }
+
+    @Override
+    public int getLastBufferPercentFull() {
+        return lastBufferPercentFull;
+    }
+
+    @Override
+    public long getBufferOverflows() {
+        return bufferOverflows.sum();
+    }
+
+    @Override
+    public long getKeepalives() {
+        return keepalives.sum();
+    }
+
+    @Override
+    public long getLastKeepaliveGapMillis() {
+        return lastKeepaliveGapMillis;
+    }
+
+    @Override
+    public long getMaxKeepaliveGapMillis() {
+        return maxKeepaliveGapMillis;
+    }
+
+    @Override
+    public long getConnectionAttempts() {
+        return connectionAttempts.sum();
+    }
+
+    @Override
+    public long getConnectionLosses() {
+        return connectionLosses.sum();
+    }
+
+    @Override
+    public long getReconnects() {
+        return reconnects.sum();
+    }
+
+    @Override
+    public long getReconnectAttempts() {
+        return reconnectAttempts.sum();
+    }
+
+    @Override
+    public synchronized long getCurrentOutageMillis() {
+        return lostNanos == 0 ? 0
+                : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lostNanos);
+    }
+
+    @Override
+    public long getLastOutageMillis() {
+        return lastOutageMillis;
+    }
+
+    @Override
+    public long getMaxOutageMillis() {
+        return maxOutageMillis;
+    }
+
+    @Override
+    public long getTotalOutageMillis() {
+        return totalOutageMillis;
+    }
+
+    @Override
+    public int getEventQueueDepth() {
+        ReaderEventLoop loop = eventLoop;
+        return loop != null ? loop.getDepth() : 0;
+    }
+
+    @Override
+    public int getMaxEventQueueDepth() {
+        ReaderEventLoop loop = eventLoop;
+        return loop != null ? loop.getMaxDepth() : 0;
+    }
+
+    @Override
+    public int getEventQueueCapacity() {
+        ReaderEventLoop loop = eventLoop;
+        return loop != null ? loop.getCapacity() : 0;
+    }
+
+    @Override
+    public long getEventsDropped() {
+        ReaderEventLoop loop = eventLoop;
+        return loop != null ? loop.getDropped() : 0;
+    }
+
+    @Override
+    public synchronized void reset() {
+        tagReads.reset();
+        for (LongAdder a : antennaReads) {
+            a.reset();
+        }
+        uniqueTags.reset();
+        dedupHits.reset();
+        tagOpSuccesses.reset();
+        tagOpFailures.reset();
+        tagOpResults.clear();
+        bufferWarnings.reset();
+        lastBufferPercentFull = 0;
+        bufferOverflows.reset();
+        keepalives.reset();
+        lastKeepaliveGapMillis = 0;
+        maxKeepaliveGapMillis = 0;
+        connectionAttempts.reset();
+        connectionLosses.reset();
+        reconnects.reset();
+        reconnectAttempts.reset();
+        lastOutageMillis = 0;
+        maxOutageMillis = 0;
+        totalOutageMillis = 0;
+        ReaderEventLoop loop = eventLoop;
+        if (loop != null) {
+            loop.resetMaxDepth();
+        }
+    }
+
+    private synchronized LongAdder[] addAntenna(int antenna) {
+        LongAdder[] a = antennaReads;
+        if (antenna < a.length) {
+            return a;
+        }
+        LongAdder[] grown = Arrays.copyOf(a, antenna + 1);
+        Rate[] rates = Arrays.copyOf(antennaRates, antenna + 1);
+        for (int i = a.length; i < grown.length; i++) {
+            grown[i] = new LongAdder();
+            rates[i] = new Rate();
+        }
+        antennaRates = rates;
+        antennaReads = grown;
+        return grown;
+    }
+
+    static Object statusOf(TagOpResult r) {
+        if (r instanceof TagReadOpResult) {
+            return ((TagReadOpResult) r).getResult();
+        } else if (r instanceof TagWriteOpResult) {
+            return ((TagWriteOpResult) r).getResult();
+        } else if (r instanceof TagKillOpResult) {
+            return ((TagKillOpResult) r).getResult();
+        } else if (r instanceof TagLockOpResult) {
+            return ((TagLockOpResult) r).getResult();
+        } else if (r instanceof TagBlockPermalockOpResult) {
+            return ((TagBlockPermalockOpResult) r).getResult();
+        } else if (r instanceof TagQtGetOpResult) {
+            return ((TagQtGetOpResult) r).getResult();
+        } else if (r instanceof TagQtSetOpResult) {
+            return ((TagQtSetOpResult) r).getResult();
+        }
+        return null;
+    }
+
+    // a count per second over the time since the previous update, which is
+    // at least a second ago
+    private static class Rate {
+        private long lastCount;
+        private long lastNanos = System.nanoTime();
+        private double perSecond;
+
+        synchronized double update(long count) {
+            long now = System.nanoTime();
+            long elapsed = now - lastNanos;
+            if (elapsed >= TimeUnit.SECONDS.toNanos(1)) {
+                perSecond = Math.max(0, count - lastCount) * 1e9 / elapsed;
+                lastCount = count;
+                lastNanos = now;
+            }
+            return perSecond;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.sdksamples;
+
+import java.util.Map;
+
+/**
+ * The counters of one reader as published over JMX by
+ * {@link ReaderMetrics}. Rates are averaged over the time since they were
+ * last read, at least a second.
+ */
+public interface ReaderMetricsMXBean {
+
+    String getReader();
+
+    long getTagReads();
+
+    double getTagReadsPerSecond();
+
+    Map<Integer, Long> getAntennaReads();
+
+    Map<Integer, Double> getAntennaReadsPerSecond();
+
+    long getUniqueTags();
+
+    double getUniqueTagsPerSecond();
+
+    long getDedupHits();
+
+    double getDedupHitRatio();
+
+    long getTagOpSuccesses();
+
+    long getTagOpFailures();
+
+    Map<String, Long> getTagOpResults();
+
+    long getBufferWarnings();
+
+    int getLastBufferPercentFull();
+
+    long getBufferOverflows();
+
+    long getKeepalives();
+
+    long getLastKeepaliveGapMillis();
+
+    long getMaxKeepaliveGapMillis();
+
+    long getConnectionAttempts();
+
+    long getConnectionLosses();
+
+    long getReconnects();
+
+    long getReconnectAttempts();
+
+    /**
+     * How long the reader has been disconnected, 0 while it is connected.
+     */
+    long getCurrentOutageMillis();
+
+    long getLastOutageMillis();
+
+    long getMaxOutageMillis();
+
+    long getTotalOutageMillis();
+
+    /**
+     * Events waiting on the reader's {@link ReaderEventLoop}, 0 without one.
+     */
+    int getEventQueueDepth();
+
+    int getMaxEventQueueDepth();
+
+    int getEventQueueCapacity();
+
+    long getEventsDropped();
+
+    void reset();
+}
@@ -0,0 +1,235 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.ConnectionLostListener;
+import com.impinj.octane.ImpinjReader;
+import com.impinj.octane.OctaneSdkException;
+import com.impinj.octane.Settings;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps a reader connected. When the connection is lost the supervisor
+ * reconnects in the background, retrying with jittered exponential backoff,
+ * and then restores the session the way DisconnectedOperation does:
+ * listeners are attached again, held events and reports are resumed, the
+ * last settings are applied and the reader is started if it was running.
+ * Other readers and the rest of the process carry on meanwhile.
+ * <p>
+ * Attempts and outages are counted in the reader's {@link ReaderMetrics}.
+ * Keepalives with link monitoring should be on, or a dead link may not be
+ * noticed until the reader is next used.
+ */
+public class ReaderSupervisor implements ConnectionLostListener {
+
+    /**
+     * Attaches a reader's listeners, called on each connect.
+     */
+    public interface Listeners {
+        void attach(ImpinjReader reader);
+    }
+
+    // reconnects of all readers share these threads; a connect blocks for
+    // the SDK's connect timeout, so a few run at once
+    private static final ScheduledExecutorService RECONNECTS =
+            new ScheduledThreadPoolExecutor(4, new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "reader-supervisor-" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+
+    private final ImpinjReader reader;
+    private final String hostname;
+    private final Listeners listeners;
+    private final long baseMillis;
+    private final long maxMillis;
+
+    private Settings settings;
+    private boolean started;
+    private boolean connected;
+    private boolean stopped;
+    private int failures;
+    private ScheduledFuture<?> pending;
+
+    /**
+     * Backs off from -DreconnectBaseMillis, 1000 by default, up to
+     * -DreconnectMaxMillis, 60000 by default.
+     *
+     * @param listeners attaches the reader's listeners, may be null
+     */
+    public ReaderSupervisor(ImpinjReader reader, String hostname, Listeners listeners) {
+        this(reader, hostname, listeners,
+                Long.getLong(SampleProperties.reconnectBaseMillis, 1000),
+                Long.getLong(SampleProperties.reconnectMaxMillis, 60000));
+    }
+
+    public ReaderSupervisor(ImpinjReader reader, String hostname, Listeners listeners,
+                            long baseMillis, long maxMillis) {
+        this.reader = reader;
+        this.hostname = hostname;
+        this.listeners = listeners;
+        this.baseMillis = Math.max(1, baseMillis);
+        this.maxMillis = Math.max(this.baseMillis, maxMillis);
+    }
+
+    /**
+     * Connects, attaches the listeners, applies the settings and starts the
+     * reader, then keeps it connected.
+     */
+    public void start(Settings settings) throws OctaneSdkException {
+        reader.connect(hostname);
+        if (listeners != null) {
+            listeners.attach(reader);
+        }
+        SettingsManager.of(reader).apply(settings);
+        reader.start();
+        adopt(settings, true);
+    }
+
+    /**
+     * Keeps a reader that is already connected and configured connected.
+     *
+     * @param settings the settings it was given, applied again on reconnect
+     * @param started  whether it was started, and should be again
+     */
+    public synchronized void adopt(Settings settings, boolean started) {
+        this.settings = settings;
+        this.started = started;
+        connected = true;
+        reader.setConnectionLostListener(this);
+    }
+
+    /**
+     * The settings to apply on the next reconnect, for callers that
+     * change them while the reader runs.
+     */
+    public synchronized void setSettings(Settings settings) {
+        this.settings = settings;
+    }
+
+    public synchronized boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * Stops reconnecting. The reader is left as it is, stop and disconnect
+     * it as before.
+     */
+    public synchronized void stop() {
+        stopped = true;
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+
+    @Override
+    public void onConnectionLost(ImpinjReader lost) {
+        ReaderMetrics.of(reader).connectionLost();
+        synchronized (this) {
+            if (stopped || !connected) {
+                return;
+            }
+            connected = false;
+            failures = 0;
+        }
+        System.out.println("Connection Lost: " + name() + ", reconnecting");
+        // not on the SDK's thread, it may be the one that needs to wind down
+        schedule(backoff(0));
+    }
+
+    private synchronized void schedule(long delayMillis) {
+        if (stopped) {
+            return;
+        }
+        pending = RECONNECTS.schedule(new Runnable() {
+            @Override
+            public void run() {
+                reconnect();
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void reconnect() {
+        Settings settings;
+        boolean started;
+        synchronized (this) {
+            if (stopped) {
+                return;
+            }
+            settings = this.settings;
+            started = this.started;
+        }
+        ReaderMetrics metrics = ReaderMetrics.of(reader);
+        metrics.reconnectAttempt();
+        try {
+            // drop what is left of the old session
+            reader.disconnect();
+            reader.connect(hostname);
+            if (listeners != null) {
+                listeners.attach(reader);
+            }
+            reader.setConnectionLostListener(this);
+            // reports held while disconnected come first
+            reader.resumeEventsAndReports();
+            if (settings != null) {
+                // the reader may have been reset meanwhile
+                SettingsManager manager = SettingsManager.of(reader);
+                manager.forget();
+                manager.apply(settings);
+            }
+            if (started) {
+                reader.start();
+            }
+        } catch (Exception ex) {
+            long delay;
+            synchronized (this) {
+                delay = backoff(++failures);
+            }
+            System.out.println("Could not reconnect to " + name() + ": "
+                    + ex.getMessage() + ", retrying in " + delay + " ms");
+            schedule(delay);
+            return;
+        }
+        boolean stop;
+        synchronized (this) {
+            stop = stopped;
+            connected = !stopped;
+        }
+        if (stop) {
+            // stopped while this was connecting, the owner may already
+            // have disconnected
+            reader.disconnect();
+            return;
+        }
+        metrics.reconnected();
+        System.out.println("Reconnected to " + name() + " after "
+                + metrics.getLastOutageMillis() + " ms");
+    }
+
+    /**
+     * A random delay between half and all of base * 2^failures, capped,
+     * so readers that dropped together don't retry together.
+     */
+    private long backoff(int failures) {
+        long cap = baseMillis << Math.min(failures, 30);
+        if (cap <= 0 || cap > maxMillis) {
+            cap = maxMillis;
+        }
+        return cap / 2 + ThreadLocalRandom.current().nextLong(cap / 2 + 1);
+    }
+
+    private String name() {
+        return reader.getName() != null ? reader.getName() : hostname;
+    }
+}
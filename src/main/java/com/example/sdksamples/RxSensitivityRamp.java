@@ -19,11 +19,11 @@ public class RxSensitivityRamp {
             System.out.println("Connecting to " + hostname);
             reader.connect(hostname);
 
-            // get the features
-            FeatureSet features = reader.queryFeatureSet();
-
-            // Get the default settings
-            Settings settings = reader.queryDefaultSettings();
+            // get the features and default settings, from the cache when
+            // this reader has been seen before, see -DreaderCacheDir
+            ReaderInfoCache.Entry info = ReaderInfoCache.sharedEntry(reader, hostname);
+            ReaderFeatures features = info.getFeatures();
+            Settings settings = info.getDefaultSettings();
 
             // send a tag report for every tag read
             settings.getReport().setMode(ReportMode.Individual);
@@ -39,12 +39,16 @@ public class RxSensitivityRamp {
             // connect a listener
             reader.setTagReportListener(new TagReportListenerImplementation());
 
-            for (RxSensitivityTableEntry t : features.getRxSensitivities()) {
-                System.out.println("Setting receive sensitivity to " + t.Dbm);
+            // applies only settings that differ from the last ones, the
+            // table may list a value twice
+            SettingsManager manager = SettingsManager.of(reader);
+
+            for (double dbm : features.getRxSensitivitiesDbm()) {
+                System.out.println("Setting receive sensitivity to " + dbm);
                 ag.getAntenna((short) 1).setIsMaxRxSensitivity(false);
-                ag.getAntenna((short) 1).setRxSensitivityinDbm(t.Dbm);
+                ag.getAntenna((short) 1).setRxSensitivityinDbm(dbm);
                 // Apply the new settings
-                reader.applySettings(settings);
+                manager.apply(settings);
 
                 // Start the reader
                 reader.start();
@@ -58,6 +62,9 @@ public class RxSensitivityRamp {
                 reader.stop();
             }
 
+            System.out.println("Applied settings " + manager.getApplies()
+                    + " times, skipped " + manager.getSkips() + " unchanged");
+
             System.out.println("Disconnecting from " + hostname);
             reader.disconnect();
 
@@ -18,4 +18,25 @@ public class SampleProperties {
     public static String powerDbm = "powerdBm";
     public static String sensitivityDbm = "sensitivityDbm";
     public static String targetUser = "targetUser";
+    public static String dedupMaxTags = "dedupMaxTags";
+    public static String dedupTtlSeconds = "dedupTtlSeconds";
+    public static String seenFilterTags = "seenFilterTags";
+    public static String seenFilterFpp = "seenFilterFpp";
+    public static String dedupScope = "dedupScope";
+    public static String journalDir = "journalDir";
+    public static String recordFile = "recordFile";
+    public static String latencySeconds = "latencySeconds";
+    public static String compactThreads = "compactThreads";
+    public static String compactMBps = "compactMBps";
+    public static String pipelineEvents = "pipelineEvents";
+    public static String fleetConcurrency = "fleetConcurrency";
+    public static String fleetConnectSeconds = "fleetConnectSeconds";
+    public static String fleetPhaseSeconds = "fleetPhaseSeconds";
+    public static String reconnectBaseMillis = "reconnectBaseMillis";
+    public static String reconnectMaxMillis = "reconnectMaxMillis";
+    public static String readerCache = "readerCache";
+    public static String readerCacheDir = "readerCacheDir";
+    public static String settingsCoalesceMillis = "settingsCoalesceMillis";
+    public static String eventQueueSize = "eventQueueSize";
+    public static String eventQueuePolicy = "eventQueuePolicy";
 }
@@ -0,0 +1,156 @@
+package com.example.sdksamples;
+
+import java.util.Arrays;
+
+/**
+ * A probabilistic "seen before" filter for very large tag populations. It
+ * is a set of Bloom filters, one per generation; tags are added to the
+ * current generation and looked up in all of them. Every generationMillis
+ * the oldest generation is cleared and becomes the current one, so a tag is
+ * forgotten between (generations - 1) and generations periods after it was
+ * added.
+ * <p>
+ * A tag that was added is always found, a tag that was not added is found
+ * with roughly the configured false positive rate. Memory is allocated up
+ * front and never grows, see {@link #getMemoryBytes()}. Not thread safe.
+ */
+public class SeenBeforeFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final long[][] bits;
+    private final long bitsPerGeneration;
+    private final int hashes;
+    private final long generationMillis;
+
+    private int current;
+    private long generationStart = Long.MIN_VALUE;
+    private final long[] added;
+
+    /**
+     * @param expectedTagsPerGeneration how many distinct tags one generation
+     *                                  should hold at the target rate
+     * @param falsePositiveRate         the chance a new tag is reported as
+     *                                  seen, across all generations
+     */
+    public SeenBeforeFilter(long expectedTagsPerGeneration,
+                            double falsePositiveRate, int generations,
+                            long generationMillis) {
+        if (expectedTagsPerGeneration < 1 || generations < 1
+                || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid filter parameters");
+        }
+        // every lookup checks all generations, so split the rate between them
+        double perGeneration = falsePositiveRate / generations;
+        long m = (long) Math.ceil(-expectedTagsPerGeneration
+                * Math.log(perGeneration) / (LN2 * LN2));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, (m + 63) / 64);
+
+        bitsPerGeneration = (long) words * 64;
+        hashes = Math.max(1, (int) Math.round(
+                (double) bitsPerGeneration / expectedTagsPerGeneration * LN2));
+        bits = new long[generations][words];
+        added = new long[generations];
+        this.generationMillis = generationMillis;
+    }
+
+    public boolean mightContain(TagId id, long nowMillis) {
+        rotate(nowMillis);
+        long h1 = hash1(id);
+        long h2 = hash2(id);
+
+        for (int g = 0; g < bits.length; g++) {
+            if (added[g] > 0 && contains(bits[g], h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void put(TagId id, long nowMillis) {
+        rotate(nowMillis);
+        long h1 = hash1(id);
+        long h2 = hash2(id);
+        long[] generation = bits[current];
+
+        for (int i = 0; i < hashes; i++) {
+            long bit = index(h1, h2, i);
+            generation[(int) (bit >>> 6)] |= 1L << bit;
+        }
+        added[current]++;
+    }
+
+    public long getMemoryBytes() {
+        return bits.length * bitsPerGeneration / 8;
+    }
+
+    public int getHashCount() {
+        return hashes;
+    }
+
+    public int getGenerations() {
+        return bits.length;
+    }
+
+    public long getAddedToCurrentGeneration() {
+        return added[current];
+    }
+
+    private boolean contains(long[] generation, long h1, long h2) {
+        for (int i = 0; i < hashes; i++) {
+            long bit = index(h1, h2, i);
+            if ((generation[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rotate(long nowMillis) {
+        if (generationStart == Long.MIN_VALUE) {
+            generationStart = nowMillis;
+            return;
+        }
+        // a long gap may expire several generations at once
+        int steps = 0;
+        while (nowMillis - generationStart >= generationMillis
+                && steps < bits.length) {
+            current = (current + 1) % bits.length;
+            Arrays.fill(bits[current], 0);
+            added[current] = 0;
+            generationStart += generationMillis;
+            steps++;
+        }
+        if (nowMillis - generationStart >= generationMillis) {
+            generationStart = nowMillis;
+        }
+    }
+
+    // double hashing, the i-th probe is h1 + i * h2
+    private long index(long h1, long h2, int i) {
+        return ((h1 + i * h2) & Long.MAX_VALUE) % bitsPerGeneration;
+    }
+
+    private static long hash1(TagId id) {
+        long h = mix(id.hi ^ 0x9E3779B97F4A7C15L) ^ mix(id.lo + id.words);
+        for (int i = 0; i < id.extraLongs; i++) {
+            h = mix(h ^ id.extra[i]);
+        }
+        return h;
+    }
+
+    private static long hash2(TagId id) {
+        long h = mix(id.lo ^ 0xC2B2AE3D27D4EB4FL) + mix(id.hi - id.words);
+        for (int i = 0; i < id.extraLongs; i++) {
+            h = mix(h + id.extra[i]);
+        }
+        // an odd step visits different bits on every probe
+        return h | 1;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
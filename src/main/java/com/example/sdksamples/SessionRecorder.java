@@ -0,0 +1,473 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.DiagnosticReport;
+import com.impinj.octane.DiagnosticsReportListener;
+import com.impinj.octane.ImpinjReader;
+import com.impinj.octane.LocationReport;
+import com.impinj.octane.LocationReportListener;
+import com.impinj.octane.Tag;
+import com.impinj.octane.TagOpCompleteListener;
+import com.impinj.octane.TagOpReport;
+import com.impinj.octane.TagOpResult;
+import com.impinj.octane.TagReadOpResult;
+import com.impinj.octane.TagReport;
+import com.impinj.octane.TagReportListener;
+import com.impinj.octane.TagWriteOpResult;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records everything delivered to its tag report, location report, tag op
+ * and diagnostics listeners into a compact binary session file, with the
+ * arrival time of each callback, then passes it on to the wrapped
+ * listeners. {@link SessionReplayer} plays the file back. One recorder can
+ * be shared by several readers; their callbacks are written in arrival
+ * order.
+ *
+ * <pre>
+ * header   int magic, short version, long start, epoch milliseconds
+ * record   byte type, varint reader id, varlong nanoseconds since the
+ *          previous record, then by type:
+ *   reader     UTF name, UTF address, the id is the next unused one
+ *   tags       varint count, a TagReadCodec record per tag
+ *   location   byte EPC words, the words, int x, int y, int read count
+ *   tag op     varint count, then per result byte kind, a TagReadCodec
+ *              record of the tag, short op id, int sequence id, byte
+ *              status ordinal, and the read words or words written
+ *   diagnostic varint count, the int metrics
+ * </pre>
+ *
+ * Only read and write op results are recorded, the others are counted in
+ * {@link #getSkippedResults()}. Each record is put together in memory and
+ * written whole; after a failed write, or an SDK getter that throws, nothing
+ * more is recorded, so the file ends at most with part of one record, which
+ * the replayer stops at. The wrapped listeners get every callback either way.
+ */
+public class SessionRecorder implements TagReportListener,
+        LocationReportListener, TagOpCompleteListener, DiagnosticsReportListener {
+
+    static final int MAGIC = 0x54525331; // "TRS1"
+    static final short VERSION = 1;
+
+    static final int READER = 0;
+    static final int TAGS = 1;
+    static final int LOCATION = 2;
+    static final int TAG_OP = 3;
+    static final int DIAGNOSTIC = 4;
+
+    static final int READ_RESULT = 1;
+    static final int WRITE_RESULT = 2;
+
+    private final DataOutputStream file;
+    // the record being put together
+    private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(4096);
+    private final DataOutputStream out = new DataOutputStream(recordBytes);
+    private final ReaderIds readerIds = new ReaderIds();
+    private int readersWritten;
+    private long lastNanos = System.nanoTime();
+    // the same for the callback being put together
+    private int pendingReaders;
+    private long pendingNanos;
+    private long pendingRecords;
+    private final TagRead read = new TagRead();
+    private final ByteBuffer record = ByteBuffer.allocate(TagReadCodec.MAX_SIZE);
+    private long records;
+    private long skippedResults;
+    private boolean failed;
+
+    private final TagReportListener tagReportListener;
+    private final LocationReportListener locationReportListener;
+    private final TagOpCompleteListener tagOpCompleteListener;
+    private final DiagnosticsReportListener diagnosticsReportListener;
+
+    // callbacks waiting for the recorder thread, null when they are
+    // recorded on the thread that delivers them
+    private final ArrayBlockingQueue<Runnable> handOff;
+    private final Thread recorderThread;
+    private volatile boolean running = true;
+    private final AtomicLong droppedCallbacks = new AtomicLong();
+
+    /**
+     * Any of the listeners may be null when there is nothing to pass that
+     * kind of callback on to. Callbacks are recorded on the thread that
+     * delivers them.
+     */
+    public SessionRecorder(File file, TagReportListener tagReportListener,
+                           LocationReportListener locationReportListener,
+                           TagOpCompleteListener tagOpCompleteListener,
+                           DiagnosticsReportListener diagnosticsReportListener)
+            throws IOException {
+        this(file, tagReportListener, locationReportListener, tagOpCompleteListener,
+                diagnosticsReportListener, 0);
+    }
+
+    /**
+     * With a queue size above 0 the callback's arrival is stamped on the
+     * thread that delivers it, and the callback is queued for a recorder
+     * thread of its own and passed on right away, so readers sharing the
+     * recorder never wait for each other or for the disk. When the queue
+     * is full the callback isn't recorded, see
+     * {@link #getDroppedCallbacks()}.
+     */
+    public SessionRecorder(File file, TagReportListener tagReportListener,
+                           LocationReportListener locationReportListener,
+                           TagOpCompleteListener tagOpCompleteListener,
+                           DiagnosticsReportListener diagnosticsReportListener,
+                           int queueSize)
+            throws IOException {
+        this.tagReportListener = tagReportListener;
+        this.locationReportListener = locationReportListener;
+        this.tagOpCompleteListener = tagOpCompleteListener;
+        this.diagnosticsReportListener = diagnosticsReportListener;
+
+        this.file = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(file), 64 * 1024));
+        this.file.writeInt(MAGIC);
+        this.file.writeShort(VERSION);
+        this.file.writeLong(System.currentTimeMillis());
+
+        if (queueSize > 0) {
+            handOff = new ArrayBlockingQueue<Runnable>(queueSize);
+            recorderThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    drain();
+                }
+            }, "session-recorder");
+            recorderThread.setDaemon(true);
+            recorderThread.start();
+        } else {
+            handOff = null;
+            recorderThread = null;
+        }
+    }
+
+    @Override
+    public void onTagReported(final ImpinjReader reader, final TagReport report) {
+        final long now = System.nanoTime();
+        try {
+            if (handOff == null) {
+                recordTags(reader, report, now);
+            } else {
+                handOff(new Runnable() {
+                    @Override
+                    public void run() {
+                        recordTags(reader, report, now);
+                    }
+                });
+            }
+        } finally {
+            if (tagReportListener != null) {
+                tagReportListener.onTagReported(reader, report);
+            }
+        }
+    }
+
+    @Override
+    public void onLocationReported(final ImpinjReader reader, final LocationReport report) {
+        final long now = System.nanoTime();
+        try {
+            if (handOff == null) {
+                recordLocation(reader, report, now);
+            } else {
+                handOff(new Runnable() {
+                    @Override
+                    public void run() {
+                        recordLocation(reader, report, now);
+                    }
+                });
+            }
+        } finally {
+            if (locationReportListener != null) {
+                locationReportListener.onLocationReported(reader, report);
+            }
+        }
+    }
+
+    @Override
+    public void onTagOpComplete(final ImpinjReader reader, final TagOpReport results) {
+        final long now = System.nanoTime();
+        try {
+            if (handOff == null) {
+                recordTagOp(reader, results, now);
+            } else {
+                handOff(new Runnable() {
+                    @Override
+                    public void run() {
+                        recordTagOp(reader, results, now);
+                    }
+                });
+            }
+        } finally {
+            if (tagOpCompleteListener != null) {
+                tagOpCompleteListener.onTagOpComplete(reader, results);
+            }
+        }
+    }
+
+    @Override
+    public void onDiagnosticsReported(final ImpinjReader reader,
+                                      final DiagnosticReport report) {
+        final long now = System.nanoTime();
+        try {
+            if (handOff == null) {
+                recordDiagnostics(reader, report, now);
+            } else {
+                handOff(new Runnable() {
+                    @Override
+                    public void run() {
+                        recordDiagnostics(reader, report, now);
+                    }
+                });
+            }
+        } finally {
+            if (diagnosticsReportListener != null) {
+                diagnosticsReportListener.onDiagnosticsReported(reader, report);
+            }
+        }
+    }
+
+    private void handOff(Runnable callback) {
+        if (!handOff.offer(callback)) {
+            droppedCallbacks.incrementAndGet();
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            Runnable callback;
+            try {
+                callback = handOff.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                return;
+            }
+            if (callback == null) {
+                if (!running) {
+                    return;
+                }
+                continue;
+            }
+            callback.run();
+        }
+    }
+
+    private synchronized void recordTags(ImpinjReader reader, TagReport report,
+                                         long now) {
+        if (failed) {
+            return;
+        }
+        try {
+            int id = start(TAGS, reader, now);
+            List<Tag> tags = report.getTags();
+            writeVarLong(tags.size());
+            for (Tag t : tags) {
+                read.copyFrom(reader, t);
+                writeTagRead(id);
+            }
+            finish();
+        } catch (IOException ex) {
+            failed(ex);
+        } catch (RuntimeException ex) {
+            failed(ex);
+        }
+    }
+
+    private synchronized void recordLocation(ImpinjReader reader,
+                                             LocationReport report, long now) {
+        if (failed) {
+            return;
+        }
+        try {
+            start(LOCATION, reader, now);
+            int words = TagRead.copyWords(report.getEpc(), read.epc);
+            out.writeByte(words);
+            for (int i = 0; i < words; i++) {
+                out.writeShort(read.epc[i]);
+            }
+            out.writeInt(report.getLocationXCm());
+            out.writeInt(report.getLocationYCm());
+            out.writeInt(report.getConfidenceFactors().getReadCount());
+            finish();
+        } catch (IOException ex) {
+            failed(ex);
+        } catch (RuntimeException ex) {
+            failed(ex);
+        }
+    }
+
+    private synchronized void recordTagOp(ImpinjReader reader, TagOpReport results,
+                                          long now) {
+        if (failed) {
+            return;
+        }
+        try {
+            int id = start(TAG_OP, reader, now);
+            int count = 0;
+            int skipped = 0;
+            for (TagOpResult r : results.getResults()) {
+                if (r instanceof TagReadOpResult || r instanceof TagWriteOpResult) {
+                    count++;
+                } else {
+                    skipped++;
+                }
+            }
+            writeVarLong(count);
+            for (TagOpResult r : results.getResults()) {
+                if (r instanceof TagReadOpResult) {
+                    TagReadOpResult tr = (TagReadOpResult) r;
+                    writeResult(READ_RESULT, id, reader, r,
+                            tr.getResult().ordinal());
+                    int words = TagRead.copyWords(tr.getData(), read.tid);
+                    out.writeByte(words);
+                    for (int i = 0; i < words; i++) {
+                        out.writeShort(read.tid[i]);
+                    }
+                } else if (r instanceof TagWriteOpResult) {
+                    TagWriteOpResult tw = (TagWriteOpResult) r;
+                    writeResult(WRITE_RESULT, id, reader, r,
+                            tw.getResult().ordinal());
+                    out.writeShort(tw.getNumWordsWritten());
+                }
+            }
+            finish();
+            skippedResults += skipped;
+        } catch (IOException ex) {
+            failed(ex);
+        } catch (RuntimeException ex) {
+            failed(ex);
+        }
+    }
+
+    private synchronized void recordDiagnostics(ImpinjReader reader,
+                                                DiagnosticReport report, long now) {
+        if (failed) {
+            return;
+        }
+        try {
+            start(DIAGNOSTIC, reader, now);
+            List<Integer> metrics = report.getMetrics();
+            writeVarLong(metrics.size());
+            for (Integer m : metrics) {
+                out.writeInt(m);
+            }
+            finish();
+        } catch (IOException ex) {
+            failed(ex);
+        } catch (RuntimeException ex) {
+            failed(ex);
+        }
+    }
+
+    /**
+     * Records what is still queued, then closes the file.
+     */
+    public void close() throws IOException {
+        if (recorderThread != null) {
+            running = false;
+            try {
+                recorderThread.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            file.close();
+        }
+    }
+
+    public synchronized long getRecords() {
+        return records;
+    }
+
+    public synchronized long getSkippedResults() {
+        return skippedResults;
+    }
+
+    /**
+     * Callbacks passed on but not recorded because the queue was full.
+     */
+    public long getDroppedCallbacks() {
+        return droppedCallbacks.get();
+    }
+
+    // starts the records of a callback with the record header, and the
+    // reader record first for a reader that hasn't been seen; returns the
+    // reader id. Nothing counts as recorded until finish() has written it.
+    private int start(int type, ImpinjReader reader, long now) throws IOException {
+        recordBytes.reset();
+        pendingReaders = readersWritten;
+        pendingRecords = 0;
+        pendingNanos = lastNanos;
+        int id = readerIds.idOf(reader);
+        while (pendingReaders <= id) {
+            ImpinjReader r = readerIds.readerOf(pendingReaders);
+            writeHeader(READER, pendingReaders, now);
+            out.writeUTF(r.getName() != null ? r.getName() : "");
+            out.writeUTF(r.getAddress() != null ? r.getAddress() : "");
+            pendingReaders++;
+        }
+        writeHeader(type, id, now);
+        return id;
+    }
+
+    // writes the records of a callback to the file
+    private void finish() throws IOException {
+        recordBytes.writeTo(file);
+        readersWritten = pendingReaders;
+        records += pendingRecords;
+        lastNanos = pendingNanos;
+    }
+
+    private void writeHeader(int type, int readerId, long now) throws IOException {
+        out.writeByte(type);
+        writeVarLong(readerId);
+        // arrivals are recorded in order, but callbacks from two readers
+        // can take the lock out of order
+        writeVarLong(Math.max(0, now - pendingNanos));
+        pendingNanos = Math.max(pendingNanos, now);
+        pendingRecords++;
+    }
+
+    private void writeResult(int kind, int readerId, ImpinjReader reader,
+                             TagOpResult r, int status) throws IOException {
+        out.writeByte(kind);
+        read.copyFrom(reader, r.getTag());
+        writeTagRead(readerId);
+        out.writeShort(r.getOpId());
+        out.writeInt(r.getSequenceId());
+        out.writeByte(status);
+    }
+
+    private void writeTagRead(int readerId) throws IOException {
+        record.clear();
+        TagReadCodec.encode(read, readerId, record);
+        out.write(record.array(), 0, record.position());
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    // an IOException from the file or a RuntimeException from the SDK's
+    // getters; either way the callback's records are dropped with it
+    private void failed(Exception ex) {
+        // stop recording, the listeners downstream keep getting their calls
+        failed = true;
+        System.out.println("Could not record session, recording stopped: "
+                + ex.getMessage());
+    }
+}
@@ -0,0 +1,404 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.DiagnosticReport;
+import com.impinj.octane.DiagnosticsReportListener;
+import com.impinj.octane.ImpinjReader;
+import com.impinj.octane.LocationReport;
+import com.impinj.octane.LocationReportListener;
+import com.impinj.octane.ReadResultStatus;
+import com.impinj.octane.Tag;
+import com.impinj.octane.TagOpCompleteListener;
+import com.impinj.octane.TagOpReport;
+import com.impinj.octane.TagOpResult;
+import com.impinj.octane.TagReport;
+import com.impinj.octane.TagReportListener;
+import com.impinj.octane.WriteResultStatus;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays a file written by {@link SessionRecorder} back into listeners, at
+ * the recorded pace, N times faster, or as fast as the listeners go.
+ * <p>
+ * Each recorded reader gets its own replay thread, as it had its own SDK
+ * callback thread, so a reader's callbacks keep their order and different
+ * readers overlap the way they did live. Unless replaying at full speed, a
+ * callback is held until its recorded arrival time, scaled by the speed.
+ * Listeners that keep state of their own, and so can't be shared between
+ * the replay threads, are made for each reader with a {@link PerReader}.
+ */
+public class SessionReplayer {
+
+    // a decoded callback waiting for its replay time
+    static class Event {
+        final long atNanos;
+        final Object report;
+
+        Event(long atNanos, Object report) {
+            this.atNanos = atNanos;
+            this.report = report;
+        }
+    }
+
+    /**
+     * Makes the listener of one recorded reader, called as the reader turns
+     * up in the recording. May return null.
+     */
+    public interface PerReader<T> {
+        T create(ImpinjReader reader);
+    }
+
+    // the listeners of one reader's replay thread
+    static class Listeners {
+        TagReportListener tagReportListener;
+        LocationReportListener locationReportListener;
+        TagOpCompleteListener tagOpCompleteListener;
+        DiagnosticsReportListener diagnosticsReportListener;
+    }
+
+    private static final Event END = new Event(0, null);
+
+    private final File file;
+    private PerReader<TagReportListener> tagReportListeners;
+    private PerReader<LocationReportListener> locationReportListeners;
+    private PerReader<TagOpCompleteListener> tagOpCompleteListeners;
+    private PerReader<DiagnosticsReportListener> diagnosticsReportListeners;
+
+    private long startMillis;
+    private final List<ImpinjReader> readers = new ArrayList<ImpinjReader>();
+
+    public SessionReplayer(File file) {
+        this.file = file;
+    }
+
+    /**
+     * A listener for all readers, called from each reader's replay thread.
+     */
+    public void setTagReportListener(TagReportListener listener) {
+        tagReportListeners = shared(listener);
+    }
+
+    public void setTagReportListeners(PerReader<TagReportListener> listeners) {
+        tagReportListeners = listeners;
+    }
+
+    public void setLocationReportListener(LocationReportListener listener) {
+        locationReportListeners = shared(listener);
+    }
+
+    public void setLocationReportListeners(PerReader<LocationReportListener> listeners) {
+        locationReportListeners = listeners;
+    }
+
+    public void setTagOpCompleteListener(TagOpCompleteListener listener) {
+        tagOpCompleteListeners = shared(listener);
+    }
+
+    public void setTagOpCompleteListeners(PerReader<TagOpCompleteListener> listeners) {
+        tagOpCompleteListeners = listeners;
+    }
+
+    public void setDiagnosticsReportListener(DiagnosticsReportListener listener) {
+        diagnosticsReportListeners = shared(listener);
+    }
+
+    public void setDiagnosticsReportListeners(
+            PerReader<DiagnosticsReportListener> listeners) {
+        diagnosticsReportListeners = listeners;
+    }
+
+    private static <T> PerReader<T> shared(final T listener) {
+        return new PerReader<T>() {
+            @Override
+            public T create(ImpinjReader reader) {
+                return listener;
+            }
+        };
+    }
+
+    /**
+     * When the session was recorded, epoch milliseconds, once replayed.
+     */
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    /**
+     * The readers of the session, standing in for the recorded ones with
+     * their names and addresses.
+     */
+    public List<ImpinjReader> getReaders() {
+        return readers;
+    }
+
+    /**
+     * Replays the whole session and waits for every callback to return.
+     *
+     * @param speed 1 for the recorded pace, 10 for ten times faster, 0 for
+     *              as fast as possible
+     * @return the number of callbacks replayed
+     */
+    public long replay(double speed) throws IOException, InterruptedException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(file), 64 * 1024));
+        List<BlockingQueue<Event>> queues = new ArrayList<BlockingQueue<Event>>();
+        List<Thread> threads = new ArrayList<Thread>();
+        long callbacks = 0;
+
+        try {
+            if (in.readInt() != SessionRecorder.MAGIC) {
+                throw new IOException("Not a session recording: " + file);
+            }
+            in.readShort();
+            startMillis = in.readLong();
+            readers.clear();
+
+            long replayStart = System.nanoTime();
+            long at = 0;
+            ByteBuffer record = ByteBuffer.allocate(TagReadCodec.MAX_SIZE);
+            TagRead read = new TagRead();
+
+            while (true) {
+                int type = in.read();
+                if (type < 0) {
+                    break;
+                }
+                int id = (int) readVarLong(in);
+                at += readVarLong(in);
+
+                if (type == SessionRecorder.READER) {
+                    ImpinjReader reader = SyntheticReports.reader(in.readUTF(),
+                            in.readUTF());
+                    readers.add(reader);
+                    BlockingQueue<Event> queue = new ArrayBlockingQueue<Event>(1024);
+                    queues.add(queue);
+                    Thread t = replayThread(reader, listenersOf(reader), queue,
+                            replayStart, speed);
+                    threads.add(t);
+                    t.start();
+                    continue;
+                }
+
+                Object report = decode(type, in, record, read);
+                queues.get(id).put(new Event(at, report));
+                callbacks++;
+            }
+        } catch (EOFException ex) {
+            // a recording cut short by a crash ends with a partial record
+        } finally {
+            in.close();
+            for (BlockingQueue<Event> queue : queues) {
+                queue.put(END);
+            }
+            for (Thread t : threads) {
+                t.join();
+            }
+        }
+        return callbacks;
+    }
+
+    private Listeners listenersOf(ImpinjReader reader) {
+        Listeners l = new Listeners();
+        l.tagReportListener = create(tagReportListeners, reader);
+        l.locationReportListener = create(locationReportListeners, reader);
+        l.tagOpCompleteListener = create(tagOpCompleteListeners, reader);
+        l.diagnosticsReportListener = create(diagnosticsReportListeners, reader);
+        return l;
+    }
+
+    private static <T> T create(PerReader<T> listeners, ImpinjReader reader) {
+        return listeners != null ? listeners.create(reader) : null;
+    }
+
+    private Thread replayThread(final ImpinjReader reader, final Listeners listeners,
+                                final BlockingQueue<Event> queue,
+                                final long replayStart, final double speed) {
+        Thread t = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    while (true) {
+                        Event e = queue.take();
+                        if (e == END) {
+                            return;
+                        }
+                        if (speed > 0) {
+                            long due = replayStart + (long) (e.atNanos / speed);
+                            long wait = due - System.nanoTime();
+                            if (wait > 0) {
+                                TimeUnit.NANOSECONDS.sleep(wait);
+                            }
+                        }
+                        try {
+                            deliver(reader, listeners, e.report);
+                        } catch (RuntimeException ex) {
+                            System.out.println("Listener failed during replay: "
+                                    + ex.toString());
+                        }
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, "replay-" + reader.getName());
+        t.setDaemon(true);
+        return t;
+    }
+
+    private static void deliver(ImpinjReader reader, Listeners l, Object report) {
+        if (report instanceof TagReport) {
+            if (l.tagReportListener != null) {
+                l.tagReportListener.onTagReported(reader, (TagReport) report);
+            }
+        } else if (report instanceof LocationReport) {
+            if (l.locationReportListener != null) {
+                l.locationReportListener.onLocationReported(reader,
+                        (LocationReport) report);
+            }
+        } else if (report instanceof TagOpReport) {
+            if (l.tagOpCompleteListener != null) {
+                l.tagOpCompleteListener.onTagOpComplete(reader, (TagOpReport) report);
+            }
+        } else if (report instanceof DiagnosticReport) {
+            if (l.diagnosticsReportListener != null) {
+                l.diagnosticsReportListener.onDiagnosticsReported(reader,
+                        (DiagnosticReport) report);
+            }
+        }
+    }
+
+    private static Object decode(int type, DataInputStream in, ByteBuffer record,
+                                 TagRead read) throws IOException {
+        switch (type) {
+            case SessionRecorder.TAGS: {
+                int count = (int) readVarLong(in);
+                List<Tag> tags = new ArrayList<Tag>(count);
+                for (int i = 0; i < count; i++) {
+                    readTagRead(in, record, read);
+                    tags.add(SyntheticReports.tag(read));
+                }
+                return SyntheticReports.tagReport(tags);
+            }
+            case SessionRecorder.LOCATION: {
+                int words = in.readUnsignedByte();
+                for (int i = 0; i < words; i++) {
+                    read.epc[i] = in.readShort();
+                }
+                return SyntheticReports.locationReport(
+                        SyntheticReports.tagData(read.epc, words),
+                        in.readInt(), in.readInt(), in.readInt());
+            }
+            case SessionRecorder.TAG_OP: {
+                int count = (int) readVarLong(in);
+                List<TagOpResult> results = new ArrayList<TagOpResult>(count);
+                for (int i = 0; i < count; i++) {
+                    int kind = in.readUnsignedByte();
+                    readTagRead(in, record, read);
+                    Tag tag = SyntheticReports.tag(read);
+                    short opId = in.readShort();
+                    int sequenceId = in.readInt();
+                    int status = in.readUnsignedByte();
+                    if (kind == SessionRecorder.READ_RESULT) {
+                        int words = in.readUnsignedByte();
+                        for (int w = 0; w < words; w++) {
+                            read.tid[w] = in.readShort();
+                        }
+                        results.add(SyntheticReports.readResult(tag, opId,
+                                sequenceId, ReadResultStatus.values()[status],
+                                SyntheticReports.tagData(read.tid, words)));
+                    } else {
+                        results.add(SyntheticReports.writeResult(tag, opId,
+                                sequenceId, WriteResultStatus.values()[status],
+                                in.readShort()));
+                    }
+                }
+                return SyntheticReports.tagOpReport(results);
+            }
+            case SessionRecorder.DIAGNOSTIC: {
+                int count = (int) readVarLong(in);
+                List<Integer> metrics = new ArrayList<Integer>(count);
+                for (int i = 0; i < count; i++) {
+                    metrics.add(in.readInt());
+                }
+                return SyntheticReports.diagnosticReport(metrics);
+            }
+            default:
+                throw new IOException("Unknown record type " + type);
+        }
+    }
+
+    private static void readTagRead(DataInputStream in, ByteBuffer record,
+                                    TagRead read) throws IOException {
+        // the record starts with its own length
+        int length = in.readUnsignedShort();
+        record.clear();
+        record.putShort((short) length);
+        in.readFully(record.array(), 2, length - 2);
+        record.position(0);
+        record.limit(length);
+        TagReadCodec.decode(record, read);
+        record.limit(record.capacity());
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+
+    /**
+     * Replays a recording into the sample listeners. Pass the file as the
+     * first argument and -Dspeed=N, 0 for as fast as possible.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Must pass a session recording as argument 1");
+            return;
+        }
+        double speed = Double.parseDouble(System.getProperty("speed", "1"));
+
+        SessionReplayer replayer = new SessionReplayer(new File(args[0]));
+        replayer.setTagReportListener(new TagReportListenerImplementation());
+        // each xArray has listeners of its own, as in XArrayLocationMulti
+        final XArrayLocationMulti multi = new XArrayLocationMulti(false);
+        replayer.setLocationReportListeners(
+                new SessionReplayer.PerReader<LocationReportListener>() {
+                    @Override
+                    public LocationReportListener create(ImpinjReader reader) {
+                        return multi.new LocationReportListenerImplementation();
+                    }
+                });
+        replayer.setDiagnosticsReportListeners(
+                new SessionReplayer.PerReader<DiagnosticsReportListener>() {
+                    @Override
+                    public DiagnosticsReportListener create(ImpinjReader reader) {
+                        return multi.new DiagnosticsReportListenerImplementation();
+                    }
+                });
+        replayer.setTagOpCompleteListener(new BulkReadWrite());
+
+        long begin = System.nanoTime();
+        long callbacks = replayer.replay(speed);
+        System.out.println("Replayed " + callbacks + " callbacks from "
+                + replayer.getReaders().size() + " readers in "
+                + (System.nanoTime() - begin) / 1000000 + " ms");
+    }
+}
@@ -23,8 +23,11 @@ public class SetTxFrequencies {
 
             reader.setTagReportListener(new TagReportListenerImplementation());
 
-            FeatureSet features = reader.queryFeatureSet();
-            Settings settings = reader.queryDefaultSettings();
+            // get the features and default settings, from the cache when
+            // this reader has been seen before, see -DreaderCacheDir
+            ReaderInfoCache.Entry info = ReaderInfoCache.sharedEntry(reader, hostname);
+            ReaderFeatures features = info.getFeatures();
+            Settings settings = info.getDefaultSettings();
 
             settings.getReport().setIncludeAntennaPortNumber(true);
             settings.getReport().setMode(ReportMode.Individual);
@@ -0,0 +1,211 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.ImpinjReader;
+import com.impinj.octane.OctaneSdkException;
+import com.impinj.octane.Settings;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies settings to one reader only when they differ from what it was
+ * last given. Each applySettings is a full reconfiguration that pauses
+ * inventory, so an apply of unchanged settings is skipped, and
+ * {@link #applyLater(Settings)} collapses a burst of changes into one
+ * apply of the last of them.
+ * <p>
+ * Settings are compared by a digest of their XML form, taken when they are
+ * applied. The manager assumes nothing else reconfigures the reader;
+ * call {@link #forget()} after anything that might, such as a reconnect.
+ */
+public class SettingsManager {
+
+    private static final ConcurrentHashMap<ImpinjReader, SettingsManager> MANAGERS =
+            new ConcurrentHashMap<ImpinjReader, SettingsManager>();
+
+    private static final ScheduledThreadPoolExecutor LATER =
+            new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "settings-manager");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+
+    private final ImpinjReader reader;
+    private final long coalesceMillis;
+
+    private byte[] applied;
+    private Settings pending;
+    private ScheduledFuture<?> pendingApply;
+
+    private long applies;
+    private long skips;
+    private long coalesced;
+    private long failures;
+
+    SettingsManager(ImpinjReader reader, long coalesceMillis) {
+        this.reader = reader;
+        this.coalesceMillis = coalesceMillis;
+    }
+
+    /**
+     * The reader's manager, waiting -DsettingsCoalesceMillis, 200 by
+     * default, to collect changes handed to applyLater.
+     */
+    public static SettingsManager of(ImpinjReader reader) {
+        SettingsManager m = MANAGERS.get(reader);
+        if (m == null) {
+            m = new SettingsManager(reader,
+                    Long.getLong(SampleProperties.settingsCoalesceMillis, 200));
+            SettingsManager raced = MANAGERS.putIfAbsent(reader, m);
+            if (raced != null) {
+                m = raced;
+            }
+        }
+        return m;
+    }
+
+    /**
+     * Drops the reader's manager, for readers that are discarded.
+     */
+    public static void remove(ImpinjReader reader) {
+        SettingsManager m = MANAGERS.remove(reader);
+        if (m != null) {
+            m.cancelPending();
+        }
+    }
+
+    /**
+     * Applies the settings now unless the reader already has them. Any
+     * change waiting in applyLater is superseded.
+     *
+     * @return whether the settings were applied
+     */
+    public synchronized boolean apply(Settings settings) throws OctaneSdkException {
+        cancelPending();
+        byte[] digest = digest(settings);
+        if (digest != null && Arrays.equals(digest, applied)) {
+            skips++;
+            return false;
+        }
+        // unknown until the apply succeeds
+        applied = null;
+        reader.applySettings(settings);
+        applied = digest;
+        applies++;
+        return true;
+    }
+
+    /**
+     * Applies the settings a little later, together with any changes
+     * that follow within the wait; only the last settings are applied,
+     * and only if they differ from the reader's. Don't change the
+     * settings after handing them over, take a new Settings instead.
+     */
+    public synchronized void applyLater(Settings settings) {
+        if (pending != null) {
+            coalesced++;
+        }
+        pending = settings;
+        if (pendingApply == null) {
+            // from the first change, so a steady stream still gets applied
+            pendingApply = LATER.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    applyPending();
+                }
+            }, coalesceMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Applies the settings waiting in applyLater now.
+     */
+    public synchronized void flush() throws OctaneSdkException {
+        Settings settings = pending;
+        if (settings != null) {
+            apply(settings);
+        }
+    }
+
+    /**
+     * Forgets what the reader was last given, so the next apply goes
+     * through.
+     */
+    public synchronized void forget() {
+        applied = null;
+    }
+
+    public synchronized long getApplies() {
+        return applies;
+    }
+
+    public synchronized long getSkips() {
+        return skips;
+    }
+
+    /**
+     * Settings handed to applyLater that were replaced by later ones
+     * before being applied.
+     */
+    public synchronized long getCoalesced() {
+        return coalesced;
+    }
+
+    public synchronized long getFailures() {
+        return failures;
+    }
+
+    private synchronized void applyPending() {
+        Settings settings = pending;
+        pendingApply = null;
+        pending = null;
+        if (settings == null) {
+            return;
+        }
+        try {
+            apply(settings);
+        } catch (OctaneSdkException ex) {
+            failures++;
+            System.out.println("Could not apply settings to " + reader.getName()
+                    + ": " + ex.getMessage());
+        }
+    }
+
+    private synchronized void cancelPending() {
+        if (pendingApply != null) {
+            pendingApply.cancel(false);
+            pendingApply = null;
+        }
+        pending = null;
+    }
+
+    /**
+     * SHA-256 of the settings as the SDK saves them, null if they can't be
+     * saved, in which case they are always applied.
+     */
+    static byte[] digest(Settings settings) {
+        File file = null;
+        try {
+            file = File.createTempFile("settings", ".xml");
+            settings.save(file.getPath());
+            return MessageDigest.getInstance("SHA-256").digest(
+                    Files.readAllBytes(file.toPath()));
+        } catch (Exception ex) {
+            return null;
+        } finally {
+            if (file != null) {
+                file.delete();
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.ImpinjReader;
+import com.impinj.octane.Tag;
+import com.impinj.octane.TagReport;
+import com.impinj.octane.TagReportListener;
+
+import java.util.List;
+
+/**
+ * A TagReportListener that can be attached to several readers at once. It
+ * checks every tag against a {@link SharedTagDeduplicator} and hands only
+ * the first sightings to the next consumer, for example a
+ * {@link TagReportDispatcher}.
+ */
+public class SharedDedupTagReportListener implements TagReportListener {
+
+    // every reader calls back on its own thread, so each thread gets its
+    // own scratch reads and key; two reads, as each first sighting is held
+    // back until the next one shows whether it ends the batch
+    private static final ThreadLocal<TagRead[]> READS = new ThreadLocal<TagRead[]>() {
+        @Override
+        protected TagRead[] initialValue() {
+            return new TagRead[] {new TagRead(), new TagRead()};
+        }
+    };
+    private static final ThreadLocal<TagId> KEYS = new ThreadLocal<TagId>() {
+        @Override
+        protected TagId initialValue() {
+            return new TagId();
+        }
+    };
+
+    private final SharedTagDeduplicator dedup;
+    private final TagReadConsumer next;
+
+    public SharedDedupTagReportListener(SharedTagDeduplicator dedup,
+                                        TagReadConsumer next) {
+        this.dedup = dedup;
+        this.next = next;
+    }
+
+    @Override
+    public void onTagReported(ImpinjReader reader, TagReport report) {
+        long arrival = System.nanoTime();
+        Object event = PipelineEvents.beginReport();
+        // dedup and hand off take turns tag by tag, each stage event spans
+        // the loop and their time is added up while a recording wants it
+        Object dedupStage = PipelineEvents.beginStage();
+        Object handOffStage = PipelineEvents.beginStage();
+        boolean timed = dedupStage != null;
+        long dedupNanos = 0;
+        long handOffNanos = 0;
+        List<Tag> tags = report.getTags();
+        TagRead[] reads = READS.get();
+        TagRead held = null;
+        TagId key = KEYS.get();
+        long now = System.currentTimeMillis();
+        ReaderMetrics metrics = ReaderMetrics.of(reader);
+
+        for (int i = 0; i < tags.size(); i++) {
+            TagRead read = reads[held == reads[0] ? 1 : 0];
+            read.copyFrom(reader, tags.get(i), arrival);
+            key.setPreferTid(read);
+            metrics.tagRead(read.antennaPresent ? read.antenna : -1);
+
+            long stage = timed ? System.nanoTime() : 0;
+            if (dedup.firstSighting(reader, key, now)) {
+                metrics.uniqueTag();
+                if (timed) {
+                    long handing = System.nanoTime();
+                    dedupNanos += handing - stage;
+                    stage = handing;
+                }
+                if (held != null) {
+                    next.onTagRead(held, false);
+                }
+                held = read;
+                handOffNanos += timed ? System.nanoTime() - stage : 0;
+            } else {
+                metrics.dedupHit();
+                dedupNanos += timed ? System.nanoTime() - stage : 0;
+            }
+        }
+        if (held != null) {
+            // the last first sighting ends the batch, even when duplicates
+            // followed it
+            long stage = timed ? System.nanoTime() : 0;
+            next.onTagRead(held, true);
+            handOffNanos += timed ? System.nanoTime() - stage : 0;
+        }
+
+        if (timed) {
+            PipelineEvents.stage(PipelineEvents.DEDUP, reader, tags.size(), dedupStage,
+                    dedupNanos);
+            PipelineEvents.stage(PipelineEvents.HAND_OFF, reader, tags.size(), handOffStage,
+                    handOffNanos);
+        }
+        PipelineEvents.reportReceived(PipelineEvents.TAG_REPORT, reader, tags.size(), event);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.ImpinjReader;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A dedup cache that can be shared by several readers, each calling back on
+ * its own thread. Tags are spread over a number of independent
+ * {@link TagDedupCache} stripes by hash, each guarded by its own lock, so
+ * readers only contend when they look up tags in the same stripe.
+ * <p>
+ * With GLOBAL scope a tag is reported once no matter which reader saw it,
+ * with PER_READER scope every reader gets its own set of stripes and
+ * reports each tag once.
+ */
+public class SharedTagDeduplicator {
+
+    public enum Scope {
+        GLOBAL,
+        PER_READER
+    }
+
+    private final Scope scope;
+    private final int stripeCount;
+    private final int stripeShift;
+    private final int tagsPerStripe;
+    private final long ttlMillis;
+
+    private final TagDedupCache[] globalStripes;
+    private final ConcurrentHashMap<ImpinjReader, TagDedupCache[]> readerStripes =
+            new ConcurrentHashMap<ImpinjReader, TagDedupCache[]>();
+
+    /**
+     * @param maxTags the capacity of the whole cache, or of each reader's
+     *                cache with PER_READER scope
+     * @param stripes number of independently locked stripes, rounded up to a
+     *                power of two; a few times the number of readers works
+     *                well
+     */
+    public SharedTagDeduplicator(int maxTags, long ttlMillis, int stripes,
+                                 Scope scope) {
+        this.scope = scope;
+        this.stripeCount = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripeShift = 32 - Integer.numberOfTrailingZeros(stripeCount);
+        this.tagsPerStripe = Math.max(1, (maxTags + stripeCount - 1) / stripeCount);
+        this.ttlMillis = ttlMillis;
+        this.globalStripes = scope == Scope.GLOBAL ? newStripes() : null;
+    }
+
+    /**
+     * Thread safe version of {@link TagDedupCache#firstSighting}.
+     */
+    public boolean firstSighting(ImpinjReader reader, TagId id, long nowMillis) {
+        TagDedupCache stripe = stripesFor(reader)[stripeIndex(id)];
+
+        synchronized (stripe) {
+            return stripe.firstSighting(id, nowMillis);
+        }
+    }
+
+    public Scope getScope() {
+        return scope;
+    }
+
+    public int getStripes() {
+        return stripeCount;
+    }
+
+    public int size() {
+        int size = 0;
+        if (globalStripes != null) {
+            size += size(globalStripes);
+        }
+        for (TagDedupCache[] stripes : readerStripes.values()) {
+            size += size(stripes);
+        }
+        return size;
+    }
+
+    // the caches use the low bits of the hash, pick the stripe with the high
+    // bits so each stripe still sees well spread hashes
+    private int stripeIndex(TagId id) {
+        if (stripeCount == 1) {
+            return 0;
+        }
+        return (id.hashCode() * 0x9E3779B9) >>> stripeShift;
+    }
+
+    private TagDedupCache[] stripesFor(ImpinjReader reader) {
+        if (scope == Scope.GLOBAL) {
+            return globalStripes;
+        }
+        TagDedupCache[] stripes = readerStripes.get(reader);
+        if (stripes == null) {
+            TagDedupCache[] created = newStripes();
+            stripes = readerStripes.putIfAbsent(reader, created);
+            if (stripes == null) {
+                stripes = created;
+            }
+        }
+        return stripes;
+    }
+
+    private TagDedupCache[] newStripes() {
+        TagDedupCache[] stripes = new TagDedupCache[stripeCount];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new TagDedupCache(tagsPerStripe, ttlMillis);
+        }
+        return stripes;
+    }
+
+    private static int size(TagDedupCache[] stripes) {
+        int size = 0;
+        for (TagDedupCache stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+}
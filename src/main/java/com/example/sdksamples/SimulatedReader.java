@@ -0,0 +1,429 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.BufferOverflowEvent;
+import com.impinj.octane.BufferOverflowListener;
+import com.impinj.octane.BufferWarningEvent;
+import com.impinj.octane.BufferWarningListener;
+import com.impinj.octane.DirectionReport;
+import com.impinj.octane.DirectionReportListener;
+import com.impinj.octane.ImpinjReader;
+import com.impinj.octane.KeepaliveEvent;
+import com.impinj.octane.KeepaliveListener;
+import com.impinj.octane.LocationReport;
+import com.impinj.octane.LocationReportListener;
+import com.impinj.octane.OctaneSdkException;
+import com.impinj.octane.Settings;
+import com.impinj.octane.TagOpCompleteListener;
+import com.impinj.octane.TagOpReport;
+import com.impinj.octane.TagReport;
+import com.impinj.octane.TagReportListener;
+
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A stand-in for an ImpinjReader that generates its own traffic, so the
+ * sample listeners can be attached unchanged and load tested without
+ * hardware. Once started it produces tag, location, direction, tag op and
+ * keepalive events at the configured rates from a numbered tag population;
+ * a rate of zero turns an event type off, except for tag reads where zero
+ * means as fast as possible.
+ * <p>
+ * Like a reader, it buffers reports between generation and delivery. Events
+ * are delivered to the listeners on one thread per reader; when the
+ * listeners fall behind the buffer fills, buffer warnings are sent at every
+ * 20% and reports are dropped with a buffer overflow once it is full. When
+ * tag reads are unthrottled the generator waits for room instead, so the
+ * delivered rate is the ceiling of the attached listeners.
+ */
+public class SimulatedReader extends ImpinjReader {
+
+    private static final int CONTROL_SLACK = 16;
+
+    private String address;
+    private boolean connected;
+
+    private long population = 1000;
+    private int tagsPerReport = 20;
+    private int tagReadsPerSecond = 10000;
+    private int locationReportsPerSecond;
+    private int directionReportsPerSecond;
+    private int tagOpReportsPerSecond;
+    private long keepaliveMillis = 10000;
+    private int bufferReports = 1000;
+
+    private volatile TagReportListener tagReportListener;
+    private volatile LocationReportListener locationReportListener;
+    private volatile DirectionReportListener directionReportListener;
+    private volatile TagOpCompleteListener tagOpCompleteListener;
+    private volatile KeepaliveListener keepaliveListener;
+    private volatile BufferWarningListener bufferWarningListener;
+    private volatile BufferOverflowListener bufferOverflowListener;
+
+    private ArrayBlockingQueue<Object> buffer;
+    private Thread generator;
+    private Thread deliverer;
+    private volatile boolean running;
+
+    private final AtomicLong generatedReads = new AtomicLong();
+    private final AtomicLong deliveredReads = new AtomicLong();
+    private final AtomicLong droppedReports = new AtomicLong();
+
+    public SimulatedReader(String name) {
+        setName(name);
+    }
+
+    /**
+     * Accepts any hostname, nothing is contacted.
+     */
+    @Override
+    public void connect(String hostname) throws OctaneSdkException {
+        address = hostname;
+        connected = true;
+    }
+
+    @Override
+    public void disconnect() {
+        stopSimulation();
+        connected = false;
+    }
+
+    @Override
+    public boolean isConnected() {
+        return connected;
+    }
+
+    @Override
+    public String getAddress() {
+        return address;
+    }
+
+    @Override
+    public Settings queryDefaultSettings() {
+        return new Settings();
+    }
+
+    /**
+     * Settings are accepted and ignored, the traffic is shaped by the
+     * setters of this class instead.
+     */
+    @Override
+    public void applySettings(Settings settings) throws OctaneSdkException {
+    }
+
+    @Override
+    public synchronized void start() throws OctaneSdkException {
+        if (running) {
+            return;
+        }
+        if (!connected) {
+            throw new OctaneSdkException("Not connected");
+        }
+        running = true;
+        buffer = new ArrayBlockingQueue<Object>(bufferReports + CONTROL_SLACK);
+
+        deliverer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                deliverLoop();
+            }
+        }, "sim-deliver-" + getName());
+        generator = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                generateLoop();
+            }
+        }, "sim-generate-" + getName());
+        deliverer.setDaemon(true);
+        generator.setDaemon(true);
+        deliverer.start();
+        generator.start();
+    }
+
+    @Override
+    public void stop() throws OctaneSdkException {
+        stopSimulation();
+    }
+
+    @Override
+    public void setTagReportListener(TagReportListener listener) {
+        tagReportListener = listener;
+    }
+
+    @Override
+    public void setLocationReportListener(LocationReportListener listener) {
+        locationReportListener = listener;
+    }
+
+    @Override
+    public void setDirectionReportListener(DirectionReportListener listener) {
+        directionReportListener = listener;
+    }
+
+    @Override
+    public void setTagOpCompleteListener(TagOpCompleteListener listener) {
+        tagOpCompleteListener = listener;
+    }
+
+    @Override
+    public void setKeepaliveListener(KeepaliveListener listener) {
+        keepaliveListener = listener;
+    }
+
+    @Override
+    public void setBufferWarningListener(BufferWarningListener listener) {
+        bufferWarningListener = listener;
+    }
+
+    @Override
+    public void setBufferOverflowListener(BufferOverflowListener listener) {
+        bufferOverflowListener = listener;
+    }
+
+    public void setPopulation(long population) {
+        this.population = population;
+    }
+
+    public void setTagsPerReport(int tagsPerReport) {
+        this.tagsPerReport = tagsPerReport;
+    }
+
+    /**
+     * @param tagReadsPerSecond zero to generate as fast as possible
+     */
+    public void setTagReadsPerSecond(int tagReadsPerSecond) {
+        this.tagReadsPerSecond = tagReadsPerSecond;
+    }
+
+    public void setLocationReportsPerSecond(int locationReportsPerSecond) {
+        this.locationReportsPerSecond = locationReportsPerSecond;
+    }
+
+    public void setDirectionReportsPerSecond(int directionReportsPerSecond) {
+        this.directionReportsPerSecond = directionReportsPerSecond;
+    }
+
+    public void setTagOpReportsPerSecond(int tagOpReportsPerSecond) {
+        this.tagOpReportsPerSecond = tagOpReportsPerSecond;
+    }
+
+    public void setKeepaliveMillis(long keepaliveMillis) {
+        this.keepaliveMillis = keepaliveMillis;
+    }
+
+    /**
+     * How many reports the simulated reader holds while the listeners are
+     * busy, set before start.
+     */
+    public void setBufferReports(int bufferReports) {
+        this.bufferReports = bufferReports;
+    }
+
+    public long getGeneratedReads() {
+        return generatedReads.get();
+    }
+
+    public long getDeliveredReads() {
+        return deliveredReads.get();
+    }
+
+    public long getDroppedReports() {
+        return droppedReports.get();
+    }
+
+    private void stopSimulation() {
+        Thread g;
+        Thread d;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            g = generator;
+            d = deliverer;
+        }
+        try {
+            // wakes it from a long wait for the next event
+            g.interrupt();
+            g.join();
+            d.interrupt();
+            d.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void generateLoop() {
+        Random random = new Random();
+        boolean unthrottled = tagReadsPerSecond <= 0;
+        long tagInterval = interval(tagReadsPerSecond / (double) tagsPerReport);
+        long locationInterval = interval(locationReportsPerSecond);
+        long directionInterval = interval(directionReportsPerSecond);
+        long tagOpInterval = interval(tagOpReportsPerSecond);
+        long keepaliveInterval = keepaliveMillis > 0
+                ? TimeUnit.MILLISECONDS.toNanos(keepaliveMillis) : 0;
+
+        long now = System.nanoTime();
+        long nextTags = now;
+        long nextLocation = first(now, locationInterval);
+        long nextDirection = first(now, directionInterval);
+        long nextTagOp = first(now, tagOpInterval);
+        long nextKeepalive = first(now, keepaliveInterval);
+
+        long nextTag = 0;
+        SyntheticReports.TagPopulation tags =
+                new SyntheticReports.TagPopulation(population);
+        int warnedLevel = 0;
+        boolean overflowed = false;
+        short opId = 0;
+
+        while (running) {
+            long due = Math.min(Math.min(nextTags, nextLocation),
+                    Math.min(Math.min(nextDirection, nextTagOp), nextKeepalive));
+            now = System.nanoTime();
+            if (due > now) {
+                LockSupport.parkNanos(due - now);
+                continue;
+            }
+            long nowUs = System.currentTimeMillis() * 1000;
+            long tag = (long) (random.nextDouble() * population);
+
+            // whichever event is the most overdue goes next
+            Object event;
+            int reads = 0;
+            if (due == nextKeepalive) {
+                // keepalives aren't reports, they get through a full buffer
+                buffer.offer(SyntheticReports.keepalive());
+                nextKeepalive += keepaliveInterval;
+                continue;
+            } else if (due == nextLocation) {
+                event = SyntheticReports.locationReport(tag, random.nextInt(1000),
+                        random.nextInt(1000), 1 + random.nextInt(30));
+                nextLocation += locationInterval;
+            } else if (due == nextDirection) {
+                int sector = 2 + random.nextInt(8);
+                event = SyntheticReports.directionReport(tag, sector, sector + 1,
+                        nowUs);
+                nextDirection += directionInterval;
+            } else if (due == nextTagOp) {
+                event = SyntheticReports.tagOpReport(tag, opId, opId, nowUs);
+                opId += 2;
+                nextTagOp += tagOpInterval;
+            } else {
+                event = tags.tagReport(nextTag, tagsPerReport, nowUs);
+                reads = tagsPerReport;
+                nextTag = (nextTag + tagsPerReport) % population;
+                nextTags = unthrottled ? now : nextTags + tagInterval;
+            }
+            generatedReads.addAndGet(reads);
+
+            if (unthrottled) {
+                // as fast as the listeners go, wait for room instead of
+                // overflowing
+                try {
+                    buffer.put(event);
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                continue;
+            }
+
+            if (buffer.size() >= bufferReports) {
+                droppedReports.incrementAndGet();
+                if (!overflowed) {
+                    overflowed = true;
+                    buffer.offer(SyntheticReports.bufferOverflow());
+                }
+                continue;
+            }
+            buffer.offer(event);
+
+            // warn at every 20% the buffer fills up, and again once it has
+            // drained two levels below the last warning
+            int level = buffer.size() * 5 / bufferReports;
+            if (level > warnedLevel) {
+                buffer.offer(SyntheticReports.bufferWarning(level * 20));
+                warnedLevel = level;
+            } else if (level <= warnedLevel - 2) {
+                warnedLevel = level;
+            }
+            if (level < 4) {
+                overflowed = false;
+            }
+        }
+    }
+
+    private void deliverLoop() {
+        while (true) {
+            Object event;
+            try {
+                event = running ? buffer.take() : buffer.poll();
+            } catch (InterruptedException ex) {
+                event = buffer.poll();
+            }
+            if (event == null) {
+                // stopped and drained
+                return;
+            }
+            try {
+                deliver(event);
+            } catch (RuntimeException ex) {
+                System.out.println("Listener failed: " + ex.toString());
+            }
+        }
+    }
+
+    private void deliver(Object event) {
+        if (event instanceof TagReport) {
+            TagReport report = (TagReport) event;
+            TagReportListener l = tagReportListener;
+            if (l != null) {
+                l.onTagReported(this, report);
+            }
+            deliveredReads.addAndGet(report.getTags().size());
+        } else if (event instanceof LocationReport) {
+            LocationReportListener l = locationReportListener;
+            if (l != null) {
+                l.onLocationReported(this, (LocationReport) event);
+            }
+        } else if (event instanceof DirectionReport) {
+            DirectionReportListener l = directionReportListener;
+            if (l != null) {
+                l.onDirectionReported(this, (DirectionReport) event);
+            }
+        } else if (event instanceof TagOpReport) {
+            TagOpCompleteListener l = tagOpCompleteListener;
+            if (l != null) {
+                l.onTagOpComplete(this, (TagOpReport) event);
+            }
+        } else if (event instanceof KeepaliveEvent) {
+            KeepaliveListener l = keepaliveListener;
+            if (l != null) {
+                l.onKeepalive(this, (KeepaliveEvent) event);
+            }
+        } else if (event instanceof BufferWarningEvent) {
+            BufferWarningListener l = bufferWarningListener;
+            if (l != null) {
+                l.onBufferWarning(this, (BufferWarningEvent) event);
+            }
+        } else if (event instanceof BufferOverflowEvent) {
+            BufferOverflowListener l = bufferOverflowListener;
+            if (l != null) {
+                l.onBufferOverflow(this, (BufferOverflowEvent) event);
+            }
+        }
+    }
+
+    // nanoseconds between events at the rate, 0 when the rate is 0
+    private static long interval(double perSecond) {
+        return perSecond <= 0 ? 0 : Math.max(1, (long) (1e9 / perSecond));
+    }
+
+    // when an event type first fires, never when it is turned off
+    private static long first(long now, long interval) {
+        return interval == 0 ? Long.MAX_VALUE : now + interval;
+    }
+}
@@ -30,9 +30,32 @@ public class SoftwareFiltering {
             // Apply the new settings
             reader.applySettings(settings);
 
-            // connect a listener
+            // connect a listener, optionally bounding how many tags it
+            // remembers and for how long
+            int maxTags = Integer.getInteger(SampleProperties.dedupMaxTags,
+                    FilteredTagReportListenerImplementation.DEFAULT_MAX_TAGS);
+            long ttlMillis = Long.getLong(SampleProperties.dedupTtlSeconds,
+                    FilteredTagReportListenerImplementation.DEFAULT_TTL_MILLIS / 1000)
+                    * 1000;
+
+            // for very large populations put a fixed size probabilistic
+            // filter in front of the cache, it forgets tags after about
+            // the same TTL
+            SeenBeforeFilter frontFilter = null;
+            String filterTags = System.getProperty(SampleProperties.seenFilterTags);
+            if (filterTags != null) {
+                double fpp = Double.parseDouble(System.getProperty(
+                        SampleProperties.seenFilterFpp, "0.001"));
+                int generations = 4;
+                frontFilter = new SeenBeforeFilter(Long.parseLong(filterTags),
+                        fpp, generations, ttlMillis / generations);
+                System.out.println("Seen before filter uses "
+                        + frontFilter.getMemoryBytes() / 1024 + " KB");
+            }
+
             reader.setTagReportListener(
-                    new FilteredTagReportListenerImplementation());
+                    new FilteredTagReportListenerImplementation(maxTags,
+                            ttlMillis, frontFilter));
 
             // Start the reader
             reader.start();
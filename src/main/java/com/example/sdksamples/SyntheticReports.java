@@ -0,0 +1,644 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.BufferOverflowEvent;
+import com.impinj.octane.BufferWarningEvent;
+import com.impinj.octane.DiagnosticReport;
+import com.impinj.octane.DirectionReport;
+import com.impinj.octane.ImpinjReader;
+import com.impinj.octane.ImpinjTimestamp;
+import com.impinj.octane.KeepaliveEvent;
+import com.impinj.octane.LocationConfidenceFactors;
+import com.impinj.octane.LocationReport;
+import com.impinj.octane.OctaneSdkException;
+import com.impinj.octane.ReadResultStatus;
+import com.impinj.octane.Tag;
+import com.impinj.octane.TagData;
+import com.impinj.octane.TagModelDetails;
+import com.impinj.octane.TagModelName;
+import com.impinj.octane.TagOpReport;
+import com.impinj.octane.TagOpResult;
+import com.impinj.octane.TagReadOpResult;
+import com.impinj.octane.TagReport;
+import com.impinj.octane.TagWriteOpResult;
+import com.impinj.octane.WriteResultStatus;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds Octane SDK reports without a reader, so listeners can be driven by
+ * benchmarks and simulations. The SDK only fills its report classes from
+ * LLRP messages, so every object here is a small subclass that overrides
+ * the getters the listeners call; keeping that in one place means an SDK
+ * upgrade only has to be checked here.
+ * <p>
+ * Tags are numbered within a population: the same index always produces
+ * the same EPC, the same one {@link SyntheticTagReads} uses.
+ */
+public class SyntheticReports {
+
+    private static final double[] CHANNELS = {902.75, 903.25, 910.25, 915.75, 927.25};
+
+    /**
+     * A reader that is never connected but reports a name and address.
+     */
+    public static ImpinjReader reader(String name, final String address) {
+        ImpinjReader reader = new ImpinjReader() {
+            @Override
+            public String getAddress() {
+                return address;
+            }
+        };
+        reader.setName(name);
+        return reader;
+    }
+
+    public static TagData epc(long index) {
+        try {
+            return TagData.fromHexString(String.format("E28011606000%012X",
+                    index & 0xFFFFFFFFFFFFL));
+        } catch (OctaneSdkException ex) {
+            // the string is always valid hex
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    public static Tag tag(long index, long nowUs) {
+        return new SyntheticTag(epc(index), index, new Stamp(nowUs));
+    }
+
+    /**
+     * A report of 'tags' consecutive tags starting at firstIndex, wrapping
+     * around the population.
+     */
+    public static TagReport tagReport(long firstIndex, int tags, long population,
+                                      long nowUs) {
+        List<Tag> list = new ArrayList<Tag>(tags);
+        for (int i = 0; i < tags; i++) {
+            list.add(tag((firstIndex + i) % population, nowUs));
+        }
+        return new SyntheticTagReport(list);
+    }
+
+    public static TagReport tagReport(List<Tag> tags) {
+        return new SyntheticTagReport(tags);
+    }
+
+    /**
+     * The tags of a population, each built the first time it is reported
+     * and reused after that, so generating a report costs no EPC
+     * formatting or parsing. Every report gets its own timestamps, shared
+     * by its tags; a tag that is reported again before an earlier report
+     * holding it was delivered shows the newer time there too, as if it
+     * had been seen again. For one generating thread.
+     */
+    public static class TagPopulation {
+        private final SyntheticTag[] tags;
+
+        public TagPopulation(long size) {
+            if (size <= 0 || size > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Population of " + size);
+            }
+            tags = new SyntheticTag[(int) size];
+        }
+
+        public long size() {
+            return tags.length;
+        }
+
+        /**
+         * A report of 'count' consecutive tags starting at firstIndex,
+         * wrapping around the population.
+         */
+        public TagReport tagReport(long firstIndex, int count, long nowUs) {
+            Stamp stamp = new Stamp(nowUs);
+            List<Tag> list = new ArrayList<Tag>(count);
+            for (int i = 0; i < count; i++) {
+                int index = (int) ((firstIndex + i) % tags.length);
+                SyntheticTag tag = tags[index];
+                if (tag == null) {
+                    tag = new SyntheticTag(epc(index), index, stamp);
+                    tags[index] = tag;
+                } else {
+                    tag.stamp = stamp;
+                }
+                list.add(tag);
+            }
+            return new SyntheticTagReport(list);
+        }
+    }
+
+    public static LocationReport locationReport(long index, int xCm, int yCm,
+                                                int readCount) {
+        return new SyntheticLocationReport(epc(index), xCm, yCm, readCount);
+    }
+
+    /**
+     * A report with a successful read of two words and a successful write
+     * of two words for the tag.
+     */
+    public static TagOpReport tagOpReport(long index, short opId, int sequenceId,
+                                          long nowUs) {
+        Tag tag = tag(index, nowUs);
+        TagData data;
+        try {
+            data = TagData.fromHexString("ABCD0123");
+        } catch (OctaneSdkException ex) {
+            throw new IllegalStateException(ex);
+        }
+        return new SyntheticTagOpReport(Arrays.<TagOpResult>asList(
+                readResult(tag, opId, sequenceId, ReadResultStatus.Success, data),
+                writeResult(tag, (short) (opId + 1), sequenceId,
+                        WriteResultStatus.Success, (short) 2)));
+    }
+
+    public static TagOpReport tagOpReport(List<TagOpResult> results) {
+        return new SyntheticTagOpReport(results);
+    }
+
+    public static TagReadOpResult readResult(Tag tag, short opId, int sequenceId,
+                                             ReadResultStatus status,
+                                             TagData data) {
+        return new SyntheticReadResult(tag, opId, sequenceId, status, data);
+    }
+
+    public static TagWriteOpResult writeResult(Tag tag, short opId, int sequenceId,
+                                               WriteResultStatus status,
+                                               short wordsWritten) {
+        return new SyntheticWriteResult(tag, opId, sequenceId, status,
+                wordsWritten);
+    }
+
+    public static LocationReport locationReport(TagData epc, int xCm, int yCm,
+                                                int readCount) {
+        return new SyntheticLocationReport(epc, xCm, yCm, readCount);
+    }
+
+    /**
+     * A tag with exactly the fields and presence flags of the read, the
+     * reverse of {@link TagRead#copyFrom(ImpinjReader, Tag)}.
+     */
+    public static Tag tag(TagRead read) {
+        return new RecordedTag(read);
+    }
+
+    public static TagData tagData(short[] words, int count) {
+        List<Short> list = new ArrayList<Short>(count);
+        for (int i = 0; i < count; i++) {
+            list.add(words[i]);
+        }
+        return TagData.fromWordList(list);
+    }
+
+    public static DiagnosticReport diagnosticReport(final List<Integer> metrics) {
+        return new DiagnosticReport() {
+            @Override
+            public List<Integer> getMetrics() {
+                return metrics;
+            }
+        };
+    }
+
+    /**
+     * The xArray diagnostic report sent at the end of each inventory cycle.
+     */
+    public static DiagnosticReport endOfCycle(int cycleMicros) {
+        return diagnosticReport(Arrays.asList(100, cycleMicros));
+    }
+
+    /**
+     * A direction report for the tag moving between two xArray sectors. The
+     * samples only print direction reports, so only toString is filled in.
+     */
+    public static DirectionReport directionReport(final long index,
+                                                  final int fromSector,
+                                                  final int toSector,
+                                                  final long nowUs) {
+        final String epc = epc(index).toHexString();
+        return new DirectionReport() {
+            @Override
+            public String toString() {
+                return "DirectionReport epc: " + epc + " first_sector: "
+                        + fromSector + " last_sector: " + toSector
+                        + " last_seen: " + nowUs;
+            }
+        };
+    }
+
+    public static KeepaliveEvent keepalive() {
+        return new KeepaliveEvent();
+    }
+
+    public static BufferWarningEvent bufferWarning(final int percentFull) {
+        return new BufferWarningEvent() {
+            @Override
+            public int getPercentFull() {
+                return percentFull;
+            }
+        };
+    }
+
+    public static BufferOverflowEvent bufferOverflow() {
+        return new BufferOverflowEvent();
+    }
+
+    static class SyntheticTimestamp extends ImpinjTimestamp {
+        final long utcMicros;
+
+        SyntheticTimestamp(long utcMicros) {
+            this.utcMicros = utcMicros;
+        }
+
+        // a new BigInteger for every call, as the SDK's timestamps return
+        @Override
+        public BigInteger getUtcTimestamp() {
+            return BigInteger.valueOf(utcMicros);
+        }
+
+        @Override
+        public String ToString() {
+            return Long.toString(utcMicros);
+        }
+    }
+
+    // the first and last seen times of the tags of one report
+    static class Stamp {
+        final ImpinjTimestamp firstSeen;
+        final ImpinjTimestamp lastSeen;
+
+        Stamp(long nowUs) {
+            firstSeen = new SyntheticTimestamp(nowUs - 2500);
+            lastSeen = new SyntheticTimestamp(nowUs);
+        }
+    }
+
+    static class SyntheticTag extends Tag {
+        final TagData epc;
+        final short antenna;
+        final short seenCount;
+        final double rssi;
+        final double doppler;
+        final double channel;
+        // replaced when a population reports the tag again
+        volatile Stamp stamp;
+
+        SyntheticTag(TagData epc, long index, Stamp stamp) {
+            this.epc = epc;
+            antenna = (short) (1 + (index & 3));
+            seenCount = (short) (1 + (index & 7));
+            rssi = -40.0 - (index & 63) * 0.5;
+            doppler = ((index & 31) - 16) * 0.5;
+            channel = CHANNELS[(int) (index % CHANNELS.length)];
+            this.stamp = stamp;
+        }
+
+        @Override
+        public TagData getEpc() {
+            return epc;
+        }
+
+        @Override
+        public boolean isAntennaPortNumberPresent() {
+            return true;
+        }
+
+        @Override
+        public short getAntennaPortNumber() {
+            return antenna;
+        }
+
+        @Override
+        public boolean isFirstSeenTimePresent() {
+            return true;
+        }
+
+        @Override
+        public ImpinjTimestamp getFirstSeenTime() {
+            return stamp.firstSeen;
+        }
+
+        @Override
+        public boolean isLastSeenTimePresent() {
+            return true;
+        }
+
+        @Override
+        public ImpinjTimestamp getLastSeenTime() {
+            return stamp.lastSeen;
+        }
+
+        @Override
+        public boolean isSeenCountPresent() {
+            return true;
+        }
+
+        @Override
+        public short getTagSeenCount() {
+            return seenCount;
+        }
+
+        @Override
+        public boolean isRfDopplerFrequencyPresent() {
+            return true;
+        }
+
+        @Override
+        public double getRfDopplerFrequency() {
+            return doppler;
+        }
+
+        @Override
+        public boolean isPeakRssiInDbmPresent() {
+            return true;
+        }
+
+        @Override
+        public double getPeakRssiInDbm() {
+            return rssi;
+        }
+
+        @Override
+        public boolean isChannelInMhzPresent() {
+            return true;
+        }
+
+        @Override
+        public double getChannelInMhz() {
+            return channel;
+        }
+    }
+
+    static class RecordedTag extends Tag {
+        final TagRead read = new TagRead();
+        final TagData epc;
+        final TagData tid;
+        final ImpinjTimestamp firstSeen;
+        final ImpinjTimestamp lastSeen;
+        final TagModelDetails model;
+
+        RecordedTag(TagRead source) {
+            read.copyFrom(source);
+            epc = tagData(read.epc, read.epcWords);
+            tid = read.fastIdPresent ? tagData(read.tid, read.tidWords) : null;
+            firstSeen = new SyntheticTimestamp(read.firstSeenUs);
+            lastSeen = new SyntheticTimestamp(read.lastSeenUs);
+            model = !read.fastIdPresent ? null : new TagModelDetails() {
+                @Override
+                public TagModelName getModelName() {
+                    return read.modelName;
+                }
+
+                @Override
+                public int getEpcSizeBits() {
+                    return read.epcSizeBits;
+                }
+
+                @Override
+                public int getUserMemorySizeBits() {
+                    return read.userMemorySizeBits;
+                }
+            };
+        }
+
+        @Override
+        public TagData getEpc() {
+            return epc;
+        }
+
+        @Override
+        public boolean isFastIdPresent() {
+            return read.fastIdPresent;
+        }
+
+        @Override
+        public TagData getTid() {
+            return tid;
+        }
+
+        @Override
+        public TagModelDetails getModelDetails() {
+            return model;
+        }
+
+        @Override
+        public boolean isAntennaPortNumberPresent() {
+            return read.antennaPresent;
+        }
+
+        @Override
+        public short getAntennaPortNumber() {
+            return read.antenna;
+        }
+
+        @Override
+        public boolean isFirstSeenTimePresent() {
+            return read.firstSeenPresent;
+        }
+
+        @Override
+        public ImpinjTimestamp getFirstSeenTime() {
+            return firstSeen;
+        }
+
+        @Override
+        public boolean isLastSeenTimePresent() {
+            return read.lastSeenPresent;
+        }
+
+        @Override
+        public ImpinjTimestamp getLastSeenTime() {
+            return lastSeen;
+        }
+
+        @Override
+        public boolean isSeenCountPresent() {
+            return read.seenCountPresent;
+        }
+
+        @Override
+        public short getTagSeenCount() {
+            return read.seenCount;
+        }
+
+        @Override
+        public boolean isRfDopplerFrequencyPresent() {
+            return read.dopplerPresent;
+        }
+
+        @Override
+        public double getRfDopplerFrequency() {
+            return read.doppler;
+        }
+
+        @Override
+        public boolean isPeakRssiInDbmPresent() {
+            return read.peakRssiPresent;
+        }
+
+        @Override
+        public double getPeakRssiInDbm() {
+            return read.peakRssi;
+        }
+
+        @Override
+        public boolean isChannelInMhzPresent() {
+            return read.channelPresent;
+        }
+
+        @Override
+        public double getChannelInMhz() {
+            return read.channelMhz;
+        }
+    }
+
+    static class SyntheticTagReport extends TagReport {
+        final List<Tag> tags;
+
+        SyntheticTagReport(List<Tag> tags) {
+            this.tags = tags;
+        }
+
+        @Override
+        public List<Tag> getTags() {
+            return tags;
+        }
+    }
+
+    static class SyntheticLocationReport extends LocationReport {
+        final TagData epc;
+        final int xCm;
+        final int yCm;
+        final LocationConfidenceFactors confidence;
+
+        SyntheticLocationReport(TagData epc, int xCm, int yCm, final int readCount) {
+            this.epc = epc;
+            this.xCm = xCm;
+            this.yCm = yCm;
+            this.confidence = new LocationConfidenceFactors() {
+                @Override
+                public int getReadCount() {
+                    return readCount;
+                }
+            };
+        }
+
+        @Override
+        public TagData getEpc() {
+            return epc;
+        }
+
+        @Override
+        public int getLocationXCm() {
+            return xCm;
+        }
+
+        @Override
+        public int getLocationYCm() {
+            return yCm;
+        }
+
+        @Override
+        public LocationConfidenceFactors getConfidenceFactors() {
+            return confidence;
+        }
+    }
+
+    static class SyntheticTagOpReport extends TagOpReport {
+        final List<TagOpResult> results;
+
+        SyntheticTagOpReport(List<TagOpResult> results) {
+            this.results = results;
+        }
+
+        @Override
+        public List<TagOpResult> getResults() {
+            return results;
+        }
+    }
+
+    static class SyntheticReadResult extends TagReadOpResult {
+        final Tag tag;
+        final short opId;
+        final int sequenceId;
+        final ReadResultStatus status;
+        final TagData data;
+
+        SyntheticReadResult(Tag tag, short opId, int sequenceId,
+                            ReadResultStatus status, TagData data) {
+            this.tag = tag;
+            this.opId = opId;
+            this.sequenceId = sequenceId;
+            this.status = status;
+            this.data = data;
+        }
+
+        @Override
+        public Tag getTag() {
+            return tag;
+        }
+
+        @Override
+        public short getOpId() {
+            return opId;
+        }
+
+        @Override
+        public int getSequenceId() {
+            return sequenceId;
+        }
+
+        @Override
+        public ReadResultStatus getResult() {
+            return status;
+        }
+
+        @Override
+        public TagData getData() {
+            return data;
+        }
+    }
+
+    static class SyntheticWriteResult extends TagWriteOpResult {
+        final Tag tag;
+        final short opId;
+        final int sequenceId;
+        final WriteResultStatus status;
+        final short wordsWritten;
+
+        SyntheticWriteResult(Tag tag, short opId, int sequenceId,
+                             WriteResultStatus status, short wordsWritten) {
+            this.tag = tag;
+            this.opId = opId;
+            this.sequenceId = sequenceId;
+            this.status = status;
+            this.wordsWritten = wordsWritten;
+        }
+
+        @Override
+        public Tag getTag() {
+            return tag;
+        }
+
+        @Override
+        public short getOpId() {
+            return opId;
+        }
+
+        @Override
+        public int getSequenceId() {
+            return sequenceId;
+        }
+
+        @Override
+        public WriteResultStatus getResult() {
+            return status;
+        }
+
+        @Override
+        public short getNumWordsWritten() {
+            return wordsWritten;
+        }
+    }
+}
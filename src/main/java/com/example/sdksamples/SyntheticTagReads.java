@@ -0,0 +1,51 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.ImpinjReader;
+
+/**
+ * Fills {@link TagRead} slots with plausible values so the processing code
+ * can be exercised without a reader.
+ */
+public class SyntheticTagReads {
+
+    private static final double[] CHANNELS = {902.75, 903.25, 910.25, 915.75, 927.25};
+
+    /**
+     * Fills the read for tag number 'index' of the population. The same
+     * index always produces the same EPC.
+     */
+    public static void fill(TagRead read, ImpinjReader reader, long index,
+                            long nowUs) {
+        read.reader = reader;
+
+        // a 96 bit EPC, the population index lives in the low 48 bits
+        read.epcWords = 6;
+        read.epc[0] = (short) 0xE280;
+        read.epc[1] = (short) 0x1160;
+        read.epc[2] = (short) 0x6000;
+        read.epc[3] = (short) (index >>> 32);
+        read.epc[4] = (short) (index >>> 16);
+        read.epc[5] = (short) index;
+
+        read.antennaPresent = true;
+        read.antenna = (short) (1 + (index & 3));
+        read.firstSeenPresent = true;
+        read.firstSeenUs = nowUs - 2500;
+        read.lastSeenPresent = true;
+        read.lastSeenUs = nowUs;
+        read.seenCountPresent = true;
+        read.seenCount = (short) (1 + (index & 7));
+        read.dopplerPresent = true;
+        read.doppler = ((index & 31) - 16) * 0.5;
+        read.peakRssiPresent = true;
+        read.peakRssi = -40.0 - (index & 63) * 0.5;
+        read.channelPresent = true;
+        read.channelMhz = CHANNELS[(int) (index % CHANNELS.length)];
+
+        read.fastIdPresent = false;
+        read.tidWords = 0;
+        read.modelName = null;
+        read.epcSizeBits = 0;
+        read.userMemorySizeBits = 0;
+    }
+}
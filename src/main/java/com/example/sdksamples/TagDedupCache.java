@@ -0,0 +1,254 @@
+package com.example.sdksamples;
+
+import java.util.Arrays;
+
+/**
+ * A bounded dedup cache with a time to live. Each entry remembers when its
+ * tag was last reported; a tag is reported again once that is older than
+ * the TTL. When the cache is full the least recently seen tag is evicted.
+ * <p>
+ * Entries live in parallel arrays indexed by slot number, the LRU order is
+ * an intrusive doubly linked list of slot numbers and lookups go through an
+ * open addressing table of slot numbers. Keys are stored as the primitive
+ * longs of a {@link TagId}, so nothing is allocated per read and neither
+ * Strings nor Tag objects are retained. Not thread safe.
+ */
+public class TagDedupCache {
+
+    private static final int NIL = -1;
+
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    // per entry state
+    private final long[] keyHi;
+    private final long[] keyLo;
+    private final int[] keyWords;
+    // only used by EPCs longer than 128 bits
+    private final long[][] keyExtra;
+    private final int[] hashes;
+    private final long[] reportedAt;
+    private final int[] prev;
+    private final int[] next;
+
+    // open addressing index of entry slot + 1, 0 marks an empty bucket
+    private final int[] index;
+    private final int indexMask;
+
+    private int head = NIL;
+    private int tail = NIL;
+    private int free;
+    private int size;
+    private long evictions;
+    private long expirations;
+
+    public TagDedupCache(int maxEntries, long ttlMillis) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+
+        keyHi = new long[maxEntries];
+        keyLo = new long[maxEntries];
+        keyWords = new int[maxEntries];
+        keyExtra = new long[maxEntries][];
+        hashes = new int[maxEntries];
+        reportedAt = new long[maxEntries];
+        prev = new int[maxEntries];
+        next = new int[maxEntries];
+
+        // keep the index at most half full so probe chains stay short
+        int buckets = Integer.highestOneBit(maxEntries * 2 - 1) << 1;
+        index = new int[buckets];
+        indexMask = buckets - 1;
+
+        clear();
+    }
+
+    /**
+     * Records a sighting of the tag and returns true if it should be
+     * reported, that is it was not in the cache or its entry had expired.
+     */
+    public boolean firstSighting(TagId key, long nowMillis) {
+        int hash = key.hashCode();
+        int bucket = find(key, hash);
+
+        if (bucket >= 0) {
+            int slot = index[bucket] - 1;
+            moveToHead(slot);
+            if (nowMillis - reportedAt[slot] >= ttlMillis) {
+                reportedAt[slot] = nowMillis;
+                expirations++;
+                return true;
+            }
+            return false;
+        }
+
+        if (size == maxEntries) {
+            evict(tail);
+            evictions++;
+        }
+        insert(key, hash, nowMillis);
+        return true;
+    }
+
+    public boolean contains(TagId key, long nowMillis) {
+        int bucket = find(key, key.hashCode());
+        return bucket >= 0
+                && nowMillis - reportedAt[index[bucket] - 1] < ttlMillis;
+    }
+
+    public void clear() {
+        Arrays.fill(index, 0);
+        Arrays.fill(keyExtra, null);
+        for (int i = 0; i < maxEntries; i++) {
+            next[i] = i + 1 < maxEntries ? i + 1 : NIL;
+        }
+        free = 0;
+        head = NIL;
+        tail = NIL;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getExpirations() {
+        return expirations;
+    }
+
+    /**
+     * Bytes used per entry, keys included, for EPCs and TIDs of up to 128
+     * bits.
+     */
+    public long getBytesPerEntry() {
+        // key longs, word count, extra reference, hash, timestamp, two
+        // links and the index buckets
+        return 8 + 8 + 4 + 4 + 4 + 8 + 4 + 4 + 4L * index.length / maxEntries;
+    }
+
+    private int find(TagId key, int hash) {
+        int bucket = hash & indexMask;
+        while (true) {
+            int slot = index[bucket] - 1;
+            if (slot < 0) {
+                return NIL;
+            }
+            if (hashes[slot] == hash && keyWords[slot] == key.words
+                    && keyHi[slot] == key.hi && keyLo[slot] == key.lo
+                    && extraMatches(slot, key)) {
+                return bucket;
+            }
+            bucket = (bucket + 1) & indexMask;
+        }
+    }
+
+    private boolean extraMatches(int slot, TagId key) {
+        long[] extra = keyExtra[slot];
+        return key.extraEquals(extra, extra == null ? 0 : extra.length);
+    }
+
+    private void insert(TagId key, int hash, long nowMillis) {
+        int slot = free;
+        free = next[slot];
+
+        keyHi[slot] = key.hi;
+        keyLo[slot] = key.lo;
+        keyWords[slot] = key.words;
+        keyExtra[slot] = key.copyExtra();
+        hashes[slot] = hash;
+        reportedAt[slot] = nowMillis;
+        linkAtHead(slot);
+
+        int bucket = hash & indexMask;
+        while (index[bucket] != 0) {
+            bucket = (bucket + 1) & indexMask;
+        }
+        index[bucket] = slot + 1;
+        size++;
+    }
+
+    private void evict(int slot) {
+        removeBucket(bucketOf(slot));
+        unlink(slot);
+
+        keyExtra[slot] = null;
+        next[slot] = free;
+        free = slot;
+        size--;
+    }
+
+    private int bucketOf(int slot) {
+        int bucket = hashes[slot] & indexMask;
+        while (index[bucket] - 1 != slot) {
+            bucket = (bucket + 1) & indexMask;
+        }
+        return bucket;
+    }
+
+    // backward shift deletion keeps probe chains intact without tombstones
+    private void removeBucket(int bucket) {
+        int hole = bucket;
+        int i = bucket;
+        while (true) {
+            i = (i + 1) & indexMask;
+            int slot = index[i] - 1;
+            if (slot < 0) {
+                break;
+            }
+            int home = hashes[slot] & indexMask;
+            boolean movable = hole <= i
+                    ? (home <= hole || home > i)
+                    : (home <= hole && home > i);
+            if (movable) {
+                index[hole] = index[i];
+                hole = i;
+            }
+        }
+        index[hole] = 0;
+    }
+
+    private void linkAtHead(int slot) {
+        prev[slot] = NIL;
+        next[slot] = head;
+        if (head != NIL) {
+            prev[head] = slot;
+        }
+        head = slot;
+        if (tail == NIL) {
+            tail = slot;
+        }
+    }
+
+    private void unlink(int slot) {
+        int p = prev[slot];
+        int n = next[slot];
+        if (p != NIL) {
+            next[p] = n;
+        } else {
+            head = n;
+        }
+        if (n != NIL) {
+            prev[n] = p;
+        } else {
+            tail = p;
+        }
+    }
+
+    private void moveToHead(int slot) {
+        if (slot != head) {
+            unlink(slot);
+            linkAtHead(slot);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.TagData;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The identity of a tag, an EPC or TID, packed into primitive longs instead
+ * of a hex String. The first 128 bits go into {@link #hi} and {@link #lo};
+ * longer EPCs escape into the {@link #extra} words. Instances are mutable
+ * so listeners can refill one per read without allocating.
+ * <p>
+ * {@link #set(TagData)} is the exception: the SDK only hands out the words
+ * of a TagData as a list of boxed Shorts. Where the tag has already been
+ * copied into a {@link TagRead}, fill the key from that instead.
+ */
+public class TagId {
+
+    // words that fit in hi and lo
+    static final int INLINE_WORDS = 8;
+    static final int MAX_EXTRA_LONGS = (TagRead.MAX_WORDS - INLINE_WORDS + 3) / 4;
+
+    long hi;
+    long lo;
+    int words;
+    // words beyond the first eight, four per long, allocated on first use
+    long[] extra;
+    int extraLongs;
+
+    public TagId() {
+    }
+
+    public TagId(TagId other) {
+        set(other);
+    }
+
+    public static TagId of(TagData data) {
+        TagId id = new TagId();
+        id.set(data);
+        return id;
+    }
+
+    public TagId set(TagData data) {
+        clear();
+        if (data == null) {
+            return this;
+        }
+        List<Short> list = data.toWordList();
+        int n = Math.min(list.size(), TagRead.MAX_WORDS);
+        for (int i = 0; i < n; i++) {
+            putWord(i, list.get(i));
+        }
+        words = n;
+        return this;
+    }
+
+    public TagId set(short[] source, int count) {
+        clear();
+        int n = Math.min(count, TagRead.MAX_WORDS);
+        for (int i = 0; i < n; i++) {
+            putWord(i, source[i]);
+        }
+        words = n;
+        return this;
+    }
+
+    public TagId set(TagId other) {
+        clear();
+        hi = other.hi;
+        lo = other.lo;
+        words = other.words;
+        extraLongs = other.extraLongs;
+        if (other.extraLongs > 0) {
+            ensureExtra();
+            System.arraycopy(other.extra, 0, extra, 0, other.extraLongs);
+        }
+        return this;
+    }
+
+    /**
+     * Uses the TID when the read carries FastID data, the EPC otherwise.
+     */
+    public TagId setPreferTid(TagRead read) {
+        if (read.fastIdPresent && read.tidWords > 0) {
+            return set(read.tid, read.tidWords);
+        }
+        return set(read.epc, read.epcWords);
+    }
+
+    public int getWords() {
+        return words;
+    }
+
+    public short getWord(int i) {
+        long packed;
+        if (i < 4) {
+            packed = hi;
+        } else if (i < INLINE_WORDS) {
+            packed = lo;
+        } else {
+            packed = extra[(i - INLINE_WORDS) >> 2];
+        }
+        return (short) (packed >>> (48 - 16 * (i & 3)));
+    }
+
+    public long getHi() {
+        return hi;
+    }
+
+    public long getLo() {
+        return lo;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash(hi, lo, words, extra, extraLongs);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof TagId)) {
+            return false;
+        }
+        TagId other = (TagId) o;
+        return hi == other.hi && lo == other.lo && words == other.words
+                && extraEquals(other.extra, other.extraLongs);
+    }
+
+    boolean extraEquals(long[] otherExtra, int otherExtraLongs) {
+        if (extraLongs != otherExtraLongs) {
+            return false;
+        }
+        for (int i = 0; i < extraLongs; i++) {
+            if (extra[i] != otherExtra[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long[] copyExtra() {
+        return extraLongs == 0 ? null : Arrays.copyOf(extra, extraLongs);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(words * 4);
+        for (int i = 0; i < words; i++) {
+            String hex = Integer.toHexString(getWord(i) & 0xffff).toUpperCase();
+            for (int pad = hex.length(); pad < 4; pad++) {
+                sb.append('0');
+            }
+            sb.append(hex);
+        }
+        return sb.toString();
+    }
+
+    static int hash(long hi, long lo, int words, long[] extra, int extraLongs) {
+        long h = hi * 0x9E3779B97F4A7C15L;
+        h ^= lo + 0xC2B2AE3D27D4EB4FL + (h << 6) + (h >>> 2);
+        for (int i = 0; i < extraLongs; i++) {
+            h ^= extra[i] + 0x165667B19E3779F9L + (h << 6) + (h >>> 2);
+        }
+        h ^= words;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private void clear() {
+        hi = 0;
+        lo = 0;
+        words = 0;
+        if (extraLongs > 0) {
+            Arrays.fill(extra, 0, extraLongs, 0);
+            extraLongs = 0;
+        }
+    }
+
+    private void putWord(int i, short word) {
+        long value = (word & 0xffffL) << (48 - 16 * (i & 3));
+        if (i < 4) {
+            hi |= value;
+        } else if (i < INLINE_WORDS) {
+            lo |= value;
+        } else {
+            ensureExtra();
+            int e = (i - INLINE_WORDS) >> 2;
+            extra[e] |= value;
+            extraLongs = Math.max(extraLongs, e + 1);
+        }
+    }
+
+    private void ensureExtra() {
+        if (extra == null) {
+            extra = new long[MAX_EXTRA_LONGS];
+        }
+    }
+}
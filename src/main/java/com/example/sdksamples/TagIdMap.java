@@ -0,0 +1,204 @@
+package com.example.sdksamples;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An open addressing hash map keyed directly on the longs of a
+ * {@link TagId}. Keys are copied into primitive arrays, so a caller can
+ * keep refilling one TagId per read and looking it up without allocating.
+ * Not thread safe.
+ */
+public class TagIdMap<V> {
+
+    private static final float MAX_LOAD = 0.5f;
+
+    private long[] his;
+    private long[] los;
+    // word count + 1, 0 marks an empty bucket
+    private int[] lengths;
+    private long[][] extras;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    public TagIdMap() {
+        this(64);
+    }
+
+    public TagIdMap(int expectedSize) {
+        allocate(Integer.highestOneBit(
+                Math.max(4, (int) (expectedSize / MAX_LOAD) - 1)) << 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(TagId key) {
+        int bucket = find(key);
+        return bucket < 0 ? null : (V) values[bucket];
+    }
+
+    public boolean containsKey(TagId key) {
+        return find(key) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(TagId key, V value) {
+        int bucket = find(key);
+        if (bucket >= 0) {
+            V old = (V) values[bucket];
+            values[bucket] = value;
+            return old;
+        }
+        if (size >= resizeAt) {
+            resize();
+        }
+        bucket = emptyBucketFor(key.hashCode());
+        his[bucket] = key.hi;
+        los[bucket] = key.lo;
+        lengths[bucket] = key.words + 1;
+        extras[bucket] = key.copyExtra();
+        values[bucket] = value;
+        size++;
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(TagId key) {
+        int bucket = find(key);
+        if (bucket < 0) {
+            return null;
+        }
+        V old = (V) values[bucket];
+        removeBucket(bucket);
+        size--;
+        return old;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(lengths, 0);
+        Arrays.fill(extras, null);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * A snapshot of the values, for reporting rather than the hot path.
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        List<V> list = new ArrayList<V>(size);
+        for (int i = 0; i < lengths.length; i++) {
+            if (lengths[i] != 0) {
+                list.add((V) values[i]);
+            }
+        }
+        return list;
+    }
+
+    private int find(TagId key) {
+        int bucket = key.hashCode() & mask;
+        while (true) {
+            int length = lengths[bucket];
+            if (length == 0) {
+                return -1;
+            }
+            if (length == key.words + 1 && his[bucket] == key.hi
+                    && los[bucket] == key.lo && extraMatches(bucket, key)) {
+                return bucket;
+            }
+            bucket = (bucket + 1) & mask;
+        }
+    }
+
+    private boolean extraMatches(int bucket, TagId key) {
+        long[] extra = extras[bucket];
+        return key.extraEquals(extra, extra == null ? 0 : extra.length);
+    }
+
+    private int hashAt(int bucket) {
+        long[] extra = extras[bucket];
+        return TagId.hash(his[bucket], los[bucket], lengths[bucket] - 1,
+                extra, extra == null ? 0 : extra.length);
+    }
+
+    private int emptyBucketFor(int hash) {
+        int bucket = hash & mask;
+        while (lengths[bucket] != 0) {
+            bucket = (bucket + 1) & mask;
+        }
+        return bucket;
+    }
+
+    // backward shift deletion keeps probe chains intact without tombstones
+    private void removeBucket(int bucket) {
+        int hole = bucket;
+        int i = bucket;
+        while (true) {
+            i = (i + 1) & mask;
+            if (lengths[i] == 0) {
+                break;
+            }
+            int home = hashAt(i) & mask;
+            boolean movable = hole <= i
+                    ? (home <= hole || home > i)
+                    : (home <= hole && home > i);
+            if (movable) {
+                move(i, hole);
+                hole = i;
+            }
+        }
+        lengths[hole] = 0;
+        extras[hole] = null;
+        values[hole] = null;
+    }
+
+    private void move(int from, int to) {
+        his[to] = his[from];
+        los[to] = los[from];
+        lengths[to] = lengths[from];
+        extras[to] = extras[from];
+        values[to] = values[from];
+    }
+
+    private void resize() {
+        long[] oldHis = his;
+        long[] oldLos = los;
+        int[] oldLengths = lengths;
+        long[][] oldExtras = extras;
+        Object[] oldValues = values;
+
+        allocate(oldLengths.length * 2);
+        for (int i = 0; i < oldLengths.length; i++) {
+            if (oldLengths[i] != 0) {
+                long[] extra = oldExtras[i];
+                int bucket = emptyBucketFor(TagId.hash(oldHis[i], oldLos[i],
+                        oldLengths[i] - 1, extra, extra == null ? 0 : extra.length));
+                his[bucket] = oldHis[i];
+                los[bucket] = oldLos[i];
+                lengths[bucket] = oldLengths[i];
+                extras[bucket] = extra;
+                values[bucket] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int buckets) {
+        his = new long[buckets];
+        los = new long[buckets];
+        lengths = new int[buckets];
+        extras = new long[buckets][];
+        values = new Object[buckets];
+        mask = buckets - 1;
+        resizeAt = (int) (buckets * MAX_LOAD);
+    }
+}
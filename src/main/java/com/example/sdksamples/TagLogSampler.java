@@ -0,0 +1,192 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.ImpinjReader;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides which tag reads of a log category are worth a log line, so a busy
+ * portal logging every read at DEBUG doesn't write gigabytes an hour. The
+ * mode is set per category with -DtagLogSampling.&lt;category&gt;=, or for
+ * every category with -DtagLogSampling=:
+ * <ul>
+ * <li>all, log every read, the default</li>
+ * <li>every:N, log one read in N</li>
+ * <li>firstSeen:S, log an EPC the first time it is read in S seconds</li>
+ * <li>rate:N, log at most N reads a second per reader, in bursts of up to
+ * N</li>
+ * </ul>
+ * Reads that are not logged are counted so they can be summarized.
+ */
+public class TagLogSampler {
+
+    public static final String PROPERTY = "tagLogSampling";
+
+    public enum Mode {
+        ALL, EVERY_NTH, FIRST_SEEN, TOKEN_BUCKET
+    }
+
+    private static final int FIRST_SEEN_MAX_TAGS = 100000;
+
+    private final Mode mode;
+    private final long value;
+    private final String spec;
+
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong suppressed = new AtomicLong();
+    private final SharedTagDeduplicator firstSeen;
+    private final ConcurrentHashMap<ImpinjReader, TokenBucket> buckets =
+            new ConcurrentHashMap<ImpinjReader, TokenBucket>();
+
+    public TagLogSampler(Mode mode, long value) {
+        if (mode != Mode.ALL && value <= 0) {
+            throw new IllegalArgumentException(mode + " needs a positive value");
+        }
+        this.mode = mode;
+        this.value = value;
+        firstSeen = mode == Mode.FIRST_SEEN
+                ? new SharedTagDeduplicator(FIRST_SEEN_MAX_TAGS,
+                TimeUnit.SECONDS.toMillis(value), 16, SharedTagDeduplicator.Scope.GLOBAL)
+                : null;
+
+        switch (mode) {
+            case EVERY_NTH:
+                spec = "every:" + value;
+                break;
+            case FIRST_SEEN:
+                spec = "firstSeen:" + value;
+                break;
+            case TOKEN_BUCKET:
+                spec = "rate:" + value;
+                break;
+            default:
+                spec = "all";
+        }
+    }
+
+    /**
+     * The sampler configured for the category, see the class comment.
+     */
+    public static TagLogSampler forCategory(String category) {
+        String spec = System.getProperty(PROPERTY + "." + category,
+                System.getProperty(PROPERTY, "all"));
+        try {
+            return parse(spec);
+        } catch (IllegalArgumentException ex) {
+            System.out.println("Ignoring " + PROPERTY + " for " + category + ": "
+                    + ex.getMessage());
+            return new TagLogSampler(Mode.ALL, 0);
+        }
+    }
+
+    public static TagLogSampler parse(String spec) {
+        String s = spec.trim();
+        int colon = s.indexOf(':');
+        String name = colon < 0 ? s : s.substring(0, colon);
+        long value = 0;
+        if (colon >= 0) {
+            try {
+                value = Long.parseLong(s.substring(colon + 1).trim());
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Bad number in " + spec);
+            }
+        }
+
+        if (name.equalsIgnoreCase("all")) {
+            return new TagLogSampler(Mode.ALL, 0);
+        } else if (name.equalsIgnoreCase("every")) {
+            return new TagLogSampler(Mode.EVERY_NTH, value);
+        } else if (name.equalsIgnoreCase("firstSeen")) {
+            return new TagLogSampler(Mode.FIRST_SEEN, value);
+        } else if (name.equalsIgnoreCase("rate")) {
+            return new TagLogSampler(Mode.TOKEN_BUCKET, value);
+        }
+        throw new IllegalArgumentException("Unknown sampling mode " + spec);
+    }
+
+    /**
+     * Returns true when the read should be logged.
+     *
+     * @param id the EPC of the read, only looked at by firstSeen and may be
+     *           null for the other modes
+     */
+    public boolean sample(ImpinjReader reader, TagId id, long nowMillis) {
+        boolean log;
+        switch (mode) {
+            case EVERY_NTH:
+                log = count.getAndIncrement() % value == 0;
+                break;
+            case FIRST_SEEN:
+                log = firstSeen.firstSighting(reader, id, nowMillis);
+                break;
+            case TOKEN_BUCKET:
+                log = bucketOf(reader).tryTake(nowMillis);
+                break;
+            default:
+                log = true;
+        }
+        if (!log) {
+            suppressed.incrementAndGet();
+        }
+        return log;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public long getSuppressed() {
+        return suppressed.get();
+    }
+
+    /**
+     * Returns the number of reads suppressed since the last call.
+     */
+    public long drainSuppressed() {
+        return suppressed.getAndSet(0);
+    }
+
+    @Override
+    public String toString() {
+        return spec;
+    }
+
+    private TokenBucket bucketOf(ImpinjReader reader) {
+        TokenBucket b = buckets.get(reader);
+        if (b == null) {
+            TokenBucket added = new TokenBucket(value);
+            b = buckets.putIfAbsent(reader, added);
+            if (b == null) {
+                b = added;
+            }
+        }
+        return b;
+    }
+
+    // refills at perSecond tokens a second up to perSecond
+    static class TokenBucket {
+        private final long perSecond;
+        private double tokens;
+        private long lastMillis;
+
+        TokenBucket(long perSecond) {
+            this.perSecond = perSecond;
+            this.tokens = perSecond;
+        }
+
+        synchronized boolean tryTake(long nowMillis) {
+            if (lastMillis != 0 && nowMillis > lastMillis) {
+                tokens = Math.min(perSecond,
+                        tokens + (nowMillis - lastMillis) * perSecond / 1000.0);
+            }
+            lastMillis = Math.max(lastMillis, nowMillis);
+            if (tokens >= 1) {
+                tokens--;
+                return true;
+            }
+            return false;
+        }
+    }
+}
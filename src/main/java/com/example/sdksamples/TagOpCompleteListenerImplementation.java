@@ -7,7 +7,9 @@ public class TagOpCompleteListenerImplementation implements
 
     public void onTagOpComplete(ImpinjReader reader, TagOpReport results) {
         System.out.println("TagOpComplete: ");
+        ReaderMetrics metrics = ReaderMetrics.of(reader);
         for (TagOpResult t : results.getResults()) {
+            metrics.tagOpResult(t);
             System.out.print("  EPC: " + t.getTag().getEpc().toHexString());
             if (t instanceof TagReadOpResult) {
                 TagReadOpResult tr = (TagReadOpResult) t;
@@ -0,0 +1,175 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.ImpinjReader;
+import com.impinj.octane.Tag;
+import com.impinj.octane.TagData;
+import com.impinj.octane.TagModelDetails;
+import com.impinj.octane.TagModelName;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * A reusable, mutable copy of the fields of one {@link Tag}. Instances are
+ * meant to be preallocated and refilled with {@link #copyFrom} so the hot
+ * path never has to build Strings out of the SDK objects.
+ * <p>
+ * Copying from a Tag still allocates: the SDK only hands out EPC and TID
+ * words as a list of boxed Shorts and the seen times as BigIntegers, a new
+ * one for each call. TagReportFormatterBenchmark reports what that costs
+ * per tag. Copying from another TagRead allocates nothing.
+ */
+public class TagRead {
+
+    // EPCs are at most 496 bits and TIDs are read in 16 bit words
+    public static final int MAX_WORDS = 32;
+
+    // not the thread's shared formatter, which may be half way through a
+    // report when a read is logged
+    private static final ThreadLocal<TagReportFormatter> TO_STRING =
+            new ThreadLocal<TagReportFormatter>() {
+                @Override
+                protected TagReportFormatter initialValue() {
+                    return new TagReportFormatter();
+                }
+            };
+
+    public ImpinjReader reader;
+
+    public final short[] epc = new short[MAX_WORDS];
+    public int epcWords;
+
+    public boolean antennaPresent;
+    public short antenna;
+
+    public boolean firstSeenPresent;
+    public long firstSeenUs;
+
+    public boolean lastSeenPresent;
+    public long lastSeenUs;
+
+    public boolean seenCountPresent;
+    public short seenCount;
+
+    public boolean dopplerPresent;
+    public double doppler;
+
+    public boolean peakRssiPresent;
+    public double peakRssi;
+
+    public boolean channelPresent;
+    public double channelMhz;
+
+    public boolean fastIdPresent;
+    public final short[] tid = new short[MAX_WORDS];
+    public int tidWords;
+    public TagModelName modelName;
+    public int epcSizeBits;
+    public int userMemorySizeBits;
+
+    // System.nanoTime() when the tag reached this process, 0 when unknown,
+    // for example after a trip through a file
+    public long arrivalNanos;
+
+    public void copyFrom(ImpinjReader reader, Tag t) {
+        copyFrom(reader, t, 0);
+    }
+
+    public void copyFrom(ImpinjReader reader, Tag t, long arrivalNanos) {
+        this.reader = reader;
+        this.arrivalNanos = arrivalNanos;
+
+        epcWords = copyWords(t.getEpc(), epc);
+
+        antennaPresent = t.isAntennaPortNumberPresent();
+        antenna = antennaPresent ? t.getAntennaPortNumber() : 0;
+
+        firstSeenPresent = t.isFirstSeenTimePresent();
+        firstSeenUs = firstSeenPresent
+                ? t.getFirstSeenTime().getUtcTimestamp().longValue() : 0;
+
+        lastSeenPresent = t.isLastSeenTimePresent();
+        lastSeenUs = lastSeenPresent
+                ? t.getLastSeenTime().getUtcTimestamp().longValue() : 0;
+
+        seenCountPresent = t.isSeenCountPresent();
+        seenCount = seenCountPresent ? t.getTagSeenCount() : 0;
+
+        dopplerPresent = t.isRfDopplerFrequencyPresent();
+        doppler = dopplerPresent ? t.getRfDopplerFrequency() : 0;
+
+        peakRssiPresent = t.isPeakRssiInDbmPresent();
+        peakRssi = peakRssiPresent ? t.getPeakRssiInDbm() : 0;
+
+        channelPresent = t.isChannelInMhzPresent();
+        channelMhz = channelPresent ? t.getChannelInMhz() : 0;
+
+        fastIdPresent = t.isFastIdPresent();
+        if (fastIdPresent) {
+            tidWords = copyWords(t.getTid(), tid);
+            TagModelDetails details = t.getModelDetails();
+            modelName = details.getModelName();
+            epcSizeBits = details.getEpcSizeBits();
+            userMemorySizeBits = details.getUserMemorySizeBits();
+        } else {
+            tidWords = 0;
+            modelName = null;
+            epcSizeBits = 0;
+            userMemorySizeBits = 0;
+        }
+    }
+
+    public void copyFrom(TagRead other) {
+        reader = other.reader;
+        epcWords = other.epcWords;
+        System.arraycopy(other.epc, 0, epc, 0, other.epcWords);
+        antennaPresent = other.antennaPresent;
+        antenna = other.antenna;
+        firstSeenPresent = other.firstSeenPresent;
+        firstSeenUs = other.firstSeenUs;
+        lastSeenPresent = other.lastSeenPresent;
+        lastSeenUs = other.lastSeenUs;
+        seenCountPresent = other.seenCountPresent;
+        seenCount = other.seenCount;
+        dopplerPresent = other.dopplerPresent;
+        doppler = other.doppler;
+        peakRssiPresent = other.peakRssiPresent;
+        peakRssi = other.peakRssi;
+        channelPresent = other.channelPresent;
+        channelMhz = other.channelMhz;
+        fastIdPresent = other.fastIdPresent;
+        tidWords = other.tidWords;
+        System.arraycopy(other.tid, 0, tid, 0, other.tidWords);
+        modelName = other.modelName;
+        epcSizeBits = other.epcSizeBits;
+        userMemorySizeBits = other.userMemorySizeBits;
+        arrivalNanos = other.arrivalNanos;
+    }
+
+    /**
+     * The read as TagReportFormatter prints it, without the leading space
+     * and line break.
+     */
+    @Override
+    public String toString() {
+        TagReportFormatter formatter = TO_STRING.get();
+        formatter.append(this);
+        ByteBuffer line = ByteBuffer.allocate(formatter.size());
+        formatter.writeTo(line);
+        return new String(line.array(), 0, line.position(), StandardCharsets.US_ASCII).trim();
+    }
+
+    // TagData has no accessor for its words that doesn't box them
+    static int copyWords(TagData data, short[] dest) {
+        if (data == null) {
+            return 0;
+        }
+        List<Short> words = data.toWordList();
+        int n = Math.min(words.size(), dest.length);
+        for (int i = 0; i < n; i++) {
+            dest[i] = words.get(i);
+        }
+        return n;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.sdksamples;
+
+/**
+ * A reusable, array backed batch of tag reads handed to a
+ * {@link TagReadBatchSink}. The slots are preallocated and refilled, so a
+ * sink must copy anything it wants to keep after onBatch returns.
+ */
+public class TagReadBatch {
+
+    private final TagRead[] reads;
+    private int size;
+    long firstAddedNanos;
+
+    public TagReadBatch(int capacity) {
+        reads = new TagRead[capacity];
+        for (int i = 0; i < capacity; i++) {
+            reads[i] = new TagRead();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return reads.length;
+    }
+
+    public boolean isFull() {
+        return size == reads.length;
+    }
+
+    public TagRead get(int i) {
+        if (i >= size) {
+            throw new IndexOutOfBoundsException(i + " >= " + size);
+        }
+        return reads[i];
+    }
+
+    void add(TagRead read) {
+        reads[size++].copyFrom(read);
+    }
+
+    void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.sdksamples;
+
+/**
+ * Receives tag reads a batch at a time from a {@link TagReadBatcher}, for
+ * example to write them to a file or database in one go.
+ */
+public interface TagReadBatchSink {
+
+    /**
+     * The batch is reused once this returns, copy anything to keep.
+     */
+    void onBatch(TagReadBatch batch);
+}
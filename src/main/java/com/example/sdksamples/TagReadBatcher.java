@@ -0,0 +1,251 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.ImpinjReader;
+import com.impinj.octane.Tag;
+import com.impinj.octane.TagReport;
+import com.impinj.octane.TagReportListener;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Groups tag reads into batches for a {@link TagReadBatchSink}. A batch is
+ * flushed when it holds maxBatchSize reads or its first read is
+ * maxDelayMillis old, whichever comes first, so a sink does one write per
+ * batch instead of one per tag.
+ * <p>
+ * Batches come from a small preallocated pool and are flushed on a
+ * dedicated thread, so producers keep filling the next batch while the sink
+ * writes the previous one. A producer only waits when every batch in the
+ * pool is still waiting to be flushed. Once closed, reads are dropped and
+ * counted instead.
+ */
+public class TagReadBatcher implements TagReportListener, TagReadConsumer {
+
+    private static final ThreadLocal<TagRead> COPIES = new ThreadLocal<TagRead>() {
+        @Override
+        protected TagRead initialValue() {
+            return new TagRead();
+        }
+    };
+
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final TagReadBatchSink sink;
+    private final String sinkName;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchReady = lock.newCondition();
+    private final Condition batchFree = lock.newCondition();
+    private final ArrayDeque<TagReadBatch> free = new ArrayDeque<TagReadBatch>();
+    private final ArrayDeque<TagReadBatch> ready = new ArrayDeque<TagReadBatch>();
+    private TagReadBatch current;
+
+    private final Thread flusher;
+    private boolean running = true;
+    private long batches;
+    private long reads;
+    private long dropped;
+
+    public TagReadBatcher(int maxBatchSize, long maxDelayMillis,
+                          TagReadBatchSink sink) {
+        this(maxBatchSize, maxDelayMillis, 2, sink);
+    }
+
+    /**
+     * @param pooledBatches how many batches can be filled or waiting to be
+     *                      flushed at once, at least two
+     */
+    public TagReadBatcher(int maxBatchSize, long maxDelayMillis,
+                          int pooledBatches, TagReadBatchSink sink) {
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.sink = sink;
+        // anonymous sinks have no simple name
+        this.sinkName = sink.getClass().getSimpleName().isEmpty()
+                ? sink.getClass().getName() : sink.getClass().getSimpleName();
+
+        for (int i = 0; i < Math.max(2, pooledBatches); i++) {
+            free.add(new TagReadBatch(maxBatchSize));
+        }
+
+        flusher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                flushLoop();
+            }
+        }, "tag-batcher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @Override
+    public void onTagReported(ImpinjReader reader, TagReport report) {
+        long now = System.nanoTime();
+        List<Tag> tags = report.getTags();
+        // the SDK's getters run outside the lock, so readers only queue up
+        // behind each other for the copy into the batch
+        TagRead read = COPIES.get();
+        for (int i = 0; i < tags.size(); i++) {
+            read.copyFrom(reader, tags.get(i), now);
+            onTagRead(read, false);
+        }
+    }
+
+    @Override
+    public void onTagRead(TagRead read, boolean endOfBatch) {
+        lock.lock();
+        try {
+            TagReadBatch batch = currentBatch();
+            if (batch == null) {
+                dropped++;
+                return;
+            }
+            batch.add(read);
+            added();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Flushes whatever is pending and stops the flush thread.
+     */
+    public void close() throws InterruptedException {
+        lock.lock();
+        try {
+            running = false;
+            batchReady.signal();
+            // producers waiting for a batch give up
+            batchFree.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        flusher.join();
+    }
+
+    public long getBatches() {
+        lock.lock();
+        try {
+            return batches;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getReads() {
+        lock.lock();
+        try {
+            return reads;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads added after close, which are not batched.
+     */
+    public long getDropped() {
+        lock.lock();
+        try {
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // null once closed; called with the lock held
+    private TagReadBatch currentBatch() {
+        while (current == null) {
+            if (!running) {
+                return null;
+            }
+            current = free.poll();
+            if (current == null) {
+                // every batch is waiting on the sink, push back
+                batchFree.awaitUninterruptibly();
+            } else {
+                current.firstAddedNanos = System.nanoTime();
+                // the flusher may be waiting without a deadline
+                batchReady.signal();
+            }
+        }
+        return current;
+    }
+
+    // called with the lock held
+    private void added() {
+        reads++;
+        if (current.size() >= maxBatchSize) {
+            ready.add(current);
+            current = null;
+            batchReady.signal();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            TagReadBatch batch;
+
+            lock.lock();
+            try {
+                batch = nextBatch();
+            } finally {
+                lock.unlock();
+            }
+
+            if (batch == null) {
+                return;
+            }
+
+            Object flush = PipelineEvents.beginFlush();
+            try {
+                sink.onBatch(batch);
+            } catch (RuntimeException ex) {
+                // a failing sink must not stop the batcher
+                System.out.println("Tag batch sink failed: " + ex.toString());
+            }
+            PipelineEvents.sinkFlush(sinkName, batch.size(), 0, flush);
+
+            lock.lock();
+            try {
+                batch.clear();
+                free.add(batch);
+                batches++;
+                batchFree.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // waits for a full batch or for the current one to time out, returns
+    // null once closed and drained; called with the lock held
+    private TagReadBatch nextBatch() {
+        while (true) {
+            if (!ready.isEmpty()) {
+                return ready.poll();
+            }
+            if (current != null && current.size() > 0) {
+                long wait = current.firstAddedNanos + maxDelayNanos - System.nanoTime();
+                if (wait <= 0 || !running) {
+                    TagReadBatch batch = current;
+                    current = null;
+                    return batch;
+                }
+                try {
+                    batchReady.awaitNanos(wait);
+                } catch (InterruptedException ex) {
+                    running = false;
+                }
+            } else if (!running) {
+                return null;
+            } else {
+                batchReady.awaitUninterruptibly();
+            }
+        }
+    }
+}
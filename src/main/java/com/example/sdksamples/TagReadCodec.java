@@ -0,0 +1,143 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.TagModelName;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed layout binary encoding of a {@link TagRead}. The reader is stored as
+ * an integer id handed out by {@link ReaderIds}.
+ *
+ * <pre>
+ *  0 short  record length in bytes, including this field
+ *  2 byte   presence flags
+ *  3 byte   model name ordinal + 1, 0 when not present
+ *  4 byte   EPC word count
+ *  5 byte   TID word count
+ *  6 short  antenna port
+ *  8 short  seen count
+ * 10 short  peak RSSI in hundredths of a dBm
+ * 12 int    reader id
+ * 16 int    channel in kHz
+ * 20 float  doppler frequency in Hz
+ * 24 long   first seen, UTC microseconds
+ * 32 long   last seen, UTC microseconds
+ * 40 int    EPC size in bits
+ * 44 int    user memory size in bits
+ * 48        EPC words followed by TID words
+ * </pre>
+ */
+public class TagReadCodec {
+
+    public static final int HEADER_SIZE = 48;
+    public static final int MAX_SIZE = HEADER_SIZE + 4 * TagRead.MAX_WORDS;
+
+    static final int ANTENNA = 1;
+    static final int FIRST_SEEN = 1 << 1;
+    static final int LAST_SEEN = 1 << 2;
+    static final int SEEN_COUNT = 1 << 3;
+    static final int DOPPLER = 1 << 4;
+    static final int PEAK_RSSI = 1 << 5;
+    static final int CHANNEL = 1 << 6;
+    static final int FAST_ID = 1 << 7;
+
+    private static final TagModelName[] MODELS = TagModelName.values();
+
+    public static int encodedSize(TagRead t) {
+        return HEADER_SIZE + 2 * (t.epcWords + t.tidWords);
+    }
+
+    public static void encode(TagRead t, int readerId, ByteBuffer buf) {
+        int flags = 0;
+        if (t.antennaPresent) {
+            flags |= ANTENNA;
+        }
+        if (t.firstSeenPresent) {
+            flags |= FIRST_SEEN;
+        }
+        if (t.lastSeenPresent) {
+            flags |= LAST_SEEN;
+        }
+        if (t.seenCountPresent) {
+            flags |= SEEN_COUNT;
+        }
+        if (t.dopplerPresent) {
+            flags |= DOPPLER;
+        }
+        if (t.peakRssiPresent) {
+            flags |= PEAK_RSSI;
+        }
+        if (t.channelPresent) {
+            flags |= CHANNEL;
+        }
+        if (t.fastIdPresent) {
+            flags |= FAST_ID;
+        }
+
+        buf.putShort((short) encodedSize(t));
+        buf.put((byte) flags);
+        buf.put((byte) (t.modelName == null ? 0 : t.modelName.ordinal() + 1));
+        buf.put((byte) t.epcWords);
+        buf.put((byte) t.tidWords);
+        buf.putShort(t.antenna);
+        buf.putShort(t.seenCount);
+        buf.putShort((short) Math.round(t.peakRssi * 100));
+        buf.putInt(readerId);
+        buf.putInt((int) Math.round(t.channelMhz * 1000));
+        buf.putFloat((float) t.doppler);
+        buf.putLong(t.firstSeenUs);
+        buf.putLong(t.lastSeenUs);
+        buf.putInt(t.epcSizeBits);
+        buf.putInt(t.userMemorySizeBits);
+        for (int i = 0; i < t.epcWords; i++) {
+            buf.putShort(t.epc[i]);
+        }
+        for (int i = 0; i < t.tidWords; i++) {
+            buf.putShort(t.tid[i]);
+        }
+    }
+
+    /**
+     * Decodes one record at the buffer's position into the read, leaving the
+     * reader field untouched, and returns the stored reader id.
+     */
+    public static int decode(ByteBuffer buf, TagRead t) {
+        int start = buf.position();
+        int length = buf.getShort() & 0xffff;
+        int flags = buf.get() & 0xff;
+        int model = buf.get() & 0xff;
+        t.epcWords = buf.get() & 0xff;
+        t.tidWords = buf.get() & 0xff;
+        t.antenna = buf.getShort();
+        t.seenCount = buf.getShort();
+        t.peakRssi = buf.getShort() / 100.0;
+        int readerId = buf.getInt();
+        t.channelMhz = buf.getInt() / 1000.0;
+        t.doppler = buf.getFloat();
+        t.firstSeenUs = buf.getLong();
+        t.lastSeenUs = buf.getLong();
+        t.epcSizeBits = buf.getInt();
+        t.userMemorySizeBits = buf.getInt();
+        for (int i = 0; i < t.epcWords; i++) {
+            t.epc[i] = buf.getShort();
+        }
+        for (int i = 0; i < t.tidWords; i++) {
+            t.tid[i] = buf.getShort();
+        }
+
+        t.antennaPresent = (flags & ANTENNA) != 0;
+        t.firstSeenPresent = (flags & FIRST_SEEN) != 0;
+        t.lastSeenPresent = (flags & LAST_SEEN) != 0;
+        t.seenCountPresent = (flags & SEEN_COUNT) != 0;
+        t.dopplerPresent = (flags & DOPPLER) != 0;
+        t.peakRssiPresent = (flags & PEAK_RSSI) != 0;
+        t.channelPresent = (flags & CHANNEL) != 0;
+        t.fastIdPresent = (flags & FAST_ID) != 0;
+        t.modelName = model > 0 && model <= MODELS.length ? MODELS[model - 1] : null;
+        t.arrivalNanos = 0;
+
+        // skip anything a newer writer may have appended to the record
+        buf.position(start + length);
+        return readerId;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.sdksamples;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The fields of a {@link TagRead} that {@link TagReadExporter} can write,
+ * named as they appear in CSV headers and JSON keys.
+ */
+public enum TagReadColumn {
+    READER("reader"),
+    EPC("epc"),
+    ANTENNA("antenna"),
+    FIRST_SEEN("first_seen_us"),
+    LAST_SEEN("last_seen_us"),
+    SEEN_COUNT("seen_count"),
+    PEAK_RSSI("peak_rssi_dbm"),
+    DOPPLER("doppler_hz"),
+    CHANNEL("channel_mhz"),
+    TID("tid"),
+    MODEL("model"),
+    EPC_SIZE("epc_size_bits"),
+    USER_MEMORY_SIZE("user_memory_size_bits");
+
+    private final String header;
+
+    TagReadColumn(String header) {
+        this.header = header;
+    }
+
+    public String header() {
+        return header;
+    }
+
+    /**
+     * Parses a comma separated list of headers or constant names, all
+     * columns when the list is null or empty.
+     */
+    public static List<TagReadColumn> parse(String columns) {
+        if (columns == null || columns.trim().isEmpty()) {
+            return Arrays.asList(values());
+        }
+        List<TagReadColumn> list = new ArrayList<TagReadColumn>();
+        for (String name : columns.split(",")) {
+            list.add(of(name.trim()));
+        }
+        return list;
+    }
+
+    static TagReadColumn of(String name) {
+        for (TagReadColumn c : values()) {
+            if (c.header.equalsIgnoreCase(name) || c.name().equalsIgnoreCase(name)) {
+                return c;
+            }
+        }
+        throw new IllegalArgumentException("Unknown column " + name
+                + ", expected one of " + Arrays.toString(values()).toLowerCase(Locale.US));
+    }
+}
@@ -0,0 +1,409 @@
+package com.example.sdksamples;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses files that are no longer written on its own low priority
+ * threads, never on the SDK callback threads or the journal and log writer
+ * threads:
+ * <ul>
+ * <li>sealed {@link TagReadJournal} segments, other than the newest, become
+ * {@link CompressedJournalSegment}s that TagReadJournalReader,
+ * TagReadJournalQuery and TagReadExporter read like the originals</li>
+ * <li>rolled backups of a {@link TagReadLogWriter}, file.1 and up, are
+ * gzipped to file.N.gz, which the writer keeps rolling</li>
+ * </ul>
+ * Blocks are deflated at BEST_SPEED. At most threads files are compressed
+ * at once, and reading is paced to bytesPerSecond across all of them so
+ * the gateway's disk and CPU stay available to the readers.
+ * <p>
+ * The main method compresses the sealed segments of a journal directory.
+ */
+public class TagReadCompactor {
+
+    public static final int DEFAULT_BLOCK_BYTES = 64 * 1024;
+
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static TagReadCompactor shared;
+
+    private final int blockBytes;
+    private final RateLimiter limiter;
+    private final ScheduledThreadPoolExecutor executor;
+    private final List<File> journals = new CopyOnWriteArrayList<File>();
+    private final List<TagReadLogWriter> logs = new CopyOnWriteArrayList<TagReadLogWriter>();
+    // files queued or being compressed
+    private final Set<File> pending =
+            Collections.newSetFromMap(new ConcurrentHashMap<File, Boolean>());
+
+    private final AtomicLong files = new AtomicLong();
+    private final AtomicLong bytesIn = new AtomicLong();
+    private final AtomicLong bytesOut = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    /**
+     * @param threads        how many files may be compressed at once
+     * @param bytesPerSecond how fast files are read, across all threads, 0
+     *                       for no limit
+     * @param blockBytes     the size of a compressed journal block before
+     *                       compression
+     */
+    public TagReadCompactor(int threads, long bytesPerSecond, int blockBytes) {
+        this.blockBytes = blockBytes;
+        this.limiter = new RateLimiter(bytesPerSecond);
+        final AtomicInteger count = new AtomicInteger();
+        executor = new ScheduledThreadPoolExecutor(Math.max(1, threads), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "tag-compactor-" + count.incrementAndGet());
+                t.setDaemon(true);
+                t.setPriority(Thread.MIN_PRIORITY);
+                return t;
+            }
+        });
+    }
+
+    /**
+     * The compactor shared by the samples and the tag log appenders,
+     * started on first use. Set the threads with -DcompactThreads, 1 by
+     * default, and the read rate with -DcompactMBps, 20 by default, 0 for
+     * no limit.
+     */
+    public static synchronized TagReadCompactor shared() {
+        if (shared == null) {
+            int threads = Integer.getInteger(SampleProperties.compactThreads, 1);
+            long mbps = Long.getLong(SampleProperties.compactMBps, 20);
+            shared = new TagReadCompactor(threads, mbps * 1024 * 1024,
+                    DEFAULT_BLOCK_BYTES);
+            shared.start(10000);
+        }
+        return shared;
+    }
+
+    /**
+     * Compresses the sealed segments of a journal directory from now on.
+     */
+    public void addJournal(File directory) {
+        journals.add(directory);
+    }
+
+    /**
+     * Gzips the rolled backups of a tag log from now on.
+     */
+    public void addLog(TagReadLogWriter writer) {
+        logs.add(writer);
+    }
+
+    public void removeLog(TagReadLogWriter writer) {
+        logs.remove(writer);
+    }
+
+    /**
+     * Looks for files to compress every periodMillis.
+     */
+    public void start(long periodMillis) {
+        executor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                submitAll();
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Compresses everything there is to compress now and waits for it.
+     *
+     * @return the number of files compressed
+     */
+    public int compactAll() throws InterruptedException {
+        int done = 0;
+        for (Future<Boolean> f : submitAll()) {
+            try {
+                if (f.get()) {
+                    done++;
+                }
+            } catch (ExecutionException ex) {
+                // counted in failures by the task
+            }
+        }
+        return done;
+    }
+
+    /**
+     * Stops looking for files; a file being compressed is finished first.
+     */
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    public long getFiles() {
+        return files.get();
+    }
+
+    public long getBytesIn() {
+        return bytesIn.get();
+    }
+
+    public long getBytesOut() {
+        return bytesOut.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    private List<Future<Boolean>> submitAll() {
+        List<Future<Boolean>> submitted = new ArrayList<Future<Boolean>>();
+        for (File directory : journals) {
+            File[] segments = TagReadJournalReader.segments(directory);
+            // the newest segment may still be written or reopened
+            for (int i = 0; i < segments.length - 1; i++) {
+                final File segment = segments[i];
+                if (!TagReadJournal.isCompressed(segment) && sealedEnd(segment) > 0) {
+                    submit(segment, submitted, new Callable<Boolean>() {
+                        @Override
+                        public Boolean call() throws Exception {
+                            return compactSegment(segment);
+                        }
+                    });
+                }
+            }
+        }
+        for (final TagReadLogWriter writer : logs) {
+            for (int i = 1; i <= writer.getMaxBackups(); i++) {
+                final File backup = writer.backup(i);
+                if (backup.isFile()) {
+                    submit(backup, submitted, new Callable<Boolean>() {
+                        @Override
+                        public Boolean call() throws Exception {
+                            return compactLog(writer, backup);
+                        }
+                    });
+                }
+            }
+        }
+        return submitted;
+    }
+
+    private void submit(final File file, List<Future<Boolean>> submitted,
+                        final Callable<Boolean> task) {
+        if (!pending.add(file)) {
+            return;
+        }
+        submitted.add(executor.submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                try {
+                    return task.call();
+                } catch (Exception ex) {
+                    failures.incrementAndGet();
+                    System.out.println("Could not compress " + file + ": "
+                            + ex.getMessage());
+                    throw ex;
+                } finally {
+                    pending.remove(file);
+                }
+            }
+        }));
+    }
+
+    private boolean compactSegment(File segment) throws IOException, InterruptedException {
+        long original = sealedEnd(segment);
+        if (original <= 0) {
+            return false;
+        }
+        File target = TagReadJournal.compressedFile(
+                segment.getAbsoluteFile().getParentFile(),
+                TagReadJournalReader.segmentIndex(segment));
+        // already there when an earlier delete failed, as it does on Windows
+        // while the segment is mapped; then only the delete is retried
+        if (!target.exists()) {
+            File temp = new File(target.getPath() + TEMP_SUFFIX);
+            long size = CompressedJournalSegment.compress(segment, temp, blockBytes, limiter);
+            // readers list the uncompressed segment until it is removed, and
+            // look for the compressed one when it is gone
+            if (!temp.renameTo(target)) {
+                temp.delete();
+                throw new IOException("Could not rename " + temp);
+            }
+            files.incrementAndGet();
+            bytesIn.addAndGet(original);
+            bytesOut.addAndGet(size);
+        }
+        if (!segment.delete()) {
+            throw new IOException("Could not delete " + segment + ", will retry");
+        }
+        return true;
+    }
+
+    private boolean compactLog(TagReadLogWriter writer, File backup)
+            throws IOException, InterruptedException {
+        File target = new File(backup.getPath() + TagReadLogWriter.COMPRESSED_SUFFIX);
+        File temp = new File(target.getPath() + TEMP_SUFFIX);
+        Object key;
+        long size;
+
+        // opened so the writer can still rename the file while it is read,
+        // it is only replaced if it is the same file afterwards
+        FileChannel in;
+        try {
+            key = fileKey(backup);
+            in = FileChannel.open(backup.toPath(), StandardOpenOption.READ);
+            if (!key.equals(fileKey(backup))) {
+                in.close();
+                return false;
+            }
+        } catch (IOException ex) {
+            // rolled away since it was listed
+            return false;
+        }
+        try {
+            size = in.size();
+            OutputStream out = new GZIPOutputStream(new FileOutputStream(temp), 64 * 1024) {
+                {
+                    def.setLevel(Deflater.BEST_SPEED);
+                }
+            };
+            try {
+                ByteBuffer buf = ByteBuffer.allocate(64 * 1024);
+                while (in.read(buf) > 0) {
+                    limiter.acquire(buf.position());
+                    out.write(buf.array(), 0, buf.position());
+                    buf.clear();
+                }
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+
+        synchronized (writer.rollLock()) {
+            if (!backup.isFile() || !key.equals(fileKey(backup))) {
+                temp.delete();
+                return false;
+            }
+            if (!temp.renameTo(target)) {
+                temp.delete();
+                throw new IOException("Could not rename " + temp);
+            }
+            if (!backup.delete()) {
+                throw new IOException("Could not delete " + backup);
+            }
+        }
+        files.incrementAndGet();
+        bytesIn.addAndGet(size);
+        bytesOut.addAndGet(target.length());
+        return true;
+    }
+
+    // identifies the file itself rather than its name, renaming keeps it
+    private static Object fileKey(File file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file.toPath(),
+                BasicFileAttributes.class);
+        Object key = attributes.fileKey();
+        if (key == null) {
+            key = attributes.creationTime().toMillis() + ":" + attributes.size();
+        }
+        return key;
+    }
+
+    // the end of the data of a sealed segment, 0 if it isn't sealed
+    private static long sealedEnd(File segment) {
+        try {
+            RandomAccessFile raf = new RandomAccessFile(segment, "r");
+            try {
+                if (raf.length() < TagReadJournal.HEADER_SIZE
+                        || raf.readInt() != TagReadJournal.MAGIC) {
+                    return 0;
+                }
+                raf.seek(TagReadJournal.HEADER_DATA_END);
+                long end = raf.readLong();
+                return end >= TagReadJournal.HEADER_SIZE && end <= raf.length() ? end : 0;
+            } finally {
+                raf.close();
+            }
+        } catch (IOException ex) {
+            return 0;
+        }
+    }
+
+    /**
+     * Paces reading to a number of bytes a second, shared by the threads.
+     */
+    static class RateLimiter {
+        private final long bytesPerSecond;
+        private long nextNanos;
+
+        RateLimiter(long bytesPerSecond) {
+            this.bytesPerSecond = bytesPerSecond;
+        }
+
+        /**
+         * Waits until the bytes may be read.
+         */
+        void acquire(long bytes) throws InterruptedException {
+            if (bytesPerSecond <= 0) {
+                return;
+            }
+            long wait;
+            synchronized (this) {
+                long now = System.nanoTime();
+                if (nextNanos < now) {
+                    nextNanos = now;
+                }
+                wait = nextNanos - now;
+                nextNanos += bytes * 1000000000L / bytesPerSecond;
+            }
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Usage: TagReadCompactor <journal directory>"
+                    + " [-DcompactThreads=N] [-DcompactMBps=N]");
+            return;
+        }
+        int threads = Integer.getInteger(SampleProperties.compactThreads, 1);
+        long mbps = Long.getLong(SampleProperties.compactMBps, 0);
+        TagReadCompactor compactor = new TagReadCompactor(threads,
+                mbps * 1024 * 1024, DEFAULT_BLOCK_BYTES);
+        compactor.addJournal(new File(args[0]));
+
+        long begin = System.nanoTime();
+        int done = compactor.compactAll();
+        long millis = (System.nanoTime() - begin) / 1000000;
+        compactor.stop();
+        System.out.println("Compressed " + done + " segments, "
+                + compactor.getBytesIn() / 1024 + " KB to "
+                + compactor.getBytesOut() / 1024 + " KB in " + millis + " ms");
+    }
+}
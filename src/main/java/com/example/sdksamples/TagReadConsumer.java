@@ -0,0 +1,14 @@
+package com.example.sdksamples;
+
+/**
+ * Receives tag reads handed off by a {@link TagReportDispatcher}. The read
+ * is only valid for the duration of the call, copy it to keep it.
+ */
+public interface TagReadConsumer {
+
+    /**
+     * @param endOfBatch true when no further read was waiting, a good time
+     *                   to flush anything buffered
+     */
+    void onTagRead(TagRead read, boolean endOfBatch);
+}
@@ -0,0 +1,497 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.ImpinjReader;
+import com.impinj.octane.TagModelName;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streams tag reads to a CSV or newline delimited JSON file. Fields are
+ * encoded straight from the {@link TagRead} into direct ByteBuffers, so a
+ * record costs no String or char[]; only a new reader name or tag model
+ * is encoded once and kept. The buffers are written with one gathering
+ * write when they are all full, when a batch ends or on close.
+ * <p>
+ * Only the configured columns are written. CSV follows RFC 4180: a header
+ * line, CRLF line ends, and text fields quoted when they hold a comma,
+ * quote or line break. Absent fields are empty in CSV and null in JSON,
+ * and JSON strings escape anything outside printable ASCII as \\uXXXX.
+ * <p>
+ * The main method exports a {@link TagReadJournal}.
+ */
+public class TagReadExporter implements TagReadConsumer, TagReadBatchSink {
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    private static final int BUFFERS = 4;
+    private static final int BUFFER_BYTES = 64 * 1024;
+    // a record without the reader name and model
+    private static final int MAX_RECORD = 1024;
+
+    private static final byte[] CSV_LINE_END = {'\r', '\n'};
+    private static final byte[] NULL = AsciiEncoder.toAscii("null");
+
+    private final Format format;
+    private final TagReadColumn[] columns;
+    private final byte[][] keys;
+    private final FileChannel channel;
+    private final ByteBuffer[] buffers = new ByteBuffer[BUFFERS];
+    private int current;
+
+    // reader names encoded, indexed by reader id, with the name each was
+    // encoded from in case the reader is renamed
+    private final ReaderIds readerIds = new ReaderIds();
+    private String[] labelNames = new String[8];
+    private byte[][] readerLabels = new byte[8][];
+    private byte[] noReaderLabel;
+    private final EnumMap<TagModelName, byte[]> modelNames =
+            new EnumMap<TagModelName, byte[]>(TagModelName.class);
+
+    private long records;
+    private long bytes;
+    private long flushedRecords;
+    private boolean failed;
+
+    public TagReadExporter(File file, Format format, List<TagReadColumn> columns)
+            throws IOException {
+        this.format = format;
+        this.columns = columns.toArray(new TagReadColumn[columns.size()]);
+        this.keys = new byte[this.columns.length][];
+        for (int i = 0; i < keys.length; i++) {
+            String key = (i == 0 ? "{\"" : ",\"") + this.columns[i].header() + "\":";
+            keys[i] = AsciiEncoder.toAscii(key);
+        }
+        for (int i = 0; i < BUFFERS; i++) {
+            buffers[i] = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        }
+
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.setLength(0);
+        channel = raf.getChannel();
+
+        if (format == Format.CSV) {
+            ByteBuffer b = buffers[0];
+            for (int i = 0; i < this.columns.length; i++) {
+                if (i > 0) {
+                    b.put((byte) ',');
+                }
+                AsciiEncoder.putAscii(b, this.columns[i].header());
+            }
+            b.put(CSV_LINE_END);
+        }
+    }
+
+    /**
+     * Appends one record, writing out the buffers when they are full.
+     */
+    public synchronized void export(TagRead read) throws IOException {
+        byte[] label = readerLabel(read.reader);
+        byte[] model = read.fastIdPresent ? modelName(read.modelName) : null;
+        ByteBuffer b = room(MAX_RECORD + label.length
+                + (model != null ? model.length : 0));
+        int start = b.position();
+
+        if (format == Format.CSV) {
+            csv(b, read, label, model);
+        } else {
+            json(b, read, label, model);
+        }
+        bytes += b.position() - start;
+        records++;
+    }
+
+    @Override
+    public void onTagRead(TagRead read, boolean endOfBatch) {
+        if (failed) {
+            return;
+        }
+        try {
+            export(read);
+            if (endOfBatch) {
+                flush();
+            }
+        } catch (IOException ex) {
+            failed(ex);
+        }
+    }
+
+    @Override
+    public void onBatch(TagReadBatch batch) {
+        if (failed) {
+            return;
+        }
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                export(batch.get(i));
+            }
+            flush();
+        } catch (IOException ex) {
+            failed(ex);
+        }
+    }
+
+    /**
+     * Writes everything buffered with one gathering write.
+     */
+    public synchronized void flush() throws IOException {
+        Object flush = PipelineEvents.beginFlush();
+        for (int i = 0; i <= current; i++) {
+            buffers[i].flip();
+        }
+        long remaining = 0;
+        for (int i = 0; i <= current; i++) {
+            remaining += buffers[i].remaining();
+        }
+        long written = remaining;
+        try {
+            while (remaining > 0) {
+                remaining -= channel.write(buffers, 0, current + 1);
+            }
+        } finally {
+            // after a failed write what wasn't written is dropped, so later
+            // records are not encoded over it in the flipped buffers
+            for (int i = 0; i <= current; i++) {
+                buffers[i].clear();
+            }
+            current = 0;
+        }
+        PipelineEvents.sinkFlush("exporter", records - flushedRecords, written, flush);
+        flushedRecords = records;
+    }
+
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    public synchronized long getRecords() {
+        return records;
+    }
+
+    /**
+     * Bytes of records exported, not counting the CSV header.
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    private void csv(ByteBuffer b, TagRead t, byte[] label, byte[] model) {
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                b.put((byte) ',');
+            }
+            switch (columns[i]) {
+                case READER:
+                    b.put(label);
+                    break;
+                case EPC:
+                    AsciiEncoder.putHex(b, t.epc, t.epcWords);
+                    break;
+                case ANTENNA:
+                    if (t.antennaPresent) {
+                        AsciiEncoder.putLong(b, t.antenna);
+                    }
+                    break;
+                case FIRST_SEEN:
+                    if (t.firstSeenPresent) {
+                        AsciiEncoder.putLong(b, t.firstSeenUs);
+                    }
+                    break;
+                case LAST_SEEN:
+                    if (t.lastSeenPresent) {
+                        AsciiEncoder.putLong(b, t.lastSeenUs);
+                    }
+                    break;
+                case SEEN_COUNT:
+                    if (t.seenCountPresent) {
+                        AsciiEncoder.putLong(b, t.seenCount);
+                    }
+                    break;
+                case PEAK_RSSI:
+                    if (t.peakRssiPresent) {
+                        AsciiEncoder.putDouble(b, t.peakRssi);
+                    }
+                    break;
+                case DOPPLER:
+                    if (t.dopplerPresent) {
+                        AsciiEncoder.putDouble(b, t.doppler);
+                    }
+                    break;
+                case CHANNEL:
+                    if (t.channelPresent) {
+                        AsciiEncoder.putDouble(b, t.channelMhz);
+                    }
+                    break;
+                case TID:
+                    if (t.fastIdPresent) {
+                        AsciiEncoder.putHex(b, t.tid, t.tidWords);
+                    }
+                    break;
+                case MODEL:
+                    if (model != null) {
+                        b.put(model);
+                    }
+                    break;
+                case EPC_SIZE:
+                    if (t.fastIdPresent) {
+                        AsciiEncoder.putLong(b, t.epcSizeBits);
+                    }
+                    break;
+                case USER_MEMORY_SIZE:
+                    if (t.fastIdPresent) {
+                        AsciiEncoder.putLong(b, t.userMemorySizeBits);
+                    }
+                    break;
+            }
+        }
+        b.put(CSV_LINE_END);
+    }
+
+    private void json(ByteBuffer b, TagRead t, byte[] label, byte[] model) {
+        for (int i = 0; i < columns.length; i++) {
+            b.put(keys[i]);
+            switch (columns[i]) {
+                case READER:
+                    b.put(label);
+                    break;
+                case EPC:
+                    b.put((byte) '"');
+                    AsciiEncoder.putHex(b, t.epc, t.epcWords);
+                    b.put((byte) '"');
+                    break;
+                case ANTENNA:
+                    putLong(b, t.antennaPresent, t.antenna);
+                    break;
+                case FIRST_SEEN:
+                    putLong(b, t.firstSeenPresent, t.firstSeenUs);
+                    break;
+                case LAST_SEEN:
+                    putLong(b, t.lastSeenPresent, t.lastSeenUs);
+                    break;
+                case SEEN_COUNT:
+                    putLong(b, t.seenCountPresent, t.seenCount);
+                    break;
+                case PEAK_RSSI:
+                    putDouble(b, t.peakRssiPresent, t.peakRssi);
+                    break;
+                case DOPPLER:
+                    putDouble(b, t.dopplerPresent, t.doppler);
+                    break;
+                case CHANNEL:
+                    putDouble(b, t.channelPresent, t.channelMhz);
+                    break;
+                case TID:
+                    if (t.fastIdPresent) {
+                        b.put((byte) '"');
+                        AsciiEncoder.putHex(b, t.tid, t.tidWords);
+                        b.put((byte) '"');
+                    } else {
+                        b.put(NULL);
+                    }
+                    break;
+                case MODEL:
+                    b.put(model != null ? model : NULL);
+                    break;
+                case EPC_SIZE:
+                    putLong(b, t.fastIdPresent, t.epcSizeBits);
+                    break;
+                case USER_MEMORY_SIZE:
+                    putLong(b, t.fastIdPresent, t.userMemorySizeBits);
+                    break;
+            }
+        }
+        if (columns.length == 0) {
+            b.put((byte) '{');
+        }
+        b.put((byte) '}');
+        b.put((byte) '\n');
+    }
+
+    private static void putLong(ByteBuffer b, boolean present, long value) {
+        if (present) {
+            AsciiEncoder.putLong(b, value);
+        } else {
+            b.put(NULL);
+        }
+    }
+
+    private static void putDouble(ByteBuffer b, boolean present, double value) {
+        // JSON has no NaN or infinity
+        if (present && !Double.isNaN(value) && !Double.isInfinite(value)) {
+            AsciiEncoder.putDouble(b, value);
+        } else {
+            b.put(NULL);
+        }
+    }
+
+    // the current buffer if it has room, else the next one, writing them
+    // all out first when none is left
+    private ByteBuffer room(int needed) throws IOException {
+        if (buffers[current].remaining() >= needed) {
+            return buffers[current];
+        }
+        if (current + 1 < BUFFERS && needed <= BUFFER_BYTES) {
+            return buffers[++current];
+        }
+        flush();
+        if (needed > BUFFER_BYTES) {
+            throw new IOException("Record of " + needed + " bytes does not fit a buffer");
+        }
+        return buffers[0];
+    }
+
+    private byte[] readerLabel(ImpinjReader reader) {
+        if (reader == null) {
+            if (noReaderLabel == null) {
+                noReaderLabel = text(null);
+            }
+            return noReaderLabel;
+        }
+        String name = reader.getName() != null ? reader.getName() : reader.getAddress();
+        int id = readerIds.idOf(reader);
+        if (id >= readerLabels.length) {
+            int size = Math.max(id + 1, readerLabels.length * 2);
+            readerLabels = Arrays.copyOf(readerLabels, size);
+            labelNames = Arrays.copyOf(labelNames, size);
+        }
+        byte[] label = readerLabels[id];
+        if (label == null || name != labelNames[id]) {
+            label = text(name);
+            readerLabels[id] = label;
+            labelNames[id] = name;
+        }
+        return label;
+    }
+
+    private byte[] modelName(TagModelName model) {
+        if (model == null) {
+            return format == Format.CSV ? new byte[0] : NULL;
+        }
+        byte[] text = modelNames.get(model);
+        if (text == null) {
+            text = text(model.toString());
+            modelNames.put(model, text);
+        }
+        return text;
+    }
+
+    // a text field encoded and escaped for the format
+    private byte[] text(String s) {
+        if (s == null) {
+            return format == Format.CSV ? new byte[0] : NULL;
+        }
+        return format == Format.CSV ? csvField(s) : jsonString(s);
+    }
+
+    static byte[] csvField(String s) {
+        boolean quote = false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                quote = true;
+                break;
+            }
+        }
+        if (!quote) {
+            return utf8(s);
+        }
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"') {
+                sb.append('"');
+            }
+            sb.append(c);
+        }
+        return utf8(sb.append('"').toString());
+    }
+
+    static byte[] jsonString(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7e) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return AsciiEncoder.toAscii(sb.append('"').toString());
+    }
+
+    private static byte[] utf8(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void failed(IOException ex) {
+        // a file with a gap in it is no export, stop at the first failure
+        // and let the pipeline keep running
+        failed = true;
+        System.out.println("Could not export tag reads, exporting stopped: "
+                + ex.getMessage());
+    }
+
+    /**
+     * Exports a tag journal. Pass the journal directory and the output file
+     * as arguments, -Dformat=csv or ndjson and -Dcolumns=epc,antenna,...
+     * to pick the columns, all by default.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Must pass a journal directory and an output file");
+            return;
+        }
+        Format format = Format.valueOf(
+                System.getProperty("format", "csv").toUpperCase(Locale.US));
+        List<TagReadColumn> columns = TagReadColumn.parse(System.getProperty("columns"));
+
+        final TagReadJournalReader journal = new TagReadJournalReader(new File(args[0]));
+        final TagReadExporter exporter = new TagReadExporter(new File(args[1]), format, columns);
+        final List<ImpinjReader> readers = new ArrayList<ImpinjReader>();
+        final IOException[] error = new IOException[1];
+
+        long begin = System.nanoTime();
+        journal.readAll(new TagReadJournalReader.Visitor() {
+            @Override
+            public boolean onRecord(TagRead read, int readerId, long segment, int position) {
+                // stand ins carrying the recorded reader names
+                while (readerId >= readers.size()) {
+                    String name = journal.readerName(readers.size());
+                    readers.add(SyntheticReports.reader(name, null));
+                }
+                read.reader = readerId >= 0 ? readers.get(readerId) : null;
+                try {
+                    exporter.export(read);
+                    return true;
+                } catch (IOException ex) {
+                    error[0] = ex;
+                    return false;
+                }
+            }
+        });
+        exporter.close();
+        if (error[0] != null) {
+            throw error[0];
+        }
+        long millis = (System.nanoTime() - begin) / 1000000;
+        System.out.println("Exported " + exporter.getRecords() + " reads, "
+                + exporter.getBytes() / 1024 + " KB in " + millis + " ms");
+    }
+}
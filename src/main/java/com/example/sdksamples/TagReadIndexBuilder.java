@@ -0,0 +1,190 @@
+package com.example.sdksamples;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds the index of one journal segment while its records are appended:
+ * the record offsets of every EPC, and a sparse time index with the offset
+ * and time range of every block of blockRecords records. It is written next
+ * to the segment when the segment is sealed, see
+ * {@link TagReadJournalIndex} for the file layout. Not thread safe.
+ */
+public class TagReadIndexBuilder {
+
+    // the offsets of one EPC's records
+    static class Positions {
+        final TagId epc;
+        int[] offsets = new int[2];
+        int count;
+
+        Positions(TagId epc) {
+            this.epc = new TagId(epc);
+        }
+
+        void add(int offset) {
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            offsets[count++] = offset;
+        }
+    }
+
+    private final int blockRecords;
+    private final TagIdMap<Positions> epcs = new TagIdMap<Positions>();
+    private final TagId key = new TagId();
+
+    private int[] blockOffsets = new int[64];
+    private int[] blockCounts = new int[64];
+    private long[] blockMin = new long[64];
+    private long[] blockMax = new long[64];
+    private int blocks;
+
+    private long minTime = Long.MAX_VALUE;
+    private long maxTime = Long.MIN_VALUE;
+    private long positionsBytes;
+
+    public TagReadIndexBuilder(int blockRecords) {
+        this.blockRecords = blockRecords;
+    }
+
+    /**
+     * Indexes a record written at the offset of its segment. Records must
+     * be added in the order they were written.
+     */
+    public void add(TagRead read, int offset) {
+        if (blocks == 0 || blockCounts[blocks - 1] == blockRecords) {
+            startBlock(offset);
+        }
+        int b = blocks - 1;
+        blockCounts[b]++;
+
+        long time = TagReadJournalIndex.timeOf(read);
+        if (time != TagReadJournalIndex.NO_TIME) {
+            blockMin[b] = Math.min(blockMin[b], time);
+            blockMax[b] = Math.max(blockMax[b], time);
+            minTime = Math.min(minTime, time);
+            maxTime = Math.max(maxTime, time);
+        }
+
+        key.set(read.epc, read.epcWords);
+        Positions positions = epcs.get(key);
+        if (positions == null) {
+            positions = new Positions(key);
+            epcs.put(key, positions);
+            positionsBytes += 2 + 2 * key.getWords() + 4;
+        }
+        positions.add(offset);
+        positionsBytes += 4;
+    }
+
+    public int getTags() {
+        return epcs.size();
+    }
+
+    public void clear() {
+        epcs.clear();
+        blocks = 0;
+        minTime = Long.MAX_VALUE;
+        maxTime = Long.MIN_VALUE;
+        positionsBytes = 0;
+    }
+
+    /**
+     * Writes the index to a temporary file and renames it into place, so a
+     * reader never sees half an index.
+     */
+    public void write(File file) throws IOException {
+        List<Positions> all = epcs.values();
+        int tags = all.size();
+
+        // sort the EPCs by hash so a lookup can binary search the table
+        long[] order = new long[tags];
+        for (int i = 0; i < tags; i++) {
+            order[i] = ((long) all.get(i).epc.hashCode() << 32) | i;
+        }
+        Arrays.sort(order);
+
+        long size = TagReadJournalIndex.HEADER_SIZE
+                + (long) blocks * TagReadJournalIndex.BLOCK_SIZE
+                + (long) tags * TagReadJournalIndex.SLOT_SIZE + positionsBytes;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Index too large for " + file);
+        }
+        ByteBuffer buf = ByteBuffer.allocate((int) size);
+
+        buf.putInt(TagReadJournalIndex.MAGIC);
+        buf.putInt(blockRecords);
+        buf.putLong(minTime);
+        buf.putLong(maxTime);
+        buf.putInt(blocks);
+        buf.putInt(tags);
+
+        for (int b = 0; b < blocks; b++) {
+            buf.putInt(blockOffsets[b]);
+            buf.putInt(blockCounts[b]);
+            buf.putLong(blockMin[b]);
+            buf.putLong(blockMax[b]);
+        }
+
+        int entry = TagReadJournalIndex.HEADER_SIZE
+                + blocks * TagReadJournalIndex.BLOCK_SIZE
+                + tags * TagReadJournalIndex.SLOT_SIZE;
+        for (int i = 0; i < tags; i++) {
+            Positions p = all.get((int) order[i]);
+            buf.putInt((int) (order[i] >> 32));
+            buf.putInt(entry);
+            entry += 2 + 2 * p.epc.getWords() + 4 + 4 * p.count;
+        }
+
+        for (int i = 0; i < tags; i++) {
+            Positions p = all.get((int) order[i]);
+            buf.putShort((short) p.epc.getWords());
+            for (int w = 0; w < p.epc.getWords(); w++) {
+                buf.putShort(p.epc.getWord(w));
+            }
+            buf.putInt(p.count);
+            for (int j = 0; j < p.count; j++) {
+                buf.putInt(p.offsets[j]);
+            }
+        }
+        buf.flip();
+
+        File tmp = new File(file.getPath() + ".tmp");
+        RandomAccessFile out = new RandomAccessFile(tmp, "rw");
+        try {
+            out.setLength(0);
+            while (buf.hasRemaining()) {
+                out.getChannel().write(buf);
+            }
+            out.getChannel().force(true);
+        } finally {
+            out.close();
+        }
+        if (!tmp.renameTo(file)) {
+            file.delete();
+            if (!tmp.renameTo(file)) {
+                throw new IOException("Could not rename " + tmp + " to " + file);
+            }
+        }
+    }
+
+    private void startBlock(int offset) {
+        if (blocks == blockOffsets.length) {
+            int n = blocks * 2;
+            blockOffsets = Arrays.copyOf(blockOffsets, n);
+            blockCounts = Arrays.copyOf(blockCounts, n);
+            blockMin = Arrays.copyOf(blockMin, n);
+            blockMax = Arrays.copyOf(blockMax, n);
+        }
+        blockOffsets[blocks] = offset;
+        blockCounts[blocks] = 0;
+        blockMin[blocks] = Long.MAX_VALUE;
+        blockMax[blocks] = Long.MIN_VALUE;
+        blocks++;
+    }
+}
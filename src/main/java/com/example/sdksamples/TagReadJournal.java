@@ -0,0 +1,445 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.ImpinjReader;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * A durable, append only binary journal of tag reads written through
+ * memory mapped segment files. Each record is a {@link TagReadCodec}
+ * record followed by a CRC-32 of it, counted in the record length, so
+ * decoding skips it. A zero record length, written after every record,
+ * marks the end of the data in a segment. After a crash the segment is
+ * continued after the last record whose checksum matches. When a record
+ * doesn't fit in the current segment a new one is started.
+ * <p>
+ * Writes land in the page cache straight away and are forced to disk as a
+ * group: after syncEveryRecords records or syncEveryMillis milliseconds,
+ * whichever comes first, checked after every append and on a timer. Reader
+ * ids are listed in readers.txt next to the segments. Sealed segments may
+ * be replaced by a {@link CompressedJournalSegment} in the background, see
+ * {@link TagReadCompactor}. A sealed segment's index is written on a
+ * background thread, so rolling over doesn't hold up the appends; until it
+ * is there, queries scan the segment.
+ */
+public class TagReadJournal implements TagReadBatchSink, TagReadConsumer {
+
+    public static final String SEGMENT_SUFFIX = ".journal";
+    public static final String COMPRESSED_SUFFIX = ".journalz";
+    public static final String INDEX_SUFFIX = ".index";
+    public static final String READERS_FILE = "readers.txt";
+
+    static final int MAGIC = 0x54524a31; // "TRJ1"
+    // version 1 records have no checksum
+    static final short VERSION = 2;
+    static final int CRC_SIZE = 4;
+    static final int HEADER_SIZE = 64;
+    // header layout: magic, version, header size, segment index, created
+    // millis and, once sealed, the end of the data
+    static final int HEADER_SEGMENT_INDEX = 8;
+    static final int HEADER_CREATED = 16;
+    static final int HEADER_DATA_END = 24;
+
+    // writes the indexes of sealed segments for all journals
+    private static final ExecutorService INDEX_WRITER =
+            Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "tag-journal-index");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+
+    private final File directory;
+    private final int segmentBytes;
+    private final int syncEveryRecords;
+    private final long syncEveryNanos;
+
+    private final ReaderIds readerIds = new ReaderIds();
+    // journal reader ids by ReaderIds id, -1 until first used; ids are kept
+    // across restarts by matching the names already in readers.txt
+    private int[] journalIds = new int[0];
+    private final List<String> readerNames;
+    private final Writer readersOut;
+
+    private long segmentIndex;
+    private RandomAccessFile segmentFile;
+    private MappedByteBuffer segment;
+    // the segment's bytes a record's checksum is taken over
+    private ByteBuffer checked;
+    private final CRC32 crc = new CRC32();
+
+    private int unsyncedRecords;
+    private long lastSyncNanos = System.nanoTime();
+    private long records;
+    private long bytes;
+    private long syncs;
+    private boolean closed;
+
+    // indexes the current segment, null when the journal isn't indexed
+    private TagReadIndexBuilder index;
+    private final int indexBlockRecords;
+    // the last index handed to INDEX_WRITER, which writes them in order
+    private Future<?> indexWrite;
+
+    private final Thread syncer;
+
+    public static File segmentFile(File directory, long index) {
+        return new File(directory, String.format("tags-%016d%s", index,
+                SEGMENT_SUFFIX));
+    }
+
+    public static File compressedFile(File directory, long index) {
+        return new File(directory, String.format("tags-%016d%s", index,
+                COMPRESSED_SUFFIX));
+    }
+
+    public static boolean isCompressed(File segment) {
+        return segment.getName().endsWith(COMPRESSED_SUFFIX);
+    }
+
+    public static File indexFile(File directory, long index) {
+        return new File(directory, String.format("tags-%016d%s", index,
+                INDEX_SUFFIX));
+    }
+
+    /**
+     * Opens the journal in the directory, continuing after the last record
+     * of the newest segment if there is one.
+     *
+     * @param segmentBytes size of each segment file
+     */
+    public TagReadJournal(File directory, int segmentBytes,
+                          int syncEveryRecords, long syncEveryMillis)
+            throws IOException {
+        this(directory, segmentBytes, syncEveryRecords, syncEveryMillis, 0);
+    }
+
+    /**
+     * @param indexBlockRecords when positive every segment gets a
+     *                          {@link TagReadJournalIndex} with a time
+     *                          range for each block of this many records
+     */
+    public TagReadJournal(File directory, int segmentBytes,
+                          int syncEveryRecords, long syncEveryMillis,
+                          int indexBlockRecords) throws IOException {
+        if (segmentBytes < HEADER_SIZE + TagReadCodec.MAX_SIZE + CRC_SIZE + 2) {
+            throw new IllegalArgumentException("segmentBytes is too small");
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.syncEveryRecords = Math.max(1, syncEveryRecords);
+        this.syncEveryNanos = TimeUnit.MILLISECONDS.toNanos(syncEveryMillis);
+        this.indexBlockRecords = indexBlockRecords;
+        this.index = indexBlockRecords > 0
+                ? new TagReadIndexBuilder(indexBlockRecords) : null;
+
+        readerNames = TagReadJournalReader.readReaderNames(directory);
+        readersOut = new OutputStreamWriter(new FileOutputStream(
+                new File(directory, READERS_FILE), true), StandardCharsets.UTF_8);
+
+        File[] existing = TagReadJournalReader.segments(directory);
+        if (existing.length > 0) {
+            File last = existing[existing.length - 1];
+            long number = TagReadJournalReader.segmentIndex(last);
+            // a compressed segment is never appended to again
+            if (isCompressed(last)) {
+                openSegment(number + 1, true);
+            } else {
+                openSegment(number, false);
+            }
+        } else {
+            openSegment(0, true);
+        }
+
+        syncer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                syncLoop();
+            }
+        }, "tag-journal-sync");
+        syncer.setDaemon(true);
+        syncer.start();
+    }
+
+    public synchronized void append(TagRead read) throws IOException {
+        if (closed) {
+            throw new IOException("Journal is closed");
+        }
+        int readerId = journalId(read.reader);
+
+        int size = TagReadCodec.encodedSize(read) + CRC_SIZE;
+        // keep two bytes for the zero length end marker
+        if (segment.remaining() < size + 2) {
+            rollSegment();
+        }
+        int position = segment.position();
+        TagReadCodec.encode(read, readerId, segment);
+        segment.putShort(position, (short) size);
+        segment.putInt(checksum(checked, crc, position, size));
+        // the end marker, anything after it is left from before a crash
+        segment.putShort(segment.position(), (short) 0);
+        if (index != null) {
+            index.add(read, position);
+        }
+        records++;
+        bytes += size;
+        unsyncedRecords++;
+
+        if (unsyncedRecords >= syncEveryRecords) {
+            sync();
+        }
+    }
+
+    @Override
+    public void onTagRead(TagRead read, boolean endOfBatch) {
+        try {
+            append(read);
+        } catch (IOException ex) {
+            System.out.println("Could not journal tag read: " + ex.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void onBatch(TagReadBatch batch) {
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                append(batch.get(i));
+            }
+            if (System.nanoTime() - lastSyncNanos >= syncEveryNanos) {
+                sync();
+            }
+        } catch (IOException ex) {
+            System.out.println("Could not journal tag batch: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Forces everything appended so far to disk.
+     */
+    public synchronized void sync() {
+        if (unsyncedRecords > 0 && segment != null) {
+            Object flush = PipelineEvents.beginFlush();
+            segment.force();
+            syncs++;
+            PipelineEvents.sinkFlush("journal", unsyncedRecords, 0, flush);
+        }
+        unsyncedRecords = 0;
+        lastSyncNanos = System.nanoTime();
+    }
+
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        sync();
+        closed = true;
+        syncer.interrupt();
+        sealSegment();
+        readersOut.close();
+        awaitIndex();
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public synchronized long getRecords() {
+        return records;
+    }
+
+    public synchronized long getSyncs() {
+        return syncs;
+    }
+
+    public synchronized long getSegmentIndex() {
+        return segmentIndex;
+    }
+
+    /**
+     * The bytes of records appended since the journal was opened.
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    private void syncLoop() {
+        long sleepMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(syncEveryNanos));
+        while (true) {
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException ex) {
+                return;
+            }
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (System.nanoTime() - lastSyncNanos >= syncEveryNanos) {
+                    sync();
+                }
+            }
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        sync();
+        sealSegment();
+        openSegment(segmentIndex + 1, true);
+    }
+
+    private void openSegment(long number, boolean create) throws IOException {
+        File file = segmentFile(directory, number);
+        segmentFile = new RandomAccessFile(file, "rw");
+        segment = segmentFile.getChannel().map(FileChannel.MapMode.READ_WRITE,
+                0, Math.max(segmentBytes, create ? 0 : segmentFile.length()));
+        segmentIndex = number;
+        checked = segment.duplicate();
+
+        if (!create && segment.getInt(0) == MAGIC && segment.getShort(4) != VERSION) {
+            // written by another version, left as it is
+            segment.putLong(HEADER_DATA_END, TagReadJournalReader.dataEnd(segment));
+            segment.force();
+            segmentFile.close();
+            openSegment(number + 1, true);
+            return;
+        }
+        if (create || segment.getInt(0) != MAGIC) {
+            segment.putInt(0, MAGIC);
+            segment.putShort(4, VERSION);
+            segment.putShort(6, (short) HEADER_SIZE);
+            segment.putLong(HEADER_SEGMENT_INDEX, number);
+            segment.putLong(HEADER_CREATED, System.currentTimeMillis());
+            segment.putLong(HEADER_DATA_END, 0);
+            segment.position(HEADER_SIZE);
+        } else {
+            // continue after the last complete record
+            segment.position(TagReadJournalReader.dataEnd(segment));
+            if (segment.remaining() >= 2) {
+                segment.putShort(segment.position(), (short) 0);
+            }
+            segment.putLong(HEADER_DATA_END, 0);
+            if (index != null) {
+                reindex(file);
+            }
+        }
+    }
+
+    // rebuilds the index of a segment that is appended to again, its old
+    // index file no longer covers every record
+    private void reindex(File file) throws IOException {
+        indexFile(directory, segmentIndex).delete();
+        TagReadJournalReader.readSegment(file, new TagReadJournalReader.Visitor() {
+            @Override
+            public boolean onRecord(TagRead read, int readerId, long segment,
+                                    int position) {
+                index.add(read, position);
+                return true;
+            }
+        });
+    }
+
+    /**
+     * The CRC-32 of a record of the given length at position, all but its
+     * checksum. Moves the buffer's position and limit.
+     */
+    static int checksum(ByteBuffer segment, CRC32 crc, int position, int length) {
+        segment.limit(position + length - CRC_SIZE).position(position);
+        crc.reset();
+        crc.update(segment);
+        segment.limit(segment.capacity());
+        return (int) crc.getValue();
+    }
+
+    private void sealSegment() throws IOException {
+        if (segment == null) {
+            return;
+        }
+        segment.putLong(HEADER_DATA_END, segment.position());
+        segment.force();
+        segmentFile.close();
+        segment = null;
+        checked = null;
+        if (index != null) {
+            writeIndex(index, indexFile(directory, segmentIndex));
+            index = closed ? null : new TagReadIndexBuilder(indexBlockRecords);
+        }
+    }
+
+    private void writeIndex(final TagReadIndexBuilder sealed, final File file) {
+        indexWrite = INDEX_WRITER.submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    sealed.write(file);
+                } catch (IOException ex) {
+                    // queries scan the segment instead
+                    System.out.println("Could not write " + file + ": " + ex.getMessage());
+                }
+            }
+        });
+    }
+
+    // waits for the indexes of the sealed segments to be written
+    private void awaitIndex() {
+        if (indexWrite == null) {
+            return;
+        }
+        try {
+            indexWrite.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ex) {
+            System.out.println("Could not write journal index: " + ex.getCause());
+        }
+    }
+
+    private int journalId(ImpinjReader reader) throws IOException {
+        if (reader == null) {
+            return -1;
+        }
+        int local = readerIds.idOf(reader);
+        if (local < journalIds.length && journalIds[local] >= 0) {
+            return journalIds[local];
+        }
+        if (local >= journalIds.length) {
+            int old = journalIds.length;
+            journalIds = Arrays.copyOf(journalIds, Math.max(local + 1, old * 2));
+            Arrays.fill(journalIds, old, journalIds.length, -1);
+        }
+
+        String label = reader.getName() != null ? reader.getName()
+                : reader.getAddress();
+        int id = label == null ? -1 : readerNames.indexOf(label);
+        if (id < 0) {
+            id = readerNames.size();
+            readerNames.add(label);
+            readersOut.write(id + "\t" + label + System.lineSeparator());
+            readersOut.flush();
+        }
+        journalIds[local] = id;
+        return id;
+    }
+}
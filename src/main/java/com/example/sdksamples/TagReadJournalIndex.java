@@ -0,0 +1,147 @@
+package com.example.sdksamples;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * The read only, memory mapped index of one sealed journal segment, written
+ * by {@link TagReadIndexBuilder}.
+ *
+ * <pre>
+ *  header   int magic, int block records, long min time, long max time,
+ *           int block count, int EPC count
+ *  blocks   int offset, int records, long min time, long max time
+ *  slots    int EPC hash, int entry offset, sorted by hash
+ *  entries  short words, the EPC words, int count, the record offsets
+ * </pre>
+ *
+ * Times are UTC microseconds, the last seen time of a read or its first
+ * seen time when that is all it has.
+ */
+public class TagReadJournalIndex {
+
+    static final int MAGIC = 0x54524931; // "TRI1"
+    static final int HEADER_SIZE = 32;
+    static final int BLOCK_SIZE = 24;
+    static final int SLOT_SIZE = 8;
+    static final long NO_TIME = Long.MIN_VALUE;
+
+    private final MappedByteBuffer buf;
+    private final int blocks;
+    private final int tags;
+    private final int slotsStart;
+
+    public static TagReadJournalIndex open(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            MappedByteBuffer buf = raf.getChannel().map(
+                    FileChannel.MapMode.READ_ONLY, 0, raf.length());
+            if (buf.limit() < HEADER_SIZE || buf.getInt(0) != MAGIC) {
+                throw new IOException("Not a journal index: " + file);
+            }
+            return new TagReadJournalIndex(buf);
+        } finally {
+            // the mapping stays valid after the file is closed
+            raf.close();
+        }
+    }
+
+    static long timeOf(TagRead read) {
+        if (read.lastSeenPresent) {
+            return read.lastSeenUs;
+        }
+        return read.firstSeenPresent ? read.firstSeenUs : NO_TIME;
+    }
+
+    private TagReadJournalIndex(MappedByteBuffer buf) {
+        this.buf = buf;
+        this.blocks = buf.getInt(24);
+        this.tags = buf.getInt(28);
+        this.slotsStart = HEADER_SIZE + blocks * BLOCK_SIZE;
+    }
+
+    public long getMinTime() {
+        return buf.getLong(8);
+    }
+
+    public long getMaxTime() {
+        return buf.getLong(16);
+    }
+
+    public boolean overlaps(long fromUs, long toUs) {
+        return getMinTime() <= toUs && getMaxTime() >= fromUs;
+    }
+
+    public int getBlocks() {
+        return blocks;
+    }
+
+    public int getTags() {
+        return tags;
+    }
+
+    public int blockOffset(int block) {
+        return buf.getInt(HEADER_SIZE + block * BLOCK_SIZE);
+    }
+
+    public int blockRecords(int block) {
+        return buf.getInt(HEADER_SIZE + block * BLOCK_SIZE + 4);
+    }
+
+    public boolean blockOverlaps(int block, long fromUs, long toUs) {
+        int at = HEADER_SIZE + block * BLOCK_SIZE;
+        return buf.getLong(at + 8) <= toUs && buf.getLong(at + 16) >= fromUs;
+    }
+
+    /**
+     * The offsets of the EPC's records in the segment, in the order they
+     * were written, or an empty array if it isn't in this segment.
+     */
+    public int[] offsetsOf(TagId epc) {
+        int hash = epc.hashCode();
+
+        // find the first slot with the hash
+        int low = 0;
+        int high = tags;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (buf.getInt(slotsStart + mid * SLOT_SIZE) < hash) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        for (int slot = low; slot < tags; slot++) {
+            int at = slotsStart + slot * SLOT_SIZE;
+            if (buf.getInt(at) != hash) {
+                break;
+            }
+            int entry = buf.getInt(at + 4);
+            if (matches(entry, epc)) {
+                int wordsEnd = entry + 2 + 2 * epc.getWords();
+                int[] offsets = new int[buf.getInt(wordsEnd)];
+                for (int i = 0; i < offsets.length; i++) {
+                    offsets[i] = buf.getInt(wordsEnd + 4 + 4 * i);
+                }
+                return offsets;
+            }
+        }
+        return new int[0];
+    }
+
+    private boolean matches(int entry, TagId epc) {
+        if (buf.getShort(entry) != epc.getWords()) {
+            return false;
+        }
+        for (int w = 0; w < epc.getWords(); w++) {
+            if (buf.getShort(entry + 2 + 2 * w) != epc.getWord(w)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
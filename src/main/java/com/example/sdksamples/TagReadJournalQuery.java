@@ -0,0 +1,219 @@
+package com.example.sdksamples;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Answers "when and where was this EPC seen" and "what was seen between
+ * these times" over a {@link TagReadJournal} without scanning whole
+ * segments. Sealed segments are searched through their
+ * {@link TagReadJournalIndex}; a segment without an index, the one still
+ * being written, is scanned. A compressed segment is read a block at a
+ * time, only the blocks holding the records asked for are inflated.
+ * <p>
+ * Segments and indexes are mapped once and kept, so repeated queries don't
+ * reopen files. Times are UTC microseconds, inclusive. Not thread safe.
+ */
+public class TagReadJournalQuery {
+
+    private final File directory;
+    private final Map<Long, MappedByteBuffer> segments = new HashMap<Long, MappedByteBuffer>();
+    private final Map<Long, CompressedJournalSegment> compressed =
+            new HashMap<Long, CompressedJournalSegment>();
+    private final Map<Long, TagReadJournalIndex> indexes = new HashMap<Long, TagReadJournalIndex>();
+    private final TagRead read = new TagRead();
+    private final TagId key = new TagId();
+
+    public TagReadJournalQuery(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Visits the reads of the EPC seen between the two times.
+     *
+     * @return the number of reads visited
+     */
+    public long findTag(TagId epc, long fromUs, long toUs,
+                        TagReadJournalReader.Visitor visitor) throws IOException {
+        long count = 0;
+        for (File file : TagReadJournalReader.segments(directory)) {
+            long segment = TagReadJournalReader.segmentIndex(file);
+            TagReadJournalIndex index = index(segment);
+            if (index == null) {
+                long found = scan(file, epc, fromUs, toUs, visitor);
+                if (found < 0) {
+                    return count - found - 1;
+                }
+                count += found;
+                continue;
+            }
+            if (!index.overlaps(fromUs, toUs)) {
+                continue;
+            }
+
+            MappedByteBuffer mapped = mapped(segment, file);
+            CompressedJournalSegment packed = mapped == null
+                    ? compressed(segment, file) : null;
+            for (int offset : index.offsetsOf(epc)) {
+                int readerId = TagReadCodec.decode(at(mapped, packed, offset), read);
+                if (inRange(read, fromUs, toUs)) {
+                    count++;
+                    if (!visitor.onRecord(read, readerId, segment, offset)) {
+                        return count;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Visits every read seen between the two times.
+     *
+     * @return the number of reads visited
+     */
+    public long findRange(long fromUs, long toUs,
+                          TagReadJournalReader.Visitor visitor) throws IOException {
+        long count = 0;
+        for (File file : TagReadJournalReader.segments(directory)) {
+            long segment = TagReadJournalReader.segmentIndex(file);
+            TagReadJournalIndex index = index(segment);
+            if (index == null) {
+                long found = scan(file, null, fromUs, toUs, visitor);
+                if (found < 0) {
+                    return count - found - 1;
+                }
+                count += found;
+                continue;
+            }
+            if (!index.overlaps(fromUs, toUs)) {
+                continue;
+            }
+
+            MappedByteBuffer mapped = mapped(segment, file);
+            CompressedJournalSegment packed = mapped == null
+                    ? compressed(segment, file) : null;
+            for (int b = 0; b < index.getBlocks(); b++) {
+                if (!index.blockOverlaps(b, fromUs, toUs)) {
+                    continue;
+                }
+                int next = index.blockOffset(b);
+                for (int i = index.blockRecords(b); i > 0; i--) {
+                    int offset = next;
+                    ByteBuffer data = at(mapped, packed, offset);
+                    int start = data.position();
+                    int readerId = TagReadCodec.decode(data, read);
+                    next += data.position() - start;
+                    if (inRange(read, fromUs, toUs)) {
+                        count++;
+                        if (!visitor.onRecord(read, readerId, segment, offset)) {
+                            return count;
+                        }
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Forgets the cached mappings, for when the journal has been reopened
+     * and has appended to a segment that was already indexed.
+     */
+    public void refresh() {
+        segments.clear();
+        compressed.clear();
+        indexes.clear();
+    }
+
+    // scans a whole segment, the EPC may be null to match any tag
+    private long scan(File file, final TagId epc, final long fromUs,
+                      final long toUs, final TagReadJournalReader.Visitor visitor)
+            throws IOException {
+        final long[] count = new long[1];
+        final boolean[] stopped = new boolean[1];
+        TagReadJournalReader.readSegment(file, new TagReadJournalReader.Visitor() {
+            @Override
+            public boolean onRecord(TagRead r, int readerId, long segment,
+                                    int position) {
+                if (!inRange(r, fromUs, toUs)) {
+                    return true;
+                }
+                if (epc != null && !epc.equals(key.set(r.epc, r.epcWords))) {
+                    return true;
+                }
+                count[0]++;
+                stopped[0] = !visitor.onRecord(r, readerId, segment, position);
+                return !stopped[0];
+            }
+        });
+        return stopped[0] ? -count[0] - 1 : count[0];
+    }
+
+    private static boolean inRange(TagRead r, long fromUs, long toUs) {
+        long time = TagReadJournalIndex.timeOf(r);
+        return time != TagReadJournalIndex.NO_TIME && time >= fromUs && time <= toUs;
+    }
+
+    private TagReadJournalIndex index(long segment) throws IOException {
+        TagReadJournalIndex index = indexes.get(segment);
+        if (index == null) {
+            File file = TagReadJournal.indexFile(directory, segment);
+            if (!file.isFile()) {
+                return null;
+            }
+            index = TagReadJournalIndex.open(file);
+            indexes.put(segment, index);
+        }
+        return index;
+    }
+
+    // the data of a segment is either mapped or compressed, the other of
+    // the two is null
+    private static ByteBuffer at(MappedByteBuffer mapped,
+                                 CompressedJournalSegment packed, int offset)
+            throws IOException {
+        if (packed != null) {
+            return packed.seek(offset);
+        }
+        mapped.position(offset);
+        return mapped;
+    }
+
+    // null when the segment is compressed; a segment mapped before it was
+    // compressed stays readable through the mapping
+    private MappedByteBuffer mapped(long segment, File file) throws IOException {
+        MappedByteBuffer data = segments.get(segment);
+        if (data == null) {
+            file = TagReadJournalReader.current(file);
+            if (TagReadJournal.isCompressed(file)) {
+                return null;
+            }
+            RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                data = raf.getChannel().map(FileChannel.MapMode.READ_ONLY,
+                        0, raf.length());
+            } finally {
+                raf.close();
+            }
+            segments.put(segment, data);
+        }
+        return data;
+    }
+
+    private CompressedJournalSegment compressed(long segment, File file)
+            throws IOException {
+        CompressedJournalSegment data = compressed.get(segment);
+        if (data == null) {
+            data = CompressedJournalSegment.open(TagReadJournalReader.current(file));
+            compressed.put(segment, data);
+        }
+        return data;
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.sdksamples;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Reads back the segments written by {@link TagReadJournal}, compressed or
+ * not. Records are decoded into one reused {@link TagRead}, so a visitor
+ * must copy anything it wants to keep.
+ */
+public class TagReadJournalReader {
+
+    public interface Visitor {
+        /**
+         * @param position the offset of the record in its segment
+         * @return false to stop reading
+         */
+        boolean onRecord(TagRead read, int readerId, long segment, int position);
+    }
+
+    private final File directory;
+    private final List<String> readerNames;
+
+    public TagReadJournalReader(File directory) throws IOException {
+        this.directory = directory;
+        this.readerNames = readReaderNames(directory);
+    }
+
+    /**
+     * The reader name or address for an id, null if it is not known.
+     */
+    public String readerName(int readerId) {
+        return readerId < readerNames.size() ? readerNames.get(readerId) : null;
+    }
+
+    /**
+     * Visits every record of every segment, oldest first.
+     *
+     * @return the number of records visited
+     */
+    public long readAll(Visitor visitor) throws IOException {
+        long count = 0;
+        for (File file : segments(directory)) {
+            long read = readSegment(file, visitor);
+            if (read < 0) {
+                return count - read - 1;
+            }
+            count += read;
+        }
+        return count;
+    }
+
+    /**
+     * Visits the records of one segment.
+     *
+     * @return the number of records visited, or -(count + 1) when the
+     * visitor asked to stop
+     */
+    public static long readSegment(File file, Visitor visitor) throws IOException {
+        TagRead read = new TagRead();
+        long segment = segmentIndex(file);
+        file = current(file);
+        if (TagReadJournal.isCompressed(file)) {
+            return CompressedJournalSegment.open(file).read(segment, read, visitor);
+        }
+        long count = 0;
+
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            MappedByteBuffer buf = raf.getChannel().map(
+                    FileChannel.MapMode.READ_ONLY, 0, raf.length());
+            int end = dataEnd(buf);
+            buf.position(TagReadJournal.HEADER_SIZE);
+            while (buf.position() < end) {
+                int position = buf.position();
+                int readerId = TagReadCodec.decode(buf, read);
+                count++;
+                if (!visitor.onRecord(read, readerId, segment, position)) {
+                    return -count - 1;
+                }
+            }
+        } finally {
+            raf.close();
+        }
+        return count;
+    }
+
+    /**
+     * The segment files in the directory in the order they were written,
+     * one per segment. While a segment is being compressed both files exist
+     * and the uncompressed one is listed.
+     */
+    public static File[] segments(File directory) {
+        File[] files = directory.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File f) {
+                return f.isFile() && (f.getName().endsWith(TagReadJournal.SEGMENT_SUFFIX)
+                        || TagReadJournal.isCompressed(f));
+            }
+        });
+        if (files == null) {
+            return new File[0];
+        }
+        // the index is zero padded so the names sort in order, and a
+        // segment's .journal sorts before its .journalz
+        Arrays.sort(files);
+        int n = 0;
+        for (int i = 0; i < files.length; i++) {
+            if (n > 0 && segmentIndex(files[n - 1]) == segmentIndex(files[i])) {
+                continue;
+            }
+            files[n++] = files[i];
+        }
+        return n == files.length ? files : Arrays.copyOf(files, n);
+    }
+
+    public static long segmentIndex(File segment) {
+        String name = segment.getName();
+        int start = name.indexOf('-') + 1;
+        int end = name.lastIndexOf('.');
+        return Long.parseLong(name.substring(start, end));
+    }
+
+    /**
+     * The compressed segment in place of one that was compressed and removed
+     * since it was listed, otherwise the file itself.
+     */
+    static File current(File segment) {
+        if (segment.isFile() || TagReadJournal.isCompressed(segment)) {
+            return segment;
+        }
+        File compressed = TagReadJournal.compressedFile(
+                segment.getAbsoluteFile().getParentFile(), segmentIndex(segment));
+        return compressed.isFile() ? compressed : segment;
+    }
+
+    /**
+     * The offset just past the last record of a segment. Sealed segments
+     * record it in the header; for the segment that was being written it is
+     * found by walking the records up to the first zero length or the first
+     * record whose checksum doesn't match.
+     */
+    static int dataEnd(ByteBuffer segment) {
+        if (segment.limit() < TagReadJournal.HEADER_SIZE
+                || segment.getInt(0) != TagReadJournal.MAGIC) {
+            return Math.min(segment.limit(), TagReadJournal.HEADER_SIZE);
+        }
+        long sealed = segment.getLong(TagReadJournal.HEADER_DATA_END);
+        if (sealed >= TagReadJournal.HEADER_SIZE && sealed <= segment.limit()) {
+            return (int) sealed;
+        }
+
+        // records have checksums from version 2 on
+        boolean checked = segment.getShort(4) >= 2;
+        int minLength = TagReadCodec.HEADER_SIZE + (checked ? TagReadJournal.CRC_SIZE : 0);
+        ByteBuffer records = checked ? segment.duplicate() : null;
+        CRC32 crc = checked ? new CRC32() : null;
+        int position = TagReadJournal.HEADER_SIZE;
+        while (position + 2 <= segment.limit()) {
+            int length = segment.getShort(position) & 0xffff;
+            // a zero length is the end marker, anything else that can't be
+            // a whole record was torn by a crash
+            if (length < minLength || position + length > segment.limit()) {
+                break;
+            }
+            if (checked && segment.getInt(position + length - TagReadJournal.CRC_SIZE)
+                    != TagReadJournal.checksum(records, crc, position, length)) {
+                break;
+            }
+            position += length;
+        }
+        return position;
+    }
+
+    static List<String> readReaderNames(File directory) throws IOException {
+        List<String> names = new ArrayList<String>();
+        File file = new File(directory, TagReadJournal.READERS_FILE);
+        if (!file.isFile()) {
+            return names;
+        }
+        BufferedReader in = new BufferedReader(new InputStreamReader(
+                new FileInputStream(file), StandardCharsets.UTF_8));
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                if (tab < 0) {
+                    continue;
+                }
+                int id = Integer.parseInt(line.substring(0, tab));
+                while (names.size() <= id) {
+                    names.add(null);
+                }
+                names.set(id, line.substring(tab + 1));
+            }
+        } finally {
+            in.close();
+        }
+        return names;
+    }
+}
@@ -0,0 +1,294 @@
+package com.example.sdksamples;
+
+import org.apache.log4j.Appender;
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Category;
+import org.apache.log4j.Level;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.apache.log4j.helpers.LogLog;
+import org.apache.log4j.spi.ErrorCode;
+import org.apache.log4j.spi.Filter;
+import org.apache.log4j.spi.HierarchyEventListener;
+import org.apache.log4j.spi.LoggingEvent;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A log4j 1.2 appender that hands events to a {@link TagReadLogWriter}, so
+ * the logging thread only copies the event into a queue and file I/O and
+ * formatting happen on the writer thread. A {@link TagRead} logged as the
+ * message is copied as is and formatted by the writer; any other message is
+ * rendered on the calling thread. Configure it in log4j.properties:
+ *
+ * <pre>
+ * log4j.appender.TAGS=com.example.sdksamples.TagReadLog4jAppender
+ * log4j.appender.TAGS.File=${log}/tags.out
+ * log4j.appender.TAGS.MaxFileSize=100MB
+ * log4j.appender.TAGS.MaxBackupIndex=5
+ * log4j.appender.TAGS.QueueSize=65536
+ * log4j.appender.TAGS.BufferSize=262144
+ * log4j.appender.TAGS.Compress=true
+ * </pre>
+ *
+ * The layout is fixed, any configured layout is ignored. The writer's queue
+ * is safe for any number of threads, so unlike other appenders this one
+ * takes no lock.
+ * <p>
+ * SLF4J's log4j binding formats a message before log4j sees it, which for a
+ * TagRead means its toString() on the calling thread, so
+ * {@link LoggingTagReportListener} doesn't log reads through SLF4J under
+ * log4j. When all the appenders of its category are of this kind, without
+ * filters, it hands reads straight to their writers, skipping the category
+ * lock log4j takes as well; otherwise it logs the TagRead itself through
+ * log4j, which this appender still copies as is. The appenders are looked
+ * up again whenever one is added to or removed from a category, as log4j
+ * does when it is reconfigured, and when one of them has been closed or
+ * given a filter since.
+ */
+public class TagReadLog4jAppender extends AppenderSkeleton {
+
+    // counts appenders added to or removed from any category, which a
+    // reconfiguration does, so the direct writers know to look again
+    private static final AtomicInteger APPENDER_CHANGES = new AtomicInteger();
+    private static boolean watching;
+
+    private String file;
+    private long maxFileBytes = 10 * 1024 * 1024;
+    private int maxBackupIndex = 1;
+    private int queueSize = 64 * 1024;
+    private int bufferSize = 256 * 1024;
+    private boolean compress;
+    private volatile TagReadLogWriter writer;
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public void setMaxFileSize(String size) {
+        maxFileBytes = TagReadLogWriter.parseSize(size);
+    }
+
+    public void setMaxBackupIndex(int maxBackupIndex) {
+        this.maxBackupIndex = maxBackupIndex;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Gzips rolled backups in the background with the shared
+     * {@link TagReadCompactor}.
+     */
+    public void setCompress(boolean compress) {
+        this.compress = compress;
+    }
+
+    public TagReadLogWriter getWriter() {
+        return writer;
+    }
+
+    @Override
+    public void activateOptions() {
+        if (file == null) {
+            errorHandler.error("No File set for appender " + name);
+            return;
+        }
+        try {
+            writer = new TagReadLogWriter(new File(file), queueSize, bufferSize,
+                    maxFileBytes, maxBackupIndex);
+            writer.setErrorHandler(new TagReadLogWriter.ErrorHandler() {
+                @Override
+                public void error(String message, Exception ex) {
+                    errorHandler.error(message, ex, ErrorCode.WRITE_FAILURE);
+                }
+            });
+            if (compress) {
+                TagReadCompactor.shared().addLog(writer);
+            }
+        } catch (IOException ex) {
+            errorHandler.error("Could not open " + file, ex, ErrorCode.FILE_OPEN_FAILURE);
+        }
+    }
+
+    /**
+     * AppenderSkeleton's doAppend without its lock, which would put every
+     * logging thread behind one monitor in front of the lock-free queue.
+     */
+    @Override
+    public void doAppend(LoggingEvent event) {
+        if (closed) {
+            LogLog.error("Attempted to append to closed appender named [" + name + "].");
+            return;
+        }
+        if (!isAsSevereAsThreshold(event.getLevel())) {
+            return;
+        }
+        Filter f = getFirstFilter();
+        while (f != null) {
+            switch (f.decide(event)) {
+                case Filter.DENY:
+                    return;
+                case Filter.ACCEPT:
+                    f = null;
+                    break;
+                default:
+                    f = f.getNext();
+                    break;
+            }
+        }
+        append(event);
+    }
+
+    @Override
+    protected void append(LoggingEvent event) {
+        if (writer == null) {
+            return;
+        }
+        Object message = event.getMessage();
+        if (message instanceof TagRead) {
+            writer.write(event.getTimeStamp(), event.getLevel().toString(),
+                    event.getLoggerName(), (TagRead) message);
+        } else {
+            writer.write(event.getTimeStamp(), event.getLevel().toString(),
+                    event.getLoggerName(), event.getRenderedMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (writer != null) {
+            if (compress) {
+                TagReadCompactor.shared().removeLog(writer);
+            }
+            try {
+                writer.close();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    static LoggingTagReportListener.ReadLog readLog(final String category) {
+        watchAppenders();
+        final Logger logger = Logger.getLogger(category);
+        final String level = Level.DEBUG.toString();
+        return new LoggingTagReportListener.ReadLog() {
+            // the appenders reads go straight to, null to go through log4j,
+            // and the appender changes they were looked up after
+            private volatile TagReadLog4jAppender[] targets;
+            private volatile int lookedUp = -1;
+
+            @Override
+            public void debug(TagRead read) {
+                TagReadLog4jAppender[] current = targets;
+                if (lookedUp != APPENDER_CHANGES.get()) {
+                    current = lookUp();
+                }
+                if (current != null && !writeDirect(current, read)) {
+                    // closed or refiltered since, look again
+                    current = lookUp();
+                    if (current != null && writeDirect(current, read)) {
+                        return;
+                    }
+                    current = null;
+                }
+                if (current == null) {
+                    logger.debug(read);
+                }
+            }
+
+            private TagReadLog4jAppender[] lookUp() {
+                int changes = APPENDER_CHANGES.get();
+                TagReadLog4jAppender[] found = directAppenders(logger);
+                targets = found;
+                lookedUp = changes;
+                return found;
+            }
+
+            private boolean writeDirect(TagReadLog4jAppender[] appenders, TagRead read) {
+                for (TagReadLog4jAppender appender : appenders) {
+                    if (!appender.takesDebugAsIs()) {
+                        return false;
+                    }
+                }
+                long now = System.currentTimeMillis();
+                for (TagReadLog4jAppender appender : appenders) {
+                    appender.writer.write(now, level, category, read);
+                }
+                return true;
+            }
+        };
+    }
+
+    // the appenders a DEBUG event of the logger reaches, when all of them
+    // are of this kind and take it as is; otherwise null
+    private static TagReadLog4jAppender[] directAppenders(Logger logger) {
+        List<TagReadLog4jAppender> found = new ArrayList<TagReadLog4jAppender>();
+        for (Category c = logger; c != null; c = c.getParent()) {
+            Enumeration<?> appenders = c.getAllAppenders();
+            while (appenders.hasMoreElements()) {
+                Object appender = appenders.nextElement();
+                if (appender instanceof TagReadLog4jAppender
+                        && ((TagReadLog4jAppender) appender).takesDebugAsIs()) {
+                    found.add((TagReadLog4jAppender) appender);
+                } else {
+                    return null;
+                }
+            }
+            if (!c.getAdditivity()) {
+                break;
+            }
+        }
+        return found.isEmpty() ? null
+                : found.toArray(new TagReadLog4jAppender[found.size()]);
+    }
+
+    private static synchronized void watchAppenders() {
+        if (watching) {
+            return;
+        }
+        watching = true;
+        LogManager.getLoggerRepository().addHierarchyEventListener(
+                new HierarchyEventListener() {
+                    @Override
+                    public void addAppenderEvent(Category category, Appender appender) {
+                        APPENDER_CHANGES.incrementAndGet();
+                    }
+
+                    @Override
+                    public void removeAppenderEvent(Category category, Appender appender) {
+                        APPENDER_CHANGES.incrementAndGet();
+                    }
+                });
+    }
+
+    // whether a DEBUG event would reach the writer unchanged
+    private boolean takesDebugAsIs() {
+        return writer != null && !closed && getFirstFilter() == null
+                && isAsSevereAsThreshold(Level.DEBUG);
+    }
+
+    @Override
+    public boolean requiresLayout() {
+        return false;
+    }
+}
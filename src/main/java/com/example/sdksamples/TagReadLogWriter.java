@@ -0,0 +1,518 @@
+package com.example.sdksamples;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The engine behind {@link TagReadLog4jAppender} and
+ * {@link TagReadLogbackAppender}: the logging thread copies an event into a
+ * preallocated slot of a bounded lock-free ring and returns, and a writer
+ * thread formats the events into a reusable direct ByteBuffer and writes it
+ * through a FileChannel whenever the buffer fills up or the ring runs dry.
+ * <p>
+ * An event is either a TagRead, formatted on the writer thread the way
+ * TagReportFormatter prints it, or text that was already formatted. Lines
+ * look like PatternLayout's "%d [%-6p] %c - %m%n". When the ring is full
+ * the event is dropped rather than making the SDK callback thread wait, and
+ * the number dropped is logged once there is room. The file is rolled
+ * like log4j's RollingFileAppender, file.1 being the newest backup; backups
+ * gzipped by {@link TagReadCompactor} to file.N.gz are rolled the same way.
+ * <p>
+ * A failed write, a full disk say, is reported to the {@link ErrorHandler}
+ * and retried with the file reopened, backing off up to a few seconds;
+ * events that don't fit the ring meanwhile are dropped and counted. A roll
+ * that fails is reported and the file is written on, the roll is tried
+ * again at the next write.
+ */
+public class TagReadLogWriter {
+
+    public static final String COMPRESSED_SUFFIX = ".gz";
+
+    // longer text is cut off
+    static final int MAX_TEXT = 1024;
+    private static final int MAX_HEADER = 256;
+    // room for the header and a formatted tag read
+    private static final int MAX_EVENT = MAX_HEADER + 4096;
+    // the writer parks briefly while events may be about to arrive, then
+    // sleeps until a producer unparks it
+    private static final long IDLE_PARK_NANOS = 100000;
+    private static final int IDLE_SHORT_PARKS = 1000;
+    private static final long SLEEP_PARK_NANOS = 50000000;
+    private static final long RETRY_MIN_MILLIS = 100;
+    private static final long RETRY_MAX_MILLIS = 5000;
+    private static final byte[] NEWLINE = AsciiEncoder.toAscii(System.lineSeparator());
+
+    /**
+     * Told when the file can't be written, on the writer thread.
+     */
+    public interface ErrorHandler {
+        void error(String message, Exception ex);
+    }
+
+    static class Slot {
+        long timeMillis;
+        String level;
+        String category;
+        boolean binary;
+        final TagRead read = new TagRead();
+        final byte[] text = new byte[MAX_TEXT];
+        int textLength;
+    }
+
+    private final Slot[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    private final File file;
+    private final long maxFileBytes;
+    private final int maxBackups;
+    private final ByteBuffer buffer;
+    private FileChannel channel;
+    private long fileBytes;
+    private final Object rollLock = new Object();
+
+    private final Thread writer;
+    private volatile boolean running = true;
+    // set while the writer is parked for long, for producers to unpark it
+    private volatile boolean sleeping;
+    private volatile ErrorHandler errorHandler;
+    // only touched by the writer thread
+    private boolean failing;
+    private long retryMillis = RETRY_MIN_MILLIS;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private long droppedReported;
+    private volatile long written;
+    private volatile long flushes;
+    private long flushedEvents;
+
+    // only touched by the writer thread
+    private final TagReportFormatter formatter = new TagReportFormatter();
+    private final SimpleDateFormat dateFormat =
+            new SimpleDateFormat("yyyy-MM-dd HH:mm:ss,", Locale.US);
+    private long dateSecond = -1;
+    private byte[] dateBytes;
+    private String lastCategory;
+    private byte[] categoryBytes;
+
+    /**
+     * @param queueSize    events that can wait for the writer, rounded up to a
+     *                     power of two
+     * @param bufferBytes  how much is formatted before each write
+     * @param maxFileBytes when the file is rolled, 0 for never
+     * @param maxBackups   how many rolled files are kept
+     */
+    public TagReadLogWriter(File file, int queueSize, int bufferBytes,
+                            long maxFileBytes, int maxBackups) throws IOException {
+        int size = Integer.highestOneBit(Math.max(2, queueSize - 1)) << 1;
+        slots = new Slot[size];
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+            sequences.set(i, i);
+        }
+        mask = size - 1;
+
+        this.file = file;
+        this.maxFileBytes = maxFileBytes;
+        this.maxBackups = maxBackups;
+        this.buffer = ByteBuffer.allocateDirect(Math.max(bufferBytes, 2 * MAX_EVENT));
+        open();
+
+        writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeLoop();
+            }
+        }, "tag-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues a tag read, copying it. Returns false if it was dropped.
+     */
+    public boolean write(long timeMillis, String level, String category, TagRead read) {
+        long pos = claim();
+        if (pos < 0) {
+            return false;
+        }
+        Slot s = slots[(int) pos & mask];
+        s.timeMillis = timeMillis;
+        s.level = level;
+        s.category = category;
+        s.binary = true;
+        s.read.copyFrom(read);
+        publish(pos);
+        return true;
+    }
+
+    /**
+     * Queues a line of text, as ASCII. Returns false if it was dropped.
+     */
+    public boolean write(long timeMillis, String level, String category, CharSequence text) {
+        long pos = claim();
+        if (pos < 0) {
+            return false;
+        }
+        Slot s = slots[(int) pos & mask];
+        s.timeMillis = timeMillis;
+        s.level = level;
+        s.category = category;
+        s.binary = false;
+        int n = Math.min(text.length(), MAX_TEXT);
+        for (int i = 0; i < n; i++) {
+            char c = text.charAt(i);
+            s.text[i] = c < 0x80 ? (byte) c : (byte) '?';
+        }
+        s.textLength = n;
+        publish(pos);
+        return true;
+    }
+
+    /**
+     * Writes everything queued so far, then stops the writer and closes the
+     * file.
+     */
+    public void close() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join();
+    }
+
+    /**
+     * Where write failures are reported, standard out when not set.
+     */
+    public void setErrorHandler(ErrorHandler errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    public long getWritten() {
+        return written;
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getFlushes() {
+        return flushes;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public int getMaxBackups() {
+        return maxBackups;
+    }
+
+    /**
+     * Held while the backups are renamed.
+     */
+    Object rollLock() {
+        return rollLock;
+    }
+
+    /**
+     * Parses sizes the way log4j does, "10MB", "512KB", "1GB" or bytes.
+     */
+    public static long parseSize(String size) {
+        String s = size.trim().toUpperCase(Locale.US);
+        long unit = 1;
+        if (s.endsWith("KB")) {
+            unit = 1024;
+        } else if (s.endsWith("MB")) {
+            unit = 1024 * 1024;
+        } else if (s.endsWith("GB")) {
+            unit = 1024 * 1024 * 1024;
+        }
+        if (unit > 1) {
+            s = s.substring(0, s.length() - 2).trim();
+        }
+        return Long.parseLong(s) * unit;
+    }
+
+    // returns the claimed position, or -1 when the ring is full
+    private long claim() {
+        long pos = tail.get();
+        while (true) {
+            long diff = sequences.get((int) pos & mask) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    return pos;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                dropped.incrementAndGet();
+                return -1;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    private void writeLoop() {
+        while (true) {
+            try {
+                if (channel == null) {
+                    open();
+                }
+                writeEvents();
+                break;
+            } catch (IOException ex) {
+                closeChannel();
+                if (!running) {
+                    error("Tag log writer stopped with " + buffer.position()
+                            + " bytes not written to " + file, ex);
+                    break;
+                }
+                if (!failing) {
+                    failing = true;
+                    error("Could not write " + file + ", retrying", ex);
+                }
+                // the formatted events stay in the buffer for the retry
+                try {
+                    Thread.sleep(retryMillis);
+                } catch (InterruptedException ie) {
+                    break;
+                }
+                retryMillis = Math.min(retryMillis * 2, RETRY_MAX_MILLIS);
+            }
+        }
+        closeChannel();
+    }
+
+    // returns once stopped and everything queued is written
+    private void writeEvents() throws IOException {
+        int idleSpins = 0;
+        while (true) {
+            int index = (int) head & mask;
+            if (sequences.get(index) == head + 1) {
+                if (buffer.remaining() < MAX_EVENT) {
+                    flush();
+                    reportDropped();
+                }
+                encode(slots[index]);
+                sequences.lazySet(index, head + mask + 1);
+                head++;
+                written++;
+                idleSpins = 0;
+                continue;
+            }
+
+            // ran dry, write the batch; what was dropped meanwhile goes in
+            // the next one
+            if (buffer.position() > 0) {
+                flush();
+                reportDropped();
+            } else if (!running) {
+                return;
+            }
+            idleSpins = backOff(idleSpins, index);
+        }
+    }
+
+    // a volatile set rather than lazySet, so the sleeping flag read after
+    // it can't miss the writer going to sleep on the slot
+    private void publish(long pos) {
+        sequences.set((int) pos & mask, pos + 1);
+        if (sleeping) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void error(String message, Exception ex) {
+        ErrorHandler handler = errorHandler;
+        if (handler != null) {
+            handler.error(message, ex);
+        } else {
+            System.out.println(message + ": " + ex.getMessage());
+        }
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                // reopened or given up on
+            }
+            channel = null;
+        }
+    }
+
+    private void encode(Slot s) {
+        header(s.timeMillis, s.level, s.category);
+        if (s.binary) {
+            // the formatter starts its lines with a space
+            formatter.append(s.read);
+            formatter.writeTo(buffer);
+        } else {
+            buffer.put((byte) ' ');
+            buffer.put(s.text, 0, s.textLength);
+            buffer.put(NEWLINE);
+        }
+    }
+
+    private void header(long timeMillis, String level, String category) {
+        long second = timeMillis / 1000;
+        if (second != dateSecond) {
+            // a new date string at most once a second
+            dateSecond = second;
+            dateBytes = AsciiEncoder.toAscii(dateFormat.format(new Date(second * 1000)));
+        }
+        buffer.put(dateBytes);
+        long millis = timeMillis % 1000;
+        buffer.put((byte) ('0' + millis / 100));
+        buffer.put((byte) ('0' + millis / 10 % 10));
+        buffer.put((byte) ('0' + millis % 10));
+
+        buffer.put((byte) ' ');
+        buffer.put((byte) '[');
+        int n = Math.min(level.length(), 8);
+        for (int i = 0; i < n; i++) {
+            buffer.put((byte) level.charAt(i));
+        }
+        for (int i = n; i < 6; i++) {
+            buffer.put((byte) ' ');
+        }
+        buffer.put((byte) ']');
+        buffer.put((byte) ' ');
+
+        if (category != lastCategory) {
+            lastCategory = category;
+            categoryBytes = AsciiEncoder.toAscii(String.valueOf(category));
+            if (categoryBytes.length > MAX_HEADER - 48) {
+                categoryBytes = Arrays.copyOf(categoryBytes, MAX_HEADER - 48);
+            }
+        }
+        buffer.put(categoryBytes);
+        buffer.put((byte) ' ');
+        buffer.put((byte) '-');
+    }
+
+    private void reportDropped() {
+        long d = dropped.get();
+        if (d != droppedReported) {
+            header(System.currentTimeMillis(), "WARN", TagReadLogWriter.class.getName());
+            AsciiEncoder.putAscii(buffer, " Dropped ");
+            AsciiEncoder.putLong(buffer, d - droppedReported);
+            AsciiEncoder.putAscii(buffer, " events, the queue was full");
+            buffer.put(NEWLINE);
+            droppedReported = d;
+        }
+    }
+
+    private void flush() throws IOException {
+        Object flush = PipelineEvents.beginFlush();
+        if (maxFileBytes > 0 && fileBytes > 0
+                && fileBytes + buffer.position() > maxFileBytes) {
+            try {
+                roll();
+            } catch (IOException ex) {
+                // a backup held open, say; better a long file than none
+                error("Could not roll " + file + ", writing on", ex);
+                if (channel == null) {
+                    open();
+                }
+            }
+        }
+        buffer.flip();
+        int bytes = buffer.remaining();
+        try {
+            while (buffer.hasRemaining()) {
+                fileBytes += channel.write(buffer);
+            }
+        } catch (IOException ex) {
+            // keep what wasn't written for the retry
+            buffer.compact();
+            throw ex;
+        }
+        buffer.clear();
+        flushes++;
+        failing = false;
+        retryMillis = RETRY_MIN_MILLIS;
+        PipelineEvents.sinkFlush("tag log", written - flushedEvents, bytes, flush);
+        flushedEvents = written;
+    }
+
+    private void open() throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Could not create " + parent);
+        }
+        channel = new RandomAccessFile(file, "rw").getChannel();
+        fileBytes = channel.size();
+        channel.position(fileBytes);
+    }
+
+    private void roll() throws IOException {
+        closeChannel();
+        synchronized (rollLock) {
+            if (maxBackups > 0) {
+                delete(backup(maxBackups));
+                delete(compressed(maxBackups));
+                for (int i = maxBackups - 1; i >= 1; i--) {
+                    rename(backup(i), backup(i + 1));
+                    rename(compressed(i), compressed(i + 1));
+                }
+                if (!file.renameTo(backup(1))) {
+                    throw new IOException("Could not rename " + file);
+                }
+            } else if (!file.delete()) {
+                throw new IOException("Could not delete " + file);
+            }
+        }
+        open();
+    }
+
+    File backup(int i) {
+        return new File(file.getPath() + "." + i);
+    }
+
+    private File compressed(int i) {
+        return new File(backup(i).getPath() + COMPRESSED_SUFFIX);
+    }
+
+    private static void delete(File f) throws IOException {
+        if (f.exists() && !f.delete()) {
+            throw new IOException("Could not delete " + f);
+        }
+    }
+
+    private static void rename(File from, File to) throws IOException {
+        if (from.exists() && !from.renameTo(to)) {
+            throw new IOException("Could not rename " + from);
+        }
+    }
+
+    private int backOff(int idleSpins, int index) {
+        if (idleSpins < 100) {
+            Thread.yield();
+        } else if (idleSpins < 100 + IDLE_SHORT_PARKS) {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        } else {
+            sleeping = true;
+            // an event published before the flag was set is seen here,
+            // any published after it unparks the writer
+            if (sequences.get(index) != head + 1 && running) {
+                LockSupport.parkNanos(SLEEP_PARK_NANOS);
+            }
+            sleeping = false;
+        }
+        return idleSpins + 1;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.sdksamples;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * The logback version of {@link TagReadLog4jAppender}. A TagRead logged on
+ * its own with logger.debug("{}", read) is copied as is and formatted by
+ * the writer thread; any other message is formatted on the calling thread.
+ * The writer's queue is safe for any number of threads, so the appender
+ * takes no lock. Configure it in logback.xml:
+ *
+ * <pre>
+ * &lt;appender name="TAGS" class="com.example.sdksamples.TagReadLogbackAppender"&gt;
+ *     &lt;file&gt;./logback/tags.out&lt;/file&gt;
+ *     &lt;maxFileSize&gt;100MB&lt;/maxFileSize&gt;
+ *     &lt;maxBackupIndex&gt;5&lt;/maxBackupIndex&gt;
+ *     &lt;queueSize&gt;65536&lt;/queueSize&gt;
+ *     &lt;bufferSize&gt;262144&lt;/bufferSize&gt;
+ *     &lt;compress&gt;true&lt;/compress&gt;
+ * &lt;/appender&gt;
+ * </pre>
+ */
+public class TagReadLogbackAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+    private String file;
+    private long maxFileBytes = 10 * 1024 * 1024;
+    private int maxBackupIndex = 1;
+    private int queueSize = 64 * 1024;
+    private int bufferSize = 256 * 1024;
+    private boolean compress;
+    private TagReadLogWriter writer;
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public void setMaxFileSize(String size) {
+        maxFileBytes = TagReadLogWriter.parseSize(size);
+    }
+
+    public void setMaxBackupIndex(int maxBackupIndex) {
+        this.maxBackupIndex = maxBackupIndex;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Gzips rolled backups in the background with the shared
+     * {@link TagReadCompactor}.
+     */
+    public void setCompress(boolean compress) {
+        this.compress = compress;
+    }
+
+    public TagReadLogWriter getWriter() {
+        return writer;
+    }
+
+    @Override
+    public void start() {
+        if (file == null) {
+            addError("No file set for appender " + name);
+            return;
+        }
+        try {
+            writer = new TagReadLogWriter(new File(file), queueSize, bufferSize,
+                    maxFileBytes, maxBackupIndex);
+            writer.setErrorHandler(new TagReadLogWriter.ErrorHandler() {
+                @Override
+                public void error(String message, Exception ex) {
+                    addError(message, ex);
+                }
+            });
+            if (compress) {
+                TagReadCompactor.shared().addLog(writer);
+            }
+        } catch (IOException ex) {
+            addError("Could not open " + file, ex);
+            return;
+        }
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        if (compress) {
+            TagReadCompactor.shared().removeLog(writer);
+        }
+        try {
+            writer.close();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        Object[] args = event.getArgumentArray();
+        if (args != null && args.length == 1 && args[0] instanceof TagRead
+                && "{}".equals(event.getMessage())) {
+            writer.write(event.getTimeStamp(), event.getLevel().toString(),
+                    event.getLoggerName(), (TagRead) args[0]);
+        } else {
+            writer.write(event.getTimeStamp(), event.getLevel().toString(),
+                    event.getLoggerName(), event.getFormattedMessage());
+        }
+    }
+}
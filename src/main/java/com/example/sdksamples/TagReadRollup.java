@@ -0,0 +1,552 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.ImpinjReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aggregates tag reads into time buckets, a minute by default, keyed by
+ * reader, antenna and EPC, and writes each bucket to a
+ * {@link TagReadRollupFile} when it is over. A bucket keeps the read count,
+ * the minimum, maximum and average peak RSSI, the first and last seen times
+ * and the set of channels; like TagReportListenerImplementation it only
+ * uses the fields the reader reported, and a seen count counts as that many
+ * reads.
+ * <p>
+ * A read belongs to the bucket of its last seen time, its first seen time
+ * when that is all it has, or the time it was rolled up; times are the
+ * reader's clock. The current and the previous bucket are open, so reads up
+ * to a bucket late still count; older ones are dropped and counted in
+ * {@link #getLate()}. A bucket is also written once no read has come for it
+ * for a bucket's length of the local clock, checked as batches end and,
+ * after {@link #start()}, on a timer so a portal that goes quiet still gets
+ * its last buckets written; and on {@link #flush()} and {@link #close()}.
+ * <p>
+ * The main method rolls up a {@link TagReadJournal}.
+ */
+public class TagReadRollup implements TagReadConsumer, TagReadBatchSink {
+
+    public static final String SUFFIX = ".rollup";
+
+    // the aggregate of one reader, antenna and EPC; the stats of one EPC
+    // are chained
+    static class Stats {
+        final TagId epc = new TagId();
+        int readerId;
+        int antenna;
+        long count;
+        int rssiMin;
+        int rssiMax;
+        long rssiSum;
+        int rssiReads;
+        long firstSeenUs;
+        long lastSeenUs;
+        long channels;
+        Stats next;
+    }
+
+    static class Bucket {
+        final long startUs;
+        final TagIdMap<Stats> epcs = new TagIdMap<Stats>(4096);
+        int rows;
+        long lastAddMillis;
+
+        Bucket(long startUs) {
+            this.startUs = startUs;
+        }
+    }
+
+    // checks the idle buckets of all rollups
+    private static final ScheduledThreadPoolExecutor TIMER =
+            new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "tag-read-rollup");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+
+    private static final Comparator<Stats> ROW_ORDER = new Comparator<Stats>() {
+        @Override
+        public int compare(Stats a, Stats b) {
+            int c = compareEpc(a.epc, b.epc);
+            if (c != 0) {
+                return c;
+            }
+            if (a.readerId != b.readerId) {
+                return a.readerId < b.readerId ? -1 : 1;
+            }
+            return a.antenna < b.antenna ? -1 : a.antenna == b.antenna ? 0 : 1;
+        }
+    };
+
+    private final File directory;
+    private final long bucketUs;
+    private final ReaderIds readerIds = new ReaderIds();
+    private final TagId key = new TagId();
+    // channels in kHz, a row's channel set has bit i for channels[i]
+    private int[] channels = new int[TagReadRollupFile.MAX_CHANNELS];
+    private int channelCount;
+    private final List<Stats> free = new ArrayList<Stats>();
+
+    private Bucket current;
+    private Bucket previous;
+    // buckets before this have been written
+    private long writtenUpToUs = Long.MIN_VALUE;
+    private ScheduledFuture<?> idleCheck;
+
+    private long reads;
+    private long late;
+    private long files;
+    private long rows;
+
+    /**
+     * @param directory where the rollup files go, one per bucket
+     */
+    public TagReadRollup(File directory, int bucketSeconds) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        if (bucketSeconds <= 0) {
+            throw new IllegalArgumentException("bucketSeconds must be positive");
+        }
+        this.directory = directory;
+        this.bucketUs = bucketSeconds * 1000000L;
+    }
+
+    public synchronized void add(TagRead read) throws IOException {
+        long now = System.currentTimeMillis();
+        long time = TagReadJournalIndex.timeOf(read);
+        if (time == TagReadJournalIndex.NO_TIME) {
+            time = now * 1000;
+        }
+        Bucket bucket = bucketOf(time - Math.floorMod(time, bucketUs));
+        if (bucket == null) {
+            late++;
+            return;
+        }
+        bucket.lastAddMillis = now;
+        reads++;
+
+        int readerId = readerIds.idOf(read.reader);
+        int antenna = read.antennaPresent ? read.antenna : 0;
+        key.set(read.epc, read.epcWords);
+        Stats head = bucket.epcs.get(key);
+        Stats s = head;
+        while (s != null && (s.readerId != readerId || s.antenna != antenna)) {
+            s = s.next;
+        }
+        if (s == null) {
+            s = newStats(readerId, antenna, head);
+            bucket.epcs.put(key, s);
+            bucket.rows++;
+        }
+
+        s.count += read.seenCountPresent && read.seenCount > 0 ? read.seenCount : 1;
+        if (read.peakRssiPresent) {
+            int rssi = (int) Math.round(read.peakRssi * 100);
+            s.rssiMin = Math.min(s.rssiMin, rssi);
+            s.rssiMax = Math.max(s.rssiMax, rssi);
+            s.rssiSum += rssi;
+            s.rssiReads++;
+        }
+        long first = read.firstSeenPresent ? read.firstSeenUs : time;
+        s.firstSeenUs = Math.min(s.firstSeenUs, first);
+        s.lastSeenUs = Math.max(s.lastSeenUs, time);
+        if (read.channelPresent) {
+            int channel = channelIndex((int) Math.round(read.channelMhz * 1000));
+            if (channel >= 0) {
+                s.channels |= 1L << channel;
+            }
+        }
+    }
+
+    @Override
+    public void onTagRead(TagRead read, boolean endOfBatch) {
+        try {
+            add(read);
+            if (endOfBatch) {
+                flushIdle(System.currentTimeMillis());
+            }
+        } catch (IOException ex) {
+            System.out.println("Could not roll up tag read: " + ex.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void onBatch(TagReadBatch batch) {
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                add(batch.get(i));
+            }
+            flushIdle(System.currentTimeMillis());
+        } catch (IOException ex) {
+            System.out.println("Could not roll up tag batch: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Writes the buckets that have had no read for a bucket's length.
+     */
+    public synchronized void flushIdle(long nowMillis) throws IOException {
+        long idleMillis = bucketUs / 1000;
+        if (current != null && nowMillis - current.lastAddMillis >= idleMillis) {
+            // the previous bucket is older, it goes first
+            flush();
+        } else if (previous != null && nowMillis - previous.lastAddMillis >= idleMillis) {
+            write(previous);
+            previous = null;
+        }
+    }
+
+    /**
+     * Writes the open buckets, even though more reads could still come.
+     */
+    public synchronized void flush() throws IOException {
+        if (previous != null) {
+            write(previous);
+            previous = null;
+        }
+        if (current != null) {
+            write(current);
+            current = null;
+        }
+    }
+
+    /**
+     * Checks for idle buckets every tenth of a bucket, at least once a
+     * second, until close.
+     */
+    public synchronized void start() {
+        if (idleCheck != null) {
+            return;
+        }
+        long period = Math.max(1000, bucketUs / 1000 / 10);
+        idleCheck = TIMER.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    flushIdle(System.currentTimeMillis());
+                } catch (IOException ex) {
+                    System.out.println("Could not write idle rollup bucket: "
+                            + ex.getMessage());
+                }
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void close() throws IOException {
+        if (idleCheck != null) {
+            idleCheck.cancel(false);
+            idleCheck = null;
+        }
+        flush();
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public synchronized long getReads() {
+        return reads;
+    }
+
+    /**
+     * Reads dropped because their bucket had already been written.
+     */
+    public synchronized long getLate() {
+        return late;
+    }
+
+    public synchronized long getFiles() {
+        return files;
+    }
+
+    public synchronized long getRows() {
+        return rows;
+    }
+
+    /**
+     * The file of the bucket starting at the time, named by the UTC time it
+     * starts. A bucket rolled up again, after a restart, gets a -N suffix
+     * rather than replacing the file.
+     */
+    public static File file(File directory, long startUs) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        String name = "tags-" + format.format(new Date(startUs / 1000));
+        File file = new File(directory, name + SUFFIX);
+        for (int i = 1; file.exists(); i++) {
+            file = new File(directory, name + "-" + i + SUFFIX);
+        }
+        return file;
+    }
+
+    // the open bucket starting at the time, opening it if it is newer than
+    // the current one, or null if it is too old
+    private Bucket bucketOf(long startUs) throws IOException {
+        if (startUs < writtenUpToUs) {
+            return null;
+        }
+        if (current != null && startUs == current.startUs) {
+            return current;
+        }
+        if (previous != null && startUs == previous.startUs) {
+            return previous;
+        }
+        if (current != null && startUs < current.startUs) {
+            if (previous == null && startUs == current.startUs - bucketUs) {
+                // current is new, nothing came for this one yet
+                previous = new Bucket(startUs);
+                return previous;
+            }
+            return null;
+        }
+
+        if (previous != null) {
+            write(previous);
+            previous = null;
+        }
+        if (current != null) {
+            if (startUs == current.startUs + bucketUs) {
+                previous = current;
+            } else {
+                write(current);
+            }
+        }
+        current = new Bucket(startUs);
+        return current;
+    }
+
+    private Stats newStats(int readerId, int antenna, Stats next) {
+        Stats s = free.isEmpty() ? new Stats() : free.remove(free.size() - 1);
+        s.epc.set(key);
+        s.readerId = readerId;
+        s.antenna = antenna;
+        s.count = 0;
+        s.rssiMin = Integer.MAX_VALUE;
+        s.rssiMax = Integer.MIN_VALUE;
+        s.rssiSum = 0;
+        s.rssiReads = 0;
+        s.firstSeenUs = Long.MAX_VALUE;
+        s.lastSeenUs = Long.MIN_VALUE;
+        s.channels = 0;
+        s.next = next;
+        return s;
+    }
+
+    // channels past the 64th seen are left out of the channel sets
+    private int channelIndex(int khz) {
+        for (int i = 0; i < channelCount; i++) {
+            if (channels[i] == khz) {
+                return i;
+            }
+        }
+        if (channelCount == channels.length) {
+            return -1;
+        }
+        channels[channelCount] = khz;
+        return channelCount++;
+    }
+
+    private void write(Bucket bucket) throws IOException {
+        Object flush = PipelineEvents.beginFlush();
+        Stats[] table = new Stats[bucket.rows];
+        int n = 0;
+        for (Stats head : bucket.epcs.values()) {
+            for (Stats s = head; s != null; s = s.next) {
+                table[n++] = s;
+            }
+        }
+        Arrays.sort(table, ROW_ORDER);
+
+        // the dictionary is the distinct EPCs in row order
+        int[] epcIndex = new int[n];
+        int epcs = 0;
+        int epcBytes = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || compareEpc(table[i - 1].epc, table[i].epc) != 0) {
+                epcs++;
+                epcBytes += 1 + 2 * table[i].epc.getWords();
+            }
+            epcIndex[i] = epcs - 1;
+        }
+
+        int readers = readerIds.size();
+        byte[][] names = new byte[readers][];
+        int namesBytes = 0;
+        for (int r = 0; r < readers; r++) {
+            ImpinjReader reader = readerIds.readerOf(r);
+            String name = reader.getName() != null ? reader.getName() : reader.getAddress();
+            names[r] = String.valueOf(name).getBytes(StandardCharsets.UTF_8);
+            namesBytes += 2 + names[r].length;
+        }
+
+        ByteBuffer buf = ByteBuffer.allocate(TagReadRollupFile.HEADER_SIZE + namesBytes
+                + 4 * channelCount + epcBytes + n * TagReadRollupFile.ROW_SIZE);
+        buf.putInt(TagReadRollupFile.MAGIC);
+        buf.putShort(TagReadRollupFile.VERSION);
+        buf.putShort((short) TagReadRollupFile.HEADER_SIZE);
+        buf.putLong(bucket.startUs);
+        buf.putLong(bucket.startUs + bucketUs);
+        buf.putInt(n);
+        buf.putInt(readers);
+        buf.putInt(channelCount);
+        buf.putInt(epcs);
+
+        for (byte[] name : names) {
+            buf.putShort((short) name.length).put(name);
+        }
+        for (int i = 0; i < channelCount; i++) {
+            buf.putInt(channels[i]);
+        }
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || epcIndex[i] != epcIndex[i - 1]) {
+                TagId epc = table[i].epc;
+                buf.put((byte) epc.getWords());
+                for (int w = 0; w < epc.getWords(); w++) {
+                    buf.putShort(epc.getWord(w));
+                }
+            }
+        }
+
+        // one column after the other
+        for (int i = 0; i < n; i++) {
+            buf.putShort((short) table[i].readerId);
+        }
+        for (int i = 0; i < n; i++) {
+            buf.putShort((short) table[i].antenna);
+        }
+        for (int i = 0; i < n; i++) {
+            buf.putInt(epcIndex[i]);
+        }
+        for (int i = 0; i < n; i++) {
+            buf.putInt((int) Math.min(Integer.MAX_VALUE, table[i].count));
+        }
+        for (int i = 0; i < n; i++) {
+            buf.putShort(rssi(table[i], table[i].rssiMin));
+        }
+        for (int i = 0; i < n; i++) {
+            buf.putShort(rssi(table[i], table[i].rssiMax));
+        }
+        for (int i = 0; i < n; i++) {
+            Stats s = table[i];
+            buf.putShort(rssi(s, s.rssiReads == 0 ? 0
+                    : (int) Math.round((double) s.rssiSum / s.rssiReads)));
+        }
+        for (int i = 0; i < n; i++) {
+            buf.putLong(table[i].firstSeenUs);
+        }
+        for (int i = 0; i < n; i++) {
+            buf.putLong(table[i].lastSeenUs);
+        }
+        for (int i = 0; i < n; i++) {
+            buf.putLong(table[i].channels);
+        }
+        buf.flip();
+        int bytes = buf.remaining();
+
+        // written aside and renamed, so a job picking up rollup files never
+        // sees half of one
+        File target = file(directory, bucket.startUs);
+        File temp = new File(target.getPath() + ".tmp");
+        RandomAccessFile raf = new RandomAccessFile(temp, "rw");
+        try {
+            raf.setLength(0);
+            FileChannel channel = raf.getChannel();
+            while (buf.hasRemaining()) {
+                channel.write(buf);
+            }
+        } finally {
+            raf.close();
+        }
+        if (!temp.renameTo(target)) {
+            throw new IOException("Could not rename " + temp);
+        }
+
+        writtenUpToUs = Math.max(writtenUpToUs, bucket.startUs + bucketUs);
+        files++;
+        rows += n;
+        PipelineEvents.sinkFlush("rollup", n, bytes, flush);
+        for (Stats s : table) {
+            s.next = null;
+            free.add(s);
+        }
+    }
+
+    private static short rssi(Stats s, int value) {
+        return s.rssiReads == 0 ? TagReadRollupFile.NO_RSSI : (short) value;
+    }
+
+    // unsigned word by word, shorter EPCs first when one is a prefix
+    static int compareEpc(TagId a, TagId b) {
+        int n = Math.min(a.getWords(), b.getWords());
+        for (int w = 0; w < n; w++) {
+            int x = a.getWord(w) & 0xffff;
+            int y = b.getWord(w) & 0xffff;
+            if (x != y) {
+                return x < y ? -1 : 1;
+            }
+        }
+        return a.getWords() - b.getWords();
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Must pass a journal directory and a rollup directory,"
+                    + " -DbucketSeconds=N sets the bucket size");
+            return;
+        }
+        final TagReadJournalReader journal = new TagReadJournalReader(new File(args[0]));
+        final TagReadRollup rollup = new TagReadRollup(new File(args[1]),
+                Integer.getInteger("bucketSeconds", 60));
+        final List<ImpinjReader> readers = new ArrayList<ImpinjReader>();
+        final IOException[] error = new IOException[1];
+
+        long begin = System.nanoTime();
+        journal.readAll(new TagReadJournalReader.Visitor() {
+            @Override
+            public boolean onRecord(TagRead read, int readerId, long segment, int position) {
+                // stand ins carrying the recorded reader names
+                while (readerId >= readers.size()) {
+                    String name = journal.readerName(readers.size());
+                    readers.add(SyntheticReports.reader(name, null));
+                }
+                read.reader = readerId >= 0 ? readers.get(readerId) : null;
+                try {
+                    rollup.add(read);
+                    return true;
+                } catch (IOException ex) {
+                    error[0] = ex;
+                    return false;
+                }
+            }
+        });
+        rollup.close();
+        if (error[0] != null) {
+            throw error[0];
+        }
+        long millis = (System.nanoTime() - begin) / 1000000;
+        System.out.println("Rolled up " + rollup.getReads() + " reads into "
+                + rollup.getRows() + " rows in " + rollup.getFiles() + " files in "
+                + millis + " ms, " + rollup.getLate() + " late");
+    }
+}
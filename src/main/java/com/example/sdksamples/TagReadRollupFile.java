@@ -0,0 +1,251 @@
+package com.example.sdksamples;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A bucket of per reader, antenna and EPC statistics written by
+ * {@link TagReadRollup}, stored a column at a time so a job reading only
+ * counts or RSSI touches only those bytes, with the EPCs in a dictionary.
+ * Rows are sorted by EPC, reader and antenna, and so is the dictionary.
+ *
+ * <pre>
+ *  header    int magic "TRU1", short version, short header size, long
+ *            bucket start, long bucket end, int rows, int readers, int
+ *            channels, int EPCs
+ *  readers   per reader short length, UTF-8 name
+ *  channels  int kHz per channel
+ *  EPCs      per EPC byte words, the words
+ *  columns   one value per row each:
+ *            short reader, short antenna (0 when not reported),
+ *            int EPC number, int read count,
+ *            short min, max and average peak RSSI in hundredths of a dBm
+ *            (-32768 when not reported),
+ *            long first seen, long last seen (UTC microseconds),
+ *            long channel set, bit i for the i-th channel
+ * </pre>
+ *
+ * The file is mapped, nothing is copied until asked for. Not thread safe.
+ */
+public class TagReadRollupFile {
+
+    static final int MAGIC = 0x54525531; // "TRU1"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 40;
+    static final int ROW_SIZE = 42;
+    static final short NO_RSSI = Short.MIN_VALUE;
+    static final int MAX_CHANNELS = 64;
+
+    private final MappedByteBuffer buf;
+    private final int rows;
+    private final String[] readers;
+    private final int[] channels;
+    private final int[] epcOffsets;
+    private final short[] words = new short[TagRead.MAX_WORDS];
+
+    // column starts
+    private final int readerColumn;
+    private final int antennaColumn;
+    private final int epcColumn;
+    private final int countColumn;
+    private final int rssiMinColumn;
+    private final int rssiMaxColumn;
+    private final int rssiAvgColumn;
+    private final int firstSeenColumn;
+    private final int lastSeenColumn;
+    private final int channelColumn;
+
+    public static TagReadRollupFile open(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            MappedByteBuffer buf = raf.getChannel().map(
+                    FileChannel.MapMode.READ_ONLY, 0, raf.length());
+            if (buf.limit() < HEADER_SIZE || buf.getInt(0) != MAGIC) {
+                throw new IOException("Not a rollup file: " + file);
+            }
+            return new TagReadRollupFile(buf);
+        } finally {
+            // the mapping stays valid after the file is closed
+            raf.close();
+        }
+    }
+
+    private TagReadRollupFile(MappedByteBuffer buf) {
+        this.buf = buf;
+        rows = buf.getInt(24);
+        readers = new String[buf.getInt(28)];
+        channels = new int[buf.getInt(32)];
+        epcOffsets = new int[buf.getInt(36)];
+
+        int at = buf.getShort(6);
+        for (int r = 0; r < readers.length; r++) {
+            byte[] name = new byte[buf.getShort(at) & 0xffff];
+            buf.position(at + 2);
+            buf.get(name);
+            readers[r] = new String(name, StandardCharsets.UTF_8);
+            at += 2 + name.length;
+        }
+        for (int c = 0; c < channels.length; c++) {
+            channels[c] = buf.getInt(at);
+            at += 4;
+        }
+        for (int e = 0; e < epcOffsets.length; e++) {
+            epcOffsets[e] = at;
+            at += 1 + 2 * (buf.get(at) & 0xff);
+        }
+
+        readerColumn = at;
+        antennaColumn = readerColumn + 2 * rows;
+        epcColumn = antennaColumn + 2 * rows;
+        countColumn = epcColumn + 4 * rows;
+        rssiMinColumn = countColumn + 4 * rows;
+        rssiMaxColumn = rssiMinColumn + 2 * rows;
+        rssiAvgColumn = rssiMaxColumn + 2 * rows;
+        firstSeenColumn = rssiAvgColumn + 2 * rows;
+        lastSeenColumn = firstSeenColumn + 8 * rows;
+        channelColumn = lastSeenColumn + 8 * rows;
+    }
+
+    public long getStartUs() {
+        return buf.getLong(8);
+    }
+
+    public long getEndUs() {
+        return buf.getLong(16);
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getEpcs() {
+        return epcOffsets.length;
+    }
+
+    /**
+     * The reader name or address, null for reads without a reader.
+     */
+    public String reader(int row) {
+        int id = buf.getShort(readerColumn + 2 * row);
+        return id >= 0 && id < readers.length ? readers[id] : null;
+    }
+
+    public int antenna(int row) {
+        return buf.getShort(antennaColumn + 2 * row);
+    }
+
+    /**
+     * The row's number in the EPC dictionary.
+     */
+    public int epcNumber(int row) {
+        return buf.getInt(epcColumn + 4 * row);
+    }
+
+    /**
+     * Fills id with the EPC of a dictionary number.
+     */
+    public TagId epc(int number, TagId id) {
+        int at = epcOffsets[number];
+        int n = Math.min(buf.get(at) & 0xff, words.length);
+        for (int i = 0; i < n; i++) {
+            words[i] = buf.getShort(at + 1 + 2 * i);
+        }
+        return id.set(words, n);
+    }
+
+    public int count(int row) {
+        return buf.getInt(countColumn + 4 * row);
+    }
+
+    /**
+     * Peak RSSI in dBm, NaN when no read reported it.
+     */
+    public double rssiMin(int row) {
+        return rssi(rssiMinColumn, row);
+    }
+
+    public double rssiMax(int row) {
+        return rssi(rssiMaxColumn, row);
+    }
+
+    public double rssiAvg(int row) {
+        return rssi(rssiAvgColumn, row);
+    }
+
+    public long firstSeenUs(int row) {
+        return buf.getLong(firstSeenColumn + 8 * row);
+    }
+
+    public long lastSeenUs(int row) {
+        return buf.getLong(lastSeenColumn + 8 * row);
+    }
+
+    /**
+     * The channels the row was read on, in MHz.
+     */
+    public double[] channelsMhz(int row) {
+        long set = buf.getLong(channelColumn + 8 * row);
+        double[] mhz = new double[Long.bitCount(set)];
+        int n = 0;
+        for (int c = 0; c < channels.length; c++) {
+            if ((set & (1L << c)) != 0) {
+                mhz[n++] = channels[c] / 1000.0;
+            }
+        }
+        return mhz;
+    }
+
+    private double rssi(int column, int row) {
+        short value = buf.getShort(column + 2 * row);
+        return value == NO_RSSI ? Double.NaN : value / 100.0;
+    }
+
+    /**
+     * Prints the rows as CSV, the channels separated by spaces.
+     */
+    public void print(PrintStream out) {
+        out.println("reader,antenna,epc,count,rssi_min,rssi_max,rssi_avg,"
+                + "first_seen_us,last_seen_us,channels_mhz");
+        TagId id = new TagId();
+        StringBuilder sb = new StringBuilder();
+        for (int row = 0; row < rows; row++) {
+            sb.setLength(0);
+            String reader = reader(row);
+            if (reader != null && (reader.indexOf(',') >= 0 || reader.indexOf('"') >= 0)) {
+                reader = '"' + reader.replace("\"", "\"\"") + '"';
+            }
+            sb.append(reader).append(',').append(antenna(row)).append(',')
+                    .append(epc(epcNumber(row), id)).append(',').append(count(row));
+            appendRssi(sb, rssiMin(row));
+            appendRssi(sb, rssiMax(row));
+            appendRssi(sb, rssiAvg(row));
+            sb.append(',').append(firstSeenUs(row)).append(',').append(lastSeenUs(row))
+                    .append(',');
+            double[] mhz = channelsMhz(row);
+            for (int c = 0; c < mhz.length; c++) {
+                sb.append(c == 0 ? "" : " ").append(mhz[c]);
+            }
+            out.println(sb);
+        }
+    }
+
+    private static void appendRssi(StringBuilder sb, double rssi) {
+        sb.append(',');
+        if (!Double.isNaN(rssi)) {
+            sb.append(rssi);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Must pass a rollup file");
+            return;
+        }
+        open(new File(args[0])).print(System.out);
+    }
+}
@@ -0,0 +1,408 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.ImpinjReader;
+import com.impinj.octane.Tag;
+import com.impinj.octane.TagReport;
+import com.impinj.octane.TagReportListener;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A TagReportListener that copies each tag into a preallocated slot of a
+ * bounded ring and returns straight away, so the SDK callback thread never
+ * waits on console or disk I/O. Consumer threads drain the ring and hand
+ * each read to a {@link TagReadConsumer}.
+ * <p>
+ * The ring is a bounded multi-producer multi-consumer queue: every slot has
+ * a sequence number telling producers and consumers whose turn it is, so
+ * several readers can share one dispatcher without locks. With more than
+ * one consumer thread reads are no longer delivered in order and the
+ * consumer has to be thread safe.
+ * <p>
+ * The dispatcher is also a TagReadConsumer, so it can sit behind another
+ * stage that already copied the tags.
+ */
+public class TagReportDispatcher implements TagReportListener,
+        TagReadConsumer {
+
+    public enum OverflowPolicy {
+        // discard the oldest queued read to make room for the new one
+        DROP_OLDEST,
+        // make the callback thread wait for room, pushing back on the reader
+        BLOCK,
+        // append reads that don't fit to a file, consumers read them back
+        // once the ring is empty; later reads follow them into the file
+        // until it has been read back, so reads stay in order
+        SPILL_TO_DISK
+    }
+
+    private static final long IDLE_PARK_NANOS = 100000;
+
+    private final TagRead[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    private final OverflowPolicy policy;
+    private final TagReadConsumer consumer;
+    private final Thread[] consumers;
+    private volatile boolean running;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+    private final SpillFile spill;
+
+    public TagReportDispatcher(int capacity, int consumerThreads,
+                               OverflowPolicy policy, TagReadConsumer consumer) {
+        this(capacity, consumerThreads, policy, consumer, null);
+    }
+
+    /**
+     * @param capacity  number of slots, rounded up to a power of two
+     * @param spillFile where SPILL_TO_DISK writes overflow, a temporary file
+     *                  is used when null
+     */
+    public TagReportDispatcher(int capacity, int consumerThreads,
+                               OverflowPolicy policy, TagReadConsumer consumer,
+                               File spillFile) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        slots = new TagRead[size];
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            slots[i] = new TagRead();
+            sequences.set(i, i);
+        }
+        mask = size - 1;
+
+        this.policy = policy;
+        this.consumer = consumer;
+        this.consumers = new Thread[Math.max(1, consumerThreads)];
+
+        if (policy == OverflowPolicy.SPILL_TO_DISK) {
+            try {
+                spill = new SpillFile(spillFile);
+            } catch (IOException ex) {
+                throw new IllegalStateException(
+                        "Could not open spill file: " + ex.getMessage(), ex);
+            }
+        } else {
+            spill = null;
+        }
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < consumers.length; i++) {
+            consumers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    drain();
+                }
+            }, "tag-dispatcher-" + i);
+            consumers[i].setDaemon(true);
+            consumers[i].start();
+        }
+    }
+
+    /**
+     * Stops the consumer threads after everything queued so far has been
+     * delivered.
+     */
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        for (Thread t : consumers) {
+            if (t != null) {
+                t.join();
+            }
+        }
+        if (spill != null) {
+            spill.close();
+        }
+    }
+
+    @Override
+    public void onTagReported(ImpinjReader reader, TagReport report) {
+        // behind a reader's event loop, from when the report was queued
+        long now = ReaderEventLoop.arrivalNanos(System.nanoTime());
+        Object event = PipelineEvents.beginReport();
+        Object handOff = PipelineEvents.beginStage();
+        List<Tag> tags = report.getTags();
+
+        for (int i = 0; i < tags.size(); i++) {
+            publish(reader, tags.get(i), now);
+        }
+        PipelineEvents.stage(PipelineEvents.HAND_OFF, reader, tags.size(), handOff);
+        PipelineEvents.reportReceived(PipelineEvents.TAG_REPORT, reader, tags.size(), event);
+    }
+
+    @Override
+    public void onTagRead(TagRead read, boolean endOfBatch) {
+        long pos = spilling() ? -1 : claim();
+        if (pos < 0) {
+            spill.append(read);
+            spilled.incrementAndGet();
+            return;
+        }
+        int index = (int) pos & mask;
+        slots[index].copyFrom(read);
+        sequences.lazySet(index, pos + 1);
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getSpilled() {
+        return spilled.get();
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    private void publish(ImpinjReader reader, Tag tag, long arrivalNanos) {
+        long pos = spilling() ? -1 : claim();
+        if (pos < 0) {
+            spill.append(reader, tag);
+            spilled.incrementAndGet();
+            return;
+        }
+        int index = (int) pos & mask;
+        slots[index].copyFrom(reader, tag, arrivalNanos);
+        sequences.lazySet(index, pos + 1);
+    }
+
+    /**
+     * Whether reads have spilled that aren't read back yet. Later reads
+     * go to the spill file behind them rather than into the ring, where
+     * they would be delivered first.
+     */
+    private boolean spilling() {
+        return spill != null && !spill.isEmpty();
+    }
+
+    /**
+     * Claims the next slot for a producer and returns its position, or -1
+     * when the ring is full and the read has to be spilled. The producer
+     * fills the slot and then publishes it by advancing its sequence.
+     */
+    private long claim() {
+        long pos = tail.get();
+        int idleSpins = 0;
+
+        while (true) {
+            int index = (int) pos & mask;
+            long diff = sequences.get(index) - pos;
+
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    return pos;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                // the ring is full
+                switch (policy) {
+                    case DROP_OLDEST:
+                        if (discardOldest()) {
+                            dropped.incrementAndGet();
+                        }
+                        break;
+                    case SPILL_TO_DISK:
+                        return -1;
+                    default:
+                        idleSpins = backOff(idleSpins);
+                        break;
+                }
+                pos = tail.get();
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    // claims the slot at the head without copying it out
+    private boolean discardOldest() {
+        long pos = head.get();
+        int index = (int) pos & mask;
+        if (sequences.get(index) == pos + 1 && head.compareAndSet(pos, pos + 1)) {
+            sequences.lazySet(index, pos + mask + 1);
+            return true;
+        }
+        return false;
+    }
+
+    private void drain() {
+        TagRead read = new TagRead();
+        int idleSpins = 0;
+
+        while (true) {
+            if (poll(read)) {
+                idleSpins = 0;
+                deliver(read, !hasNext() && (spill == null || spill.isEmpty()));
+            } else if (spill != null && spill.poll(read)) {
+                idleSpins = 0;
+                deliver(read, spill.isEmpty());
+            } else if (!running) {
+                return;
+            } else {
+                idleSpins = backOff(idleSpins);
+            }
+        }
+    }
+
+    private void deliver(TagRead read, boolean endOfBatch) {
+        try {
+            consumer.onTagRead(read, endOfBatch);
+        } catch (RuntimeException ex) {
+            // a failing consumer must not kill the dispatcher thread
+            System.out.println("Tag consumer failed: " + ex.toString());
+        }
+    }
+
+    private boolean poll(TagRead into) {
+        long pos = head.get();
+
+        while (true) {
+            int index = (int) pos & mask;
+            long diff = sequences.get(index) - (pos + 1);
+
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    into.copyFrom(slots[index]);
+                    sequences.lazySet(index, pos + mask + 1);
+                    return true;
+                }
+                pos = head.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = head.get();
+            }
+        }
+    }
+
+    private boolean hasNext() {
+        long pos = head.get();
+        return sequences.get((int) pos & mask) == pos + 1;
+    }
+
+    private static int backOff(int idleSpins) {
+        if (idleSpins < 100) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+        return idleSpins + 1;
+    }
+
+    /**
+     * Overflow storage for SPILL_TO_DISK. Records are appended with
+     * {@link TagReadCodec} and read back in the order they were written;
+     * the file is truncated whenever the reader catches up.
+     */
+    private static class SpillFile {
+        private final File file;
+        private final RandomAccessFile raf;
+        private final FileChannel channel;
+        private final ReaderIds readerIds = new ReaderIds();
+        private final ByteBuffer writeBuffer =
+                ByteBuffer.allocate(TagReadCodec.MAX_SIZE);
+        private final ByteBuffer readBuffer =
+                ByteBuffer.allocate(TagReadCodec.MAX_SIZE);
+        private final TagRead scratch = new TagRead();
+        private long writePosition;
+        private long readPosition;
+
+        SpillFile(File file) throws IOException {
+            if (file == null) {
+                file = File.createTempFile("tag-spill", ".bin");
+                file.deleteOnExit();
+            }
+            this.file = file;
+            this.raf = new RandomAccessFile(file, "rw");
+            this.channel = raf.getChannel();
+            channel.truncate(0);
+        }
+
+        synchronized boolean isEmpty() {
+            return readPosition == writePosition;
+        }
+
+        synchronized void append(ImpinjReader reader, Tag tag) {
+            scratch.copyFrom(reader, tag);
+            append(scratch);
+        }
+
+        synchronized void append(TagRead read) {
+            writeBuffer.clear();
+            TagReadCodec.encode(read, readerIds.idOf(read.reader), writeBuffer);
+            writeBuffer.flip();
+            try {
+                while (writeBuffer.hasRemaining()) {
+                    writePosition += channel.write(writeBuffer, writePosition);
+                }
+            } catch (IOException ex) {
+                System.out.println("Could not spill tag to " + file + ": "
+                        + ex.getMessage());
+            }
+        }
+
+        synchronized boolean poll(TagRead into) {
+            if (readPosition == writePosition) {
+                return false;
+            }
+            try {
+                readBuffer.clear();
+                readBuffer.limit((int) Math.min(readBuffer.capacity(),
+                        writePosition - readPosition));
+                while (readBuffer.hasRemaining()) {
+                    if (channel.read(readBuffer,
+                            readPosition + readBuffer.position()) < 0) {
+                        throw new EOFException("spill file truncated");
+                    }
+                }
+                readBuffer.flip();
+                int readerId = TagReadCodec.decode(readBuffer, into);
+                into.reader = readerIds.readerOf(readerId);
+                readPosition += readBuffer.position();
+
+                if (readPosition == writePosition) {
+                    channel.truncate(0);
+                    readPosition = 0;
+                    writePosition = 0;
+                }
+                return true;
+            } catch (IOException ex) {
+                System.out.println("Could not read spilled tags from " + file
+                        + ": " + ex.getMessage());
+                readPosition = writePosition;
+                return false;
+            }
+        }
+
+        synchronized void close() {
+            try {
+                raf.close();
+            } catch (IOException ex) {
+                System.out.println(ex.getMessage());
+            }
+        }
+    }
+}
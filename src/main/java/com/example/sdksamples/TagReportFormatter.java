@@ -0,0 +1,228 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.ImpinjReader;
+import com.impinj.octane.Tag;
+import com.impinj.octane.TagModelName;
+import com.impinj.octane.TagReport;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.List;
+
+/**
+ * Encodes tag reports into a preallocated byte buffer using the same field
+ * layout as the original System.out.print based listener, so a whole report
+ * can be written with a single call. Formatters are not thread safe, use
+ * {@link #forCurrentThread()} to get the one owned by the calling thread.
+ */
+public class TagReportFormatter {
+
+    private static final ThreadLocal<TagReportFormatter> FORMATTERS =
+            new ThreadLocal<TagReportFormatter>() {
+                @Override
+                protected TagReportFormatter initialValue() {
+                    return new TagReportFormatter();
+                }
+            };
+
+    private static final byte[] EPC = AsciiEncoder.toAscii(" EPC: ");
+    private static final byte[] READER_NAME = AsciiEncoder.toAscii(" Reader_name: ");
+    private static final byte[] READER_IP = AsciiEncoder.toAscii(" Reader_ip: ");
+    private static final byte[] ANTENNA = AsciiEncoder.toAscii(" antenna: ");
+    private static final byte[] FIRST = AsciiEncoder.toAscii(" first: ");
+    private static final byte[] LAST = AsciiEncoder.toAscii(" last: ");
+    private static final byte[] COUNT = AsciiEncoder.toAscii(" count: ");
+    private static final byte[] DOPPLER = AsciiEncoder.toAscii(" doppler: ");
+    private static final byte[] PEAK_RSSI = AsciiEncoder.toAscii(" peak_rssi: ");
+    private static final byte[] CHANNEL = AsciiEncoder.toAscii(" chan_MHz: ");
+    private static final byte[] FAST_ID = AsciiEncoder.toAscii("\n     fast_id: ");
+    private static final byte[] MODEL = AsciiEncoder.toAscii(" model: ");
+    private static final byte[] EPC_SIZE = AsciiEncoder.toAscii(" epcsize: ");
+    private static final byte[] USER_MEM_SIZE = AsciiEncoder.toAscii(" usermemsize: ");
+    private static final byte[] NO_LABEL = new byte[0];
+    private static final byte[] NULL_MODEL = AsciiEncoder.toAscii("null");
+    private static final byte[] NEWLINE = AsciiEncoder.toAscii(System.lineSeparator());
+
+    // enough for every label, two full size word lists and all the numbers
+    private static final int MAX_LINE_WITHOUT_NAMES = 1024;
+
+    private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+    private final TagRead scratch = new TagRead();
+
+    // the reader label only changes when the reader or its name changes
+    private ImpinjReader labelReader;
+    private String labelName;
+    private String labelAddress;
+    private byte[] readerLabel;
+
+    private final EnumMap<TagModelName, byte[]> modelNames =
+            new EnumMap<TagModelName, byte[]>(TagModelName.class);
+
+    public static TagReportFormatter forCurrentThread() {
+        return FORMATTERS.get();
+    }
+
+    /**
+     * Appends one line per tag in the report.
+     */
+    public void append(ImpinjReader reader, TagReport report) {
+        List<Tag> tags = report.getTags();
+
+        for (int i = 0; i < tags.size(); i++) {
+            scratch.copyFrom(reader, tags.get(i));
+            append(scratch);
+        }
+    }
+
+    public void append(TagRead t) {
+        byte[] label = readerLabel(t.reader);
+        byte[] model = t.fastIdPresent ? modelName(t.modelName) : null;
+        ensureCapacity(MAX_LINE_WITHOUT_NAMES + label.length
+                + (model != null ? model.length : 0));
+
+        ByteBuffer b = buffer;
+
+        b.put(EPC);
+        AsciiEncoder.putHexWords(b, t.epc, t.epcWords);
+
+        b.put(label);
+
+        if (t.antennaPresent) {
+            b.put(ANTENNA);
+            AsciiEncoder.putLong(b, t.antenna);
+        }
+
+        if (t.firstSeenPresent) {
+            b.put(FIRST);
+            AsciiEncoder.putLong(b, t.firstSeenUs);
+        }
+
+        if (t.lastSeenPresent) {
+            b.put(LAST);
+            AsciiEncoder.putLong(b, t.lastSeenUs);
+        }
+
+        if (t.seenCountPresent) {
+            b.put(COUNT);
+            AsciiEncoder.putLong(b, t.seenCount);
+        }
+
+        if (t.dopplerPresent) {
+            b.put(DOPPLER);
+            AsciiEncoder.putDouble(b, t.doppler);
+        }
+
+        if (t.peakRssiPresent) {
+            b.put(PEAK_RSSI);
+            AsciiEncoder.putDouble(b, t.peakRssi);
+        }
+
+        if (t.channelPresent) {
+            b.put(CHANNEL);
+            AsciiEncoder.putDouble(b, t.channelMhz);
+        }
+
+        if (t.fastIdPresent) {
+            b.put(FAST_ID);
+            AsciiEncoder.putHex(b, t.tid, t.tidWords);
+
+            b.put(MODEL);
+            b.put(model);
+
+            b.put(EPC_SIZE);
+            AsciiEncoder.putLong(b, t.epcSizeBits);
+
+            b.put(USER_MEM_SIZE);
+            AsciiEncoder.putLong(b, t.userMemorySizeBits);
+        }
+
+        b.put(NEWLINE);
+    }
+
+    public int size() {
+        return buffer.position();
+    }
+
+    public void reset() {
+        buffer.clear();
+    }
+
+    /**
+     * Writes everything appended since the last reset with one call and
+     * resets the formatter.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        try {
+            out.write(buffer.array(), 0, buffer.position());
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Copies everything appended since the last reset into the buffer, which
+     * must have room for {@link #size()} bytes, and resets the formatter.
+     */
+    public void writeTo(ByteBuffer out) {
+        buffer.flip();
+        try {
+            out.put(buffer);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    private byte[] readerLabel(ImpinjReader reader) {
+        if (reader == null) {
+            return NO_LABEL;
+        }
+        String name = reader.getName();
+        String address = name == null ? reader.getAddress() : null;
+
+        if (reader != labelReader || name != labelName
+                || address != labelAddress) {
+            labelReader = reader;
+            labelName = name;
+            labelAddress = address;
+            if (name != null) {
+                readerLabel = concat(READER_NAME, AsciiEncoder.toAscii(name));
+            } else {
+                readerLabel = concat(READER_IP,
+                        AsciiEncoder.toAscii(String.valueOf(address)));
+            }
+        }
+        return readerLabel;
+    }
+
+    private byte[] modelName(TagModelName model) {
+        if (model == null) {
+            return NULL_MODEL;
+        }
+        byte[] bytes = modelNames.get(model);
+        if (bytes == null) {
+            bytes = AsciiEncoder.toAscii(model.toString());
+            modelNames.put(model, bytes);
+        }
+        return bytes;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (buffer.remaining() < needed) {
+            int size = Math.max(buffer.capacity() * 2,
+                    buffer.position() + needed);
+            ByteBuffer bigger = ByteBuffer.allocate(size);
+            buffer.flip();
+            bigger.put(buffer);
+            buffer = bigger;
+        }
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] c = new byte[a.length + b.length];
+        System.arraycopy(a, 0, c, 0, a.length);
+        System.arraycopy(b, 0, c, a.length, b.length);
+        return c;
+    }
+}
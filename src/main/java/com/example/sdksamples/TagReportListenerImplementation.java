@@ -5,65 +5,35 @@ import com.impinj.octane.Tag;
 import com.impinj.octane.TagReport;
 import com.impinj.octane.TagReportListener;
 
+import java.io.IOException;
 import java.util.List;
 
 public class TagReportListenerImplementation implements TagReportListener {
 
     @Override
     public void onTagReported(ImpinjReader reader, TagReport report) {
+        Object event = PipelineEvents.beginReport();
+        ReaderMetrics metrics = ReaderMetrics.of(reader);
         List<Tag> tags = report.getTags();
+        for (int i = 0; i < tags.size(); i++) {
+            Tag t = tags.get(i);
+            metrics.tagRead(t.isAntennaPortNumberPresent() ? t.getAntennaPortNumber() : -1);
+        }
 
-        for (Tag t : tags) {
-            System.out.print(" EPC: " + t.getEpc().toString());
-
-            if (reader.getName() != null) {
-                System.out.print(" Reader_name: " + reader.getName());
-            } else {
-                System.out.print(" Reader_ip: " + reader.getAddress());
-            }
-
-            if (t.isAntennaPortNumberPresent()) {
-                System.out.print(" antenna: " + t.getAntennaPortNumber());
-            }
-
-            if (t.isFirstSeenTimePresent()) {
-                System.out.print(" first: " + t.getFirstSeenTime().ToString());
-            }
-
-            if (t.isLastSeenTimePresent()) {
-                System.out.print(" last: " + t.getLastSeenTime().ToString());
-            }
-
-            if (t.isSeenCountPresent()) {
-                System.out.print(" count: " + t.getTagSeenCount());
-            }
-
-            if (t.isRfDopplerFrequencyPresent()) {
-                System.out.print(" doppler: " + t.getRfDopplerFrequency());
-            }
-
-            if (t.isPeakRssiInDbmPresent()) {
-                System.out.print(" peak_rssi: " + t.getPeakRssiInDbm());
-            }
-
-            if (t.isChannelInMhzPresent()) {
-                System.out.print(" chan_MHz: " + t.getChannelInMhz());
-            }
-
-            if (t.isFastIdPresent()) {
-                System.out.print("\n     fast_id: " + t.getTid().toHexString());
-
-                System.out.print(" model: " +
-                        t.getModelDetails().getModelName());
-
-                System.out.print(" epcsize: " +
-                        t.getModelDetails().getEpcSizeBits());
-
-                System.out.print(" usermemsize: " +
-                        t.getModelDetails().getUserMemorySizeBits());
-            }
-
-            System.out.println("");
+        // encode the whole report into this thread's buffer and print it
+        // with one write instead of a dozen print calls per tag
+        TagReportFormatter formatter = TagReportFormatter.forCurrentThread();
+        Object stage = PipelineEvents.beginStage();
+        formatter.append(reader, report);
+        PipelineEvents.stage(PipelineEvents.FORMAT, reader, tags.size(), stage);
+
+        stage = PipelineEvents.beginStage();
+        try {
+            formatter.writeTo(System.out);
+        } catch (IOException ex) {
+            System.out.println("Failed to print tag report: " + ex.getMessage());
         }
+        PipelineEvents.stage(PipelineEvents.PRINT, reader, tags.size(), stage);
+        PipelineEvents.reportReceived(PipelineEvents.TAG_REPORT, reader, tags.size(), event);
     }
 }
@@ -19,11 +19,11 @@ public class TxPowerRamp {
             System.out.println("Connecting to " + hostname);
             reader.connect(hostname);
 
-            // get the features
-            FeatureSet features = reader.queryFeatureSet();
-
-            // Get the default settings
-            Settings settings = reader.queryDefaultSettings();
+            // get the features and default settings, from the cache when
+            // this reader has been seen before, see -DreaderCacheDir
+            ReaderInfoCache.Entry info = ReaderInfoCache.sharedEntry(reader, hostname);
+            ReaderFeatures features = info.getFeatures();
+            Settings settings = info.getDefaultSettings();
 
             // send a tag report for every tag read
             settings.getReport().setMode(ReportMode.Individual);
@@ -38,12 +38,16 @@ public class TxPowerRamp {
             // connect a listener
             reader.setTagReportListener(new TagReportListenerImplementation());
 
-            for (TxPowerTableEntry t : features.getTxPowers()) {
-                System.out.println("Setting power to " + t.Dbm);
+            // applies only settings that differ from the last ones, the
+            // table may list a value twice
+            SettingsManager manager = SettingsManager.of(reader);
+
+            for (double dbm : features.getTxPowersDbm()) {
+                System.out.println("Setting power to " + dbm);
                 ac.getAntenna((short) 1).setIsMaxTxPower(false);
-                ac.getAntenna((short) 1).setTxPowerinDbm(t.Dbm);
+                ac.getAntenna((short) 1).setTxPowerinDbm(dbm);
                 // Apply the new settings
-                reader.applySettings(settings);
+                manager.apply(settings);
 
                 // Start the reader
                 reader.start();
@@ -56,6 +60,9 @@ public class TxPowerRamp {
                 reader.stop();
             }
 
+            System.out.println("Applied settings " + manager.getApplies()
+                    + " times, skipped " + manager.getSkips() + " unchanged");
+
             System.out.println("Disconnecting from " + hostname);
             reader.disconnect();
 
@@ -20,9 +20,18 @@ public class XArrayLocationMulti {
             new XArray("xarray-XX-XX-XX", (short) 300, 0, 400, (short) 0, 3)};
     // Use dictionaries to store Confidence, WeightedX and WeightedY and Cycle Lengths.
     HashMap<String, Integer> cycleLengths = new HashMap<String, Integer>();
-    HashMap<String, TagReadInfo> tagReadInfos = new HashMap<String, TagReadInfo>();
+    TagIdMap<TagReadInfo> tagReadInfos = new TagIdMap<TagReadInfo>();
 
     public XArrayLocationMulti() {
+        this(true);
+    }
+
+    // launch is false when the listeners are driven directly, as the
+    // benchmarks do, instead of by connected xArrays
+    XArrayLocationMulti(boolean launch) {
+        if (!launch) {
+            return;
+        }
         ImpinjReader[] readers = new ImpinjReader[xArrays.length];
         for (int i = 0; i < readers.length; i++) {
             readers[i] = new ImpinjReader();
@@ -142,35 +151,41 @@ public class XArrayLocationMulti {
     }
 
     class LocationReportListenerImplementation implements LocationReportListener {
+        // Refilled for every report, the EPC String is only built for printing
+        final TagId epc = new TagId();
+
         public void onLocationReported(ImpinjReader reader, LocationReport report) {
-            String EpcStr = report.getEpc().toHexString();
+            Object event = PipelineEvents.beginReport();
+            epc.set(report.getEpc());
 
             // Compute confidence. Make sure that the first cycle report came in before computing the Weighted averages.
             if (!cycleLengths.containsKey(reader.getAddress()) || cycleLengths.get(reader.getAddress()) == 0)
                 return;
+            Object fusion = PipelineEvents.beginStage();
 
             // If first time
-            if (!tagReadInfos.containsKey(EpcStr))
-                tagReadInfos.put(EpcStr, new TagReadInfo());
+            TagReadInfo tagReadInfo = tagReadInfos.get(epc);
+            if (tagReadInfo == null) {
+                tagReadInfo = new TagReadInfo();
+                tagReadInfos.put(epc, tagReadInfo);
+            }
 
             double mult = Math.floor(((double) COMPUTE_WINDOW_SEC * 1000000)/ cycleLengths.get(reader.getAddress()));
             if (mult == 0) mult = 1;
             double confidence = report.getConfidenceFactors().getReadCount() / mult;
-            System.out.println(reader.getAddress() + "  " + EpcStr + " x=" + report.getLocationXCm() + " y=" + report.getLocationYCm() + " conf=" + confidence);
+            System.out.println(reader.getAddress() + "  " + report.getEpc().toHexString() + " x=" + report.getLocationXCm() + " y=" + report.getLocationYCm() + " conf=" + confidence);
             // Weighted X
             double wgtX = confidence * report.getLocationXCm();
             double wgtY = confidence * report.getLocationYCm();
             // Sum the weighted averages
-            TagReadInfo tagReadInfo = tagReadInfos.get(EpcStr);
             tagReadInfo.setWeightedX(tagReadInfo.getWeightedX() + wgtX);
             tagReadInfo.setWeightedY(tagReadInfo.getWeightedY() + wgtY);
             tagReadInfo.setConfidence(tagReadInfo.getConfidence() + confidence);
-            tagReadInfos.put(EpcStr, tagReadInfo);
 
             // Pick a reader to key off the Averaging calculation
             // Let's use the last one.
             if (reader.getAddress().equals(xArrays[xArrays.length - 1].Hostname)) {
-                System.out.print("Weighted: " + EpcStr);
+                System.out.print("Weighted: " + report.getEpc().toHexString());
                 if (tagReadInfo.getConfidence() != 0) {
                     System.out.print(" x=" + Math.floor(tagReadInfo.getWeightedX() / tagReadInfo.getConfidence()));
                     System.out.println(" y=" + Math.floor(tagReadInfo.getWeightedY() / tagReadInfo.getConfidence()));
@@ -178,8 +193,10 @@ public class XArrayLocationMulti {
                     System.out.println("Invalid Read. Confidence is 0");
                 }
                 // Reinitialize variables
-                tagReadInfos.put(EpcStr, new TagReadInfo());
+                tagReadInfo.initialize();
             }
+            PipelineEvents.stage(PipelineEvents.LOCATION_FUSION, reader, 1, fusion);
+            PipelineEvents.reportReceived(PipelineEvents.LOCATION_REPORT, reader, 1, event);
         }
     }
 
@@ -2,7 +2,6 @@ package com.example.sdksamples;
 
 import com.impinj.octane.*;
 
-import java.util.HashMap;
 import java.util.List;
 
 public class XArrayLocationWam {
@@ -36,8 +35,9 @@ public class XArrayLocationWam {
     // MR6 has long decay time so wait at least 2 minutes
     // Your tags may vary
     // Collect tags read and their counts per inventory round
-    HashMap<String, Tag> WamTags = new HashMap<String, Tag>();
-    HashMap<String, LocationReport> LocTags = new HashMap<String, LocationReport>();
+    // Keyed on the EPC's primitive TagId so no String is built per read
+    TagIdMap<Tag> WamTags = new TagIdMap<Tag>();
+    TagIdMap<LocationReport> LocTags = new TagIdMap<LocationReport>();
 
     public XArrayLocationWam() {
         try {
@@ -201,20 +201,24 @@ public class XArrayLocationWam {
     }
 
     public class LocationReportListenerImplementation implements LocationReportListener {
+        final TagId epc = new TagId();
+
         public void onLocationReported(ImpinjReader reader, LocationReport report) {
             // Collect tags read from the last location report
-            LocTags.put(report.getEpc().toHexString(), report);
+            LocTags.put(epc.set(report.getEpc()), report);
             // Comment out next line to see L every time a tag is reported
             // System.out.print("L");
         }
     }
 
     public class TagReportListenerImplementation implements TagReportListener {
+        final TagId epc = new TagId();
+
         public void onTagReported(ImpinjReader reader, TagReport report) {
             List<Tag> tags = report.getTags();
             for (Tag t : tags) {
                 // Collect tags read and their counts per inventory round
-                WamTags.put(t.getEpc().toHexString(), t);
+                WamTags.put(epc.set(t.getEpc()), t);
                 // Comment out next line to see W every time a tag is reported
                 // System.out.print("W");
             }
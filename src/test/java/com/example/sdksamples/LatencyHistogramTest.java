@@ -0,0 +1,74 @@
+package com.example.sdksamples;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void keepsSmallValuesExact() {
+        for (long v = 0; v < 128; v++) {
+            assertEquals(v, LatencyHistogram.highestValueAt(LatencyHistogram.indexOf(v)));
+        }
+    }
+
+    @Test
+    public void bucketsWithinOneSixtyFourth() {
+        Random random = new Random(3);
+        for (int i = 0; i < 100000; i++) {
+            long v = random.nextLong() >>> (1 + random.nextInt(63));
+            int index = LatencyHistogram.indexOf(v);
+            assertTrue(index >= 0 && index < LatencyHistogram.BUCKETS);
+
+            long highest = LatencyHistogram.highestValueAt(index);
+            assertTrue(v + " above its bucket", highest >= v);
+            assertTrue(v + " in a bucket up to " + highest, highest - v <= v / 64);
+            assertEquals(index, LatencyHistogram.indexOf(highest));
+        }
+    }
+
+    @Test
+    public void bucketsFollowEachOther() {
+        for (int index = 1; index < LatencyHistogram.BUCKETS; index++) {
+            long lowest = LatencyHistogram.highestValueAt(index - 1) + 1;
+            assertEquals(index, LatencyHistogram.indexOf(lowest));
+        }
+        assertEquals(Long.MAX_VALUE,
+                LatencyHistogram.highestValueAt(LatencyHistogram.BUCKETS - 1));
+    }
+
+    @Test
+    public void reportsPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] values = new long[10000];
+        Random random = new Random(5);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1000 + random.nextInt(1000000);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram.Snapshot();
+        histogram.drainInto(snapshot);
+        assertEquals(values.length, snapshot.getCount());
+        assertEquals(values[values.length - 1], snapshot.getMax());
+        for (double p : new double[]{50, 90, 99, 99.9}) {
+            long exact = values[(int) Math.ceil(values.length * p / 100) - 1];
+            long reported = snapshot.valueAtPercentile(p);
+            assertTrue(p + "th percentile " + reported + " for " + exact,
+                    reported >= exact && reported - exact <= exact / 64);
+        }
+        assertEquals(snapshot.getMax(), snapshot.valueAtPercentile(100));
+
+        // drained, so the next snapshot starts from nothing
+        LatencyHistogram.Snapshot next = new LatencyHistogram.Snapshot();
+        histogram.drainInto(next);
+        assertEquals(0, next.getCount());
+        assertEquals(0, next.valueAtPercentile(50));
+    }
+}
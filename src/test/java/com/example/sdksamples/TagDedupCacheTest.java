@@ -0,0 +1,75 @@
+package com.example.sdksamples;
+
+import org.junit.Test;
+
+import static com.example.sdksamples.TagIdMapTest.id;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TagDedupCacheTest {
+
+    @Test
+    public void reportsATagOncePerTtl() {
+        TagDedupCache cache = new TagDedupCache(10, 1000);
+        assertTrue(cache.firstSighting(id(1), 0));
+        assertFalse(cache.firstSighting(id(1), 999));
+        assertTrue(cache.contains(id(1), 999));
+
+        // expired, reported again and the TTL starts over
+        assertFalse(cache.contains(id(1), 1000));
+        assertTrue(cache.firstSighting(id(1), 1000));
+        assertFalse(cache.firstSighting(id(1), 1999));
+        assertTrue(cache.firstSighting(id(1), 2000));
+        assertEquals(2, cache.getExpirations());
+        assertEquals(0, cache.getEvictions());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void evictsTheLeastRecentlySeenTag() {
+        TagDedupCache cache = new TagDedupCache(3, 1000);
+        assertTrue(cache.firstSighting(id(1), 0));
+        assertTrue(cache.firstSighting(id(2), 0));
+        assertTrue(cache.firstSighting(id(3), 0));
+
+        // seeing 1 again makes 2 the oldest
+        assertFalse(cache.firstSighting(id(1), 1));
+        assertTrue(cache.firstSighting(id(4), 2));
+        assertEquals(1, cache.getEvictions());
+        assertEquals(3, cache.size());
+        assertFalse(cache.contains(id(2), 2));
+        assertTrue(cache.contains(id(1), 2));
+        assertTrue(cache.contains(id(3), 2));
+
+        assertTrue(cache.firstSighting(id(2), 3));
+        assertFalse(cache.contains(id(3), 3));
+        assertEquals(2, cache.getEvictions());
+        assertEquals(0, cache.getExpirations());
+    }
+
+    @Test
+    public void keepsUpWithManyTags() {
+        TagDedupCache cache = new TagDedupCache(1000, 60000);
+        for (int tag = 0; tag < 5000; tag++) {
+            assertTrue(cache.firstSighting(id(tag), tag));
+        }
+        assertEquals(1000, cache.size());
+        assertEquals(4000, cache.getEvictions());
+        for (int tag = 4000; tag < 5000; tag++) {
+            assertFalse(cache.firstSighting(id(tag), 5000));
+        }
+        for (int tag = 0; tag < 4000; tag++) {
+            assertFalse(cache.contains(id(tag), 5000));
+        }
+    }
+
+    @Test
+    public void clearForgetsEveryTag() {
+        TagDedupCache cache = new TagDedupCache(10, 1000);
+        cache.firstSighting(id(1), 0);
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertTrue(cache.firstSighting(id(1), 1));
+    }
+}
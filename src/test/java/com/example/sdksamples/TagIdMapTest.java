@@ -0,0 +1,60 @@
+package com.example.sdksamples;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TagIdMapTest {
+
+    @Test
+    public void removesWithoutLosingCollidingKeys() {
+        // a small map keeps the probe chains long
+        TagIdMap<Integer> map = new TagIdMap<Integer>(4);
+        Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+        Random random = new Random(17);
+
+        for (int i = 0; i < 200000; i++) {
+            int tag = random.nextInt(300);
+            TagId key = id(tag);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(tag), map.remove(key));
+            } else {
+                assertEquals(expected.put(tag, i), map.put(key, i));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+
+        for (int tag = 0; tag < 300; tag++) {
+            assertEquals(expected.get(tag), map.get(id(tag)));
+            assertEquals(expected.containsKey(tag), map.containsKey(id(tag)));
+        }
+        assertEquals(expected.size(), map.values().size());
+    }
+
+    @Test
+    public void removesEverything() {
+        TagIdMap<String> map = new TagIdMap<String>();
+        for (int tag = 0; tag < 1000; tag++) {
+            map.put(id(tag), "tag " + tag);
+        }
+        for (int tag = 0; tag < 1000; tag++) {
+            assertEquals("tag " + tag, map.remove(id(tag)));
+            assertNull(map.remove(id(tag)));
+        }
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey(id(0)));
+    }
+
+    static TagId id(long tag) {
+        short[] words = {(short) 0xE280, (short) 0x1160, (short) 0x6000,
+                (short) (tag >>> 32), (short) (tag >>> 16), (short) tag};
+        return new TagId().set(words, words.length);
+    }
+}
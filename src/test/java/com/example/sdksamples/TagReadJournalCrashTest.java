@@ -0,0 +1,167 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.ImpinjReader;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that {@link TagReadJournal} picks up after a crash where it left
+ * off. A journal is abandoned without closing it, a record of its segment
+ * is damaged the way a partly written page would leave it, and the journal
+ * is opened again; it must continue after the last intact record before the
+ * damage, and on the next open must not take the older records still
+ * beyond the new ones for its own.
+ */
+public class TagReadJournalCrashTest {
+
+    private static final long BASE_US = 1000000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File dir;
+    private File segment;
+    private ImpinjReader reader;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = folder.newFolder("journal");
+        segment = TagReadJournal.segmentFile(dir, 0);
+        reader = new ImpinjReader();
+        reader.setName("Reader_crash");
+    }
+
+    @Test
+    public void continuesBeforeATornRecord() throws IOException {
+        append(open(), 0, 1000);
+        tear(positions().get(500));
+
+        open();
+        assertEquals(range(0, 500), numbers());
+    }
+
+    @Test
+    public void ignoresOlderRecordsBehindNewOnes() throws IOException {
+        append(open(), 0, 1000);
+        tear(positions().get(500));
+
+        // records 510 to 999 are still intact behind the new ones
+        append(open(), 1000, 10);
+        open();
+        List<Long> expected = range(0, 500);
+        expected.addAll(range(1000, 10));
+        assertEquals(expected, numbers());
+    }
+
+    @Test
+    public void dropsATornLastRecord() throws IOException {
+        append(open(), 0, 1000);
+        List<Integer> positions = positions();
+        tear(positions.get(positions.size() - 1));
+
+        open();
+        assertEquals(range(0, 999), numbers());
+    }
+
+    @Test
+    public void stopsAtADamagedRecordLength() throws IOException {
+        append(open(), 0, 1000);
+
+        // a length that takes in the records after it
+        RandomAccessFile raf = new RandomAccessFile(segment, "rw");
+        try {
+            raf.seek(positions().get(100));
+            raf.writeShort(TagReadCodec.MAX_SIZE);
+        } finally {
+            raf.close();
+        }
+        open();
+        assertEquals(range(0, 100), numbers());
+    }
+
+    @Test
+    public void keepsEverythingAfterACleanClose() throws IOException {
+        append(open(), 0, 1000);
+        tear(positions().get(500));
+
+        TagReadJournal journal = open();
+        append(journal, 3000, 50);
+        journal.close();
+        open().close();
+        List<Long> expected = range(0, 500);
+        expected.addAll(range(3000, 50));
+        assertEquals(expected, numbers());
+    }
+
+    private TagReadJournal open() throws IOException {
+        // an abandoned journal stands in for a process that crashed
+        return new TagReadJournal(dir, 4 * 1024 * 1024, 1000, 1000, 100);
+    }
+
+    // appends reads whose last seen time is BASE_US plus their number
+    private void append(TagReadJournal journal, int first, int count) throws IOException {
+        TagRead read = new TagRead();
+        for (int i = first; i < first + count; i++) {
+            SyntheticTagReads.fill(read, reader, i, BASE_US + i);
+            journal.append(read);
+        }
+        journal.sync();
+    }
+
+    private List<Integer> positions() throws IOException {
+        final List<Integer> positions = new ArrayList<Integer>();
+        TagReadJournalReader.readSegment(segment, new TagReadJournalReader.Visitor() {
+            @Override
+            public boolean onRecord(TagRead read, int readerId, long segment,
+                                    int position) {
+                positions.add(position);
+                return true;
+            }
+        });
+        return positions;
+    }
+
+    // the numbers of the reads in the journal, in order
+    private List<Long> numbers() throws IOException {
+        final List<Long> numbers = new ArrayList<Long>();
+        new TagReadJournalReader(dir).readAll(new TagReadJournalReader.Visitor() {
+            @Override
+            public boolean onRecord(TagRead read, int readerId, long segment,
+                                    int position) {
+                numbers.add(read.lastSeenUs - BASE_US);
+                return true;
+            }
+        });
+        return numbers;
+    }
+
+    private static List<Long> range(long first, int count) {
+        List<Long> numbers = new ArrayList<Long>();
+        for (long i = first; i < first + count; i++) {
+            numbers.add(i);
+        }
+        return numbers;
+    }
+
+    // overwrites part of a record after its length, as a crash partway
+    // through writing its page would
+    private void tear(int position) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(segment, "rw");
+        try {
+            raf.seek(position + 24);
+            raf.writeLong(0x5a5a5a5a5a5a5a5aL);
+        } finally {
+            raf.close();
+        }
+    }
+}
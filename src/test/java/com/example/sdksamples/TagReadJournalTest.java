@@ -0,0 +1,93 @@
+package com.example.sdksamples;
+
+import com.impinj.octane.ImpinjReader;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Reads a journal spread over several segments back and checks the indexed
+ * lookups of {@link TagReadJournalQuery} against plain counting.
+ */
+public class TagReadJournalTest {
+
+    private static final long BASE_US = 1000000;
+    private static final int READS = 20000;
+    private static final int TAGS = 500;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = folder.newFolder("journal");
+        ImpinjReader reader = new ImpinjReader();
+        reader.setName("Reader_journal");
+
+        // small segments so the reads span several of them
+        TagReadJournal journal = new TagReadJournal(dir, 256 * 1024, 1000, 1000, 64);
+        TagRead read = new TagRead();
+        for (int i = 0; i < READS; i++) {
+            SyntheticTagReads.fill(read, reader, i % TAGS, BASE_US + i);
+            journal.append(read);
+        }
+        journal.close();
+    }
+
+    @Test
+    public void readsBackEveryRecord() throws IOException {
+        assertTrue(TagReadJournalReader.segments(dir).length > 1);
+
+        final long[] next = {0};
+        long count = new TagReadJournalReader(dir).readAll(new TagReadJournalReader.Visitor() {
+            @Override
+            public boolean onRecord(TagRead read, int readerId, long segment,
+                                    int position) {
+                assertEquals(BASE_US + next[0], read.lastSeenUs);
+                next[0]++;
+                return true;
+            }
+        });
+        assertEquals(READS, count);
+        assertEquals(READS, next[0]);
+    }
+
+    @Test
+    public void findsTheReadsOfATag() throws IOException {
+        TagReadJournalQuery query = new TagReadJournalQuery(dir);
+        TagRead read = new TagRead();
+        SyntheticTagReads.fill(read, null, 42, 0);
+        TagId epc = new TagId().set(read.epc, read.epcWords);
+
+        assertEquals(READS / TAGS, query.findTag(epc, 0, Long.MAX_VALUE, counter()));
+        // reads 5000 to 9999 hold ten sightings of every tag
+        assertEquals(10, query.findTag(epc, BASE_US + 5000, BASE_US + 9999, counter()));
+    }
+
+    @Test
+    public void findsTheReadsInARange() throws IOException {
+        TagReadJournalQuery query = new TagReadJournalQuery(dir);
+        assertEquals(READS, query.findRange(0, Long.MAX_VALUE, counter()));
+        assertEquals(1001, query.findRange(BASE_US + 3000, BASE_US + 4000, counter()));
+        assertEquals(0, query.findRange(BASE_US + READS, Long.MAX_VALUE, counter()));
+    }
+
+    private static TagReadJournalReader.Visitor counter() {
+        return new TagReadJournalReader.Visitor() {
+            @Override
+            public boolean onRecord(TagRead read, int readerId, long segment,
+                                    int position) {
+                return true;
+            }
+        };
+    }
+}